@@ -1,7 +1,5 @@
 package com.pink.pfa.config.scheduling;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Async;
@@ -9,15 +7,12 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.pink.pfa.exceptions.NoAdoptionSitesException;
-import com.pink.pfa.models.AdoptionSite;
-import com.pink.pfa.models.Pet;
+import com.pink.pfa.exceptions.ScrapeAlreadyRunningException;
+import com.pink.pfa.models.datatransfer.ScrapeSummary;
 import com.pink.pfa.services.AdoptionSiteService;
 import com.pink.pfa.services.DatabaseBackupService;
 import com.pink.pfa.services.FeaturedPetService;
-import com.pink.pfa.services.PetService;
-import com.pink.pfa.services.WebScraperService;
-
-import jakarta.persistence.NoResultException;
+import com.pink.pfa.services.ScrapeSyncPipeline;
 
 
 /**
@@ -27,8 +22,8 @@ import jakarta.persistence.NoResultException;
  * <ol>
  *   <li>Takes a pre-scrape database backup as a safety snapshot.</li>
  *   <li>Fetches all approved adoption sites.</li>
- *   <li>Runs the web scraper against each site to collect current pet listings.</li>
- *   <li>Syncs the scraped pets to the database via {@link PetService}.</li>
+ *   <li>Scrapes each site and syncs its pets to the database as soon as it finishes, via
+ *       {@link ScrapeSyncPipeline}.</li>
  *   <li>Takes a post-scrape database backup to capture the updated state.</li>
  * </ol>
  * <p>
@@ -38,21 +33,18 @@ import jakarta.persistence.NoResultException;
 @Component
 public class WebScraperScheduler {
     
-    private final WebScraperService webScraperService;
-    private final PetService petService;
+    private final ScrapeSyncPipeline scrapeSyncPipeline;
     private final DatabaseBackupService databaseBackupService;
     private final AdoptionSiteService adoptionSiteService;
     private final FeaturedPetService featuredPetService;
     
     public WebScraperScheduler(
-        WebScraperService webScraperService,
-        PetService petService,
+        ScrapeSyncPipeline scrapeSyncPipeline,
         DatabaseBackupService databaseBackupService,
         AdoptionSiteService adoptionSiteService,
         FeaturedPetService featuredPetService
     ) {
-        this.webScraperService = webScraperService;
-        this.petService = petService;
+        this.scrapeSyncPipeline = scrapeSyncPipeline;
         this.databaseBackupService = databaseBackupService;
         this.adoptionSiteService = adoptionSiteService;
         this.featuredPetService = featuredPetService;
@@ -66,8 +58,8 @@ public class WebScraperScheduler {
      * Runs the nightly pet data pipeline at 2:00 AM every day.
      * <p>
      * Scrapes all approved adoption sites and syncs the results to the database,
-     * bracketed by pre- and post-scrape backups. Failures during scraping or syncing
-     * are caught and logged without halting the post-scrape backup.
+     * bracketed by pre- and post-scrape backups. A site that fails to scrape or sync is
+     * logged and skipped without halting the other sites or the post-scrape backup.
      */
     @Async
     @Scheduled(cron = "0 0 2 * * *")
@@ -75,19 +67,22 @@ public class WebScraperScheduler {
         databaseBackupService.backup("pre_scrape");
 
         try {
-            // run the webScraperService and extract the list of pet objects
-            List<AdoptionSite> sites = adoptionSiteService.findAllForScrape();
-            List<Pet> pets = webScraperService.runScraper(sites);
-            petService.sync(pets);
+            // scrape every site, syncing each one as soon as its pets are in
+            ScrapeSummary summary = scrapeSyncPipeline.run(adoptionSiteService.findAllForScrape());
+            summary.sites().stream()
+                .filter(site -> !site.succeeded())
+                .forEach(site -> log.error("Scheduler Failed to Update {}: {}", site.url(), site.error()));
+            if (summary.succeeded() == 0) {
+                log.error("Scheduler Failed to Get Data From WebScraperService");
+            }
 
-        // gets thrown in webScraperService.runScraper()
+        // gets thrown in adoptionSiteService.findAllForScrape()
         } catch (NoAdoptionSitesException e) {
             log.error("There are no AdoptionSites approved for scrape in the database");
-        } catch (NoResultException e) {
-            log.error("Scheduler Failed to Get Data From WebScraperService");
-        // gets thrown in petService.sync()
-        } catch (IllegalArgumentException e) {
-            log.error("Scheduler Failed to Sync Data Gathered From Scrape to the DataBase");
+        } catch (ScrapeAlreadyRunningException e) {
+            log.warn("Skipping the nightly scrape, a scrape started earlier is still running");
+        } catch (IllegalStateException e) {
+            log.error("Scheduler Failed to Finish the Scrape", e);
         }
 
         databaseBackupService.backup("post_scrape");
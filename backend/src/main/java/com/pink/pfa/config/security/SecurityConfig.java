@@ -103,8 +103,8 @@ public class SecurityConfig {
             "https://adoptpetsforall.com"
         ));
         config.setAllowedMethods(List.of("GET","POST","PUT","DELETE","OPTIONS","PATCH"));
-        config.setAllowedHeaders(List.of("Authorization","Content-Type"));
-        config.setExposedHeaders(List.of("Authorization"));
+        config.setAllowedHeaders(List.of("Authorization","Content-Type","If-None-Match"));
+        config.setExposedHeaders(List.of("Authorization", "X-Next-Cursor", "ETag"));
         // uncomment if we want to use cookies/session auth
         // config.setAllowCredentials(true);
 
@@ -1,24 +1,43 @@
 package com.pink.pfa.controllers;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.pink.pfa.controllers.requests.PetFilterRequest;
 import com.pink.pfa.controllers.requests.PetRequest;
 import com.pink.pfa.exceptions.ResourceNotFoundException;
 import com.pink.pfa.exceptions.SiteAlreadyExistsException;
+import com.pink.pfa.models.datatransfer.PetChange;
+import com.pink.pfa.models.datatransfer.PetChangePage;
 import com.pink.pfa.models.datatransfer.PetDTO;
+import com.pink.pfa.models.datatransfer.PetPage;
+import com.pink.pfa.repos.PetSort;
+import com.pink.pfa.services.PetExportService;
 import com.pink.pfa.services.PetService;
 import com.pink.pfa.services.UserService;
+import com.pink.pfa.services.catalog.CatalogResponseCache;
+import com.pink.pfa.services.catalog.CatalogResponseCache.CachedResponse;
+import com.pink.pfa.services.geo.GeoPoint;
+import com.pink.pfa.services.geo.GeoRadius;
+import com.pink.pfa.services.geo.GeocodingService;
 
 /**
  * REST controller exposing the {@code /api/pets} API surface for the Pets for All platform.
@@ -41,24 +60,67 @@ import com.pink.pfa.services.UserService;
 @RestController
 @RequestMapping("/api/pets")
 public class PetController {
+    /** Response header carrying the cursor of the next page of a paginated listing. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /** Media type of the {@code /export} stream. */
+    public static final String EXPORT_MEDIA_TYPE = "application/x-ndjson";
+    /**
+     * Response header of distance searches carrying how many pets matched the other filters but
+     * were left out because their location is unknown.
+     */
+    public static final String UNLOCATED_HEADER = "X-Unlocated-Pets";
+    /** Value of {@code sort} that orders pets by distance from the search origin. */
+    public static final String DISTANCE_SORT = "distance";
 
     @Autowired private PetService petService;
     @Autowired private UserService userService;
+    @Autowired private CatalogResponseCache responseCache;
+    @Autowired private PetExportService exportService;
+    @Autowired private GeocodingService geocoding;
 
     /**
-     * Returns all pets currently stored in the database, along with a UTC timestamp.
+     * Returns all pets currently stored in the database.
+     * <p>
+     * Served from {@link CatalogResponseCache}: supports {@code If-None-Match} (304) and
+     * {@code Accept-Encoding: gzip}.
      *
-     * @return a map containing a {@code Pets} list and a {@code Timestamp} string
+     * @return the JSON list of every pet
      */
     @GetMapping("/getAll")
-    public ResponseEntity<List<PetDTO>> getAllPets() {
+    public ResponseEntity<byte[]> getAllPets(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
         try {
-            return ResponseEntity.ok().body(petService.findAll());
+            return cachedResponse(responseCache.get("pets/all", petService::findAll), ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Returns the active pets matching the given filters.
+     * <p>
+     * Without a {@code limit} every match is returned. With a {@code limit}, results are paginated
+     * and the cursor for the next page (if any) is returned in the {@value #NEXT_CURSOR_HEADER}
+     * response header; pass it back as {@code cursor} together with the same filters and sort.
+     * <p>
+     * Distance searches are measured from {@code lat}/{@code lon}, else from the place named by
+     * {@code near}, else from the location on the signed-in user's profile. Pets whose location is
+     * unknown are left out of them; the {@value #UNLOCATED_HEADER} response header says how many
+     * pets matching the other filters that was.
+     *
+     * @param near place name to search around, e.g. {@code "Austin, TX"}
+     * @param lat latitude to search around, together with {@code lon}
+     * @param lon longitude to search around, together with {@code lat}
+     * @param radius only return pets within this many miles of the origin
+     * @param sort one of {@code newest} (default), {@code age}, {@code age_desc}, {@code price},
+     *        {@code price_desc}, or {@value #DISTANCE_SORT} (nearest first)
+     * @param cursor opaque cursor from a previous page
+     * @param limit maximum number of pets to return
+     * @return the matching pets, 404 if the first page is empty, or 400 for an invalid sort,
+     *         cursor or location, or a distance search without an origin
+     */
     @GetMapping("/getFiltered")
     public ResponseEntity<List<PetDTO>> getFilteredPets(
         @RequestParam(required = false) String petType,
@@ -68,26 +130,229 @@ public class PetController {
         @RequestParam(required = false) String breed,
         @RequestParam(required = false) String size,
         @RequestParam(required = false) Boolean filterPrefs,
-        @RequestParam(required = false) Integer userId
+        @RequestParam(required = false) Integer userId,
+        @RequestParam(required = false) String near,
+        @RequestParam(required = false) Double lat,
+        @RequestParam(required = false) Double lon,
+        @RequestParam(required = false) Double radius,
+        @RequestParam(required = false) String sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
     ) {
         try {
-            return ResponseEntity.ok().body(petService.findByFilter(petType, gender, startAge, endAge, breed, size, filterPrefs, userId));
+            boolean byDistance = sort != null && sort.trim().equalsIgnoreCase(DISTANCE_SORT);
+            GeoPoint origin = null;
+            if (byDistance || radius != null) {
+                origin = geocoding.resolveOrigin(near, lat, lon)
+                    .orElseThrow(() -> new IllegalArgumentException("A distance search needs near, lat/lon or a signed-in user's location"));
+            }
+
+            PetFilterRequest filter = new PetFilterRequest(petType, gender, startAge, endAge, breed, size,
+                radius == null ? null : new GeoRadius(origin, radius));
+            PetPage page = byDistance
+                ? petService.findNearest(filter, origin, cursor, limit)
+                : petService.findByFilter(filter, PetSort.fromParam(sort), cursor, limit, filterPrefs, userId);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            if (origin != null) {
+                response.header(UNLOCATED_HEADER, String.valueOf(petService.countUnlocated(filter)));
+            }
+            return response.body(page.pets());
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Returns the number of active pets per pet type, breed, size and gender among those matching
+     * the given filters, for labels such as "Dog (412)".
+     * <p>
+     * Served from {@link CatalogResponseCache} per filter combination until the next catalog
+     * change: supports {@code If-None-Match} (304) and {@code Accept-Encoding: gzip}.
+     *
+     * @param near place name to search around, e.g. {@code "Austin, TX"}
+     * @param lat latitude to search around, together with {@code lon}
+     * @param lon longitude to search around, together with {@code lat}
+     * @param radius only count pets within this many miles of the origin; the
+     *        {@value #UNLOCATED_HEADER} response header then says how many pets were not counted
+     *        because their location is unknown
+     * @return the facet counts, or 400 for a radius without a usable origin
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<byte[]> getFacets(
+        @RequestParam(required = false) String petType,
+        @RequestParam(required = false) String gender,
+        @RequestParam(required = false) Integer startAge,
+        @RequestParam(required = false) Integer endAge,
+        @RequestParam(required = false) String breed,
+        @RequestParam(required = false) String size,
+        @RequestParam(required = false) String near,
+        @RequestParam(required = false) Double lat,
+        @RequestParam(required = false) Double lon,
+        @RequestParam(required = false) Double radius,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        try {
+            GeoRadius circle = null;
+            if (radius != null) {
+                GeoPoint origin = geocoding.resolveOrigin(near, lat, lon)
+                    .orElseThrow(() -> new IllegalArgumentException("A radius needs near, lat/lon or a signed-in user's location"));
+                circle = new GeoRadius(origin, radius);
+            }
+
+            PetFilterRequest filter = new PetFilterRequest(petType, gender, startAge, endAge, breed, size, circle);
+            HttpHeaders headers = new HttpHeaders();
+            if (circle != null) {
+                headers.set(UNLOCATED_HEADER, String.valueOf(petService.countUnlocated(filter)));
+            }
+            return cachedResponse(responseCache.get("pets/facets" + filter, () -> petService.facets(filter)),
+                ifNoneMatch, acceptEncoding, headers);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     /**
-     * Returns a list of active pets, along with a UTC timestamp.
+     * Searches active pets by name, breed, type and location, most relevant first. Prefixes and
+     * single typos match too.
+     * <p>
+     * Results are paginated; the cursor for the next page (if any) is returned in the
+     * {@value #NEXT_CURSOR_HEADER} response header, pass it back as {@code cursor} with the same query.
      *
-     * @return a map containing the matched list of {@code Pets} and a {@code Timestamp} string
+     * @param q free-text query
+     * @param cursor opaque cursor from a previous page
+     * @param limit maximum number of pets to return (default {@value PetService#DEFAULT_SEARCH_PAGE_SIZE})
+     * @return the matching pets, 404 if nothing matches, or 400 for a blank query or invalid cursor
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PetDTO>> searchPets(
+        @RequestParam String q,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            PetPage page = petService.search(q, cursor, limit);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.pets());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Returns the pet change feed: pets added, updated or deactivated after {@code cursor},
+     * oldest first, each with the pet's current data, so clients can apply deltas instead of
+     * reloading the catalog.
+     * <p>
+     * The cursor for the following changes is always returned in the {@value #NEXT_CURSOR_HEADER}
+     * response header; pass it back as {@code cursor} to continue, or later to poll for new
+     * changes. A page shorter than {@code limit} means the feed has been read to its end.
+     *
+     * @param cursor cursor from a previous page; omit it to read the feed from the beginning
+     * @param limit maximum number of changes to return (default {@value PetService#DEFAULT_CHANGES_PAGE_SIZE})
+     * @return the changes, or 400 for a malformed cursor
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<List<PetChange>> getChanges(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            PetChangePage page = petService.changes(cursor, limit);
+            return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, page.nextCursor())
+                .cacheControl(CacheControl.noStore())
+                .body(page.changes());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Streams the pets matching the given filters as newline-delimited JSON, one pet per line in
+     * ascending id order.
+     * <p>
+     * Rows are read from the database and written to the client as they arrive, so memory use
+     * stays flat however large the catalog is. A {@code radius} is measured from the same origins
+     * as in {@link #getFilteredPets}; pets whose location is unknown are left out.
+     *
+     * @param near place name to search around, e.g. {@code "Austin, TX"}
+     * @param lat latitude to search around, together with {@code lon}
+     * @param lon longitude to search around, together with {@code lat}
+     * @param radius only export pets within this many miles of the origin
+     * @param since only pets created on or after this date ({@code yyyy-MM-dd})
+     * @param includeInactive also export pets their site no longer lists (default {@code false})
+     * @return the NDJSON stream, or 400 for a malformed date or a radius without a usable origin
+     */
+    @GetMapping(value = "/export", produces = EXPORT_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportPets(
+        @RequestParam(required = false) String petType,
+        @RequestParam(required = false) String gender,
+        @RequestParam(required = false) Integer startAge,
+        @RequestParam(required = false) Integer endAge,
+        @RequestParam(required = false) String breed,
+        @RequestParam(required = false) String size,
+        @RequestParam(required = false) String near,
+        @RequestParam(required = false) Double lat,
+        @RequestParam(required = false) Double lon,
+        @RequestParam(required = false) Double radius,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since,
+        @RequestParam(defaultValue = "false") boolean includeInactive
+    ) {
+        GeoRadius circle = null;
+        if (radius != null) {
+            try {
+                GeoPoint origin = geocoding.resolveOrigin(near, lat, lon)
+                    .orElseThrow(() -> new IllegalArgumentException("A radius needs near, lat/lon or a signed-in user's location"));
+                circle = new GeoRadius(origin, radius);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        PetFilterRequest filter = new PetFilterRequest(petType, gender, startAge, endAge, breed, size, circle);
+        StreamingResponseBody body = out -> exportService.export(filter, since, includeInactive, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(EXPORT_MEDIA_TYPE))
+            .cacheControl(CacheControl.noStore())
+            .body(body);
+    }
+
+    /**
+     * Returns a list of active pets.
+     * <p>
+     * Served from {@link CatalogResponseCache}: supports {@code If-None-Match} (304) and
+     * {@code Accept-Encoding: gzip}.
+     *
+     * @return the JSON list of active pets
      */
     @GetMapping("/getActive")
-    public ResponseEntity<List<PetDTO>> getActivePets() {
+    public ResponseEntity<byte[]> getActivePets(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
         try {
-            return ResponseEntity.ok().body(petService.findAllActive());
+            return cachedResponse(responseCache.get("pets/active", petService::findAllActive), ifNoneMatch, acceptEncoding);
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -127,4 +392,32 @@ public class PetController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    // Answers from pre-serialized bytes: 304 if the client's copy is current, gzip if accepted
+    private ResponseEntity<byte[]> cachedResponse(CachedResponse cached, String ifNoneMatch, String acceptEncoding) {
+        return cachedResponse(cached, ifNoneMatch, acceptEncoding, new HttpHeaders());
+    }
+
+    private ResponseEntity<byte[]> cachedResponse(CachedResponse cached, String ifNoneMatch, String acceptEncoding,
+        HttpHeaders headers
+    ) {
+        if (cached.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .headers(headers)
+                .eTag(cached.etag())
+                .cacheControl(CacheControl.noCache())
+                .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .headers(headers)
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(cached.etag())
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzipped());
+        }
+        return response.body(cached.json());
+    }
 }
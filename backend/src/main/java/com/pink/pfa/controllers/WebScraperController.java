@@ -2,6 +2,7 @@ package com.pink.pfa.controllers;
 
 import java.util.List;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -12,12 +13,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.pink.pfa.exceptions.NoAdoptionSitesException;
+import com.pink.pfa.exceptions.ScrapeAlreadyRunningException;
 import com.pink.pfa.models.AdoptionSite;
-import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.datatransfer.ScrapeSummary;
 import com.pink.pfa.services.AdoptionSiteService;
 import com.pink.pfa.services.DatabaseBackupService;
 import com.pink.pfa.services.PetService;
-import com.pink.pfa.services.WebScraperService;
+import com.pink.pfa.services.ScrapeSyncPipeline;
+import com.pink.pfa.services.SyncMetrics;
+import com.pink.pfa.services.WebDriverPool;
 
 @EnableMethodSecurity
 @RestController
@@ -26,21 +30,24 @@ public class WebScraperController {
 
     private static final Logger log = LoggerFactory.getLogger(PetService.class);
 
-    private final PetService petService;
-    private final WebScraperService webScraperService;
+    private final ScrapeSyncPipeline scrapeSyncPipeline;
     private final DatabaseBackupService databaseBackupService;
     private final AdoptionSiteService adoptionSiteService;
+    private final SyncMetrics syncMetrics;
+    private final WebDriverPool webDriverPool;
 
     public WebScraperController (
-        PetService petService,
-        WebScraperService webScraperService, 
+        ScrapeSyncPipeline scrapeSyncPipeline,
         DatabaseBackupService databaseBackupService,
-        AdoptionSiteService adoptionSiteService
+        AdoptionSiteService adoptionSiteService,
+        SyncMetrics syncMetrics,
+        WebDriverPool webDriverPool
     ) {
-        this.petService = petService;
-        this.webScraperService = webScraperService;
+        this.scrapeSyncPipeline = scrapeSyncPipeline;
         this.databaseBackupService = databaseBackupService;
         this.adoptionSiteService = adoptionSiteService;
+        this.syncMetrics = syncMetrics;
+        this.webDriverPool = webDriverPool;
     }
 
     /**
@@ -52,20 +59,46 @@ public class WebScraperController {
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping(value = "/scrape")
     public ResponseEntity<String> scrapeForPets() {
+        if (scrapeSyncPipeline.isRunning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A scrape is already running");
+        }
         try {
             List<AdoptionSite> sites = adoptionSiteService.findAllForScrape();
             databaseBackupService.backup("pre_scrape");
-            List<Pet> scrapedPets = webScraperService.runScraper(sites);
-            petService.sync(scrapedPets);
+            ScrapeSummary summary = scrapeSyncPipeline.run(sites);
             databaseBackupService.backup("post_scrape");
-            return ResponseEntity.ok("Scrape complete. Synced " + scrapedPets.size() + " pets.");
+            return ResponseEntity.ok("Scrape complete. " + summary + ".");
         } catch (NoAdoptionSitesException e) {
             log.error("Scrape failed", e);
             return ResponseEntity.internalServerError().body(e.getMessage());
+        } catch (ScrapeAlreadyRunningException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             log.error("Scrape failed", e);
             return ResponseEntity.internalServerError().body(e.getMessage());
         }
     }
-    
+
+    /**
+     * Returns the sizes and timings of the chunks the scrape sync has committed since startup.
+     *
+     * @return the chunk totals
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/syncMetrics")
+    public ResponseEntity<SyncMetrics.Snapshot> getSyncMetrics() {
+        return ResponseEntity.ok(syncMetrics.snapshot());
+    }
+
+    /**
+     * Returns how long scrape tasks have waited for a WebDriver session and how many sessions have
+     * been opened, recycled and discarded since startup.
+     *
+     * @return the session pool totals
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/sessionMetrics")
+    public ResponseEntity<WebDriverPool.Snapshot> getSessionMetrics() {
+        return ResponseEntity.ok(webDriverPool.snapshot());
+    }
 }
@@ -0,0 +1,42 @@
+package com.pink.pfa.controllers.requests;
+
+import com.pink.pfa.services.geo.GeoRadius;
+
+/**
+ * Immutable request model holding the optional filters accepted by the pet browser.
+ * <p>
+ * Every field is nullable; a {@code null} (or blank, for text fields) value means
+ * "do not filter on this attribute".
+ *
+ * @param petType  pet type to match exactly (e.g. {@code "Dog"})
+ * @param gender   gender code to match exactly (e.g. {@code "M"})
+ * @param startAge minimum age in weeks (inclusive)
+ * @param endAge   maximum age in weeks (inclusive)
+ * @param breed    case-insensitive substring of the breed
+ * @param size     size to match exactly (e.g. {@code "Medium"})
+ * @param radius   circle the pet's geocoded location must lie in; pets without coordinates never match
+ */
+public record PetFilterRequest(
+    String petType,
+    String gender,
+    Integer startAge,
+    Integer endAge,
+    String breed,
+    String size,
+    GeoRadius radius
+) {
+    /** Creates a filter without a radius. */
+    public PetFilterRequest(String petType, String gender, Integer startAge, Integer endAge, String breed, String size) {
+        this(petType, gender, startAge, endAge, breed, size, null);
+    }
+
+    /** @return the same filter without its radius */
+    public PetFilterRequest withoutRadius() {
+        return new PetFilterRequest(petType, gender, startAge, endAge, breed, size);
+    }
+
+    /** @return {@code true} if the breed filter should be applied */
+    public boolean hasBreed() {
+        return breed != null && !breed.isBlank();
+    }
+}
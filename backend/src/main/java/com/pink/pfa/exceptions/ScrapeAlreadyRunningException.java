@@ -0,0 +1,16 @@
+package com.pink.pfa.exceptions;
+
+/**
+ * Thrown when a scrape is started while another one is still running.
+ * <p>
+ * This is an unchecked exception intended to be thrown from
+ * {@link com.pink.pfa.services.ScrapeSyncPipeline} and caught at the controller layer
+ * to return an appropriate HTTP 409 (Conflict) response.
+ * </p>
+ */
+public class ScrapeAlreadyRunningException extends RuntimeException {
+
+    public ScrapeAlreadyRunningException() {
+        super("A scrape is already running");
+    }
+}
@@ -12,6 +12,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import lombok.Data;
 
+import org.hibernate.annotations.BatchSize;
+
 
 /**
  * JPA entity representing an adoption site record in the database.
@@ -28,6 +30,7 @@ import lombok.Data;
  */
 @Data
 @Entity
+@BatchSize(size = 50)
 public class AdoptionSite {
 	
 	
@@ -13,13 +13,20 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
+import org.hibernate.annotations.BatchSize;
+
 
 /**
  * JPA entity representing a pet record in the database.
@@ -43,10 +50,19 @@ import lombok.ToString;
  */
  @Data
  @Entity
+ @NamedEntityGraph(name = Pet.WITH_SITE_AND_IMAGES, attributeNodes = {
+    @NamedAttributeNode("site"),
+    @NamedAttributeNode("secondaryImages")
+ })
  @Table(uniqueConstraints = {
     @UniqueConstraint(columnNames = {"name", "breed", "pet_type"})
  })
  public class Pet {
+	/**
+	 * Fetch plan loading everything {@code PetDTO.fromEntity} reads in the same query.
+	 * Only usable on unpaginated queries, since it joins a collection.
+	 */
+	public static final String WITH_SITE_AND_IMAGES = "Pet.withSiteAndImages";
 	
 	
 	/** Primary key identifier for the pet (auto-generated). */
@@ -61,9 +77,13 @@ import lombok.ToString;
 	@JoinColumn(name = "site_id", nullable = false)
 	private AdoptionSite site;
 
-	/** One to many list of linked petImages. */
+	/**
+	 * One to many list of linked petImages. When not fetched up front, the images of up to
+	 * 200 loaded pets are initialized together in one query.
+	 */
 	@ToString.Exclude
     @EqualsAndHashCode.Exclude
+	@BatchSize(size = 200)
 	@OneToMany(mappedBy = "pet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private List<PetImage> secondaryImages = new ArrayList<>();
 	
@@ -122,6 +142,34 @@ import lombok.ToString;
 	private LocalDate createdAt;
 
 
+	/** Latitude geocoded from {@link #location}, or {@code null} if the place is unknown. */
+	@Column(name = "latitude", nullable = true)
+	private Double latitude;
+
+
+	/** Longitude geocoded from {@link #location}, or {@code null} if the place is unknown. */
+	@Column(name = "longitude", nullable = true)
+	private Double longitude;
+
+
+	/** Identity of the listing used by the scrape sync, see {@link PetFingerprint#naturalKey}. */
+	@Column(name = "natural_key", nullable = false)
+	private String naturalKey;
+
+
+	/** Hash of the scraper-owned fields as of the last sync, see {@link PetFingerprint#contentHash}. */
+	@Column(name = "content_hash", nullable = true)
+	private String contentHash;
+
+
+	/**
+	 * Set on a scraped pet whose detail page has not changed since it was last synced. Such a pet
+	 * only carries its site and {@link #naturalKey}; the sync keeps the stored pet as it is.
+	 */
+	@Transient
+	private boolean unchanged;
+
+
 	/** Default constructor required by JPA. */
 	public Pet() {
 	}
@@ -160,4 +208,24 @@ import lombok.ToString;
 		this.imgUrl = imgUrl;
 		this.createdAt = createdAt;
 	}
+
+
+	/** Derives {@link #naturalKey} for pets saved through JPA rather than the sync. */
+	@PrePersist
+	void deriveNaturalKey() {
+		if (naturalKey == null) {
+			naturalKey = PetFingerprint.naturalKey(this);
+		}
+	}
+
+
+	/**
+	 * Re-derives {@link #naturalKey} and clears {@link #contentHash} when a pet is changed through
+	 * JPA, so the next sync compares the scrape against the changed pet and rewrites it.
+	 */
+	@PreUpdate
+	void invalidateFingerprint() {
+		naturalKey = PetFingerprint.naturalKey(this);
+		contentHash = null;
+	}
  }
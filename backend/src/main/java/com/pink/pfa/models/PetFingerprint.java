@@ -0,0 +1,70 @@
+package com.pink.pfa.models;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+
+/**
+ * The two values the sync diffs pets by, stored on {@code pet} as {@code natural_key} and
+ * {@code content_hash}.
+ * <ul>
+ *   <li>The natural key identifies a listing: site, name, breed, pet type and gender, lower-cased
+ *       with runs of whitespace collapsed. Migration {@code V3.4} computes the same value in SQL.</li>
+ *   <li>The content hash is a SHA-256 over the fields the scraper owns (location, price, status,
+ *       age and secondary image URLs). Equal hashes mean the scrape has nothing to write.</li>
+ * </ul>
+ * {@link Pet} derives its natural key itself when saved through JPA; the content hash is only
+ * written by the sync.
+ */
+public final class PetFingerprint {
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final char SEPARATOR = '|';
+
+    private PetFingerprint() {}
+
+    /**
+     * @param pet a pet with its site set
+     * @return the pet's natural key
+     */
+    public static String naturalKey(Pet pet) {
+        return String.join(String.valueOf(SEPARATOR),
+            String.valueOf(pet.getSite().getSiteId()),
+            normalize(pet.getName()),
+            normalize(pet.getBreed()),
+            normalize(pet.getPetType()),
+            normalize(String.valueOf(pet.getGender()))
+        );
+    }
+
+    /**
+     * @param pet a pet
+     * @return hex SHA-256 of the pet's scraper-owned fields
+     */
+    public static String contentHash(Pet pet) {
+        StringBuilder content = new StringBuilder()
+            .append(pet.getLocation()).append(SEPARATOR)
+            .append(pet.getPrice()).append(SEPARATOR)
+            .append(pet.getPetStatus()).append(SEPARATOR)
+            .append(pet.getAge());
+        for (PetImage image : pet.getSecondaryImages()) {
+            content.append(SEPARATOR).append(image.getImageUrl());
+        }
+        return sha256(content.toString());
+    }
+
+    private static String normalize(String value) {
+        return SPACES.matcher(value.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -12,6 +12,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import lombok.Data;
 
 
@@ -56,6 +58,13 @@ public class UserPreferences {
 	@Column(name = "pref_value", nullable = false)
 	private String prefValue;
 
+	/**
+	 * Typed form of {@code AGE_MIN}/{@code AGE_MAX} values: the age in weeks, or {@code null}
+	 * for other traits and unparseable values. Kept in step with {@link #prefValue} on save.
+	 */
+	@Column(name = "pref_weeks", nullable = true)
+	private Integer prefWeeks;
+
 	/** The timestamp when the preference was created */
 	@Column(name = "created_at", nullable = false)
 	private LocalDate createAt = LocalDate.now();
@@ -74,5 +83,38 @@ public class UserPreferences {
 	public UserPreferences(Preference prefTrait, String prefValue) {
 		this.prefTrait = prefTrait;
 		this.prefValue = prefValue;
+		normalize();
+	}
+
+
+	/** Derives the typed columns from {@link #prefValue}. */
+	@PrePersist
+	@PreUpdate
+	void normalize() {
+		boolean isAge = prefTrait == Preference.AGE_MIN || prefTrait == Preference.AGE_MAX;
+		this.prefWeeks = isAge && prefValue != null ? parseAgeInWeeks(prefValue) : null;
+	}
+
+
+	/**
+	 * Parses an age preference such as {@code "3 Months"} into weeks.
+	 * A bare number or an unknown unit is taken as weeks.
+	 *
+	 * @param value the stored preference value
+	 * @return the age in weeks, or {@code null} if the value is not a number
+	 */
+	public static Integer parseAgeInWeeks(String value) {
+		String[] parts = value.trim().split("\\s+");
+		try {
+			int amount = Integer.parseInt(parts[0]);
+			String unit = parts.length > 1 ? parts[1] : "";
+			return switch (unit) {
+				case "Months" -> amount * 4;
+				case "Years" -> amount * 52;
+				default -> amount;
+			};
+		} catch (NumberFormatException e) {
+			return null;
+		}
 	}
 }
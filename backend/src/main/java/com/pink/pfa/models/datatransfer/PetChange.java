@@ -0,0 +1,41 @@
+package com.pink.pfa.models.datatransfer;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * One entry of the pet change feed ({@code /api/pets/changes}).
+ *
+ * @param changeId  position of the change in the feed, increasing in commit order
+ * @param type      what happened to the pet
+ * @param petId     the pet
+ * @param syncRunId the scrape sync that made the change, or {@code null} if it was made directly
+ * @param changedAt when the change was recorded
+ * @param pet       the pet as it is now, or {@code null} if it no longer exists
+ */
+public record PetChange(
+    long changeId,
+    Type type,
+    int petId,
+    String syncRunId,
+    LocalDateTime changedAt,
+    PetDTO pet
+) {
+    /** Kind of change recorded in the feed. */
+    public enum Type {
+        /** The pet was listed for the first time. */
+        ADDED,
+        /** The pet's listing changed, or a deactivated pet was listed again. */
+        UPDATED,
+        /** The pet's site no longer lists it. */
+        DEACTIVATED
+    }
+
+    /**
+     * @param pet the pet as it is now
+     * @return this change carrying {@code pet}
+     */
+    public PetChange withPet(PetDTO pet) {
+        return new PetChange(changeId, type, petId, syncRunId, changedAt, pet);
+    }
+}
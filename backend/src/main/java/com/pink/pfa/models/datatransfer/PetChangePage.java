@@ -0,0 +1,16 @@
+package com.pink.pfa.models.datatransfer;
+
+import java.util.List;
+
+
+/**
+ * One page of the pet change feed.
+ *
+ * @param changes    the changes after the requested cursor, oldest first
+ * @param nextCursor cursor to ask for the changes after this page; equal to the requested cursor
+ *                   when there were none, so it can be polled again later
+ */
+public record PetChangePage(
+    List<PetChange> changes,
+    String nextCursor
+) {}
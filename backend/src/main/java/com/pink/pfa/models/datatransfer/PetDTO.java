@@ -20,7 +20,7 @@ public record PetDTO(
         char gender,
         String pet_type,
         String location,
-        double price,
+        Double price,
         String pet_status,
         String img_url,
         List<String> secondary_images,
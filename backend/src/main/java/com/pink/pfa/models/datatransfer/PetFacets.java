@@ -0,0 +1,51 @@
+package com.pink.pfa.models.datatransfer;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Number of pets per pet type, breed, size and gender among the pets matching a filter, for
+ * labels such as "Dog (412)".
+ * <p>
+ * Values are grouped ignoring case. Each list is ordered by descending count, then by value.
+ *
+ * @param total    number of pets matching the filter
+ * @param petTypes count per pet type
+ * @param breeds   count per breed
+ * @param sizes    count per size
+ * @param genders  count per gender
+ */
+public record PetFacets(
+    long total,
+    List<FacetCount> petTypes,
+    List<FacetCount> breeds,
+    List<FacetCount> sizes,
+    List<FacetCount> genders
+) {
+    /** Facets of an empty result. */
+    public static final PetFacets EMPTY = new PetFacets(0, List.of(), List.of(), List.of(), List.of());
+
+    /**
+     * One facet value and the number of matching pets that have it.
+     *
+     * @param value the value, as stored on the first pet seen with it
+     * @param count number of matching pets
+     */
+    public record FacetCount(String value, long count) {
+
+        /**
+         * @param counts count per value; values with a zero count are left out
+         * @return the counts in facet order
+         */
+        public static List<FacetCount> sorted(Map<String, Long> counts) {
+            return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> new FacetCount(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(FacetCount::count).reversed()
+                    .thenComparing(FacetCount::value, String.CASE_INSENSITIVE_ORDER))
+                .toList();
+        }
+    }
+}
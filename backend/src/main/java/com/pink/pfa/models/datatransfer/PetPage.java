@@ -0,0 +1,15 @@
+package com.pink.pfa.models.datatransfer;
+
+import java.util.List;
+
+
+/**
+ * One page of pets returned by a paginated pet query.
+ *
+ * @param pets       the pets on this page, in the requested order
+ * @param nextCursor opaque cursor for the following page, or {@code null} if this is the last page
+ */
+public record PetPage(
+    List<PetDTO> pets,
+    String nextCursor
+) {}
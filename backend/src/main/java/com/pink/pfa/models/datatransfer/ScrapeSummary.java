@@ -0,0 +1,55 @@
+package com.pink.pfa.models.datatransfer;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.pink.pfa.models.datatransfer.SyncSummary.SiteSync;
+
+
+/**
+ * Outcome of a scrape-and-sync run, per adoption site.
+ *
+ * @param syncRunId id the run's changes are recorded under in the pet change feed
+ * @param sites     one entry per site, in the order the sites were given
+ */
+public record ScrapeSummary(
+    String syncRunId,
+    List<SiteResult> sites
+) {
+    /** @return number of sites that were scraped and synced */
+    public long succeeded() {
+        return sites.stream().filter(SiteResult::succeeded).count();
+    }
+
+    /** @return number of sites whose scrape or sync failed */
+    public long failed() {
+        return sites.size() - succeeded();
+    }
+
+    /** @return what the sync changed, over the sites that succeeded */
+    public SyncSummary sync() {
+        return new SyncSummary(sites.stream().map(SiteResult::sync).filter(Objects::nonNull).toList());
+    }
+
+    @Override
+    public String toString() {
+        return "run " + syncRunId + ": " + succeeded() + " of " + sites.size() + " sites synced (" + sync() + ")";
+    }
+
+    /**
+     * Outcome for one adoption site.
+     *
+     * @param siteId       the site
+     * @param url          the site's url
+     * @param scraped      number of pets the scraper returned
+     * @param scrapeMillis time spent scraping the site
+     * @param sync         what the sync changed, or {@code null} if the site failed
+     * @param error        why the site failed, or {@code null} if it succeeded
+     */
+    public record SiteResult(int siteId, String url, int scraped, long scrapeMillis, SiteSync sync, String error) {
+        /** @return {@code true} if the site was scraped and synced */
+        public boolean succeeded() {
+            return error == null;
+        }
+    }
+}
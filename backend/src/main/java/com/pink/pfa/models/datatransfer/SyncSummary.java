@@ -0,0 +1,56 @@
+package com.pink.pfa.models.datatransfer;
+
+import java.util.List;
+
+
+/**
+ * What a sync of scraped pets changed, per adoption site.
+ *
+ * @param sites one entry per synced site, in the order they were synced
+ */
+public record SyncSummary(
+    List<SiteSync> sites
+) {
+    /** @return number of scraped pets across all sites, duplicates excluded */
+    public int scraped() {
+        return sites.stream().mapToInt(SiteSync::scraped).sum();
+    }
+
+    /** @return number of pets inserted across all sites */
+    public int added() {
+        return sites.stream().mapToInt(SiteSync::added).sum();
+    }
+
+    /** @return number of stored pets whose scraped fields changed, across all sites */
+    public int updated() {
+        return sites.stream().mapToInt(SiteSync::updated).sum();
+    }
+
+    /** @return number of pets deactivated across all sites */
+    public int deactivated() {
+        return sites.stream().mapToInt(SiteSync::deactivated).sum();
+    }
+
+    /** @return {@code true} if no pet was written */
+    public boolean isUnchanged() {
+        return added() + updated() + deactivated() == 0;
+    }
+
+    @Override
+    public String toString() {
+        return scraped() + " scraped, " + added() + " added, " + updated() + " updated, "
+            + deactivated() + " deactivated across " + sites.size() + " sites";
+    }
+
+    /**
+     * What a sync changed for one adoption site.
+     *
+     * @param siteId      the site
+     * @param scraped     number of distinct pets scraped from the site
+     * @param added       pets inserted
+     * @param updated     stored pets whose scraped fields changed (including reactivated ones)
+     * @param deactivated active pets no longer listed by the site, as counted by the deactivating update
+     * @param millis      time spent syncing the site
+     */
+    public record SiteSync(int siteId, int scraped, int added, int updated, int deactivated, long millis) {}
+}
@@ -0,0 +1,120 @@
+package com.pink.pfa.repos;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+
+/**
+ * JDBC access to the {@code crawl_frontier} table, which keeps the pages the crawler found on
+ * each site and when their pet pages are next due, so a run does not rediscover a site from its
+ * root every time.
+ */
+@Repository
+public class CrawlFrontierRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public CrawlFrontierRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** What a page of the frontier is. */
+    public enum Kind {
+        /** The site's own url, when it lists no pets itself. */
+        ROOT,
+        /** A page that listed pets, possibly the site's own url. */
+        LISTING,
+        /** A pet page. */
+        DETAIL
+    }
+
+    /**
+     * A page of a site's frontier.
+     *
+     * @param url             the page
+     * @param kind            what the page is
+     * @param lastVisitedAt   when the page was last loaded, or {@code null} if never
+     * @param nextVisitAt     when a pet page is next due, or {@code null} if it is due now
+     * @param unchangedVisits visits in a row that found a pet page unchanged
+     * @param fullCrawlAt     when the site was last crawled from this page, its root; {@code null}
+     *                        for every other page
+     */
+    public record FrontierPage(String url, Kind kind, Instant lastVisitedAt, Instant nextVisitAt, int unchangedVisits,
+        Instant fullCrawlAt) {}
+
+    /**
+     * Reads the frontier of one site.
+     *
+     * @param siteId the site
+     * @return the site's pages
+     */
+    public List<FrontierPage> findBySite(int siteId) {
+        return jdbcTemplate.query("""
+            SELECT url, kind, last_visited_at, next_visit_at, unchanged_visits, full_crawl_at
+            FROM crawl_frontier
+            WHERE site_id = ?
+            """,
+            (rs, rowNum) -> new FrontierPage(
+                rs.getString("url"),
+                Kind.valueOf(rs.getString("kind")),
+                instant(rs.getTimestamp("last_visited_at")),
+                instant(rs.getTimestamp("next_visit_at")),
+                rs.getInt("unchanged_visits"),
+                instant(rs.getTimestamp("full_crawl_at"))),
+            siteId);
+    }
+
+    /**
+     * Records pages found on a site, replacing what was known about them and marking them seen. A
+     * page's last full crawl is only ever moved forward, never cleared.
+     *
+     * @param siteId the site
+     * @param pages  the pages
+     */
+    public void save(int siteId, List<FrontierPage> pages) {
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO crawl_frontier (site_id, url_hash, url, kind, last_seen_at, last_visited_at, next_visit_at,
+                unchanged_visits, full_crawl_at)
+            VALUES (?, SHA2(?, 256), ?, ?, CURRENT_TIMESTAMP(6), ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE kind = VALUES(kind), last_seen_at = VALUES(last_seen_at),
+                last_visited_at = VALUES(last_visited_at), next_visit_at = VALUES(next_visit_at),
+                unchanged_visits = VALUES(unchanged_visits),
+                full_crawl_at = COALESCE(VALUES(full_crawl_at), full_crawl_at)
+            """, pages, PetSyncRepository.BATCH_SIZE,
+            (statement, page) -> {
+                statement.setInt(1, siteId);
+                statement.setString(2, page.url());
+                statement.setString(3, page.url());
+                statement.setString(4, page.kind().name());
+                statement.setTimestamp(5, timestamp(page.lastVisitedAt()));
+                statement.setTimestamp(6, timestamp(page.nextVisitAt()));
+                statement.setInt(7, page.unchangedVisits());
+                statement.setTimestamp(8, timestamp(page.fullCrawlAt()));
+            });
+    }
+
+    /**
+     * Forgets the pages of a site that have not been found on it for a while.
+     *
+     * @param siteId    the site
+     * @param afterDays days a page may go unseen before it is forgotten
+     * @return pages forgotten
+     */
+    public int forgetUnseen(int siteId, int afterDays) {
+        return jdbcTemplate.update("""
+            DELETE FROM crawl_frontier
+            WHERE site_id = ? AND last_seen_at < CURRENT_TIMESTAMP(6) - INTERVAL ? DAY
+            """, siteId, afterDays);
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
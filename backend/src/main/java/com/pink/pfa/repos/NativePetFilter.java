@@ -0,0 +1,112 @@
+package com.pink.pfa.repos;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.services.geo.GeoPoint;
+import com.pink.pfa.services.geo.GeoRadius;
+
+import jakarta.persistence.Query;
+
+
+/**
+ * The {@link PetFilterRequest} filters as native SQL over {@code pet p}, for the hand-written
+ * queries that cannot go through {@link PetSpecifications}.
+ * <p>
+ * Conditions use named parameters; call {@link #bind} on the query (or pass {@link #parameters}
+ * to JDBC) with the same filter that was passed to {@link #appendConditions}. Semantics match {@link PetSpecifications}.
+ */
+final class NativePetFilter {
+    /**
+     * The haversine term between {@code p}'s coordinates and the {@code :geoLat}/{@code :geoLon}
+     * origin (in radians), the same formula as {@link GeoPoint#haversine}.
+     */
+    static final String HAVERSINE = """
+        (POW(SIN((RADIANS(p.latitude) - :geoLat) / 2), 2)
+            + :geoCosLat * COS(RADIANS(p.latitude)) * POW(SIN((RADIANS(p.longitude) - :geoLon) / 2), 2))""";
+
+    private NativePetFilter() {}
+
+    /**
+     * @param filter the filters
+     * @return {@code true} if no pet can match, so the query can be skipped
+     */
+    static boolean matchesNothing(PetFilterRequest filter) {
+        return filter.gender() != null && filter.gender().length() != 1; // gender is a single character
+    }
+
+    /**
+     * Appends an {@code AND ...} condition for every filter that is set.
+     *
+     * @param sql the query so far, ending inside a {@code WHERE} clause
+     * @param filter the filters
+     */
+    static void appendConditions(StringBuilder sql, PetFilterRequest filter) {
+        if (filter.petType() != null) sql.append(" AND p.pet_type = :petType");
+        if (filter.gender() != null) sql.append(" AND p.gender = :gender");
+        if (filter.size() != null) sql.append(" AND p.pet_size = :size");
+        if (filter.startAge() != null) sql.append(" AND p.age >= :startAge");
+        if (filter.endAge() != null) sql.append(" AND p.age <= :endAge");
+        if (filter.hasBreed()) sql.append(" AND LOCATE(:breed, p.breed) > 0");
+        if (filter.radius() != null) {
+            sql.append(" AND p.latitude BETWEEN :minLat AND :maxLat AND p.longitude BETWEEN :minLon AND :maxLon")
+                .append(" AND ").append(HAVERSINE).append(" <= :geoBound");
+        }
+    }
+
+    /**
+     * Binds the parameters of the conditions added by {@link #appendConditions}.
+     *
+     * @param query the query
+     * @param filter the same filters
+     */
+    static void bind(Query query, PetFilterRequest filter) {
+        parameters(filter).forEach(query::setParameter);
+    }
+
+    /**
+     * Collects the parameters of the conditions added by {@link #appendConditions}, for queries
+     * run through JDBC rather than JPA.
+     *
+     * @param filter the same filters
+     * @return the parameter values, by name
+     */
+    static Map<String, Object> parameters(PetFilterRequest filter) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (filter.petType() != null) parameters.put("petType", filter.petType());
+        if (filter.gender() != null) parameters.put("gender", filter.gender());
+        if (filter.size() != null) parameters.put("size", filter.size());
+        if (filter.startAge() != null) parameters.put("startAge", filter.startAge());
+        if (filter.endAge() != null) parameters.put("endAge", filter.endAge());
+        if (filter.hasBreed()) parameters.put("breed", filter.breed());
+
+        GeoRadius radius = filter.radius();
+        if (radius != null) {
+            parameters.put("minLat", radius.minLatitude());
+            parameters.put("maxLat", radius.maxLatitude());
+            parameters.put("minLon", radius.minLongitude());
+            parameters.put("maxLon", radius.maxLongitude());
+            parameters.put("geoBound", radius.haversineBound());
+            parameters.putAll(originParameters(radius.center()));
+        }
+        return parameters;
+    }
+
+    /**
+     * Binds the origin used by {@link #HAVERSINE}.
+     *
+     * @param query the query
+     * @param origin the origin
+     */
+    static void bindOrigin(Query query, GeoPoint origin) {
+        originParameters(origin).forEach(query::setParameter);
+    }
+
+    private static Map<String, Object> originParameters(GeoPoint origin) {
+        return Map.of(
+            "geoLat", Math.toRadians(origin.latitude()),
+            "geoLon", Math.toRadians(origin.longitude()),
+            "geoCosLat", Math.cos(Math.toRadians(origin.latitude())));
+    }
+}
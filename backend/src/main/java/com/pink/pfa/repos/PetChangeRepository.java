@@ -0,0 +1,73 @@
+package com.pink.pfa.repos;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.pink.pfa.models.datatransfer.PetChange;
+
+
+/**
+ * JDBC access to the {@code pet_change} log behind the pet change feed.
+ * <p>
+ * Change ids come from {@code AUTO_INCREMENT}, which hands them out when rows are inserted rather
+ * than when they commit. So that a reader who has seen change {@code n} can never later find an
+ * uncommitted change below {@code n}, every append first locks the single
+ * {@code pet_change_writer} row, which is held until the transaction ends. Appending should
+ * therefore be the last write of a transaction, keeping the serialized part short.
+ */
+@Repository
+public class PetChangeRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public PetChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the same kind of change for several pets. Must be called inside a transaction.
+     *
+     * @param syncRunId the scrape sync making the change, or {@code null}
+     * @param type      what happened
+     * @param petIds    the pets it happened to
+     */
+    public void append(String syncRunId, PetChange.Type type, Collection<Integer> petIds) {
+        if (petIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.queryForObject("SELECT writer_id FROM pet_change_writer FOR UPDATE", Integer.class);
+        jdbcTemplate.batchUpdate("INSERT INTO pet_change (pet_id, change_type, sync_run_id) VALUES (?, ?, ?)",
+            petIds, PetSyncRepository.BATCH_SIZE, (statement, petId) -> {
+                statement.setInt(1, petId);
+                statement.setString(2, type.name());
+                statement.setString(3, syncRunId);
+            });
+    }
+
+    /**
+     * Reads the changes after a position in the log, oldest first.
+     *
+     * @param changeId only changes with a larger id are returned
+     * @param limit    maximum number of changes
+     * @return the changes, without their pets
+     */
+    public List<PetChange> findAfter(long changeId, int limit) {
+        return jdbcTemplate.query("""
+            SELECT change_id, change_type, pet_id, sync_run_id, changed_at
+            FROM pet_change
+            WHERE change_id > ?
+            ORDER BY change_id
+            LIMIT ?
+            """,
+            (rs, rowNum) -> new PetChange(
+                rs.getLong("change_id"),
+                PetChange.Type.valueOf(rs.getString("change_type")),
+                rs.getInt("pet_id"),
+                rs.getString("sync_run_id"),
+                rs.getTimestamp("changed_at").toLocalDateTime(),
+                null),
+            changeId, limit);
+    }
+}
@@ -0,0 +1,106 @@
+package com.pink.pfa.repos;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.pink.pfa.models.Pet;
+
+
+/**
+ * Opaque pagination cursor handed to clients of {@code /api/pets/getFiltered}.
+ * <p>
+ * A keyset cursor remembers the sort key and ID of the last pet on a page so the next page
+ * can be fetched with an index range scan ({@code WHERE (key, id) > (:key, :id)}) instead of
+ * an {@code OFFSET}. Preference-ranked results have no stable database order, so they use an
+ * offset cursor instead ({@link #sort()} is {@code null} and {@link #offset()} is set).
+ * <p>
+ * The wire format is URL-safe Base64 of {@code SORT|value|id} (or {@code OFFSET|n}); clients
+ * should treat it as opaque.
+ *
+ * @param sort   order the cursor was issued for, or {@code null} for an offset cursor
+ * @param value  string form of the last sort key, or {@code null} if the key was {@code null}
+ * @param lastId ID of the last pet on the previous page
+ * @param offset number of ranked results already returned (offset cursors only)
+ */
+public record PetCursor(PetSort sort, String value, int lastId, int offset) {
+    private static final String OFFSET = "OFFSET";
+    private static final String NULL_VALUE = "~";
+
+    /**
+     * Builds the keyset cursor pointing just past the given pet.
+     *
+     * @param sort order of the page the pet was taken from
+     * @param pet  last pet on the page
+     * @return a keyset cursor
+     */
+    public static PetCursor after(PetSort sort, Pet pet) {
+        return after(sort, sort.valueOf(pet), pet.getPetId());
+    }
+
+    /**
+     * Builds the keyset cursor pointing just past a row with the given sort key and ID.
+     *
+     * @param sort  order of the page the row was taken from
+     * @param key   sort key of the row, possibly {@code null}
+     * @param petId ID of the row
+     * @return a keyset cursor
+     */
+    public static PetCursor after(PetSort sort, Comparable<?> key, int petId) {
+        return new PetCursor(sort, key == null ? null : key.toString(), petId, 0);
+    }
+
+    /**
+     * Builds an offset cursor for ranked results.
+     *
+     * @param offset number of results already returned
+     * @return an offset cursor
+     */
+    public static PetCursor ofOffset(int offset) {
+        return new PetCursor(null, null, 0, offset);
+    }
+
+    /** @return {@code true} if this is a keyset cursor */
+    public boolean isKeyset() {
+        return sort != null;
+    }
+
+    /** @return the typed sort key of the last pet, or {@code null} */
+    public Comparable<?> typedValue() {
+        return sort.parseValue(value);
+    }
+
+    /** @return the opaque string form of this cursor */
+    public String encode() {
+        String raw = isKeyset()
+            ? sort.name() + "|" + (value == null ? NULL_VALUE : value) + "|" + lastId
+            : OFFSET + "|" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor previously produced by {@link #encode()}.
+     *
+     * @param encoded the opaque cursor string
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static PetCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length == 2 && OFFSET.equals(parts[0])) {
+                return ofOffset(Integer.parseInt(parts[1]));
+            }
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            PetSort sort = PetSort.valueOf(parts[0]);
+            String value = NULL_VALUE.equals(parts[1]) ? null : parts[1];
+            PetCursor cursor = new PetCursor(sort, value, Integer.parseInt(parts[2]), 0);
+            cursor.typedValue(); // fail fast on a tampered key
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + encoded, e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.pink.pfa.repos;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.stereotype.Repository;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.datatransfer.AdoptionSiteDTO;
+import com.pink.pfa.models.datatransfer.PetDTO;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+
+/**
+ * Reads the pet catalog row by row for bulk export.
+ * <p>
+ * Unlike {@link PetRepository}, nothing is materialized: the query runs with MySQL's streaming
+ * fetch size ({@value #STREAMING_FETCH_SIZE}), so the driver hands over one row at a time instead
+ * of buffering the whole result set, and no entities enter a persistence context. The adoption site
+ * is joined in and the secondary images are aggregated into a JSON array per row, so every pet is
+ * complete in a single pass without follow-up queries.
+ * <p>
+ * While a stream is open its connection cannot run other statements, so callers must not query
+ * the database from inside the row callback.
+ */
+@Repository
+public class PetExportRepository {
+    /** MySQL Connector/J's marker fetch size for row-by-row result streaming. */
+    static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final TypeReference<List<String>> IMAGE_LIST = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    public PetExportRepository(JdbcTemplate jdbcTemplate, JsonMapper jsonMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Streams the matching pets in ascending id order.
+     *
+     * @param filter          the filters to apply, same semantics as {@link PetSpecifications}
+     * @param since           only pets created on or after this date, or {@code null} for all
+     * @param includeInactive whether pets no longer listed by their site are included
+     * @param action          called once per pet, in order
+     * @return the number of pets streamed
+     */
+    public long forEach(PetFilterRequest filter, LocalDate since, boolean includeInactive, Consumer<PetDTO> action) {
+        if (NativePetFilter.matchesNothing(filter)) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT p.pet_id, p.name, p.breed, p.age, p.gender, p.pet_type, p.location, p.price,
+                   p.pet_status, p.img_url, p.pet_size,
+                   s.site_id, s.url, s.name AS site_name, s.email, s.phone, s.status,
+                   (SELECT JSON_ARRAYAGG(pi.image_url) FROM pet_image pi WHERE pi.pet_id = p.pet_id) AS images
+            FROM pet p
+            JOIN adoption_site s ON s.site_id = p.site_id
+            WHERE 1 = 1
+            """);
+        MapSqlParameterSource parameters = new MapSqlParameterSource(NativePetFilter.parameters(filter));
+        if (!includeInactive) { sql.append(" AND p.pet_status <> :inactive"); parameters.addValue("inactive", PetSpecifications.INACTIVE); }
+        if (since != null) { sql.append(" AND p.created_at >= :since"); parameters.addValue("since", Date.valueOf(since)); }
+        NativePetFilter.appendConditions(sql, filter);
+        sql.append(" ORDER BY p.pet_id");
+
+        // Named parameters are resolved up front, since streaming needs a hand-made statement
+        ParsedSql parsed = NamedParameterUtils.parseSqlStatement(sql.toString());
+        String jdbcSql = NamedParameterUtils.substituteNamedParameters(parsed, parameters);
+        Object[] args = NamedParameterUtils.buildValueArray(parsed, parameters, null);
+
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                jdbcSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAMING_FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, (ResultSet rs) -> {
+            action.accept(toDto(rs));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private PetDTO toDto(ResultSet rs) throws SQLException {
+        AdoptionSiteDTO site = new AdoptionSiteDTO(
+            rs.getInt("site_id"),
+            rs.getString("url"),
+            rs.getString("site_name"),
+            rs.getString("email"),
+            rs.getString("phone"),
+            firstChar(rs.getString("status"))
+        );
+        String images = rs.getString("images");
+        Double price = rs.getObject("price", Double.class);
+        return new PetDTO(
+            rs.getInt("pet_id"),
+            site,
+            rs.getString("name"),
+            rs.getString("breed"),
+            rs.getInt("age"),
+            firstChar(rs.getString("gender")),
+            rs.getString("pet_type"),
+            rs.getString("location"),
+            price,
+            rs.getString("pet_status"),
+            rs.getString("img_url"),
+            images == null ? List.of() : jsonMapper.readValue(images, IMAGE_LIST),
+            rs.getString("pet_size")
+        );
+    }
+
+    private static char firstChar(String value) {
+        return value == null || value.isEmpty() ? '\0' : value.charAt(0);
+    }
+}
@@ -0,0 +1,22 @@
+package com.pink.pfa.repos;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.datatransfer.PetFacets;
+
+
+/**
+ * Custom {@link PetRepository} fragment that counts facet values in the database.
+ * <p>
+ * Implemented by {@link PetFacetRepositoryImpl}; Spring Data picks the implementation up by
+ * its {@code Impl} suffix.
+ */
+public interface PetFacetRepository {
+
+    /**
+     * Counts the active pets matching the filter per pet type, breed, size and gender.
+     *
+     * @param filter filter values; {@code null} fields are ignored
+     * @return the facet counts
+     */
+    PetFacets countFacets(PetFilterRequest filter);
+}
@@ -0,0 +1,72 @@
+package com.pink.pfa.repos;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.datatransfer.PetFacets;
+import com.pink.pfa.models.datatransfer.PetFacets.FacetCount;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+
+/**
+ * Native-SQL implementation of {@link PetFacetRepository}.
+ * <p>
+ * All four facets come from one {@code GROUP BY} over their combined values: the database returns
+ * one row per distinct (type, breed, size, gender) combination, which is far fewer than there are
+ * pets, and the rows are folded into the per-facet counts here.
+ */
+class PetFacetRepositoryImpl implements PetFacetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public PetFacets countFacets(PetFilterRequest filter) {
+        if (NativePetFilter.matchesNothing(filter)) {
+            return PetFacets.EMPTY;
+        }
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT p.pet_type, p.breed, p.pet_size, p.gender, COUNT(*) FROM pet p
+            WHERE p.pet_status <> :inactive
+            """);
+        NativePetFilter.appendConditions(sql, filter);
+        sql.append(" GROUP BY p.pet_type, p.breed, p.pet_size, p.gender");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+            .setParameter("inactive", PetSpecifications.INACTIVE);
+        NativePetFilter.bind(query, filter);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> groups = query.getResultList();
+
+        // Case-insensitive like the column collation, keeping the first spelling seen
+        Map<String, Long> types = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Long> breeds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Long> sizes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, Long> genders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        long total = 0;
+        for (Object[] group : groups) {
+            long count = ((Number) group[4]).longValue();
+            total += count;
+            add(types, group[0], count);
+            add(breeds, group[1], count);
+            add(sizes, group[2], count);
+            add(genders, group[3], count);
+        }
+
+        return new PetFacets(total, FacetCount.sorted(types), FacetCount.sorted(breeds),
+            FacetCount.sorted(sizes), FacetCount.sorted(genders));
+    }
+
+    private static void add(Map<String, Long> counts, Object value, long count) {
+        if (value != null) {
+            counts.merge(value.toString(), count, Long::sum);
+        }
+    }
+}
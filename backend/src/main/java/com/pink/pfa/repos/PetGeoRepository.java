@@ -0,0 +1,38 @@
+package com.pink.pfa.repos;
+
+import java.util.List;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.services.geo.GeoPoint;
+
+
+/**
+ * Custom {@link PetRepository} fragment that orders pets by distance in the database, and counts
+ * those it cannot place.
+ * <p>
+ * Implemented by {@link PetGeoRepositoryImpl}; Spring Data picks the implementation up by
+ * its {@code Impl} suffix.
+ */
+public interface PetGeoRepository {
+
+    /**
+     * Returns one page of active, geocoded pets matching the filter, nearest to {@code origin}
+     * first, ties broken by ascending {@code petId}.
+     *
+     * @param filter filter values; {@code null} fields are ignored; a radius must be centered on {@code origin}
+     * @param origin point distances are measured from
+     * @param offset number of pets to skip
+     * @param limit maximum number of pets to return, or {@code null} for all
+     * @return the requested slice, nearest first
+     */
+    List<Pet> findNearest(PetFilterRequest filter, GeoPoint origin, int offset, Integer limit);
+
+    /**
+     * Counts the active pets that match the filter but for its radius, and have no coordinates.
+     *
+     * @param filter filter values; the radius is ignored
+     * @return number of such pets
+     */
+    long countUnlocated(PetFilterRequest filter);
+}
@@ -0,0 +1,75 @@
+package com.pink.pfa.repos;
+
+import java.util.List;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.services.geo.GeoPoint;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+
+/**
+ * Native-SQL implementation of {@link PetGeoRepository}.
+ * <p>
+ * Pets are ordered by the haversine term from {@link NativePetFilter#HAVERSINE}, which grows with
+ * distance. With a radius filter, {@code idx_pet_lat_lon} limits the rows that are scored to the
+ * circle's enclosing box.
+ */
+class PetGeoRepositoryImpl implements PetGeoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Pet> findNearest(PetFilterRequest filter, GeoPoint origin, int offset, Integer limit) {
+        if (filter.radius() != null && !filter.radius().center().equals(origin)) {
+            throw new IllegalArgumentException("A radius filter must be centered on the origin");
+        }
+        if (NativePetFilter.matchesNothing(filter)) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT p.* FROM pet p
+            WHERE p.pet_status <> :inactive AND p.latitude IS NOT NULL AND p.longitude IS NOT NULL
+            """);
+        NativePetFilter.appendConditions(sql, filter);
+        sql.append(" ORDER BY ").append(NativePetFilter.HAVERSINE).append(", p.pet_id");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Pet.class)
+            .setParameter("inactive", PetSpecifications.INACTIVE);
+        NativePetFilter.bind(query, filter);
+        NativePetFilter.bindOrigin(query, origin);
+
+        query.setFirstResult(offset);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Pet> pets = query.getResultList();
+        return pets;
+    }
+
+    @Override
+    public long countUnlocated(PetFilterRequest filter) {
+        PetFilterRequest unbounded = filter.withoutRadius();
+        if (NativePetFilter.matchesNothing(unbounded)) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT COUNT(*) FROM pet p
+            WHERE p.pet_status <> :inactive AND (p.latitude IS NULL OR p.longitude IS NULL)
+            """);
+        NativePetFilter.appendConditions(sql, unbounded);
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+            .setParameter("inactive", PetSpecifications.INACTIVE);
+        NativePetFilter.bind(query, unbounded);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,30 @@
+package com.pink.pfa.repos;
+
+import java.util.List;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.Pet;
+
+
+/**
+ * Custom {@link PetRepository} fragment that ranks pets by a user's preferences in the database.
+ * <p>
+ * Implemented by {@link PetRankingRepositoryImpl}; Spring Data picks the implementation up by
+ * its {@code Impl} suffix.
+ */
+public interface PetRankingRepository {
+
+    /**
+     * Returns one page of active pets matching the filter, ordered by how many of the user's
+     * preferences each pet satisfies (highest first) and then by the given sort order.
+     * The score is computed by the query itself, so only the requested rows are loaded.
+     *
+     * @param userId user whose stored preferences are used for scoring
+     * @param filter filter values; {@code null} fields are ignored
+     * @param sort order that ties are kept in
+     * @param offset number of ranked pets to skip
+     * @param limit maximum number of pets to return, or {@code null} for all
+     * @return the requested slice of the ranking
+     */
+    List<Pet> findRankedByPreferences(int userId, PetFilterRequest filter, PetSort sort, int offset, Integer limit);
+}
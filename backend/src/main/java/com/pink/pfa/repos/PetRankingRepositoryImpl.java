@@ -0,0 +1,71 @@
+package com.pink.pfa.repos;
+
+import java.util.List;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.Pet;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+
+/**
+ * Native-SQL implementation of {@link PetRankingRepository}.
+ * <p>
+ * The user's preferences are joined onto every candidate pet and each row is scored with a
+ * {@code CASE} per preference trait; ages compare against the typed {@code pref_weeks} column.
+ * String comparisons rely on the column collation being case-insensitive, like the filters in
+ * {@link PetSpecifications}. Only the filters that are set are added to the {@code WHERE}
+ * clause (see {@link NativePetFilter}), so MySQL can still use the {@code V3} search indexes to
+ * narrow the candidates.
+ */
+class PetRankingRepositoryImpl implements PetRankingRepository {
+
+    private static final String SCORE = """
+        SUM(CASE
+            WHEN up.pref_trait = 'PET_TYPE' AND p.pet_type = up.pref_value THEN 1
+            WHEN up.pref_trait = 'GENDER' AND p.gender = up.pref_value THEN 1
+            WHEN up.pref_trait = 'SIZE' AND p.pet_size = up.pref_value THEN 1
+            WHEN up.pref_trait = 'BREED' AND LOCATE(up.pref_value, p.breed) > 0 THEN 1
+            WHEN up.pref_trait = 'AGE_MIN' AND p.age >= up.pref_weeks THEN 1
+            WHEN up.pref_trait = 'AGE_MAX' AND p.age <= up.pref_weeks THEN 1
+            ELSE 0
+        END)""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Pet> findRankedByPreferences(int userId, PetFilterRequest filter, PetSort sort, int offset, Integer limit) {
+        if (NativePetFilter.matchesNothing(filter)) {
+            return List.of();
+        }
+
+        StringBuilder sql = new StringBuilder("""
+            SELECT p.* FROM pet p
+            LEFT JOIN user_preferences up ON up.user_id = :userId
+            WHERE p.pet_status <> :inactive
+            """);
+        NativePetFilter.appendConditions(sql, filter);
+
+        String direction = sort.ascending() ? "ASC" : "DESC";
+        sql.append(" GROUP BY p.pet_id ORDER BY ").append(SCORE).append(" DESC, p.")
+            .append(sort.column()).append(' ').append(direction)
+            .append(", p.pet_id ").append(direction);
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Pet.class)
+            .setParameter("userId", userId)
+            .setParameter("inactive", PetSpecifications.INACTIVE);
+        NativePetFilter.bind(query, filter);
+
+        query.setFirstResult(offset);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Pet> pets = query.getResultList();
+        return pets;
+    }
+}
@@ -3,7 +3,11 @@ package com.pink.pfa.repos;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -28,9 +32,39 @@ import com.pink.pfa.models.Pet;
  *
  * Custom query methods defined here follow Spring Data's method naming
  * conventions, allowing query logic to be derived directly from method names.
+ * Dynamic filter queries are composed from {@link PetSpecifications} through
+ * {@link JpaSpecificationExecutor}; preference ranking comes from the
+ * {@link PetRankingRepository} fragment.
  */
 @Repository
-public interface PetRepository extends JpaRepository<Pet, Integer>{
+public interface PetRepository extends JpaRepository<Pet, Integer>, JpaSpecificationExecutor<Pet>, PetRankingRepository, PetGeoRepository, PetFacetRepository {
+    /*
+     * The listing queries below are redeclared with the Pet.WITH_SITE_AND_IMAGES fetch plan so
+     * mapping their results to PetDTO costs no further queries (instead of two per pet).
+     * Paginated queries cannot join the images; they rely on the batch size on
+     * Pet.secondaryImages and AdoptionSite instead.
+     */
+
+    /** Finds every pet, with its site and images. */
+    @Override
+    @EntityGraph(Pet.WITH_SITE_AND_IMAGES)
+    List<Pet> findAll();
+
+    /** Finds a pet by ID, with its site and images. */
+    @Override
+    @EntityGraph(Pet.WITH_SITE_AND_IMAGES)
+    Optional<Pet> findById(Integer id);
+
+    /** Finds every pet matching the specification, with its site and images. */
+    @Override
+    @EntityGraph(Pet.WITH_SITE_AND_IMAGES)
+    List<Pet> findAll(Specification<Pet> spec);
+
+    /** Finds every pet matching the specification in the given order, with its site and images. */
+    @Override
+    @EntityGraph(Pet.WITH_SITE_AND_IMAGES)
+    List<Pet> findAll(Specification<Pet> spec, Sort sort);
+
     /**
      * Finds all pets with the given name.
      * Spring automatically derives the query from the method name.
@@ -38,6 +72,7 @@ public interface PetRepository extends JpaRepository<Pet, Integer>{
      * @param name name to search for
      * @return list of {@link Pet} entities matching the name
      */
+    @EntityGraph(Pet.WITH_SITE_AND_IMAGES)
     List<Pet> findByName(String name);
 
     /**
@@ -47,6 +82,7 @@ public interface PetRepository extends JpaRepository<Pet, Integer>{
      * @param siteID site ID to filter for
      * @return list of {@link Pet} entities matched by the site's ID
      */
+    @EntityGraph(Pet.WITH_SITE_AND_IMAGES)
     List<Pet> findBySite_SiteId(Integer siteId);
 
      /**
@@ -56,8 +92,36 @@ public interface PetRepository extends JpaRepository<Pet, Integer>{
      * @param petStatus status to filter by
      * @return list of {@link Pet} entities currently active
      */
+    @EntityGraph(Pet.WITH_SITE_AND_IMAGES)
     List<Pet> findByPetStatusNot(String petStatus);
 
-    @Query(value = "SELECT * FROM pet WHERE pet_status <> :status AND pet_type = :type ORDER BY RAND() LIMIT 1", nativeQuery=true)
-    Optional<Pet> findByPetStatusNotAndTypeRand(@Param("type") String type, @Param("status") String petStatus);
+    /**
+     * Full-text search over name, breed, pet type and location of active pets, most relevant
+     * first, using the {@code ft_pet_search} index.
+     *
+     * @param terms boolean-mode search expression, e.g. {@code "lab* dog*"}
+     * @param limit maximum number of pets to return
+     * @param offset number of pets to skip
+     * @return the matching pets, most relevant first
+     */
+    @Query(value = """
+        SELECT * FROM pet
+        WHERE pet_status <> 'INACTIVE'
+          AND MATCH(name, breed, pet_type, location) AGAINST (:terms IN BOOLEAN MODE)
+        ORDER BY MATCH(name, breed, pet_type, location) AGAINST (:terms IN BOOLEAN MODE) DESC, pet_id
+        LIMIT :limit OFFSET :offset
+        """, nativeQuery = true)
+    List<Pet> searchFullText(@Param("terms") String terms, @Param("limit") int limit, @Param("offset") int offset);
+
+    /**
+     * Returns the ids of every pet of a type whose status differs from {@code petStatus}, for
+     * sampling random pets without {@code ORDER BY RAND()}. Answered from the {@code idx_pet_type_*}
+     * indexes alone, since they carry {@code pet_id} and {@code pet_status}.
+     *
+     * @param type pet type to match
+     * @param petStatus status to exclude
+     * @return the matching pet ids, in no particular order
+     */
+    @Query(value = "SELECT pet_id FROM pet WHERE pet_type = :type AND pet_status <> :status", nativeQuery = true)
+    List<Integer> findIdsByPetTypeAndPetStatusNot(@Param("type") String type, @Param("status") String petStatus);
 }
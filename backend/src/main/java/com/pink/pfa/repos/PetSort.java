@@ -0,0 +1,101 @@
+package com.pink.pfa.repos;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+
+import com.pink.pfa.models.Pet;
+
+
+/**
+ * Sort orders supported by the pet browser.
+ * <p>
+ * Every order is made total by breaking ties on {@code petId} in the same direction as
+ * the primary attribute, which is what allows keyset (cursor) pagination through
+ * {@link PetCursor}. Each order is backed by a composite index created in
+ * {@code V3__add_pet_search_indexes.sql}.
+ */
+public enum PetSort {
+    /** Most recently listed first. */
+    NEWEST("createdAt", "created_at", Sort.Direction.DESC, Pet::getCreatedAt, LocalDate::parse),
+    /** Youngest first. */
+    AGE("age", "age", Sort.Direction.ASC, Pet::getAge, Integer::valueOf),
+    /** Oldest first. */
+    AGE_DESC("age", "age", Sort.Direction.DESC, Pet::getAge, Integer::valueOf),
+    /** Cheapest first (unpriced pets come first, matching MySQL's NULL ordering). */
+    PRICE("price", "price", Sort.Direction.ASC, Pet::getPrice, Double::valueOf),
+    /** Most expensive first (unpriced pets come last, matching MySQL's NULL ordering). */
+    PRICE_DESC("price", "price", Sort.Direction.DESC, Pet::getPrice, Double::valueOf);
+
+    private final String attribute;
+    private final String column;
+    private final Sort.Direction direction;
+    private final Function<Pet, Comparable<?>> extractor;
+    private final Function<String, Comparable<?>> parser;
+
+    PetSort(String attribute, String column, Sort.Direction direction,
+        Function<Pet, Comparable<?>> extractor, Function<String, Comparable<?>> parser
+    ) {
+        this.attribute = attribute;
+        this.column = column;
+        this.direction = direction;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    /** @return name of the {@link Pet} attribute this order is keyed on */
+    public String attribute() {
+        return attribute;
+    }
+
+    /** @return name of the {@code pet} table column this order is keyed on, for native queries */
+    public String column() {
+        return column;
+    }
+
+    /** @return {@code true} if the primary attribute is sorted ascending */
+    public boolean ascending() {
+        return direction.isAscending();
+    }
+
+    /** @return the Spring Data {@link Sort} including the {@code petId} tie-breaker */
+    public Sort toSort() {
+        return Sort.by(direction, attribute).and(Sort.by(direction, "petId"));
+    }
+
+    /**
+     * Reads the sort key of a pet, used to build the cursor for the next page.
+     *
+     * @param pet pet to read
+     * @return the value of the sort attribute, possibly {@code null}
+     */
+    public Comparable<?> valueOf(Pet pet) {
+        return extractor.apply(pet);
+    }
+
+    /**
+     * Parses a sort key previously written into a cursor.
+     *
+     * @param raw the string form of the key, or {@code null}
+     * @return the typed key, or {@code null}
+     */
+    public Comparable<?> parseValue(String raw) {
+        return raw == null ? null : parser.apply(raw);
+    }
+
+    /**
+     * Resolves the {@code sort} request parameter.
+     *
+     * @param param parameter value such as {@code "newest"} or {@code "price_desc"}; may be {@code null}
+     * @return the matching order, or {@link #NEWEST} when no order was requested
+     * @throws IllegalArgumentException if the value does not name a supported order
+     */
+    public static PetSort fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return NEWEST;
+        }
+        return PetSort.valueOf(param.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,151 @@
+package com.pink.pfa.repos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.services.geo.GeoPoint;
+import com.pink.pfa.services.geo.GeoRadius;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+
+/**
+ * Reusable {@link Specification} building blocks for dynamic {@link Pet} queries.
+ * <p>
+ * Used together with {@link PetRepository}'s {@code JpaSpecificationExecutor} support so that
+ * filters are evaluated by the database (and its indexes) instead of in Java.
+ * <p>
+ * Equality filters compare the raw column value: the schema uses MySQL's default
+ * case-insensitive collation, so {@code pet_type = 'dog'} matches {@code "Dog"} while still
+ * being able to use the composite indexes from {@code V3__add_pet_search_indexes.sql}.
+ */
+public final class PetSpecifications {
+    /** Status the sync process gives to pets that have disappeared from their site. */
+    public static final String INACTIVE = "INACTIVE";
+
+    private PetSpecifications() {}
+
+    /** @return pets that have not been deactivated by the sync process */
+    public static Specification<Pet> isActive() {
+        return (root, query, cb) -> cb.notEqual(root.get("petStatus"), INACTIVE);
+    }
+
+    /**
+     * Combines every non-null filter of the request into a single specification,
+     * always restricted to active pets.
+     *
+     * @param filter filter values from the request
+     * @return the combined specification
+     */
+    public static Specification<Pet> matching(PetFilterRequest filter) {
+        List<Specification<Pet>> specs = new ArrayList<>();
+        specs.add(isActive());
+
+        if (filter.petType() != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("petType"), filter.petType()));
+        }
+        if (filter.gender() != null) {
+            // gender is stored as a single character, so longer values can never match
+            specs.add((root, query, cb) -> filter.gender().length() == 1
+                ? cb.equal(root.get("gender"), filter.gender().charAt(0))
+                : cb.disjunction());
+        }
+        if (filter.startAge() != null) {
+            specs.add((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("age"), filter.startAge()));
+        }
+        if (filter.endAge() != null) {
+            specs.add((root, query, cb) -> cb.lessThanOrEqualTo(root.get("age"), filter.endAge()));
+        }
+        if (filter.hasBreed()) {
+            String pattern = "%" + escapeLike(filter.breed().toLowerCase(Locale.ROOT)) + "%";
+            specs.add((root, query, cb) -> cb.like(cb.lower(root.get("breed")), pattern, '\\'));
+        }
+        if (filter.size() != null) {
+            specs.add((root, query, cb) -> cb.equal(root.get("size"), filter.size()));
+        }
+        if (filter.radius() != null) {
+            specs.add(within(filter.radius()));
+        }
+
+        return Specification.allOf(specs);
+    }
+
+    /**
+     * Restricts results to pets whose coordinates lie inside the circle.
+     * <p>
+     * The enclosing box is range-checked first so {@code idx_pet_lat_lon} narrows the candidates;
+     * only those are tested with the haversine term, the same formula as {@link GeoPoint#haversine}.
+     *
+     * @param radius the circle
+     * @return the radius specification
+     */
+    public static Specification<Pet> within(GeoRadius radius) {
+        double centerLat = Math.toRadians(radius.center().latitude());
+        double centerLon = Math.toRadians(radius.center().longitude());
+        double cosCenterLat = Math.cos(centerLat);
+        double toRadians = Math.PI / 180;
+
+        return (root, query, cb) -> {
+            Path<Double> lat = root.get("latitude");
+            Path<Double> lon = root.get("longitude");
+
+            Expression<Double> latRadians = cb.prod(lat, toRadians);
+            Expression<Double> sinHalfDLat = cb.function("sin", Double.class, cb.prod(cb.diff(latRadians, centerLat), 0.5));
+            Expression<Double> sinHalfDLon = cb.function("sin", Double.class, cb.prod(cb.diff(cb.prod(lon, toRadians), centerLon), 0.5));
+            Expression<Double> cosLat = cb.function("cos", Double.class, latRadians);
+            Expression<Double> haversine = cb.sum(
+                cb.prod(sinHalfDLat, sinHalfDLat),
+                cb.prod(cb.prod(cosLat, cosCenterLat), cb.prod(sinHalfDLon, sinHalfDLon)));
+
+            return cb.and(
+                cb.between(lat, radius.minLatitude(), radius.maxLatitude()),
+                cb.between(lon, radius.minLongitude(), radius.maxLongitude()),
+                cb.lessThanOrEqualTo(haversine, radius.haversineBound()));
+        };
+    }
+
+    /**
+     * Restricts results to the rows that come after the cursor in the cursor's sort order.
+     * <p>
+     * Written as {@code key > :key OR (key = :key AND id > :id)} (mirrored for descending
+     * orders) so MySQL can turn it into a range scan on the matching composite index.
+     * {@code NULL} keys are handled the way MySQL orders them: first when ascending and
+     * last when descending.
+     *
+     * @param cursor keyset cursor from the previous page
+     * @return the keyset specification
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Pet> after(PetCursor cursor) {
+        return (root, query, cb) -> {
+            PetSort sort = cursor.sort();
+            Path<Comparable> key = root.get(sort.attribute());
+            Path<Integer> id = root.get("petId");
+            Comparable value = cursor.typedValue();
+            boolean asc = sort.ascending();
+
+            Predicate tieBreak = asc ? cb.greaterThan(id, cursor.lastId()) : cb.lessThan(id, cursor.lastId());
+
+            if (value == null) {
+                Predicate sameNullKey = cb.and(cb.isNull(key), tieBreak);
+                return asc ? cb.or(sameNullKey, cb.isNotNull(key)) : sameNullKey;
+            }
+
+            Predicate beyond = asc ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+            Predicate keyset = cb.or(beyond, cb.and(cb.equal(key, value), tieBreak));
+            return asc ? keyset : cb.or(keyset, cb.isNull(key));
+        };
+    }
+
+    // Escapes LIKE wildcards so user input is matched literally
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
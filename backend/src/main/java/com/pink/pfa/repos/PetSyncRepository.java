@@ -0,0 +1,277 @@
+package com.pink.pfa.repos;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.PetImage;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+
+/**
+ * JDBC access used by the scrape sync, which reads and writes pets in bulk.
+ * <p>
+ * Stored pets are read as a narrow projection instead of entities, and every write is sent as a
+ * JDBC batch of up to {@value #BATCH_SIZE} rows. {@code Pet} uses {@code IDENTITY} ids, which stops
+ * Hibernate from batching inserts; here the ids generated for a batch are read back from the
+ * driver in one go. With {@code rewriteBatchedStatements} enabled (see
+ * {@code application.properties}) MySQL Connector/J sends each batch as a single multi-row statement.
+ * <p>
+ * Writes bypass the persistence context: pending entity changes are flushed first, but managed
+ * {@link Pet} instances loaded earlier in the same transaction are not refreshed.
+ */
+@Repository
+public class PetSyncRepository {
+    /** Number of rows sent per JDBC batch. */
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_PET = """
+        INSERT INTO pet (site_id, name, breed, age, gender, pet_type, location, price, pet_status,
+            img_url, pet_size, created_at, latitude, longitude, natural_key, content_hash)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PetSyncRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The columns of a stored pet that the sync diffs a scrape against.
+     *
+     * @param petId       the pet's id
+     * @param naturalKey  identity of the listing, see {@link com.pink.pfa.models.PetFingerprint}
+     * @param contentHash hash of the scraper-owned fields, {@code null} if not synced since last changed
+     * @param location    listed location
+     * @param latitude    geocoded latitude, may be {@code null}
+     * @param longitude   geocoded longitude, may be {@code null}
+     */
+    public record StoredPet(int petId, String naturalKey, String contentHash, String location,
+        Double latitude, Double longitude) {}
+
+    /**
+     * Reads the fingerprints of every pet of one site, active or not, from
+     * {@code idx_pet_site_natural_key}.
+     *
+     * @param siteId the site
+     * @return the site's pets
+     */
+    public List<StoredPet> findBySite(int siteId) {
+        entityManager.flush();
+        return jdbcTemplate.query("""
+            SELECT p.pet_id, p.natural_key, p.content_hash, p.location, p.latitude, p.longitude
+            FROM pet p
+            WHERE p.site_id = ?
+            """,
+            (rs, rowNum) -> new StoredPet(
+                rs.getInt("pet_id"),
+                rs.getString("natural_key"),
+                rs.getString("content_hash"),
+                rs.getString("location"),
+                rs.getObject("latitude", Double.class),
+                rs.getObject("longitude", Double.class)),
+            siteId);
+    }
+
+    /**
+     * Inserts new pets and their secondary images, setting the generated {@code petId} on each.
+     *
+     * @param pets pets without an id, each with its site, natural key and content hash set
+     */
+    public void insert(List<Pet> pets) {
+        for (List<Pet> batch : batches(pets)) {
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_PET, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Pet pet = batch.get(i);
+                        statement.setInt(1, pet.getSite().getSiteId());
+                        statement.setString(2, pet.getName());
+                        statement.setString(3, pet.getBreed());
+                        statement.setInt(4, pet.getAge());
+                        statement.setString(5, String.valueOf(pet.getGender()));
+                        statement.setString(6, pet.getPetType());
+                        statement.setString(7, pet.getLocation());
+                        statement.setObject(8, pet.getPrice(), Types.DOUBLE);
+                        statement.setString(9, pet.getPetStatus());
+                        statement.setString(10, pet.getImgUrl());
+                        statement.setString(11, pet.getSize());
+                        statement.setObject(12, pet.getCreatedAt());
+                        statement.setObject(13, pet.getLatitude(), Types.DOUBLE);
+                        statement.setObject(14, pet.getLongitude(), Types.DOUBLE);
+                        statement.setString(15, pet.getNaturalKey());
+                        statement.setString(16, pet.getContentHash());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keys);
+
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setPetId(((Number) generated.get(i).values().iterator().next()).intValue());
+            }
+        }
+        List<Object[]> images = new ArrayList<>();
+        for (Pet pet : pets) {
+            for (PetImage image : pet.getSecondaryImages()) {
+                images.add(new Object[] {pet.getPetId(), image.getImageUrl()});
+            }
+        }
+        insertImages(images);
+    }
+
+    /**
+     * Writes the scraper-owned columns (location, coordinates, price, status and age) and the
+     * content hash of stored pets.
+     *
+     * @param pets pets with their stored {@code petId} set
+     */
+    public void update(List<Pet> pets) {
+        jdbcTemplate.batchUpdate("""
+            UPDATE pet SET location = ?, latitude = ?, longitude = ?, price = ?, pet_status = ?, age = ?,
+                content_hash = ?
+            WHERE pet_id = ?
+            """,
+            pets, BATCH_SIZE, (statement, pet) -> {
+                statement.setString(1, pet.getLocation());
+                statement.setObject(2, pet.getLatitude(), Types.DOUBLE);
+                statement.setObject(3, pet.getLongitude(), Types.DOUBLE);
+                statement.setObject(4, pet.getPrice(), Types.DOUBLE);
+                statement.setString(5, pet.getPetStatus());
+                statement.setInt(6, pet.getAge());
+                statement.setString(7, pet.getContentHash());
+                statement.setInt(8, pet.getPetId());
+            });
+    }
+
+    /**
+     * Brings the secondary images of stored pets in line with the ones on the given instances, as
+     * a set difference keyed by image URL: URLs no longer listed (and duplicate rows) are deleted,
+     * new URLs are inserted, and rows for URLs still listed are left alone.
+     * <p>
+     * The stored images of each batch of pets are read in one query from {@code idx_pet_image_pet_url}.
+     *
+     * @param pets pets with their stored {@code petId} set
+     */
+    public void syncImages(List<Pet> pets) {
+        List<Integer> deletes = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+
+        for (List<Pet> batch : batches(pets)) {
+            Map<Integer, Map<String, List<Integer>>> stored = new HashMap<>();
+            jdbcTemplate.query(
+                "SELECT pet_id, image_url, image_id FROM pet_image WHERE pet_id IN ("
+                    + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")",
+                rs -> {
+                    stored.computeIfAbsent(rs.getInt("pet_id"), id -> new HashMap<>())
+                        .computeIfAbsent(rs.getString("image_url"), url -> new ArrayList<>())
+                        .add(rs.getInt("image_id"));
+                },
+                batch.stream().map(Pet::getPetId).toArray());
+
+            for (Pet pet : batch) {
+                Map<String, List<Integer>> current = stored.getOrDefault(pet.getPetId(), Map.of());
+                Set<String> wanted = new LinkedHashSet<>();
+                pet.getSecondaryImages().forEach(image -> wanted.add(image.getImageUrl()));
+
+                current.forEach((url, imageIds) -> {
+                    // Keep one row per URL that is still listed, delete the rest
+                    deletes.addAll(wanted.contains(url) ? imageIds.subList(1, imageIds.size()) : imageIds);
+                });
+                for (String url : wanted) {
+                    if (!current.containsKey(url)) {
+                        inserts.add(new Object[] {pet.getPetId(), url});
+                    }
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate("DELETE FROM pet_image WHERE image_id = ?", deletes, BATCH_SIZE,
+            (statement, imageId) -> statement.setInt(1, imageId));
+        insertImages(inserts);
+    }
+
+    /**
+     * Deactivates the active pets of a site whose natural key is not among {@code seenKeys}, with a
+     * single set-based {@code UPDATE}.
+     * <p>
+     * The seen keys are loaded into a temporary table (private to the connection, so concurrent
+     * syncs do not see each other's) which the update anti-joins against. The pets are locked and
+     * their ids read with the same anti-join first, for the change log. Content hashes are cleared
+     * so a relisted pet is rewritten even if its listing is unchanged.
+     *
+     * @param siteId the site
+     * @param seenKeys natural keys of every pet in the site's scrape
+     * @return ids of the deactivated pets
+     */
+    public List<Integer> deactivateMissing(int siteId, Collection<String> seenKeys) {
+        jdbcTemplate.execute("""
+            CREATE TEMPORARY TABLE IF NOT EXISTS seen_pet_key (natural_key VARCHAR(400) NOT NULL PRIMARY KEY)
+            """);
+        try {
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO seen_pet_key (natural_key) VALUES (?)", seenKeys, BATCH_SIZE,
+                (statement, key) -> statement.setString(1, key));
+            List<Integer> missing = jdbcTemplate.queryForList("""
+                SELECT p.pet_id FROM pet p
+                LEFT JOIN seen_pet_key seen ON seen.natural_key = p.natural_key
+                WHERE p.site_id = ? AND p.pet_status <> ? AND seen.natural_key IS NULL
+                FOR UPDATE
+                """, Integer.class, siteId, PetSpecifications.INACTIVE);
+            if (missing.isEmpty()) {
+                return missing;
+            }
+            jdbcTemplate.update("""
+                UPDATE pet p
+                LEFT JOIN seen_pet_key seen ON seen.natural_key = p.natural_key
+                SET p.pet_status = ?, p.content_hash = NULL
+                WHERE p.site_id = ? AND p.pet_status <> ? AND seen.natural_key IS NULL
+                """, PetSpecifications.INACTIVE, siteId, PetSpecifications.INACTIVE);
+            return missing;
+        } finally {
+            jdbcTemplate.execute("DROP TEMPORARY TABLE IF EXISTS seen_pet_key");
+        }
+    }
+
+    private void insertImages(List<Object[]> images) {
+        jdbcTemplate.batchUpdate("INSERT INTO pet_image (pet_id, image_url) VALUES (?, ?)", images, BATCH_SIZE,
+            (statement, image) -> {
+                statement.setInt(1, (Integer) image[0]);
+                statement.setString(2, (String) image[1]);
+            });
+    }
+
+    private static <T> List<List<T>> batches(List<T> rows) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            batches.add(rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+        return batches;
+    }
+}
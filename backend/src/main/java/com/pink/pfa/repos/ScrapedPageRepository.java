@@ -0,0 +1,86 @@
+package com.pink.pfa.repos;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+
+/**
+ * JDBC access to the {@code scraped_page} table, which remembers what each pet detail page looked
+ * like when it was last extracted so an unchanged page can be skipped.
+ * <p>
+ * Pages are meant to be saved only once the pets extracted from them are synced, so a page is
+ * never taken as unchanged for a pet the database does not have.
+ */
+@Repository
+public class ScrapedPageRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScrapedPageRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The last extraction of a pet detail page.
+     *
+     * @param url          the page
+     * @param siteId       the site the page was found on
+     * @param naturalKey   identity of the pet extracted from it, see {@link com.pink.pfa.models.PetFingerprint}
+     * @param contentHash  hash of the page's detail content
+     * @param etag         the {@code ETag} the server sent with the page, or {@code null}
+     * @param lastModified the {@code Last-Modified} the server sent with the page, or {@code null}
+     */
+    public record ScrapedPage(String url, int siteId, String naturalKey, String contentHash, String etag,
+        String lastModified) {}
+
+    /**
+     * Reads the pages of one site whose pet is stored, active and synced since it was last
+     * changed. Pages of other pets have to be extracted again.
+     *
+     * @param siteId the site
+     * @return the site's pages, by url
+     */
+    public Map<String, ScrapedPage> findBySite(int siteId) {
+        Map<String, ScrapedPage> pages = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT sp.url, sp.site_id, sp.natural_key, sp.content_hash, sp.etag, sp.last_modified
+            FROM scraped_page sp
+            JOIN pet p ON p.site_id = sp.site_id AND p.natural_key = sp.natural_key
+            WHERE sp.site_id = ? AND p.pet_status <> ? AND p.content_hash IS NOT NULL
+            """,
+            rs -> {
+                ScrapedPage page = new ScrapedPage(rs.getString("url"), rs.getInt("site_id"), rs.getString("natural_key"),
+                    rs.getString("content_hash"), rs.getString("etag"), rs.getString("last_modified"));
+                pages.put(page.url(), page);
+            },
+            siteId, PetSpecifications.INACTIVE);
+        return pages;
+    }
+
+    /**
+     * Records the latest extraction of pages, replacing their earlier ones.
+     *
+     * @param pages the pages
+     */
+    public void save(List<ScrapedPage> pages) {
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO scraped_page (url_hash, url, site_id, natural_key, content_hash, etag, last_modified)
+            VALUES (SHA2(?, 256), ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE site_id = VALUES(site_id), natural_key = VALUES(natural_key),
+                content_hash = VALUES(content_hash), etag = VALUES(etag), last_modified = VALUES(last_modified),
+                checked_at = CURRENT_TIMESTAMP(6)
+            """, pages, PetSyncRepository.BATCH_SIZE,
+            (statement, page) -> {
+                statement.setString(1, page.url());
+                statement.setString(2, page.url());
+                statement.setInt(3, page.siteId());
+                statement.setString(4, page.naturalKey());
+                statement.setString(5, page.contentHash());
+                statement.setString(6, page.etag());
+                statement.setString(7, page.lastModified());
+            });
+    }
+}
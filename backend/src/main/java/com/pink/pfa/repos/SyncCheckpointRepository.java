@@ -0,0 +1,114 @@
+package com.pink.pfa.repos;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.pink.pfa.models.datatransfer.SyncSummary.SiteSync;
+
+
+/**
+ * JDBC access to the {@code sync_run} and {@code sync_checkpoint} tables, which record how far
+ * a scrape sync has got so an interrupted run can be resumed.
+ * <p>
+ * Chunk and site progress is meant to be written inside the transaction that makes the change it
+ * counts, so a checkpoint never claims more than was committed.
+ */
+@Repository
+public class SyncCheckpointRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyncCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the start of a run.
+     *
+     * @param syncRunId the new run
+     */
+    public void startRun(String syncRunId) {
+        jdbcTemplate.update("INSERT INTO sync_run (sync_run_id) VALUES (?)", syncRunId);
+    }
+
+    /**
+     * Records that a run got through all of its sites.
+     *
+     * @param syncRunId the run
+     */
+    public void finishRun(String syncRunId) {
+        jdbcTemplate.update("UPDATE sync_run SET finished_at = CURRENT_TIMESTAMP(6) WHERE sync_run_id = ?", syncRunId);
+    }
+
+    /**
+     * Finds the latest run that started recently but never finished.
+     *
+     * @param maxAgeHours runs started longer ago than this are not resumed
+     * @return the run, or empty if there is none to resume
+     */
+    public Optional<String> findUnfinishedRun(int maxAgeHours) {
+        List<String> runs = jdbcTemplate.queryForList("""
+            SELECT sync_run_id FROM sync_run
+            WHERE finished_at IS NULL AND started_at >= CURRENT_TIMESTAMP(6) - INTERVAL ? HOUR
+            ORDER BY started_at DESC
+            LIMIT 1
+            """, String.class, maxAgeHours);
+        return runs.stream().findFirst();
+    }
+
+    /**
+     * Reads the sites a run has fully synced.
+     *
+     * @param syncRunId the run
+     * @return what the sync changed, by site id
+     */
+    public Map<Integer, SiteSync> findCompletedSites(String syncRunId) {
+        Map<Integer, SiteSync> sites = new HashMap<>();
+        jdbcTemplate.query("""
+            SELECT site_id, scraped, added, updated, deactivated, millis
+            FROM sync_checkpoint
+            WHERE sync_run_id = ? AND completed_at IS NOT NULL
+            """,
+            rs -> {
+                SiteSync site = new SiteSync(rs.getInt("site_id"), rs.getInt("scraped"), rs.getInt("added"),
+                    rs.getInt("updated"), rs.getInt("deactivated"), rs.getLong("millis"));
+                sites.put(site.siteId(), site);
+            },
+            syncRunId);
+        return sites;
+    }
+
+    /**
+     * Counts one committed chunk of a site's writes.
+     *
+     * @param syncRunId the run
+     * @param siteId    the site
+     * @param rows      pets written by the chunk
+     */
+    public void chunkCommitted(String syncRunId, int siteId, int rows) {
+        jdbcTemplate.update("""
+            INSERT INTO sync_checkpoint (sync_run_id, site_id, chunks, rows_written) VALUES (?, ?, 1, ?)
+            ON DUPLICATE KEY UPDATE chunks = chunks + 1, rows_written = rows_written + VALUES(rows_written)
+            """, syncRunId, siteId, rows);
+    }
+
+    /**
+     * Records that a site is fully synced, with its totals.
+     *
+     * @param syncRunId the run
+     * @param site      what the sync changed for the site
+     */
+    public void siteCompleted(String syncRunId, SiteSync site) {
+        jdbcTemplate.update("""
+            INSERT INTO sync_checkpoint (sync_run_id, site_id, scraped, added, updated, deactivated, millis, completed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP(6))
+            ON DUPLICATE KEY UPDATE scraped = VALUES(scraped), added = VALUES(added), updated = VALUES(updated),
+                deactivated = VALUES(deactivated), millis = VALUES(millis), completed_at = VALUES(completed_at)
+            """, syncRunId, site.siteId(), site.scraped(), site.added(), site.updated(), site.deactivated(),
+            site.millis());
+    }
+}
@@ -0,0 +1,235 @@
+package com.pink.pfa.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.repos.CrawlFrontierRepository;
+import com.pink.pfa.repos.CrawlFrontierRepository.FrontierPage;
+import com.pink.pfa.repos.CrawlFrontierRepository.Kind;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+
+/**
+ * Remembers which pages of each site list pets and when each pet page is next worth loading, so
+ * a run neither rediscovers a site from its root nor loads every pet page of it at once.
+ * <p>
+ * A site is crawled from its root only when it has never been, or when its last full crawl is
+ * older than the full crawl interval; other runs start from the listing pages that last yielded
+ * pet links, the root among them if it links to pets itself. The last full crawl is kept on the
+ * root's page apart from its kind, so a root that is also a listing page does not lose it.
+ * <p>
+ * New pet pages are due at once. A known pet page is next due one revisit interval after it was
+ * found changed, doubled for each visit in a row that found it unchanged, up to the longest
+ * interval. Each page's interval is stretched or shrunk by up to a quarter by its url, so
+ * pages found on the same night come due again on different nights instead of all together.
+ * <p>
+ * What a run learns about a site is held until {@link #synced} reports that the site's pets are
+ * stored, then saved. Pages not found on their site for {@link #FORGET_AFTER_DAYS} are forgotten.
+ * <p>
+ * One instance is meant to live for one run; it is safe to use from several threads.
+ */
+class CrawlFrontier {
+    /** Days a page may go unseen on its site before it is forgotten. */
+    static final int FORGET_AFTER_DAYS = 30;
+
+    private final CrawlFrontierRepository repository;
+    private final Clock clock;
+    private final Duration revisit;
+    private final Duration maxRevisit;
+    private final Duration fullCrawl;
+    private final Map<Integer, Map<String, FrontierPage>> known = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, FrontierPage>> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder fullCrawls = new LongAdder();
+    private final LongAdder listingCrawls = new LongAdder();
+    private final LongAdder newPages = new LongAdder();
+    private final LongAdder duePages = new LongAdder();
+    private final LongAdder deferredPages = new LongAdder();
+
+    /**
+     * @param repository where frontiers are kept
+     * @param clock      clock deciding what is due
+     * @param revisit    interval before a changed pet page is loaded again
+     * @param maxRevisit longest interval before an unchanged pet page is loaded again
+     * @param fullCrawl  interval between crawls of a site from its root
+     */
+    CrawlFrontier(CrawlFrontierRepository repository, Clock clock, Duration revisit, Duration maxRevisit,
+        Duration fullCrawl) {
+        this.repository = repository;
+        this.clock = clock;
+        this.revisit = revisit;
+        this.maxRevisit = maxRevisit;
+        this.fullCrawl = fullCrawl;
+    }
+
+    private Map<String, FrontierPage> known(AdoptionSite site) {
+        return known.computeIfAbsent(site.getSiteId(), siteId -> {
+            Map<String, FrontierPage> pages = new HashMap<>();
+            for (FrontierPage page : repository.findBySite(siteId)) {
+                pages.put(page.url(), page);
+            }
+            return pages;
+        });
+    }
+
+    /**
+     * Picks the pages a site's crawl starts from.
+     *
+     * @param site the site
+     * @return the site's known listing pages, or an empty list if the site is due to be crawled
+     *         from its root
+     */
+    List<String> listings(AdoptionSite site) {
+        Map<String, FrontierPage> pages = known(site);
+        Instant lastFullCrawl = pages.values().stream()
+            .map(FrontierPage::fullCrawlAt)
+            .filter(Objects::nonNull)
+            .max(Instant::compareTo)
+            .orElse(null);
+        if (lastFullCrawl == null || !lastFullCrawl.plus(fullCrawl).isAfter(clock.instant())) {
+            return List.of();
+        }
+        return pages.values().stream()
+            .filter(page -> page.kind() == Kind.LISTING)
+            .map(FrontierPage::url)
+            .toList();
+    }
+
+    /**
+     * Records the pet links a crawl of a site found, to be saved once the site is synced.
+     *
+     * @param site the site
+     * @param links the pet links found
+     * @param full  whether the site was crawled from its root rather than from its listing pages
+     */
+    void crawled(AdoptionSite site, List<PetLink> links, boolean full) {
+        Map<String, FrontierPage> pages = known(site);
+        Instant now = clock.instant();
+        Set<String> listings = new LinkedHashSet<>();
+        for (PetLink link : links) {
+            listings.add(link.parentUrl());
+            FrontierPage page = pages.get(link.url());
+            if (page == null || page.kind() != Kind.DETAIL) {
+                newPages.increment();
+                remember(site, new FrontierPage(link.url(), Kind.DETAIL, null, null, 0, null));
+            } else {
+                // Still listed: keep its schedule, so it is not forgotten
+                remember(site, page);
+            }
+        }
+        for (String listing : listings) {
+            FrontierPage page = pages.get(listing);
+            Instant fullCrawlAt = full && listing.equals(site.getUrl()) ? now : page != null ? page.fullCrawlAt() : null;
+            remember(site, new FrontierPage(listing, Kind.LISTING, now, null, 0, fullCrawlAt));
+        }
+
+        if (full) {
+            fullCrawls.increment();
+            if (!listings.contains(site.getUrl())) {
+                remember(site, new FrontierPage(site.getUrl(), Kind.ROOT, now, null, 0, now));
+            }
+        } else {
+            listingCrawls.increment();
+        }
+    }
+
+    /**
+     * Checks whether a pet page is due to be loaded this run.
+     *
+     * @param site the site the page was found on
+     * @param url  the page
+     * @return whether the page is new or its next visit has come
+     */
+    boolean due(AdoptionSite site, String url) {
+        FrontierPage page = known(site).get(url);
+        if (page == null || page.nextVisitAt() == null || !page.nextVisitAt().isAfter(clock.instant())) {
+            duePages.increment();
+            return true;
+        }
+        deferredPages.increment();
+        return false;
+    }
+
+    /**
+     * Schedules the next visit of a pet page that was loaded, to be saved once its site is synced.
+     *
+     * @param site      the site the page was found on
+     * @param url       the page
+     * @param unchanged whether the page was found unchanged since its last visit
+     */
+    void visited(AdoptionSite site, String url, boolean unchanged) {
+        FrontierPage page = known(site).get(url);
+        int unchangedVisits = unchanged && page != null ? page.unchangedVisits() + 1 : 0;
+        Instant now = clock.instant();
+        remember(site, new FrontierPage(url, Kind.DETAIL, now, now.plus(interval(url, unchangedVisits)),
+            unchangedVisits, null));
+    }
+
+    /**
+     * Works out how long a pet page is left alone.
+     *
+     * @param url             the page, spreading pages of equal history apart
+     * @param unchangedVisits visits in a row that found the page unchanged
+     * @return the interval before the page is due again
+     */
+    Duration interval(String url, int unchangedVisits) {
+        Duration backedOff = revisit.multipliedBy(1L << Math.min(unchangedVisits, 16));
+        if (backedOff.compareTo(maxRevisit) > 0) {
+            backedOff = maxRevisit;
+        }
+        // 0.75 to 1.25 of the interval, fixed per url
+        long permille = 750 + Math.floorMod(url.hashCode(), 501);
+        Duration jittered = backedOff.multipliedBy(permille).dividedBy(1000);
+        return jittered.compareTo(maxRevisit) > 0 ? maxRevisit : jittered;
+    }
+
+    private void remember(AdoptionSite site, FrontierPage page) {
+        pending.computeIfAbsent(site.getSiteId(), siteId -> new ConcurrentHashMap<>()).put(page.url(), page);
+    }
+
+    /**
+     * Saves what the run learnt about a site's pages, now that its pets are stored, and forgets
+     * the pages that have not been found on it for a while.
+     *
+     * @param siteId the site
+     */
+    void synced(int siteId) {
+        Map<String, FrontierPage> pages = pending.remove(siteId);
+        if (pages != null && !pages.isEmpty()) {
+            repository.save(siteId, List.copyOf(pages.values()));
+            repository.forgetUnseen(siteId, FORGET_AFTER_DAYS);
+        }
+    }
+
+    /** @return the crawl and page totals so far */
+    Stats stats() {
+        return new Stats(fullCrawls.sum(), listingCrawls.sum(), newPages.sum(), duePages.sum(), deferredPages.sum());
+    }
+
+    /**
+     * Crawl and page totals of one run.
+     *
+     * @param fullCrawls    sites crawled from their root
+     * @param listingCrawls sites crawled from their known listing pages
+     * @param newPages      pet pages found for the first time
+     * @param duePages      pet pages due to be loaded
+     * @param deferredPages pet pages left for a later run
+     */
+    record Stats(long fullCrawls, long listingCrawls, long newPages, long duePages, long deferredPages) {
+        @Override
+        public String toString() {
+            return String.format("%d full crawls, %d listing crawls, %d new pages, %d due, %d deferred",
+                fullCrawls, listingCrawls, newPages, duePages, deferredPages);
+        }
+    }
+}
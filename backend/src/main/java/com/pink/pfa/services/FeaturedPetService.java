@@ -39,10 +39,12 @@ public class FeaturedPetService {
     private static final Logger log = LoggerFactory.getLogger(PetService.class);
     private final FeaturedPetsRepository featuredPetRepository;
     private final PetRepository petRepository;
+    private final PetService petService;
 
-    public FeaturedPetService (FeaturedPetsRepository featuredPetRepository, PetRepository petRepository) {
+    public FeaturedPetService (FeaturedPetsRepository featuredPetRepository, PetRepository petRepository, PetService petService) {
         this.featuredPetRepository = featuredPetRepository;
         this.petRepository = petRepository;
+        this.petService = petService;
     }
 
     /**
@@ -69,31 +71,56 @@ public class FeaturedPetService {
         return FeaturedPetDTO.fromEntity(savedFPet);
     }
 
+    /**
+     * Features a random active pet of the given type.
+     *
+     * @param type pet type, e.g. {@code "Dog"}
+     * @return the new featured entry
+     * @throws ResourceNotFoundException if there is no active pet of that type
+     */
     public FeaturedPetDTO addFRandomPetByType(String type) {
-        FeaturedPets fPet = new FeaturedPets();
-
-        fPet.setPet(petRepository.findByPetStatusNotAndTypeRand(type, "INACTIVE")
-            .orElseThrow(() -> new ResourceNotFoundException("No active pets found", 0))
-        );
-
-        FeaturedPets savedFPet = featuredPetRepository.save(fPet);
+        FeaturedPets savedFPet = featuredPetRepository.save(feature(randomPetIds(type, 1).get(0)));
         return FeaturedPetDTO.fromEntity(savedFPet);
     }
 
+    /**
+     * Replaces the featured pets with distinct random active dogs and cats.
+     * <p>
+     * Each type is sampled once for all of its slots, so the same pet is never featured twice.
+     * If a type has fewer active pets than requested, all of them are featured.
+     *
+     * @param dogCount number of dogs to feature
+     * @param catCount number of cats to feature
+     * @return the new featured entries
+     * @throws ResourceNotFoundException if a requested type has no active pets
+     */
     public List<FeaturedPetDTO> setupFeaturedByCount(int dogCount, int catCount) {
         featuredPetRepository.findAll()
             .forEach(fPet -> featuredPetRepository.delete(fPet));
 
-        List<FeaturedPetDTO> newlyAdded = new ArrayList<>();
+        List<FeaturedPets> newlyAdded = new ArrayList<>();
+        randomPetIds("Dog", dogCount).forEach(petId -> newlyAdded.add(feature(petId)));
+        randomPetIds("Cat", catCount).forEach(petId -> newlyAdded.add(feature(petId)));
 
-        for (int i = 0; i < dogCount; i++) {
-            newlyAdded.add(addFRandomPetByType("Dog"));
-        }
-        for (int i = 0; i < catCount; i++) {
-            newlyAdded.add(addFRandomPetByType("Cat"));
+        return featuredPetRepository.saveAll(newlyAdded)
+            .stream()
+            .map(FeaturedPetDTO::fromEntity)
+            .toList();
+    }
+
+    private List<Integer> randomPetIds(String type, int count) {
+        List<Integer> petIds = count > 0 ? petService.sampleActivePetIdsByType(type, count) : List.of();
+        if (count > 0 && petIds.isEmpty()) {
+            throw new ResourceNotFoundException("No active pets found", 0);
         }
+        return petIds;
+    }
 
-        return newlyAdded;
+    // The pet is only referenced by id, so it is not loaded
+    private FeaturedPets feature(Integer petId) {
+        FeaturedPets fPet = new FeaturedPets();
+        fPet.setPet(petRepository.getReferenceById(petId));
+        return fPet;
     }
 
     /**
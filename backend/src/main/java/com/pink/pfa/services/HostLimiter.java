@@ -0,0 +1,88 @@
+package com.pink.pfa.services;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Caps how many pages of one host a scrape run loads at once, since many sites embed the same
+ * listing provider.
+ * <p>
+ * Every page load takes a slot of its url's host for as long as it runs, whichever step it
+ * belongs to: plain downloads as well as pages loaded in the browser, and every page of a crawl
+ * rather than only the site's root. A load never takes a second slot while it holds one, so loads
+ * cannot wait on each other.
+ * <p>
+ * One instance is meant to live for one run; it is safe to use from several threads.
+ */
+class HostLimiter {
+
+    /** A slot of a host, given back on close. */
+    interface Slot extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final int perHost;
+    private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+
+    /**
+     * @param perHost most pages of one host loaded at once
+     */
+    HostLimiter(int perHost) {
+        if (perHost < 1) {
+            throw new IllegalArgumentException("Pages per host must be at least 1");
+        }
+        this.perHost = perHost;
+    }
+
+    /**
+     * Takes a slot of a page's host, waiting while the host has none left.
+     *
+     * @param url the page about to be loaded
+     * @return the slot; the caller must close it once the page is loaded
+     */
+    Slot acquire(String url) {
+        Semaphore slots = hosts.computeIfAbsent(host(url), host -> new Semaphore(perHost));
+        loads.increment();
+        if (!slots.tryAcquire()) {
+            waits.increment();
+            slots.acquireUninterruptibly();
+        }
+        return slots::release;
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? url : host;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /** @return the load totals so far */
+    Stats stats() {
+        return new Stats(loads.sum(), waits.sum(), hosts.size());
+    }
+
+    /**
+     * Load totals of one run.
+     *
+     * @param loads pages loaded
+     * @param waits loads that waited for their host to free a slot
+     * @param hosts hosts loaded from
+     */
+    record Stats(long loads, long waits, int hosts) {
+        @Override
+        public String toString() {
+            return String.format("%d loads from %d hosts, %d waited for a slot", loads, hosts, waits);
+        }
+    }
+}
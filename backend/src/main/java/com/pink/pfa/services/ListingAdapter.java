@@ -0,0 +1,44 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.pink.pfa.models.datatransfer.ScrapedPetDTO;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+
+/**
+ * Reads every pet of a shelter from one structured payload of its listing provider, instead of
+ * from each pet's page.
+ * <p>
+ * The payload is the JSON the provider's own listing widget loads. Pets an adapter cannot read,
+ * or that are missing from the payload, are left to the page builders of {@link WebScraperService}.
+ */
+interface ListingAdapter {
+    /**
+     * Finds the payload holding a pet.
+     *
+     * @param link the pet's page
+     * @return url of the payload listing the pet's shelter, or {@code null} if the link is not a
+     *         pet page of this adapter's provider or its shelter cannot be told from it
+     */
+    String payloadUrl(PetLink link);
+
+    /**
+     * Finds the id a pet is listed under in its payload.
+     *
+     * @param link the pet's page
+     * @return the id, or {@code null} if it cannot be told from the link
+     */
+    String animalId(PetLink link);
+
+    /**
+     * Reads the pets of a payload.
+     *
+     * @param payload the payload's text
+     * @param link    the page that led to the payload, for context the payload lacks
+     * @return the pets that have at least a name, type and gender, by every id they are listed under
+     * @throws IOException if the payload is not in the expected form
+     */
+    Map<String, ScrapedPetDTO> read(String payload, PetLink link) throws IOException;
+}
@@ -0,0 +1,275 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pink.pfa.services.WebScraperService.PetDisplayMethod;
+
+
+/**
+ * Works out which listing provider a page uses, remembering the answer for the rest of a scrape
+ * run, and serves pages as plain HTML where the browser is not needed.
+ * <p>
+ * Provider pages are recognised from their url. Any other page is downloaded once and checked
+ * for both ShelterLuv and Petfinder fingerprints; later lookups of the same url (ignoring its
+ * fragment) reuse the result, and a lookup made while the page is still downloading waits for
+ * that download rather than starting another. A host that refuses plain downloads (blocked,
+ * throttled or unreachable) is not asked again during the run.
+ * <p>
+ * A page downloaded for classification, or handed over by a caller that downloaded it itself, is
+ * kept until the crawl asks for its static HTML, so it is not downloaded a second time.
+ * <p>
+ * One instance is meant to live for one run; it is safe to use from several threads.
+ */
+class PageClassifier {
+    private static final Logger log = LoggerFactory.getLogger(PageClassifier.class);
+
+    // Pages are normally claimed right after they are classified; this only bounds a leak
+    private static final int MAX_UNCLAIMED = 64;
+
+    /** Downloads a page. */
+    @FunctionalInterface
+    interface PageFetcher {
+        Document fetch(String url) throws IOException;
+    }
+
+    private final PageFetcher fetcher;
+    private final Map<String, CompletableFuture<PetDisplayMethod>> pages = new ConcurrentHashMap<>();
+    private final Map<String, Document> unclaimed = new ConcurrentHashMap<>();
+    private final Map<String, Document> offered = new ConcurrentHashMap<>();
+    private final Set<String> refusingHosts = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder byUrl = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder hostSkips = new LongAdder();
+    private final LongAdder classifyFetches = new LongAdder();
+    private final LongAdder pageFetches = new LongAdder();
+    private final LongAdder uncachedFetches = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder staticPages = new LongAdder();
+    private final LongAdder renderedPages = new LongAdder();
+
+    PageClassifier(PageFetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Classifies a page.
+     *
+     * @param url the page
+     * @return the provider the page uses, or UNSUPPORTED if none was found or it could not be
+     *         downloaded
+     */
+    PetDisplayMethod classify(String url) {
+        lookups.increment();
+
+        // If the url contains the shelterluv hostname then it is a shelterluv site
+        if (url.contains("shelterluv.com")) {
+            byUrl.increment();
+            return PetDisplayMethod.SHELTER_LUV;
+        }
+
+        // If the url contains petfinders.com then it is a petfinders site
+        if (url.contains("petfinder.com")) {
+            byUrl.increment();
+            return PetDisplayMethod.PETFINDER;
+        }
+
+        CompletableFuture<PetDisplayMethod> mine = new CompletableFuture<>();
+        CompletableFuture<PetDisplayMethod> known = pages.putIfAbsent(key(url), mine);
+        PetDisplayMethod method = PetDisplayMethod.UNSUPPORTED;
+        if (known != null) {
+            hits.increment();
+            method = known.join();
+        } else {
+            try {
+                method = download(url);
+            } finally {
+                mine.complete(method);
+            }
+        }
+        uncachedFetches.add(downloadsWithoutCache(method));
+        return method;
+    }
+
+    private PetDisplayMethod download(String url) {
+        Document doc = get(url, classifyFetches);
+        if (doc == null) {
+            return PetDisplayMethod.UNSUPPORTED;
+        }
+
+        // The two fingerprints used to be checked on separate downloads of the same page
+        PetDisplayMethod method = fromDocument(doc);
+
+        // A page without a provider is crawled for its links next, which its static HTML may give
+        if (method == PetDisplayMethod.UNSUPPORTED && unclaimed.size() < MAX_UNCLAIMED) {
+            unclaimed.put(key(url), doc);
+        }
+        return method;
+    }
+
+    /**
+     * Hands over a page the caller downloaded itself, to be served by the next
+     * {@link #staticPage} call for its url.
+     *
+     * @param url the page
+     * @param doc the downloaded page
+     */
+    void offer(String url, Document doc) {
+        pageFetches.increment();
+        if (offered.size() < MAX_UNCLAIMED) {
+            offered.put(key(url), doc);
+        }
+    }
+
+    /**
+     * Gets a page as plain HTML, if that will do.
+     *
+     * @param url             the page
+     * @param needsJavaScript whether the page's provider needs JavaScript for this kind of page
+     * @param content         selector the HTML must match to hold what the caller reads
+     * @return the page, or {@code null} if it has to be rendered in the browser: its provider
+     *         needs JavaScript, it could not be downloaded, or its HTML lacks the content
+     */
+    Document staticPage(String url, boolean needsJavaScript, String content) {
+        Document doc = null;
+        if (!needsJavaScript) {
+            doc = unclaimed.remove(key(url));
+            if (doc != null) {
+                reused.increment();
+            } else {
+                doc = offered.remove(key(url));
+            }
+            if (doc == null) {
+                doc = get(url, pageFetches);
+            }
+        }
+        if (doc == null || doc.selectFirst(content) == null) {
+            renderedPages.increment();
+            return null;
+        }
+        staticPages.increment();
+        return doc;
+    }
+
+    // Downloads a page, counting the attempt, or gives null if it or its host failed
+    private Document get(String url, LongAdder attempts) {
+        String host = host(url);
+        if (host != null && refusingHosts.contains(host)) {
+            hostSkips.increment();
+            return null;
+        }
+
+        try {
+            attempts.increment();
+            return fetcher.fetch(url);
+        } catch (HttpStatusException e) {
+            if (e.getStatusCode() == 403 || e.getStatusCode() == 429 || e.getStatusCode() == 503) {
+                refuse(host);
+            }
+            log.debug("Failed to download {}: HTTP {}", url, e.getStatusCode());
+        } catch (ConnectException | SocketTimeoutException | UnknownHostException e) {
+            refuse(host);
+            log.debug("Failed to download {}, skipping its host for the rest of the run: {}", url, e.toString());
+        } catch (IOException | RuntimeException e) {
+            // A page that cannot be parsed is treated as one that cannot be downloaded
+            log.debug("Failed to download {}: {}", url, e.toString());
+        }
+        return null;
+    }
+
+    private void refuse(String host) {
+        if (host != null) {
+            refusingHosts.add(host);
+        }
+    }
+
+    /**
+     * Looks for provider fingerprints in a downloaded page.
+     *
+     * @param doc the page
+     * @return the provider the page embeds, or UNSUPPORTED
+     */
+    static PetDisplayMethod fromDocument(Document doc) {
+        // If the doc contains any shelterluv scripts then it is a shelterluv site
+        boolean shelterLuv = doc.select("script").stream()
+            .anyMatch(element -> element.attr("src").contains("new.shelterluv.com"));
+        if (shelterLuv) {
+            return PetDisplayMethod.SHELTER_LUV;
+        }
+
+        // If the doc contains any iframes using the pet-scroller widget then it is a petfinder site
+        boolean petfinder = doc.select("iframe").stream()
+                .anyMatch(element -> element.attr("srcdoc").contains("</pet-scroller>"))
+            || doc.select("script").stream()
+                .anyMatch(element -> element.attr("src").contains("pet-scroller"));
+        return petfinder ? PetDisplayMethod.PETFINDER : PetDisplayMethod.UNSUPPORTED;
+    }
+
+    // Downloads an uncached lookup used to make: one if the first check found ShelterLuv, else two
+    private static int downloadsWithoutCache(PetDisplayMethod method) {
+        return method == PetDisplayMethod.SHELTER_LUV ? 1 : 2;
+    }
+
+    private static String key(String url) {
+        int fragment = url.indexOf('#');
+        return fragment < 0 ? url : url.substring(0, fragment);
+    }
+
+    private static String host(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** @return the lookup and download totals so far */
+    Stats stats() {
+        return new Stats(lookups.sum(), byUrl.sum(), hits.sum(), hostSkips.sum(), classifyFetches.sum() + pageFetches.sum(),
+            uncachedFetches.sum() - classifyFetches.sum() + reused.sum(), staticPages.sum(), renderedPages.sum());
+    }
+
+    /**
+     * Lookup and download totals of one run.
+     *
+     * @param lookups       pages classified
+     * @param byUrl         lookups answered from the url alone
+     * @param hits          lookups answered from an earlier lookup of the same page
+     * @param hostSkips     downloads skipped because their host refused earlier ones
+     * @param fetches       pages downloaded
+     * @param fetchesSaved  downloads that uncached classification, and downloading classified
+     *                      pages again for their links, would have made on top of these
+     * @param staticPages   pages read from their static HTML
+     * @param renderedPages pages left to the browser
+     */
+    record Stats(long lookups, long byUrl, long hits, long hostSkips, long fetches, long fetchesSaved,
+        long staticPages, long renderedPages) {
+        /** @return share of the lookups that needed a download that were answered from the cache */
+        double hitRate() {
+            long cacheable = lookups - byUrl;
+            return cacheable == 0 ? 0 : (double) hits / cacheable;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d lookups, %d by url, %d cache hits (%.0f%%), %d host skips, %d fetches, "
+                + "%d fetches saved, %d static pages, %d rendered pages",
+                lookups, byUrl, hits, hitRate() * 100, hostSkips, fetches, fetchesSaved, staticPages, renderedPages);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.repos.ScrapedPageRepository;
+import com.pink.pfa.repos.ScrapedPageRepository.ScrapedPage;
+
+
+/**
+ * Remembers what each pet detail page looked like when it was last extracted, so a page that has
+ * not changed since is not extracted again.
+ * <p>
+ * A page read as plain HTML is asked for with the {@code ETag} and {@code Last-Modified} it was
+ * last served with; a {@code 304 Not Modified} skips the download too. Any other page is hashed
+ * once loaded, over its provider's detail content and images, and skipped if the hash matches.
+ * Only pages whose pet is stored, active and synced since it was last changed count as known
+ * (see {@link ScrapedPageRepository#findBySite}).
+ * <p>
+ * What a run learns about a site's pages is held until {@link #synced} reports that the site's
+ * pets are stored, then saved, so a page is never taken as unchanged for a pet that was not.
+ * <p>
+ * One instance is meant to live for one run; it is safe to use from several threads.
+ */
+class PageHistory {
+    /** Downloads a page unless it has not changed since it was served with the given validators. */
+    @FunctionalInterface
+    interface ConditionalFetcher {
+        StaticPageClient.Page fetch(String url, String etag, String lastModified) throws IOException;
+    }
+
+    private final ScrapedPageRepository repository;
+    private final ConditionalFetcher fetcher;
+    private final Map<Integer, Map<String, ScrapedPage>> known = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, ScrapedPage>> pending = new ConcurrentHashMap<>();
+    private final Map<String, StaticPageClient.Page> served = new ConcurrentHashMap<>();
+    private final Set<String> failingHosts = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder sameContent = new LongAdder();
+    private final LongAdder extracted = new LongAdder();
+    private final LongAdder saved = new LongAdder();
+
+    PageHistory(ScrapedPageRepository repository, ConditionalFetcher fetcher) {
+        this.repository = repository;
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Looks up a page's last extraction, reading the site's pages on first use.
+     *
+     * @param site the site the page was found on
+     * @param url  the page
+     * @return the extraction, or {@code null} if the page has to be extracted
+     */
+    ScrapedPage known(AdoptionSite site, String url) {
+        return known.computeIfAbsent(site.getSiteId(), repository::findBySite).get(url);
+    }
+
+    /**
+     * Downloads a page that is read as plain HTML, conditionally if it is known, and hands the
+     * downloaded page to the run's classifier to be read from.
+     *
+     * @param site  the site the page was found on
+     * @param url   the page
+     * @param pages classifier of the run
+     * @return whether the server answered that the known page has not changed
+     */
+    boolean notModified(AdoptionSite site, String url, PageClassifier pages) {
+        String host = host(url);
+        if (host != null && failingHosts.contains(host)) {
+            return false;
+        }
+
+        ScrapedPage page = known(site, url);
+        try {
+            StaticPageClient.Page response = page == null
+                ? fetcher.fetch(url, null, null)
+                : fetcher.fetch(url, page.etag(), page.lastModified());
+            if (response.notModified()) {
+                notModified.increment();
+                return page != null;
+            }
+            served.put(url, response);
+            pages.offer(url, response.document());
+        } catch (IOException | RuntimeException e) {
+            // The classifier downloads the page itself and decides whether to try the browser
+            if (host != null) {
+                failingHosts.add(host);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks a loaded page against its last extraction.
+     *
+     * @param site        the site the page was found on
+     * @param url         the page
+     * @param contentHash the page's {@link #contentHash}
+     * @return whether the page is known with the same content
+     */
+    boolean sameContent(AdoptionSite site, String url, String contentHash) {
+        ScrapedPage page = known(site, url);
+        if (page == null || !page.contentHash().equals(contentHash)) {
+            return false;
+        }
+        sameContent.increment();
+        StaticPageClient.Page response = served.remove(url);
+        if (response != null && (!Objects.equals(response.etag(), page.etag())
+            || !Objects.equals(response.lastModified(), page.lastModified()))) {
+            // Same content under new validators: keep them, so the next run can ask with them
+            remember(new ScrapedPage(url, site.getSiteId(), page.naturalKey(), contentHash, response.etag(),
+                response.lastModified()));
+        }
+        return true;
+    }
+
+    /**
+     * Records a page that was extracted, to be saved once its site is synced.
+     *
+     * @param site        the site the page was found on
+     * @param url         the page
+     * @param naturalKey  identity of the pet extracted from it
+     * @param contentHash the page's {@link #contentHash}
+     */
+    void extracted(AdoptionSite site, String url, String naturalKey, String contentHash) {
+        extracted.increment();
+        StaticPageClient.Page response = served.remove(url);
+        remember(new ScrapedPage(url, site.getSiteId(), naturalKey, contentHash,
+            response != null ? response.etag() : null, response != null ? response.lastModified() : null));
+    }
+
+    private void remember(ScrapedPage page) {
+        pending.computeIfAbsent(page.siteId(), siteId -> new ConcurrentHashMap<>()).put(page.url(), page);
+    }
+
+    /**
+     * Saves what the run learnt about a site's pages, now that its pets are stored.
+     *
+     * @param siteId the site
+     */
+    void synced(int siteId) {
+        Map<String, ScrapedPage> pages = pending.remove(siteId);
+        if (pages != null && !pages.isEmpty()) {
+            repository.save(List.copyOf(pages.values()));
+            saved.add(pages.size());
+        }
+    }
+
+    /**
+     * Hashes the part of a pet page its details are read from.
+     *
+     * @param doc     the page
+     * @param content selector of the provider's detail content
+     * @return hex SHA-256 of the content and of every image on the page
+     */
+    static String contentHash(Document doc, String content) {
+        StringBuilder text = new StringBuilder(doc.select(content).outerHtml());
+        for (Element image : doc.select("img[src]")) {
+            text.append('|').append(image.attr("src"));
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String host(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** @return the page totals so far */
+    Stats stats() {
+        return new Stats(notModified.sum(), sameContent.sum(), extracted.sum(), saved.sum());
+    }
+
+    /**
+     * Page totals of one run.
+     *
+     * @param notModified pages the server answered had not changed
+     * @param sameContent pages loaded and found with the same content
+     * @param extracted   pages extracted
+     * @param saved       page records saved once their site was synced
+     */
+    record Stats(long notModified, long sameContent, long extracted, long saved) {
+        @Override
+        public String toString() {
+            return String.format("%d not modified, %d same content, %d extracted, %d saved",
+                notModified, sameContent, extracted, saved);
+        }
+    }
+}
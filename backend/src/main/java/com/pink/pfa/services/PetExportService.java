@@ -0,0 +1,92 @@
+package com.pink.pfa.services;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.datatransfer.PetDTO;
+import com.pink.pfa.repos.PetExportRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+
+/**
+ * Writes the pet catalog as newline-delimited JSON (one {@code PetDTO} object per line).
+ * <p>
+ * Rows come straight from {@link PetExportRepository}'s streaming query and are serialized and
+ * written one at a time, flushing every {@value #FLUSH_EVERY} pets so the client receives data as
+ * it is produced. Memory use is bounded by the write buffer, not by the size of the catalog.
+ */
+@Service
+public class PetExportService {
+    private static final Logger log = LoggerFactory.getLogger(PetExportService.class);
+
+    /** Number of pets written between flushes to the client. */
+    static final int FLUSH_EVERY = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PetExportRepository exportRepository;
+    private final JsonMapper jsonMapper;
+
+    public PetExportService(PetExportRepository exportRepository, JsonMapper jsonMapper) {
+        this.exportRepository = exportRepository;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Streams the matching pets to {@code out} as NDJSON, in ascending id order.
+     *
+     * @param filter          the filters to apply
+     * @param since           only pets created on or after this date, or {@code null} for all
+     * @param includeInactive whether pets no longer listed by their site are included
+     * @param out             destination; flushed but not closed
+     * @return the number of pets written
+     * @throws IOException if writing to {@code out} fails, e.g. because the client went away
+     */
+    public long export(PetFilterRequest filter, LocalDate since, boolean includeInactive, OutputStream out) throws IOException {
+        BufferedOutputStream buffer = new BufferedOutputStream(out, BUFFER_SIZE);
+        long start = System.nanoTime();
+        long written;
+        try {
+            written = exportRepository.forEach(filter, since, includeInactive, new NdjsonWriter(buffer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffer.flush();
+
+        log.info("Exported {} pets in {} ms", written, (System.nanoTime() - start) / 1_000_000);
+        return written;
+    }
+
+    // Serializes one pet per line and periodically pushes the buffer to the client
+    private class NdjsonWriter implements Consumer<PetDTO> {
+        private final OutputStream out;
+        private int pending = 0;
+
+        NdjsonWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(PetDTO pet) {
+            try {
+                out.write(jsonMapper.writeValueAsBytes(pet));
+                out.write('\n');
+                if (++pending == FLUSH_EVERY) {
+                    out.flush();
+                    pending = 0;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
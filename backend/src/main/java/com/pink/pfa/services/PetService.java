@@ -1,25 +1,58 @@
 package com.pink.pfa.services;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import com.pink.pfa.controllers.requests.PetFilterRequest;
 import com.pink.pfa.controllers.requests.PetRequest;
 import com.pink.pfa.exceptions.ResourceNotFoundException;
 import com.pink.pfa.models.Pet;
-import com.pink.pfa.models.PetImage;
-import com.pink.pfa.models.UserPreferences;
+import com.pink.pfa.models.PetFingerprint;
+import com.pink.pfa.models.datatransfer.PetChange;
+import com.pink.pfa.models.datatransfer.PetChangePage;
 import com.pink.pfa.models.datatransfer.PetDTO;
-import com.pink.pfa.models.datatransfer.UserDTO;
+import com.pink.pfa.models.datatransfer.PetFacets;
+import com.pink.pfa.models.datatransfer.PetPage;
+import com.pink.pfa.models.datatransfer.SyncSummary;
+import com.pink.pfa.models.datatransfer.SyncSummary.SiteSync;
 import com.pink.pfa.repos.AdoptionSiteRepository;
+import com.pink.pfa.repos.PetChangeRepository;
+import com.pink.pfa.repos.PetCursor;
 import com.pink.pfa.repos.PetRepository;
+import com.pink.pfa.repos.PetSort;
+import com.pink.pfa.repos.PetSpecifications;
+import com.pink.pfa.repos.PetSyncRepository;
+import com.pink.pfa.repos.PetSyncRepository.StoredPet;
+import com.pink.pfa.repos.SyncCheckpointRepository;
+import com.pink.pfa.services.catalog.PetCatalogChangedEvent;
+import com.pink.pfa.services.catalog.PetCatalogService;
+import com.pink.pfa.services.catalog.PetCatalogSnapshot;
+import com.pink.pfa.services.catalog.PetSearchIndex;
+import com.pink.pfa.services.catalog.RandomSample;
+import com.pink.pfa.services.geo.GeoPoint;
+import com.pink.pfa.services.geo.GeocodingService;
+import com.pink.pfa.services.ranking.CompiledPreferences;
+import com.pink.pfa.services.ranking.PreferenceRankingService;
+import com.pink.pfa.services.ranking.RankedPets;
 
 import jakarta.transaction.Transactional;
 
@@ -45,15 +78,45 @@ import jakarta.transaction.Transactional;
 @Service
 @RequestMapping("/api/pets")
 public class PetService {
+    /** Largest page a client may request from the paginated pet endpoints. */
+    public static final int MAX_PAGE_SIZE = 200;
+    /** Page size of {@link #search} when the client does not ask for one. */
+    public static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    /** Page size of {@link #changes} when the client does not ask for one. */
+    public static final int DEFAULT_CHANGES_PAGE_SIZE = 100;
+
     private static final Logger log = LoggerFactory.getLogger(PetService.class);
     private final PetRepository petRepository;
+    private final PetSyncRepository petSyncRepository;
+    private final PetChangeRepository petChangeRepository;
     private final AdoptionSiteRepository adoptionRepository;
-    @Autowired private UserService userService;
-    @Autowired private UserPrefService userPrefService;
-
-    public PetService (PetRepository petRepository, AdoptionSiteRepository adoptionRepository) {
+    private final PetCatalogService catalog;
+    private final ApplicationEventPublisher events;
+    private final PreferenceRankingService ranking;
+    private final GeocodingService geocoding;
+    private final SyncCheckpointRepository syncCheckpoints;
+    private final SyncMetrics syncMetrics;
+    private final TransactionTemplate syncTransaction;
+
+    @Value("${pfa.sync.chunk-size:500}")
+    private int syncChunkSize;
+
+    public PetService (PetRepository petRepository, PetSyncRepository petSyncRepository,
+        PetChangeRepository petChangeRepository, AdoptionSiteRepository adoptionRepository, PetCatalogService catalog,
+        PreferenceRankingService ranking, GeocodingService geocoding, ApplicationEventPublisher events,
+        SyncCheckpointRepository syncCheckpoints, SyncMetrics syncMetrics, PlatformTransactionManager transactionManager
+    ) {
         this.petRepository = petRepository;
+        this.petSyncRepository = petSyncRepository;
+        this.petChangeRepository = petChangeRepository;
         this.adoptionRepository = adoptionRepository;
+        this.catalog = catalog;
+        this.ranking = ranking;
+        this.geocoding = geocoding;
+        this.events = events;
+        this.syncCheckpoints = syncCheckpoints;
+        this.syncMetrics = syncMetrics;
+        this.syncTransaction = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -69,19 +132,63 @@ public class PetService {
             .toList();
     }
 
+    /**
+     * Returns every active pet, from the in-memory catalog snapshot when one is available
+     * and from the database while it is being (re)built.
+     *
+     * @return list of active {@link PetDTO}
+     */
     public List<PetDTO> findAllActive() {
-        return petRepository.findByPetStatusNot("INACTIVE")
-            .stream()
-            .map(PetDTO::fromEntity)
-            .toList();
+        return catalog.current()
+            .map(PetCatalogSnapshot::all)
+            .orElseGet(() -> petRepository.findByPetStatusNot("INACTIVE")
+                .stream()
+                .map(PetDTO::fromEntity)
+                .toList());
     }
 
+    /**
+     * Returns a random active pet of the given type.
+     *
+     * @param type pet type, e.g. {@code "Dog"}
+     * @return the pet
+     * @throws ResourceNotFoundException if there is no active pet of that type
+     */
     public PetDTO findRandomActivePetByType(String type) {
-        return petRepository.findByPetStatusNotAndTypeRand(type, "INACTIVE")
-            .map(PetDTO::fromEntity)
-            .orElseThrow(() -> new ResourceNotFoundException("No active pets found", 0));
+        return catalog.current()
+            .flatMap(snapshot -> snapshot.sample(type, 1, ThreadLocalRandom.current()).stream().findFirst())
+            .orElseGet(() -> sampleActivePetIdsByType(type, 1).stream()
+                .findFirst()
+                .map(this::findById)
+                .orElseThrow(() -> new ResourceNotFoundException("No active pets found", 0)));
+    }
+
+    /**
+     * Draws distinct active pets of the given type, each equally likely.
+     * <p>
+     * Served from the snapshot's per-type pool when available. Otherwise the type's ids are read
+     * from an index (no rows are fetched or sorted, unlike {@code ORDER BY RAND()}) and sampled here.
+     *
+     * @param type pet type, e.g. {@code "Dog"}
+     * @param count number of pets wanted
+     * @return the ids of {@code count} distinct pets, or of every active pet of the type if there are fewer
+     */
+    public List<Integer> sampleActivePetIdsByType(String type, int count) {
+        Optional<PetCatalogSnapshot> snapshot = catalog.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().sample(type, count, ThreadLocalRandom.current())
+                .stream()
+                .map(PetDTO::id)
+                .toList();
+        }
+
+        List<Integer> ids = petRepository.findIdsByPetTypeAndPetStatusNot(type, "INACTIVE");
+        return Arrays.stream(RandomSample.distinct(ids.size(), count, ThreadLocalRandom.current()))
+            .mapToObj(ids::get)
+            .toList();
     }
 
+    @Transactional
     public PetDTO addPet(PetRequest request) {
         Pet pet = new Pet(request.name(), request.breed(), request.age(), request.gender(), 
             request.petType(), request.location(), request.price(), request.size(), 
@@ -91,8 +198,11 @@ public class PetService {
         pet.setSite(adoptionRepository.findById(request.siteId())
             .orElseThrow(() -> new ResourceNotFoundException("AdoptionSite", request.siteId()))
         );
+        geocoding.geocode(pet);
 
         Pet savedPet = petRepository.save(pet);
+        petChangeRepository.append(null, PetChange.Type.ADDED, List.of(savedPet.getPetId()));
+        events.publishEvent(new PetCatalogChangedEvent("pet " + savedPet.getPetId() + " added"));
         return PetDTO.fromEntity(savedPet);
     }
 
@@ -123,41 +233,6 @@ public class PetService {
             .toList();
     }
 
-    private int scorePet(Pet pet, List<UserPreferences> prefs) {
-        int score = 0;
-
-        for (var pref : prefs) {
-            String val = pref.getPrefValue();
-
-            boolean matches = switch (pref.getPrefTrait()) {
-                case BREED   -> pet.getBreed().toLowerCase().contains(val.toLowerCase());
-                case GENDER  -> String.valueOf(pet.getGender()).equalsIgnoreCase(val);
-                case SIZE    -> pet.getSize().equalsIgnoreCase(val);
-                case PET_TYPE-> pet.getPetType().equalsIgnoreCase(val);
-                default -> false;
-            };
-
-            if (pref.getPrefTrait() == UserPreferences.Preference.AGE_MIN || pref.getPrefTrait() == UserPreferences.Preference.AGE_MAX) {
-                String[] ageComponents = val.split(" ");
-                int actualAge = switch (ageComponents[1]) {
-                    case "Weeks" -> Integer.parseInt(ageComponents[0]);
-                    case "Months" -> Integer.parseInt(ageComponents[0]) * 4;
-                    case "Years" -> Integer.parseInt(ageComponents[0]) * 52;
-                    default -> Integer.parseInt(ageComponents[0]);
-                };
-
-                matches = (pref.getPrefTrait() == UserPreferences.Preference.AGE_MAX && pet.getAge() <= actualAge) ||
-                          (pref.getPrefTrait() == UserPreferences.Preference.AGE_MIN && pet.getAge() >= actualAge);
-            }
-
-            if (matches) {
-                score++;
-            }
-        }
-
-        return score;
-    }
-
     /**
      * Fetches all pets by a given set of filters and returns it as a list of {@link PetDTO}.
      * Throws an exception if the no pets exist.
@@ -172,133 +247,449 @@ public class PetService {
      * @return list of {@link PetDTO} for the requested name
      */ 
     public List<PetDTO> findByFilter(String petType, String gender, Integer startAge, Integer endAge, String breed, String size, Boolean filterPrefs, Integer userId) {
-        List<Pet> allPets = petRepository.findAll();
-        allPets = allPets.stream()
-            .filter(pet -> petType == null                  ||  pet.getPetType().equalsIgnoreCase(petType))
-            .filter(pet -> gender == null                   ||  String.valueOf(pet.getGender()).equalsIgnoreCase(gender))
-            .filter(pet -> startAge == null                 ||  pet.getAge() >= startAge)
-            .filter(pet -> endAge == null                   ||  pet.getAge() <= endAge)
-            .filter(pet -> breed == null || breed.isBlank() ||  pet.getBreed().toLowerCase().contains(breed.toLowerCase()))
-            .filter(pet -> size == null                     ||  pet.getSize().equalsIgnoreCase(size)).toList();
-
-        if (allPets.isEmpty()) {
-            throw new ResourceNotFoundException("Pet", petType + gender + startAge + endAge + breed + size);
+        PetFilterRequest filter = new PetFilterRequest(petType, gender, startAge, endAge, breed, size);
+        return findByFilter(filter, PetSort.NEWEST, null, null, filterPrefs, userId).pets();
+    }
+
+    /**
+     * Fetches one page of active pets matching the given filters.
+     * <p>
+     * Served from the in-memory {@link PetCatalogSnapshot} when one is available. Otherwise
+     * filtering, ordering and keyset pagination all run in the database through
+     * {@link PetSpecifications}, so only the requested page is loaded. When {@code filterPrefs}
+     * is set and the user exists, results are ranked by how many of the user's preferences they
+     * match, ties keeping the requested order, and paginated with an offset cursor instead. The
+     * snapshot ranks with the user's cached, compiled preferences and a top-K heap; without one,
+     * a single query scores, orders and limits in the database so only the page is loaded.
+     *
+     * @param filter filter values; {@code null} fields are ignored
+     * @param sort order of the results
+     * @param cursor opaque cursor from a previous page, or {@code null} for the first page
+     * @param limit maximum page size, or {@code null} to return every match
+     * @param filterPrefs whether to rank by the user's preferences
+     * @param userId user whose preferences are used for ranking
+     * @return the requested {@link PetPage}
+     * @throws ResourceNotFoundException if the first page is empty
+     * @throws IllegalArgumentException if the cursor is malformed or does not fit the request
+     */
+    public PetPage findByFilter(PetFilterRequest filter, PetSort sort, String cursor, Integer limit, Boolean filterPrefs, Integer userId) {
+        PetCursor after = cursor == null || cursor.isBlank() ? null : PetCursor.decode(cursor);
+        Integer pageSize = limit == null ? null : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        if (filterPrefs != null && filterPrefs) {
+            Optional<CompiledPreferences> prefs = ranking.compiledFor(userId);
+            if (prefs.isPresent()) {
+                return findRanked(filter, sort, after, pageSize, prefs.get(), userId);
+            }
         }
 
-        if (filterPrefs == null || !filterPrefs){
-            return allPets.stream()
-                .map(PetDTO::fromEntity)
-                .toList();
+        return findSorted(filter, sort, after, pageSize);
+    }
+
+    private PetPage findSorted(PetFilterRequest filter, PetSort sort, PetCursor after, Integer pageSize) {
+        if (after != null && after.sort() != sort) {
+            throw new IllegalArgumentException("Cursor was not issued for sort order " + sort);
         }
 
-        UserDTO authUserDTO;
-        try {
-            // user exists, try to filter
-            authUserDTO = userService.findById(userId);
-        } catch (Exception e) {
-            // else we just return what we have
-            return allPets.stream()
-                .map(PetDTO::fromEntity)
-                .toList();
+        Optional<PetCatalogSnapshot> snapshot = catalog.current();
+        if (snapshot.isPresent()) {
+            PetPage page = snapshot.get().page(filter, sort, after, pageSize);
+            if (page.pets().isEmpty() && after == null) {
+                throw new ResourceNotFoundException("Pet", filter);
+            }
+            return page;
         }
 
-        List<UserPreferences> prefs = userPrefService.findAllByUserId(authUserDTO.id());
-        return allPets.stream()
-            .map(pet -> Map.entry(pet, scorePet(pet, prefs))) // pair pet + score
-            .sorted((a, b) -> Integer.compare(b.getValue(), a.getValue())) // high -> low
-            .map(entry -> PetDTO.fromEntity(entry.getKey()))
-            .toList();
+        Specification<Pet> spec = PetSpecifications.matching(filter);
+        if (after != null) {
+            spec = spec.and(PetSpecifications.after(after));
+        }
+
+        // Fetch one extra row to find out whether another page exists
+        List<Pet> pets = pageSize == null
+            ? petRepository.findAll(spec, sort.toSort())
+            : petRepository.findBy(spec, query -> query.sortBy(sort.toSort()).limit(pageSize + 1).project("site").all());
+
+        if (pets.isEmpty() && after == null) {
+            throw new ResourceNotFoundException("Pet", filter);
+        }
+
+        String nextCursor = null;
+        if (pageSize != null && pets.size() > pageSize) {
+            pets = pets.subList(0, pageSize);
+            nextCursor = PetCursor.after(sort, pets.get(pageSize - 1)).encode();
+        }
+
+        return new PetPage(pets.stream().map(PetDTO::fromEntity).toList(), nextCursor);
+    }
+
+    private PetPage findRanked(PetFilterRequest filter, PetSort sort, PetCursor after, Integer pageSize,
+        CompiledPreferences prefs, int userId
+    ) {
+        if (after != null && after.isKeyset()) {
+            throw new IllegalArgumentException("Keyset cursors cannot be used with preference ranking");
+        }
+        int from = after == null ? 0 : after.offset();
+
+        Optional<PetCatalogSnapshot> snapshot = catalog.current();
+        if (snapshot.isPresent()) {
+            // Only the pets up to the end of the requested page need to be selected and ordered
+            int k = pageSize == null ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) from + pageSize);
+            RankedPets ranked = snapshot.get().rank(filter, sort, prefs, k);
+            if (ranked.total() == 0 && after == null) {
+                throw new ResourceNotFoundException("Pet", filter);
+            }
+
+            List<PetDTO> top = ranked.top();
+            int to = top.size();
+            String nextCursor = to < ranked.total() ? PetCursor.ofOffset(to).encode() : null;
+            return new PetPage(top.subList(Math.min(from, to), to), nextCursor);
+        }
+
+        // Score, order and limit in one query; fetch one extra row to find out whether another page exists
+        List<Pet> pets = petRepository.findRankedByPreferences(userId, filter, sort, from,
+            pageSize == null ? null : pageSize + 1);
+        if (pets.isEmpty() && after == null) {
+            throw new ResourceNotFoundException("Pet", filter);
+        }
+
+        String nextCursor = null;
+        if (pageSize != null && pets.size() > pageSize) {
+            pets = pets.subList(0, pageSize);
+            nextCursor = PetCursor.ofOffset(from + pageSize).encode();
+        }
+
+        return new PetPage(pets.stream().map(PetDTO::fromEntity).toList(), nextCursor);
+    }
+
+    /**
+     * Full-text search over the name, breed, pet type and location of active pets, most
+     * relevant first, paginated with an offset cursor.
+     * <p>
+     * Answered by the catalog snapshot's {@link com.pink.pfa.services.catalog.PetSearchIndex},
+     * which also matches prefixes and single typos. While no snapshot is loaded the
+     * {@code ft_pet_search} MySQL full-text index is used instead (prefix matching only).
+     *
+     * @param query free-text query
+     * @param cursor opaque cursor from a previous page, or {@code null} for the first page
+     * @param limit maximum page size, or {@code null} for {@value #DEFAULT_SEARCH_PAGE_SIZE}
+     * @return the requested {@link PetPage}
+     * @throws ResourceNotFoundException if the first page is empty
+     * @throws IllegalArgumentException if the query is blank or the cursor is malformed
+     */
+    public PetPage search(String query, String cursor, Integer limit) {
+        List<String> terms = PetSearchIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain a letter or digit");
+        }
+        PetCursor after = cursor == null || cursor.isBlank() ? null : PetCursor.decode(cursor);
+        if (after != null && after.isKeyset()) {
+            throw new IllegalArgumentException("Keyset cursors cannot be used with search");
+        }
+        int from = after == null ? 0 : after.offset();
+        int pageSize = limit == null ? DEFAULT_SEARCH_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<PetDTO> pets;
+        boolean more;
+        Optional<PetCatalogSnapshot> snapshot = catalog.current();
+        if (snapshot.isPresent()) {
+            RankedPets ranked = snapshot.get().search(query, (int) Math.min(Integer.MAX_VALUE, (long) from + pageSize));
+            List<PetDTO> top = ranked.top();
+            pets = top.subList(Math.min(from, top.size()), top.size());
+            more = top.size() < ranked.total();
+        } else {
+            String booleanQuery = terms.stream().map(term -> term + "*").collect(Collectors.joining(" "));
+            List<Pet> found = petRepository.searchFullText(booleanQuery, pageSize + 1, from);
+            more = found.size() > pageSize;
+            pets = found.stream().limit(pageSize).map(PetDTO::fromEntity).toList();
+        }
+
+        if (pets.isEmpty() && after == null) {
+            throw new ResourceNotFoundException("Pet", query);
+        }
+        return new PetPage(pets, more ? PetCursor.ofOffset(from + pets.size()).encode() : null);
+    }
+
+    /**
+     * Counts the active pets that match the filters but have no coordinates, so are left out of
+     * distance searches with them.
+     *
+     * @param filter filter values; the radius is ignored
+     * @return number of such pets
+     */
+    public long countUnlocated(PetFilterRequest filter) {
+        return catalog.current()
+            .map(snapshot -> (long) snapshot.unlocated(filter))
+            .orElseGet(() -> petRepository.countUnlocated(filter));
+    }
+
+    /**
+     * Counts the active pets matching the filters per pet type, breed, size and gender.
+     * <p>
+     * Counted from the catalog snapshot's dictionary codes; while no snapshot is loaded a single
+     * grouped query is used instead.
+     *
+     * @param filter filter values; {@code null} fields are ignored
+     * @return the facet counts
+     */
+    public PetFacets facets(PetFilterRequest filter) {
+        return catalog.current()
+            .map(snapshot -> snapshot.facets(filter))
+            .orElseGet(() -> petRepository.countFacets(filter));
+    }
+
+    /**
+     * Active pets matching the filters, nearest to {@code origin} first, paginated with an offset
+     * cursor. Pets whose location could not be geocoded are left out.
+     *
+     * @param filter filter values, including an optional radius around {@code origin}
+     * @param origin the point distances are measured from
+     * @param cursor opaque cursor from a previous page, or {@code null} for the first page
+     * @param limit maximum page size, or {@code null} for all matches
+     * @return the requested {@link PetPage}
+     * @throws ResourceNotFoundException if the first page is empty
+     * @throws IllegalArgumentException if the cursor is malformed, or the radius is centered
+     *         somewhere other than {@code origin}
+     */
+    public PetPage findNearest(PetFilterRequest filter, GeoPoint origin, String cursor, Integer limit) {
+        if (filter.radius() != null && !filter.radius().center().equals(origin)) {
+            throw new IllegalArgumentException("Radius must be centered on the origin");
+        }
+        PetCursor after = cursor == null || cursor.isBlank() ? null : PetCursor.decode(cursor);
+        if (after != null && after.isKeyset()) {
+            throw new IllegalArgumentException("Keyset cursors cannot be used with distance ordering");
+        }
+        int from = after == null ? 0 : after.offset();
+        Integer pageSize = limit == null ? null : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<PetDTO> pets;
+        boolean more;
+        Optional<PetCatalogSnapshot> snapshot = catalog.current();
+        if (snapshot.isPresent()) {
+            int k = pageSize == null ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) from + pageSize);
+            RankedPets nearest = snapshot.get().nearest(filter, origin, k);
+            List<PetDTO> top = nearest.top();
+            pets = top.subList(Math.min(from, top.size()), top.size());
+            more = top.size() < nearest.total();
+        } else {
+            // Fetch one extra row to find out whether another page exists
+            List<Pet> found = petRepository.findNearest(filter, origin, from, pageSize == null ? null : pageSize + 1);
+            more = pageSize != null && found.size() > pageSize;
+            pets = found.stream().limit(more ? pageSize : found.size()).map(PetDTO::fromEntity).toList();
+        }
+
+        if (pets.isEmpty() && after == null) {
+            throw new ResourceNotFoundException("Pet", filter);
+        }
+        return new PetPage(pets, more ? PetCursor.ofOffset(from + pets.size()).encode() : null);
     }
 
+    /**
+     * Returns a page of the pet change feed: the pets added, updated or deactivated after a
+     * cursor, oldest first, each with the pet's current data.
+     * <p>
+     * Clients replay the feed from an empty cursor once, then keep passing back
+     * {@link PetChangePage#nextCursor()} to apply only what changed since. A page shorter than
+     * the requested size means the client has caught up.
+     *
+     * @param cursor cursor from a previous page, or {@code null} to start from the beginning
+     * @param limit maximum page size, or {@code null} for {@value #DEFAULT_CHANGES_PAGE_SIZE}
+     * @return the requested {@link PetChangePage}
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
     @Transactional
-    public void sync(List<Pet> scrapedPets) {        
-        // Group scraped pets by site so each site is synced independently
-        // Map<Integer, List<Pet>> bySite = scrapedPets.stream()
-        //     .collect(Collectors.groupingBy(p -> p.getSite().getSiteId()));
-
-        // for (Map.Entry<Integer, List<Pet>> entry : bySite.entrySet()) {
-        //     syncBySite(entry.getKey(), entry.getValue());
-        // }
-
-        // Create two maps, one for the scraped pets and one for all in the db
-        // keyed by the custom key method as a hash
-        // Then, run a diff on the two maps by checking to see if any differences exist
-        // between entries in the scrape and existing elements in the DB
-        Map<String, Pet> scrapedMap = scrapedPets
-            .stream()
-            .collect(Collectors.toMap(this::buildKey, p -> p, (existing, replacement) -> {
-                System.out.println("Duplicate found for key: " + buildKey(existing));
-                return existing;
-            }));
+    public PetChangePage changes(String cursor, Integer limit) {
+        long after = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = Long.parseLong(cursor.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed change cursor: " + cursor);
+            }
+            if (after < 0) {
+                throw new IllegalArgumentException("Malformed change cursor: " + cursor);
+            }
+        }
+        int pageSize = limit == null ? DEFAULT_CHANGES_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<PetChange> changes = petChangeRepository.findAfter(after, pageSize);
+        if (changes.isEmpty()) {
+            return new PetChangePage(changes, Long.toString(after));
+        }
 
-        Map<String, Pet> dbMap = petRepository.findAll()
+        // Attach each pet's current state, loading every pet on the page in one query
+        Map<Integer, PetDTO> pets = petRepository.findAllById(changes.stream().map(PetChange::petId).distinct().toList())
             .stream()
-            .collect(Collectors.toMap(this::buildKey, p -> p));
+            .collect(Collectors.toMap(Pet::getPetId, PetDTO::fromEntity));
+        return new PetChangePage(
+            changes.stream().map(change -> change.withPet(pets.get(change.petId()))).toList(),
+            Long.toString(changes.get(changes.size() - 1).changeId()));
+    }
+
+    /**
+     * Brings the stored pets in line with a scrape, one adoption site at a time.
+     * <p>
+     * For every site present in the scrape, only that site's stored fingerprints are read and
+     * matched to the scraped pets by {@link PetFingerprint#naturalKey}: new pets are inserted,
+     * pets whose {@link PetFingerprint#contentHash} differs are updated, and active pets the site
+     * no longer lists are deactivated. Unchanged pets are not written at all, and every write goes
+     * out as a JDBC batch, so the cost grows with the number of changed rows. Sites missing from
+     * the scrape are left untouched. Every change is appended to the change feed under a new
+     * sync run id.
+     * <p>
+     * Each site is synced by {@link #syncSite} in transactions of its own, so a failing site
+     * leaves the sites before it committed. The run is marked finished even then, so it is never
+     * taken for an interrupted {@link ScrapeSyncPipeline} run and resumed; a failed sync is run
+     * again from scratch.
+     *
+     * @param scrapedPets pets returned by the scraper, each with its site set
+     * @return what changed, per site
+     */
+    public SyncSummary sync(List<Pet> scrapedPets) {
+        // Group scraped pets by site so each site is synced independently
+        Map<Integer, List<Pet>> bySite = scrapedPets.stream()
+            .collect(Collectors.groupingBy(p -> p.getSite().getSiteId(), LinkedHashMap::new, Collectors.toList()));
+
+        String syncRunId = UUID.randomUUID().toString();
+        syncCheckpoints.startRun(syncRunId);
+        List<SiteSync> sites = new ArrayList<>();
+        try {
+            for (Map.Entry<Integer, List<Pet>> entry : bySite.entrySet()) {
+                sites.add(syncSite(syncRunId, entry.getKey(), entry.getValue()));
+            }
+        } finally {
+            syncCheckpoints.finishRun(syncRunId);
+            // Sites synced before a failing one are committed, so refresh the catalog for them too
+            SyncSummary synced = new SyncSummary(sites);
+            if (!synced.isUnchanged()) {
+                events.publishEvent(new PetCatalogChangedEvent("sync: " + synced));
+            }
+        }
+
+        SyncSummary summary = new SyncSummary(sites);
+        log.info("Synced scrape {}: {}", syncRunId, summary);
+        return summary;
+    }
+
+    /**
+     * Brings one adoption site's stored pets in line with its scrape, as described for
+     * {@link #sync}. No catalog change is published; the caller is expected to publish one once
+     * the site is done.
+     * <p>
+     * The inserts and updates are committed in chunks of {@code pfa.sync.chunk-size} pets (500
+     * by default), each in its own transaction with its own persistence context, so locks are
+     * held and memory is used for one chunk at a time. The deactivations are committed last,
+     * once every scraped pet is stored. Each transaction also advances the site's row in
+     * {@code sync_checkpoint}. If the sync is interrupted, running it again with the same scrape
+     * skips the chunks that were committed, as their pets now match the scrape.
+     * <p>
+     * A scraped pet marked {@link Pet#isUnchanged() unchanged} came from a detail page that has
+     * not changed since its pet was last synced. It only keeps the stored pet from being
+     * deactivated; nothing is compared or written for it.
+     *
+     * @param syncRunId   the sync run the changes are recorded under in the change feed and
+     *                    the checkpoint table
+     * @param siteId      the site
+     * @param scrapedPets pets scraped from that site
+     * @return what changed
+     */
+    public SiteSync syncSite(String syncRunId, int siteId, List<Pet> scrapedPets) {
+        long start = System.nanoTime();
+
+        // Key the scraped pets and the site's stored fingerprints by natural key, then diff them
+        Map<String, Pet> scrapedMap = new LinkedHashMap<>();
+        for (Pet scraped : scrapedPets) {
+            String key = scraped.isUnchanged() ? scraped.getNaturalKey() : PetFingerprint.naturalKey(scraped);
+            if (scrapedMap.putIfAbsent(key, scraped) != null) {
+                log.warn("Duplicate found for key: {}", key);
+            }
+        }
+
+        Map<String, StoredPet> dbMap = new HashMap<>();
+        for (StoredPet stored : syncTransaction.execute(status -> petSyncRepository.findBySite(siteId))) {
+            dbMap.putIfAbsent(stored.naturalKey(), stored);
+        }
 
-        // In scrape — add or update
+        List<Pet> added = new ArrayList<>();
+        List<Pet> updated = new ArrayList<>();
+        int unchanged = 0;
         for (Map.Entry<String, Pet> entry : scrapedMap.entrySet()) {
             Pet scraped = entry.getValue();
-            Pet existing = dbMap.get(entry.getKey());
-            
+            if (scraped.isUnchanged()) {
+                // Its page has not changed since the stored pet was synced; it only counts as seen
+                unchanged++;
+                continue;
+            }
+            scraped.setNaturalKey(entry.getKey());
+            scraped.setContentHash(PetFingerprint.contentHash(scraped));
+            StoredPet existing = dbMap.get(entry.getKey());
+
             if (existing == null) {
                 // Naturally, if not in, add it
-                petRepository.save(scraped);
-                log.info("Added new pet: {}", entry.getKey());
-            } else if (hasChanges(existing, scraped)) {
-                // Otherwise, if it has sufficient changes in the fields that matter, 
-                // apply those changes and update the entry in the DB
+                geocoding.geocode(scraped);
+                added.add(scraped);
+            } else if (!scraped.getContentHash().equals(existing.contentHash())) {
+                // Otherwise, if a scraper-owned field changed, write those fields
                 applyUpdates(existing, scraped);
-                petRepository.save(existing); 
-                log.info("Updated pet: {}", entry.getKey());
+                updated.add(scraped);
             }
         }
 
-        // In DB but not in scrape — deactivate
-        for (Map.Entry<String, Pet> entry : dbMap.entrySet()) {
-            if (!scrapedMap.containsKey(entry.getKey())) {
-                Pet missing = entry.getValue();
-                missing.setPetStatus("INACTIVE");
-                petRepository.save(missing);
-                log.info("Deactivated pet: {}", entry.getKey());
-            }
+        List<Pet> pending = new ArrayList<>(added);
+        pending.addAll(updated);
+        for (int from = 0; from < pending.size(); from += syncChunkSize) {
+            writeChunk(syncRunId, siteId, pending.subList(from, Math.min(pending.size(), from + syncChunkSize)));
         }
-    }
 
-    // Build a composite key using attributes that, collectively, should never be repeated
-    // by the law of statistics (I guess?)
-    private String buildKey(Pet pet) {
-        return String.join("__",
-            pet.getSite().getSiteId().toString().trim(),
-            pet.getName().toLowerCase().trim(),
-            pet.getBreed().toLowerCase().trim(),
-            pet.getPetType().toLowerCase().trim(),
-            String.valueOf(pet.getGender()).toLowerCase().trim()
-        ).replaceAll("\\s+", " ");
+        // In DB but not in scrape — deactivate, in one statement
+        int unchangedPages = unchanged;
+        return syncTransaction.execute(status -> {
+            List<Integer> deactivated = petSyncRepository.deactivateMissing(siteId, scrapedMap.keySet());
+            SiteSync result = new SiteSync(siteId, scrapedMap.size(), added.size(), updated.size(), deactivated.size(),
+                (System.nanoTime() - start) / 1_000_000);
+            syncCheckpoints.siteCompleted(syncRunId, result);
+            // Last, as appending holds the change feed's lock until commit
+            petChangeRepository.append(syncRunId, PetChange.Type.DEACTIVATED, deactivated);
+
+            log.info("Synced site {}: {} scraped ({} unchanged pages), {} added, {} updated, {} deactivated in {} ms",
+                siteId, result.scraped(), unchangedPages, result.added(), result.updated(), result.deactivated(),
+                result.millis());
+            return result;
+        });
     }
 
-    // If location, price, or status has changes between the new scrape and the old DB,
-    // update the DB entry
-    private boolean hasChanges(Pet existing, Pet scraped) {
-        return !existing.getLocation().equals(scraped.getLocation())
-            || existing.getPrice() != scraped.getPrice()
-            || !existing.getPetStatus().equals(scraped.getPetStatus())
-            || existing.getAge() != scraped.getAge()
-            || existing.getSecondaryImages().size() != scraped.getSecondaryImages().size();
+    // Inserts the new pets and updates the changed ones of one chunk in a transaction of its own
+    private void writeChunk(String syncRunId, int siteId, List<Pet> chunk) {
+        long start = System.nanoTime();
+        Map<Boolean, List<Pet>> byNew = chunk.stream().collect(Collectors.partitioningBy(pet -> pet.getPetId() == null));
+        List<Pet> inserts = byNew.get(true);
+        List<Pet> updates = byNew.get(false);
+
+        syncTransaction.executeWithoutResult(status -> {
+            petSyncRepository.insert(inserts);
+            petSyncRepository.update(updates);
+            petSyncRepository.syncImages(updates);
+            syncCheckpoints.chunkCommitted(syncRunId, siteId, chunk.size());
+            // Last, as appending holds the change feed's lock until commit
+            petChangeRepository.append(syncRunId, PetChange.Type.ADDED, inserts.stream().map(Pet::getPetId).toList());
+            petChangeRepository.append(syncRunId, PetChange.Type.UPDATED, updates.stream().map(Pet::getPetId).toList());
+        });
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        syncMetrics.chunkCommitted(chunk.size(), millis);
+        log.debug("Committed sync chunk for site {}: {} inserted, {} updated in {} ms", siteId, inserts.size(),
+            updates.size(), millis);
     }
 
-    // Only update scraper-owned fields
-    private void applyUpdates(Pet existing, Pet scraped) {
-        existing.setLocation(scraped.getLocation());
-        existing.setPrice(scraped.getPrice());
-        existing.setPetStatus(scraped.getPetStatus());
-        existing.setAge(scraped.getAge());
-
-        for (PetImage image : scraped.getSecondaryImages()) 
-            image.setPet(existing);
-        
-        existing.setSecondaryImages(scraped.getSecondaryImages());
-        for (PetImage petImage : existing.getSecondaryImages()) {
-            petImage.setPet(existing);
+    // Only scraper-owned fields are written: point the scraped pet at the stored row and keep
+    // the stored coordinates unless the location moved
+    private void applyUpdates(StoredPet existing, Pet scraped) {
+        scraped.setPetId(existing.petId());
+        if (existing.location().equals(scraped.getLocation())) {
+            scraped.setLatitude(existing.latitude());
+            scraped.setLongitude(existing.longitude());
+        } else {
+            geocoding.geocode(scraped);
         }
     }
 }
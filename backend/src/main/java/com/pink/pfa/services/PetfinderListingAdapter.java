@@ -0,0 +1,112 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pink.pfa.models.datatransfer.ScrapedPetDTO;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+
+/**
+ * Reads Petfinder pets from the search JSON behind its pet-scroller widget.
+ * <p>
+ * A pet page {@code www.petfinder.com/<type>/<name>-<id>/<state>/<city>/<shelter>-<org>/} names
+ * the shelter's organization id, and a search filtered on that id lists the shelter's adoptable
+ * pets. Only the first {@value #PAGE_SIZE} pets of a shelter are in the payload; the rest are
+ * read from their pages. Fields are converted the way {@link WebScraperService.PetFinderBuilder}
+ * reads them off the page.
+ */
+class PetfinderListingAdapter implements ListingAdapter {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final int PAGE_SIZE = 100;
+    private static final Pattern PET_PAGE =
+        Pattern.compile("www\\.petfinder\\.com/(?:dog|cat)/[^/]*-(\\d+)/[^/]+/[^/]+/[^/]*-([a-z]{2}\\d+)/?", Pattern.CASE_INSENSITIVE);
+
+    // Age groups as the pet page spells them out
+    private static final Map<String, String> AGE_RANGES = Map.of(
+        "Baby", "(less than 1 year)",
+        "Young", "(1-3 years)",
+        "Adult", "(3-8 years)",
+        "Senior", "(8+ years)");
+
+    /** {@inheritDoc} */
+    @Override
+    public String payloadUrl(PetLink link) {
+        Matcher page = PET_PAGE.matcher(link.url());
+        if (!page.find()) {
+            return null;
+        }
+        return "https://www.petfinder.com/search/?page=1&limit[]=" + PAGE_SIZE
+            + "&status=adoptable&distance[]=Anywhere&sort[]=recently_added&shelter_id[]="
+            + page.group(2).toUpperCase(Locale.ROOT);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String animalId(PetLink link) {
+        Matcher page = PET_PAGE.matcher(link.url());
+        return page.find() ? page.group(1) : null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, ScrapedPetDTO> read(String payload, PetLink link) throws IOException {
+        JsonNode results = mapper.readTree(payload).path("result").path("animals");
+        if (!results.isArray()) {
+            throw new IOException("Petfinder payload has no animals");
+        }
+
+        Map<String, ScrapedPetDTO> pets = new HashMap<>();
+        for (JsonNode result : results) {
+            JsonNode animal = result.path("animal");
+            String id = animal.path("id").asText("");
+            ScrapedPetDTO pet = toPet(animal, result.path("location").path("address"));
+            if (!id.isEmpty() && pet != null) {
+                pets.put(id, pet);
+            }
+        }
+        return pets;
+    }
+
+    private static ScrapedPetDTO toPet(JsonNode animal, JsonNode address) {
+        String name = text(animal, "name");
+        String type = text(animal, "type");
+        String sex = text(animal, "sex");
+        if (name == null || type == null || sex == null) {
+            return null;
+        }
+
+        String range = AGE_RANGES.get(animal.path("age").asText(""));
+        Integer age = range != null ? WebScraperService.PetFinderAgeWeeks(range) : null;
+
+        String city = text(address, "city");
+        String state = text(address, "state");
+        String location = city != null && state != null ? city + ", " + state : city != null ? city : state;
+
+        String image = text(animal, "primary_photo_url");
+        List<String> secondaryImages = new ArrayList<>();
+        for (JsonNode photo : animal.path("photo_urls")) {
+            String url = photo.asText("");
+            if (!url.isEmpty() && !url.equals(image)) {
+                secondaryImages.add(url);
+            }
+        }
+
+        return new ScrapedPetDTO(type, text(animal, "breeds_label"), sex.substring(0, 1), image, name,
+            text(animal, "size"), age, location, secondaryImages);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        String text = value.isNull() ? "" : value.asText("").trim();
+        return text.isEmpty() ? null : text;
+    }
+}
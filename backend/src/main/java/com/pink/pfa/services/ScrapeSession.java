@@ -0,0 +1,192 @@
+package com.pink.pfa.services;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.repos.ScrapedPageRepository.ScrapedPage;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+
+/**
+ * Scrapes several adoption sites, and the pet pages within each site, at the same time.
+ * <p>
+ * Work runs on one worker thread per session of the {@link WebDriverPool}. Each step (a site's
+ * crawl or one pet page) leases a WebDriver session for as long as it runs, so no session is ever
+ * used by two threads at once. A site is crawled by one worker; its pet pages are then spread over
+ * all of them. Every page a step loads, in the browser or as plain HTML, takes a slot of its host
+ * from one {@link HostLimiter} for the whole session, so no host has more than its cap of pages
+ * loading at once however many sites embed it. Pages are classified by one {@link PageClassifier}
+ * for the whole session, so a page is downloaded for classification at most once per run.
+ * <p>
+ * Pets listed in their provider's structured payload are read from it through one
+ * {@link StructuredListings} for the whole session, without leasing a session; only the rest have
+ * their page loaded. Pet pages that have not changed since they were last scraped are not
+ * extracted again (see {@link PageHistory}); what the session learns about a site's pages is
+ * saved once the caller reports the site as {@link #synced}.
+ * <p>
+ * A site whose listing pages are known is crawled from them rather than from its root, and only
+ * its new pet pages and those whose next visit has come are loaded; the others are taken as
+ * unchanged (see {@link CrawlFrontier}). What the session learns about a site's frontier is saved
+ * with its page history.
+ * <p>
+ * A session that fails with a {@link WebDriverException} is quit instead of given back. Closing
+ * the session stops the workers and quits the pool's idle sessions.
+ */
+public class ScrapeSession implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ScrapeSession.class);
+
+    private final WebScraperService scraper;
+    private final WebDriverPool pool;
+    private final int workerCount;
+    private final HostLimiter hosts;
+    private final ExecutorService workers;
+    private final PageClassifier pages;
+    private final StructuredListings listings;
+    private final PageHistory history;
+    private final CrawlFrontier frontier;
+
+    /**
+     * Starts the workers.
+     *
+     * @param scraper  the scraper whose crawl and page steps are run
+     * @param pool     the sessions the steps are run on; one worker is started per session
+     * @param hosts    host slots of the run, taken by every page load of its steps
+     * @param pages    classifier of the run, shared by all of its steps
+     * @param listings structured listing lookups of the run, shared by all of its steps
+     * @param history  page history of the run, shared by all of its steps
+     * @param frontier crawl frontier of the run, shared by all of its steps
+     */
+    ScrapeSession(WebScraperService scraper, WebDriverPool pool, HostLimiter hosts, PageClassifier pages,
+        StructuredListings listings, PageHistory history, CrawlFrontier frontier) {
+        int workers = pool.capacity();
+        this.scraper = scraper;
+        this.pool = pool;
+        this.pages = pages;
+        this.listings = listings;
+        this.history = history;
+        this.frontier = frontier;
+        this.workerCount = workers;
+        this.hosts = hosts;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "scrape-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** @return number of workers, and so of sites worth scraping at once */
+    public int workers() {
+        return workerCount;
+    }
+
+    /**
+     * Crawls a site and scrapes its pet pages on the workers.
+     *
+     * @param site the site
+     * @return the site's pets, completed once all of its pages are done; pages without usable
+     *         data are left out, a failed crawl completes it exceptionally
+     */
+    public CompletableFuture<List<Pet>> scrape(AdoptionSite site) {
+        return CompletableFuture
+            .supplyAsync(() -> withDriver(driver -> crawl(site, driver)), workers)
+            .thenCompose(links -> {
+                List<CompletableFuture<Pet>> pages = links.stream()
+                    .map(link -> CompletableFuture.supplyAsync(() -> scrapePage(site, link), workers))
+                    .toList();
+                return CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new))
+                    .thenApply(done -> pages.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList());
+            });
+    }
+
+    // Starts from the site's known listing pages, or from its root if none yielded pets
+    private List<PetLink> crawl(AdoptionSite site, WebDriver driver) {
+        List<String> known = frontier.listings(site);
+        if (!known.isEmpty()) {
+            List<PetLink> links = scraper.CrawlListings(known, driver, pages, hosts);
+            if (!links.isEmpty()) {
+                frontier.crawled(site, links, false);
+                return links;
+            }
+        }
+        List<PetLink> links = scraper.CrawlSite(site.getUrl(), driver, pages, hosts);
+        frontier.crawled(site, links, true);
+        return links;
+    }
+
+    // One broken page must not fail the whole site
+    private Pet scrapePage(AdoptionSite site, PetLink link) {
+        try {
+            Pet listed = scraper.ReadListedPet(site, link, listings);
+            if (listed != null) {
+                return listed;
+            }
+            if (!frontier.due(site, link.url())) {
+                ScrapedPage known = history.known(site, link.url());
+                if (known != null) {
+                    return WebScraperService.UnchangedPet(site, known);
+                }
+            }
+            Pet pet = withDriver(driver -> scraper.ScrapePetPage(site, link, driver, pages, hosts, history));
+            frontier.visited(site, link.url(), pet != null && pet.isUnchanged());
+            return pet;
+        } catch (RuntimeException e) {
+            log.warn("Failed to scrape {}: {}", link.url(), e.getMessage());
+            return null;
+        }
+    }
+
+    // Runs a step on a leased session
+    private <T> T withDriver(Function<WebDriver, T> step) {
+        try (WebDriverPool.Lease lease = pool.lease()) {
+            try {
+                return step.apply(lease.driver());
+            } catch (WebDriverException e) {
+                lease.invalidate();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Saves what the session learnt about a site's pet and listing pages. To be called once the site's
+     * scraped pets are stored, so no page is taken as unchanged for a pet that is not.
+     *
+     * @param site the site
+     */
+    public void synced(AdoptionSite site) {
+        history.synced(site.getSiteId());
+        frontier.synced(site.getSiteId());
+    }
+
+    /** Stops the workers and quits the sessions left idle in the pool. */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.closeIdle();
+        log.info("WebDriver sessions: {}", pool.snapshot());
+        log.info("Page classification: {}", pages.stats());
+        log.info("Structured listings: {}", listings.stats());
+        log.info("Page history: {}", history.stats());
+        log.info("Crawl frontier: {}", frontier.stats());
+        log.info("Host slots: {}", hosts.stats());
+    }
+}
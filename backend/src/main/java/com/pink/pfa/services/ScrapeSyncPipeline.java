@@ -0,0 +1,294 @@
+package com.pink.pfa.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.pink.pfa.exceptions.ScrapeAlreadyRunningException;
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.datatransfer.ScrapeSummary;
+import com.pink.pfa.models.datatransfer.ScrapeSummary.SiteResult;
+import com.pink.pfa.models.datatransfer.SyncSummary.SiteSync;
+import com.pink.pfa.repos.SyncCheckpointRepository;
+import com.pink.pfa.services.catalog.PetCatalogChangedEvent;
+
+
+/**
+ * Scrapes adoption sites and syncs each one as soon as its scrape finishes.
+ * <p>
+ * Sites are scraped concurrently by a {@link ScrapeSession}, as many at a time as it has
+ * WebDriver sessions. The calling thread hands every finished site to a bounded queue. A small
+ * pool of sync workers takes sites off the queue and syncs each one in its own transaction via
+ * {@link PetService#syncSite}, so database work overlaps the scraping and only the sites in
+ * flight are held in memory. When the queue is full no new site is started until a sync worker
+ * catches up.
+ * <p>
+ * A site that fails to scrape, returns no pets or fails to sync is recorded as failed and does
+ * not stop the others; its stored pets are left untouched. All changes of a run share one sync
+ * run id in the change feed. Since every refresh of the catalog reloads all of it, the sites whose
+ * sync changed something refresh it together: once every {@code pfa.scrape.catalog-refresh-sites}
+ * (10 by default) of them, and once for the rest when the run ends, even if it fails part way.
+ * <p>
+ * Runs are recorded in the checkpoint tables. If the last run was interrupted less than
+ * {@code pfa.sync.resume-within-hours} (12 by default) ago, the next run resumes it: sites it
+ * completed are reported from their checkpoint without being scraped again. Only one run goes at
+ * a time, so a run still going is never taken for an interrupted one: starting another fails.
+ * <p>
+ * Once a site is synced the session is told, so it can remember the site's pet pages and skip the
+ * unchanged ones next run.
+ */
+@Service
+public class ScrapeSyncPipeline {
+    private static final Logger log = LoggerFactory.getLogger(ScrapeSyncPipeline.class);
+
+    // Tells a sync worker that no more sites are coming
+    private static final SiteBatch END = new SiteBatch(-1, null, List.of(), 0);
+
+    private final WebScraperService webScraperService;
+    private final PetService petService;
+    private final ApplicationEventPublisher events;
+    private final SyncCheckpointRepository checkpoints;
+    private final int queueCapacity;
+    private final int syncWorkers;
+    private final int resumeWithinHours;
+    private final int catalogRefreshSites;
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    public ScrapeSyncPipeline(
+        WebScraperService webScraperService,
+        PetService petService,
+        ApplicationEventPublisher events,
+        SyncCheckpointRepository checkpoints,
+        @Value("${pfa.scrape.queue-capacity:2}") int queueCapacity,
+        @Value("${pfa.scrape.sync-workers:2}") int syncWorkers,
+        @Value("${pfa.sync.resume-within-hours:12}") int resumeWithinHours,
+        @Value("${pfa.scrape.catalog-refresh-sites:10}") int catalogRefreshSites
+    ) {
+        if (queueCapacity < 1 || syncWorkers < 1 || catalogRefreshSites < 1) {
+            throw new IllegalArgumentException("Scrape queue capacity, sync workers and catalog refresh sites must be at least 1");
+        }
+        this.webScraperService = webScraperService;
+        this.petService = petService;
+        this.events = events;
+        this.checkpoints = checkpoints;
+        this.queueCapacity = queueCapacity;
+        this.syncWorkers = syncWorkers;
+        this.resumeWithinHours = resumeWithinHours;
+        this.catalogRefreshSites = catalogRefreshSites;
+    }
+
+    /**
+     * Scrapes and syncs the given sites.
+     *
+     * @param sites the sites to scrape
+     * @return the outcome for every site, in the given order
+     * @throws ScrapeAlreadyRunningException if another run is still going
+     * @throws IllegalStateException if the calling thread is interrupted or a sync worker dies
+     */
+    public ScrapeSummary run(List<AdoptionSite> sites) {
+        if (!runLock.tryLock()) {
+            throw new ScrapeAlreadyRunningException();
+        }
+        try {
+            return scrapeAndSync(sites);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    /** @return whether a run is going */
+    public boolean isRunning() {
+        return runLock.isLocked();
+    }
+
+    private ScrapeSummary scrapeAndSync(List<AdoptionSite> sites) {
+        Optional<String> unfinished = checkpoints.findUnfinishedRun(resumeWithinHours);
+        String syncRunId = unfinished.orElseGet(() -> UUID.randomUUID().toString());
+        Map<Integer, SiteSync> completed = unfinished.map(checkpoints::findCompletedSites).orElse(Map.of());
+        if (unfinished.isPresent()) {
+            log.info("Resuming interrupted scrape {} with {} sites already synced", syncRunId, completed.size());
+        } else {
+            checkpoints.startRun(syncRunId);
+        }
+
+        BlockingQueue<SiteBatch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        SiteResult[] results = new SiteResult[sites.size()];
+        CatalogRefresh refresh = new CatalogRefresh();
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(syncWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "scrape-sync-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> running = new ArrayList<>();
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < sites.size(); i++) {
+            SiteSync done = completed.get(sites.get(i).getSiteId());
+            if (done != null) {
+                AdoptionSite site = sites.get(i);
+                results[i] = new SiteResult(site.getSiteId(), site.getUrl(), done.scraped(), 0, done, null);
+            } else {
+                pending.add(i);
+            }
+        }
+
+        try (ScrapeSession session = webScraperService.OpenSession()) {
+            for (int i = 0; i < syncWorkers; i++) {
+                running.add(workers.submit(() -> consume(syncRunId, session, refresh, queue, results)));
+            }
+
+            // Keep as many sites in flight as there are sessions; a site's slot is only freed once
+            // its pets are on the queue, so a full queue also stops new sites from starting
+            BlockingQueue<ScrapedSite> scraped = new LinkedBlockingQueue<>();
+            int started = 0;
+            for (int handled = 0; handled < pending.size(); handled++) {
+                while (started < pending.size() && started - handled < session.workers()) {
+                    int index = pending.get(started++);
+                    long start = System.nanoTime();
+                    session.scrape(sites.get(index)).whenComplete((pets, error) ->
+                        scraped.add(new ScrapedSite(index, pets, error, millisSince(start))));
+                }
+
+                ScrapedSite done = scraped.take();
+                AdoptionSite site = sites.get(done.index());
+                if (done.error() != null) {
+                    Throwable cause = done.error() instanceof CompletionException ? done.error().getCause() : done.error();
+                    log.error("Failed to scrape {}: {}", site.getUrl(), cause.getMessage());
+                    results[done.index()] = failed(site, 0, done.millis(), "scrape failed: " + cause.getMessage());
+                } else if (done.pets().isEmpty()) {
+                    // An empty scrape is far more likely a broken page than an empty shelter, so
+                    // don't let it deactivate every pet the site has
+                    log.warn("No pets scraped from {}, leaving its pets untouched", site.getUrl());
+                    results[done.index()] = failed(site, 0, done.millis(), "no pets scraped");
+                } else {
+                    queue.put(new SiteBatch(done.index(), site, done.pets(), done.millis())); // blocks while the workers catch up
+                }
+            }
+            for (int i = 0; i < syncWorkers; i++) {
+                queue.put(END);
+            }
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scrape interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sync worker failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            refresh.end();
+        }
+
+        checkpoints.finishRun(syncRunId);
+        ScrapeSummary summary = new ScrapeSummary(syncRunId, Arrays.asList(results));
+        log.info("Scrape finished: {}", summary);
+        return summary;
+    }
+
+    private Void consume(String syncRunId, ScrapeSession session, CatalogRefresh refresh, BlockingQueue<SiteBatch> queue,
+        SiteResult[] results) throws InterruptedException {
+        while (true) {
+            SiteBatch batch = queue.take();
+            if (batch == END) {
+                return null;
+            }
+            results[batch.index()] = sync(syncRunId, session, refresh, batch);
+        }
+    }
+
+    private SiteResult sync(String syncRunId, ScrapeSession session, CatalogRefresh refresh, SiteBatch batch) {
+        AdoptionSite site = batch.site();
+        SiteSync sync;
+        try {
+            sync = petService.syncSite(syncRunId, site.getSiteId(), batch.pets());
+        } catch (RuntimeException e) {
+            log.error("Failed to sync {}", site.getUrl(), e);
+            return failed(site, batch.pets().size(), batch.scrapeMillis(), "sync failed: " + e.getMessage());
+        }
+        if (sync.added() + sync.updated() + sync.deactivated() > 0) {
+            refresh.changed(sync);
+        }
+
+        try {
+            session.synced(site);
+        } catch (RuntimeException e) {
+            // The pets are stored; their pages are only extracted again next time
+            log.warn("Failed to record the pet pages of {}: {}", site.getUrl(), e.getMessage());
+        }
+        return new SiteResult(site.getSiteId(), site.getUrl(), batch.pets().size(), batch.scrapeMillis(), sync, null);
+    }
+
+    // The committed changes of a run not yet refreshed in the catalog
+    private final class CatalogRefresh {
+        private int sites;
+        private int added;
+        private int updated;
+        private int deactivated;
+        private boolean ended;
+
+        synchronized void changed(SiteSync sync) {
+            sites++;
+            added += sync.added();
+            updated += sync.updated();
+            deactivated += sync.deactivated();
+            // A worker still syncing when a failed run ends refreshes on its own
+            if (ended || sites >= catalogRefreshSites) {
+                publish();
+            }
+        }
+
+        synchronized void end() {
+            ended = true;
+            publish();
+        }
+
+        private void publish() {
+            if (sites == 0) {
+                return;
+            }
+            events.publishEvent(new PetCatalogChangedEvent("scrape of " + sites + " sites: " + added + " added, "
+                + updated + " updated, " + deactivated + " deactivated"));
+            sites = 0;
+            added = 0;
+            updated = 0;
+            deactivated = 0;
+        }
+    }
+
+    private static SiteResult failed(AdoptionSite site, int scraped, long scrapeMillis, String error) {
+        return new SiteResult(site.getSiteId(), site.getUrl(), scraped, scrapeMillis, null, error);
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    // A site whose scrape finished, successfully or not; index is the site's position in the run
+    private record ScrapedSite(int index, List<Pet> pets, Throwable error, long millis) {}
+
+    // One scraped site waiting to be synced; index is the site's position in the run
+    private record SiteBatch(int index, AdoptionSite site, List<Pet> pets, long scrapeMillis) {}
+}
@@ -0,0 +1,121 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pink.pfa.models.datatransfer.ScrapedPetDTO;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+
+/**
+ * Reads ShelterLuv pets from the available-animals JSON its embedded listing loads.
+ * <p>
+ * A pet page {@code new.shelterluv.com/embed/animal/<id>} is found on the shelter's embedded
+ * listing {@code new.shelterluv.com/embed/<org>}, whose widget loads every available animal of
+ * the shelter from {@code /api/v3/available-animals/<org>}. Fields are converted the way
+ * {@link WebScraperService.ShelterLuvBuilder} reads them off the page.
+ */
+class ShelterLuvListingAdapter implements ListingAdapter {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Pattern LISTING = Pattern.compile("new\\.shelterluv\\.com/embed/(\\d+)");
+    private static final Pattern ANIMAL = Pattern.compile("new\\.shelterluv\\.com/embed/animal/([^/?#]+)");
+
+    /** {@inheritDoc} */
+    @Override
+    public String payloadUrl(PetLink link) {
+        if (animalId(link) == null) {
+            return null;
+        }
+        Matcher listing = LISTING.matcher(link.parentUrl());
+        return listing.find() ? "https://new.shelterluv.com/api/v3/available-animals/" + listing.group(1) : null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String animalId(PetLink link) {
+        Matcher animal = ANIMAL.matcher(link.url());
+        return animal.find() ? animal.group(1) : null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, ScrapedPetDTO> read(String payload, PetLink link) throws IOException {
+        JsonNode animals = mapper.readTree(payload).path("animals");
+        if (!animals.isArray()) {
+            throw new IOException("ShelterLuv payload has no animals");
+        }
+
+        Map<String, ScrapedPetDTO> pets = new HashMap<>();
+        for (JsonNode animal : animals) {
+            ScrapedPetDTO pet = toPet(animal, link);
+            if (pet == null) {
+                continue;
+            }
+            // Embeds link animals by their public id or their internal one
+            for (String id : List.of(animal.path("uniqueId").asText(""), animal.path("nid").asText(""))) {
+                if (!id.isEmpty()) {
+                    pets.put(id, pet);
+                }
+            }
+        }
+        return pets;
+    }
+
+    private static ScrapedPetDTO toPet(JsonNode animal, PetLink link) {
+        String name = text(animal, "name");
+        String type = text(animal, "species");
+        if (type == null) {
+            // The listing's species filter, as the page builder reads it
+            type = link.parentUrl().contains("=Dog") ? "Dog" : link.parentUrl().contains("=Cat") ? "Cat" : null;
+        }
+        String sex = text(animal, "sex");
+        if (name == null || type == null || sex == null) {
+            return null;
+        }
+
+        // Ages are listed in months; the page shows the same age as years, months and weeks
+        Integer age = animal.path("age").isNumber() ? animal.path("age").asInt() * 52 / 12 : null;
+
+        String size = null;
+        if (animal.path("weight").isNumber()) {
+            double weight = animal.path("weight").asDouble();
+            if ("kg".equalsIgnoreCase(animal.path("weight_units").asText(""))) {
+                weight *= 2.20462;
+            }
+            size = WebScraperService.SizeFromWeight(type, weight);
+        }
+
+        String image = null;
+        List<String> secondaryImages = new ArrayList<>();
+        for (JsonNode photo : animal.path("photos")) {
+            String url = text(photo, "url");
+            if (url == null) {
+                continue;
+            }
+            if (image == null && photo.path("isCover").asBoolean(false)) {
+                image = url;
+            } else {
+                secondaryImages.add(url);
+            }
+        }
+        if (image == null && !secondaryImages.isEmpty()) {
+            image = secondaryImages.remove(0);
+        }
+
+        return new ScrapedPetDTO(type, text(animal, "breed"), sex.substring(0, 1), image, name, size, age,
+            text(animal, "location"), secondaryImages);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        String text = value.isNull() ? "" : value.asText("").trim();
+        return text.isEmpty() ? null : text;
+    }
+}
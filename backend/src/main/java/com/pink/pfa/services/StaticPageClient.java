@@ -0,0 +1,190 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Downloads the static HTML of a page without a browser.
+ * <p>
+ * One {@link HttpClient} is shared by every scrape, so connections to a host are pooled and kept
+ * alive across pages, and HTTP/2 is used where the server offers it. Responses are requested
+ * compressed and decompressed here, and a page downloaded before can be asked for only if it has
+ * changed since. Failures are reported with Jsoup's exceptions, as
+ * {@code Jsoup.connect(url).get()} would, so callers can tell a refusal from a missing page.
+ */
+@Component
+public class StaticPageClient {
+    private static final String USER_AGENT =
+        "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0 Safari/537.36";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client;
+
+    public StaticPageClient() {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(TIMEOUT)
+            .build();
+    }
+
+    /**
+     * Downloads and parses a page.
+     *
+     * @param url the page
+     * @return the page, with relative links resolved against the final url after redirects
+     * @throws HttpStatusException         if the server answered with an error status
+     * @throws UnsupportedMimeTypeException if the response is not HTML
+     * @throws IOException                 if the page could not be downloaded
+     */
+    public Document fetch(String url) throws IOException {
+        return fetch(url, null, null).document();
+    }
+
+    /**
+     * A page downloaded with the validators the server sent for it.
+     *
+     * @param document     the page, or {@code null} if the server answered that it has not changed
+     * @param etag         the page's {@code ETag}, or {@code null} if none was sent
+     * @param lastModified the page's {@code Last-Modified}, or {@code null} if none was sent
+     */
+    public record Page(Document document, String etag, String lastModified) {
+        /** @return whether the server answered that the page has not changed */
+        public boolean notModified() {
+            return document == null;
+        }
+    }
+
+    /**
+     * Downloads and parses a page unless it has not changed since it was last downloaded.
+     *
+     * @param url          the page
+     * @param etag         the {@code ETag} it was last downloaded with, or {@code null}
+     * @param lastModified the {@code Last-Modified} it was last downloaded with, or {@code null}
+     * @return the page and its validators; without a document if the server answered
+     *         {@code 304 Not Modified}, in which case the given validators are kept
+     * @throws HttpStatusException         if the server answered with an error status
+     * @throws UnsupportedMimeTypeException if the response is not HTML
+     * @throws IOException                 if the page could not be downloaded
+     */
+    public Page fetch(String url, String etag, String lastModified) throws IOException {
+        HttpResponse<InputStream> response = send(url, "text/html,application/xhtml+xml", etag, lastModified);
+        if (response.statusCode() == 304) {
+            response.body().close();
+            return new Page(null, response.headers().firstValue("ETag").orElse(etag),
+                response.headers().firstValue("Last-Modified").orElse(lastModified));
+        }
+        String finalUrl = response.uri().toString();
+        try (InputStream body = decode(response)) {
+            String contentType = response.headers().firstValue("Content-Type").orElse("text/html");
+            if (!contentType.toLowerCase(Locale.ROOT).contains("html")) {
+                throw new UnsupportedMimeTypeException("Unhandled content type", contentType, finalUrl);
+            }
+            return new Page(Jsoup.parse(body, charset(contentType), finalUrl),
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null));
+        }
+    }
+
+    /**
+     * Downloads a JSON document, asking for it the way a page's own scripts do.
+     *
+     * @param url the document
+     * @return the document's text
+     * @throws HttpStatusException         if the server answered with an error status
+     * @throws UnsupportedMimeTypeException if the response is not JSON
+     * @throws IOException                 if the document could not be downloaded
+     */
+    public String fetchJson(String url) throws IOException {
+        HttpResponse<InputStream> response = send(url, "application/json", null, null);
+        try (InputStream body = decode(response)) {
+            String contentType = response.headers().firstValue("Content-Type").orElse("application/json");
+            if (!contentType.toLowerCase(Locale.ROOT).contains("json")) {
+                throw new UnsupportedMimeTypeException("Unhandled content type", contentType, response.uri().toString());
+            }
+            String charset = charset(contentType);
+            return new String(body.readAllBytes(), charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8);
+        }
+    }
+
+    // Sends a GET, conditional if validators are given, failing on an error status before the body is read
+    private HttpResponse<InputStream> send(String url, String accept, String etag, String lastModified)
+        throws IOException {
+        HttpRequest request;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(TIMEOUT)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", accept)
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET();
+            // Providers only answer with JSON to what looks like their own scripts
+            if (accept.contains("json")) {
+                builder.header("X-Requested-With", "XMLHttpRequest");
+            }
+            if (etag != null) {
+                builder.header("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                builder.header("If-Modified-Since", lastModified);
+            }
+            request = builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid url " + url, e);
+        }
+
+        HttpResponse<InputStream> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + url, e);
+        }
+
+        if (response.statusCode() >= 400) {
+            response.body().close();
+            throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), response.uri().toString());
+        }
+        return response;
+    }
+
+    private static InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(response.body());
+            case "deflate" -> new InflaterInputStream(response.body());
+            default -> response.body();
+        };
+    }
+
+    // Null lets Jsoup detect the charset from the page's meta tag
+    private static String charset(String contentType) {
+        int at = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (at < 0) {
+            return null;
+        }
+        String name = contentType.substring(at + "charset=".length()).replace("\"", "").split(";")[0].trim();
+        try {
+            return Charset.forName(name).name();
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8.name();
+        }
+    }
+}
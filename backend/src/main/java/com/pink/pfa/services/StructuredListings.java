@@ -0,0 +1,125 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.pink.pfa.models.datatransfer.ScrapedPetDTO;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+
+/**
+ * Serves pets from their providers' structured listing payloads for the rest of a scrape run.
+ * <p>
+ * The first pet of a shelter downloads the shelter's payload through its {@link ListingAdapter};
+ * every other pet of the shelter is then answered from it, so a site costs one download per
+ * shelter rather than one page load per pet. A lookup made while the payload is still
+ * downloading waits for that download rather than starting another. A payload that cannot be
+ * downloaded or read counts as empty, and pets it does not list are reported as not found so
+ * the caller scrapes their pages instead.
+ * <p>
+ * One instance is meant to live for one run; it is safe to use from several threads.
+ */
+class StructuredListings {
+    private static final Logger log = LoggerFactory.getLogger(StructuredListings.class);
+
+    /** Downloads a payload. */
+    @FunctionalInterface
+    interface PayloadFetcher {
+        String fetch(String url) throws IOException;
+    }
+
+    private final PayloadFetcher fetcher;
+    private final List<ListingAdapter> adapters;
+    private final Map<String, CompletableFuture<Map<String, ScrapedPetDTO>>> payloads = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder failedFetches = new LongAdder();
+    private final LongAdder listed = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    StructuredListings(PayloadFetcher fetcher) {
+        this(fetcher, List.of(new ShelterLuvListingAdapter(), new PetfinderListingAdapter()));
+    }
+
+    StructuredListings(PayloadFetcher fetcher, List<ListingAdapter> adapters) {
+        this.fetcher = fetcher;
+        this.adapters = adapters;
+    }
+
+    /**
+     * Looks a pet up in its shelter's payload.
+     *
+     * @param link the pet's page
+     * @return the pet, or {@code null} if no adapter handles the link or the payload does not
+     *         list the pet
+     */
+    ScrapedPetDTO find(PetLink link) {
+        lookups.increment();
+        for (ListingAdapter adapter : adapters) {
+            String payloadUrl = adapter.payloadUrl(link);
+            String id = adapter.animalId(link);
+            if (payloadUrl == null || id == null) {
+                continue;
+            }
+
+            ScrapedPetDTO pet = payload(adapter, payloadUrl, link).get(id);
+            if (pet != null) {
+                listed.increment();
+                return pet;
+            }
+            fallbacks.increment();
+            return null;
+        }
+        return null;
+    }
+
+    private Map<String, ScrapedPetDTO> payload(ListingAdapter adapter, String url, PetLink link) {
+        CompletableFuture<Map<String, ScrapedPetDTO>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<String, ScrapedPetDTO>> known = payloads.putIfAbsent(url, mine);
+        if (known != null) {
+            return known.join();
+        }
+
+        Map<String, ScrapedPetDTO> pets = Map.of();
+        try {
+            fetches.increment();
+            pets = adapter.read(fetcher.fetch(url), link);
+        } catch (IOException | RuntimeException e) {
+            failedFetches.increment();
+            log.warn("Failed to read listing payload {}: {}", url, e.getMessage());
+        } finally {
+            mine.complete(pets);
+        }
+        return pets;
+    }
+
+    /** @return the lookup and download totals so far */
+    Stats stats() {
+        return new Stats(lookups.sum(), fetches.sum(), failedFetches.sum(), listed.sum(), fallbacks.sum());
+    }
+
+    /**
+     * Lookup and download totals of one run.
+     *
+     * @param lookups       pets looked up
+     * @param fetches       payloads downloaded
+     * @param failedFetches payloads that could not be downloaded or read
+     * @param listed        pets answered from a payload, without loading their page
+     * @param fallbacks     pets of a supported provider left to their page, not being in its payload
+     */
+    record Stats(long lookups, long fetches, long failedFetches, long listed, long fallbacks) {
+        @Override
+        public String toString() {
+            return String.format("%d lookups, %d payloads (%d failed), %d pets listed, %d left to their pages",
+                lookups, fetches, failedFetches, listed, fallbacks);
+        }
+    }
+}
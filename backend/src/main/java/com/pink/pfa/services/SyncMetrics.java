@@ -0,0 +1,53 @@
+package com.pink.pfa.services;
+
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Running totals of the chunks written by the scrape sync since the application started, served
+ * by {@code /api/webScraper/syncMetrics}.
+ * <p>
+ * Updated from the sync workers; safe to use from several threads.
+ */
+@Component
+public class SyncMetrics {
+    private long chunks;
+    private long rows;
+    private long totalMillis;
+    private long maxMillis;
+    private int largestChunk;
+
+    /**
+     * Counts one committed chunk.
+     *
+     * @param rows   pets written by the chunk
+     * @param millis time from the chunk's first write to its commit
+     */
+    public synchronized void chunkCommitted(int rows, long millis) {
+        this.chunks++;
+        this.rows += rows;
+        this.totalMillis += millis;
+        this.maxMillis = Math.max(maxMillis, millis);
+        this.largestChunk = Math.max(largestChunk, rows);
+    }
+
+    /** @return the totals so far */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(chunks, rows, totalMillis, maxMillis, largestChunk,
+            chunks == 0 ? 0 : (double) rows / chunks, chunks == 0 ? 0 : (double) totalMillis / chunks);
+    }
+
+    /**
+     * Chunk totals at one point in time.
+     *
+     * @param chunks        chunks committed
+     * @param rows          pets written across all chunks
+     * @param totalMillis   time spent writing chunks
+     * @param maxMillis     slowest chunk
+     * @param largestChunk  most pets written by one chunk
+     * @param averageRows   pets per chunk
+     * @param averageMillis time per chunk
+     */
+    public record Snapshot(long chunks, long rows, long totalMillis, long maxMillis, int largestChunk,
+        double averageRows, double averageMillis) {}
+}
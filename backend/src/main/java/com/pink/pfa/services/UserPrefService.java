@@ -1,6 +1,7 @@
 package com.pink.pfa.services;
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.pink.pfa.controllers.requests.UserPrefRequest;
@@ -11,21 +12,25 @@ import com.pink.pfa.models.UserPreferences.Preference;
 import com.pink.pfa.models.datatransfer.UserDTO;
 import com.pink.pfa.repos.UserPreferencesRepository;
 import com.pink.pfa.repos.UserRepository;
+import com.pink.pfa.services.ranking.UserPreferencesChangedEvent;
 
 @Service
 public class UserPrefService {
     private final UserPreferencesRepository userPrefRepository;
     private final UserRepository userRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher events;
 
     public UserPrefService(
         UserPreferencesRepository userPrefRepository,
         UserRepository userRepository,
-        UserService userService
+        UserService userService,
+        ApplicationEventPublisher events
     ) {
         this.userPrefRepository = userPrefRepository;
         this.userRepository = userRepository;
         this.userService = userService;
+        this.events = events;
     }
 
     public UserPreferences findById(Integer id) { 
@@ -51,6 +56,7 @@ public class UserPrefService {
             .orElseThrow(() -> new RuntimeException("Preference not found or not yours"));
 
         userPrefRepository.delete(pref);
+        events.publishEvent(new UserPreferencesChangedEvent(user.id()));
     }
 
     public UserPreferences createNewPref(UserPrefRequest prefRequest) {
@@ -61,6 +67,7 @@ public class UserPrefService {
         );
 
         UserPreferences savedPref = userPrefRepository.save(UserPreferences);
+        events.publishEvent(new UserPreferencesChangedEvent(user.id()));
         return savedPref;
     }
 }
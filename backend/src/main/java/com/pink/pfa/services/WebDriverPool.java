@@ -0,0 +1,303 @@
+package com.pink.pfa.services;
+
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+
+/**
+ * Pool of WebDriver sessions in the Chrome container, leased to scrape tasks one at a time.
+ * <p>
+ * At most {@code pfa.scrape.sessions} sessions exist at once; a lease waits while they are all
+ * taken. An idle session is health-checked before it is leased again and replaced if the
+ * container has dropped it. A returned session is quit instead of kept once it has loaded
+ * {@code pfa.scrape.session-max-pages} pages or its JavaScript heap has grown past
+ * {@code pfa.scrape.session-max-heap-mb}, since long-lived Chrome tabs only get slower.
+ * <p>
+ * Lease waits and session churn are counted and served by {@code /api/webScraper/sessionMetrics}.
+ */
+@Component
+public class WebDriverPool {
+    private static final Logger log = LoggerFactory.getLogger(WebDriverPool.class);
+
+    private final Supplier<RemoteWebDriver> factory;
+    private final int capacity;
+    private final int maxPages;
+    private final long maxHeapBytes;
+    private final Semaphore leases;
+    private final Deque<PooledDriver> idle = new ConcurrentLinkedDeque<>();
+
+    private long leased;
+    private long totalWaitMillis;
+    private long maxWaitMillis;
+    private long created;
+    private long recycledForPages;
+    private long recycledForMemory;
+    private long discardedUnhealthy;
+    private long discardedBroken;
+
+    /**
+     * Creates a pool of sessions in the Chrome container.
+     *
+     * @param capacity   most sessions open at once
+     * @param maxPages   pages a session loads before it is recycled
+     * @param maxHeapMb  JavaScript heap, in megabytes, past which a session is recycled
+     */
+    @Autowired
+    public WebDriverPool(
+        @Value("${pfa.scrape.sessions:4}") int capacity,
+        @Value("${pfa.scrape.session-max-pages:200}") int maxPages,
+        @Value("${pfa.scrape.session-max-heap-mb:512}") int maxHeapMb
+    ) {
+        this(WebDriverPool::createDriver, capacity, maxPages, maxHeapMb * 1024L * 1024L);
+    }
+
+    WebDriverPool(Supplier<RemoteWebDriver> factory, int capacity, int maxPages, long maxHeapBytes) {
+        if (capacity < 1 || maxPages < 1) {
+            throw new IllegalArgumentException("WebDriver pool capacity and max pages must be at least 1");
+        }
+        this.factory = factory;
+        this.capacity = capacity;
+        this.maxPages = maxPages;
+        this.maxHeapBytes = maxHeapBytes;
+        this.leases = new Semaphore(capacity, true);
+    }
+
+    /** @return most sessions open at once */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Leases a session, waiting while all of them are taken.
+     *
+     * @return the lease; the caller must close it, in a {@code finally} block or
+     *         try-with-resources, to give the session back
+     * @throws IllegalStateException if interrupted while waiting, or no session could be opened
+     */
+    public Lease lease() {
+        long started = System.nanoTime();
+        try {
+            leases.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a WebDriver session", e);
+        }
+        long waitMillis = (System.nanoTime() - started) / 1_000_000;
+        synchronized (this) {
+            leased++;
+            totalWaitMillis += waitMillis;
+            maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+        }
+
+        try {
+            return new Lease(take());
+        } catch (RuntimeException e) {
+            leases.release();
+            throw e;
+        }
+    }
+
+    // Most recently returned healthy session first, so the warm ones are reused
+    private PooledDriver take() {
+        PooledDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            if (driver.healthy()) {
+                return driver;
+            }
+            synchronized (this) {
+                discardedUnhealthy++;
+            }
+            driver.quit();
+        }
+        driver = new PooledDriver(factory.get());
+        synchronized (this) {
+            created++;
+        }
+        return driver;
+    }
+
+    private void giveBack(PooledDriver driver, boolean broken) {
+        try {
+            if (broken) {
+                synchronized (this) {
+                    discardedBroken++;
+                }
+                driver.quit();
+            } else if (driver.pages.get() >= maxPages) {
+                synchronized (this) {
+                    recycledForPages++;
+                }
+                driver.quit();
+            } else if (driver.heapBytes() > maxHeapBytes) {
+                synchronized (this) {
+                    recycledForMemory++;
+                }
+                driver.quit();
+            } else {
+                idle.offerFirst(driver);
+            }
+        } finally {
+            leases.release();
+        }
+    }
+
+    /** Quits the sessions nobody is using, so they are not held open between scrape runs. */
+    public void closeIdle() {
+        PooledDriver driver;
+        while ((driver = idle.pollFirst()) != null) {
+            driver.quit();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closeIdle();
+    }
+
+    /** @return the lease and churn totals so far */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(leased, totalWaitMillis, maxWaitMillis, leased == 0 ? 0 : (double) totalWaitMillis / leased,
+            created, recycledForPages, recycledForMemory, discardedUnhealthy, discardedBroken,
+            capacity - leases.availablePermits(), idle.size());
+    }
+
+    /**
+     * Opens a new session in the Chrome container, configured to look like a regular browser.
+     * <p>
+     * Use "http://localhost:4444/wd/hub" if running script on host, "http://chrome:4444/wd/hub"
+     * if the application is also in a Docker container.
+     */
+    private static RemoteWebDriver createDriver() {
+        // Set up headless browser so it can best replicate the conditions of an actual browser
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.setExperimentalOption("excludeSwitches", Collections.singletonList("enable-automation"));
+        options.setExperimentalOption("useAutomationExtension", false);
+        try {
+            return new RemoteWebDriver(URI.create("http://chrome:4444/wd/hub").toURL(), options);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid Chrome container URL", e);
+        }
+    }
+
+    /**
+     * A session leased from the pool. Closing the lease gives the session back.
+     */
+    public final class Lease implements AutoCloseable {
+        private final PooledDriver driver;
+        private boolean broken;
+        private boolean closed;
+
+        private Lease(PooledDriver driver) {
+            this.driver = driver;
+        }
+
+        /** @return the leased session; only valid until the lease is closed */
+        public WebDriver driver() {
+            return driver.decorated;
+        }
+
+        /** Marks the session as broken, so it is quit rather than leased again. */
+        public void invalidate() {
+            broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                giveBack(driver, broken);
+            }
+        }
+    }
+
+    // A session and the number of pages it has loaded
+    private static final class PooledDriver {
+        private final RemoteWebDriver raw;
+        private final WebDriver decorated;
+        private final AtomicInteger pages = new AtomicInteger();
+
+        PooledDriver(RemoteWebDriver raw) {
+            this.raw = raw;
+            this.decorated = new WebDriverDecorator<WebDriver>() {
+                @Override
+                public void afterCall(Decorated<?> target, Method method, Object[] args, Object result) {
+                    if (target.getOriginal() instanceof WebDriver && method.getName().equals("get")) {
+                        pages.incrementAndGet();
+                    }
+                }
+            }.decorate(raw);
+        }
+
+        // A round trip to the container; fails if the session has timed out or Chrome crashed
+        boolean healthy() {
+            try {
+                raw.getWindowHandle();
+                return true;
+            } catch (RuntimeException e) {
+                log.info("Dropping stale WebDriver session: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        long heapBytes() {
+            try {
+                Object used = ((JavascriptExecutor) raw)
+                    .executeScript("return window.performance && performance.memory ? performance.memory.usedJSHeapSize : 0;");
+                return used instanceof Number number ? number.longValue() : 0;
+            } catch (RuntimeException e) {
+                return 0;
+            }
+        }
+
+        void quit() {
+            try {
+                raw.quit();
+            } catch (RuntimeException e) {
+                log.warn("Failed to quit WebDriver session: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lease and churn totals at one point in time.
+     *
+     * @param leases             sessions leased
+     * @param totalWaitMillis    time spent waiting for a session
+     * @param maxWaitMillis      longest wait for a session
+     * @param averageWaitMillis  wait per lease
+     * @param created            sessions opened
+     * @param recycledForPages   sessions quit for having loaded too many pages
+     * @param recycledForMemory  sessions quit for having grown too large a heap
+     * @param discardedUnhealthy idle sessions found dead when about to be leased
+     * @param discardedBroken    sessions quit after failing while leased
+     * @param inUse              sessions leased right now
+     * @param idle               sessions open and waiting to be leased
+     */
+    public record Snapshot(long leases, long totalWaitMillis, long maxWaitMillis, double averageWaitMillis,
+        long created, long recycledForPages, long recycledForMemory, long discardedUnhealthy, long discardedBroken,
+        int inUse, int idle) {}
+}
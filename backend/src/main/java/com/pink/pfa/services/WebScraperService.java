@@ -1,19 +1,19 @@
 package com.pink.pfa.services;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Clock;
 import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.jsoup.Jsoup;
@@ -24,22 +24,23 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.pink.pfa.models.AdoptionSite;
 import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.PetFingerprint;
 import com.pink.pfa.models.datatransfer.ScrapedPetDTO;
-
-import jakarta.persistence.NoResultException;
+import com.pink.pfa.repos.CrawlFrontierRepository;
+import com.pink.pfa.repos.ScrapedPageRepository;
+import com.pink.pfa.repos.ScrapedPageRepository.ScrapedPage;
 
 /**
  * Service responsible for scraping pet adoption websites.
@@ -58,15 +59,136 @@ import jakarta.persistence.NoResultException;
 public class WebScraperService {
     private static final Logger log = LoggerFactory.getLogger(WebScraperService.class);
 
+    /** Sessions every scrape runs on; a {@link ScrapeSession} starts one worker per session. */
+    @Autowired
+    private WebDriverPool driverPool;
+
+    /** Downloads pages that can be read without a browser. */
+    @Autowired
+    private StaticPageClient staticPageClient;
+
+    /** Remembers pet pages between runs, so unchanged ones are not extracted again. */
+    @Autowired
+    private ScrapedPageRepository scrapedPageRepository;
+
+    /** Remembers each site's listing pages and when its pet pages are next due. */
+    @Autowired
+    private CrawlFrontierRepository crawlFrontierRepository;
+
+    /** Hours before a pet page found changed is loaded again. */
+    @Value("${pfa.crawl.revisit-hours:24}")
+    private int revisitHours = 24;
+
+    /** Most hours before a pet page found unchanged again and again is loaded again. */
+    @Value("${pfa.crawl.max-revisit-hours:168}")
+    private int maxRevisitHours = 168;
+
+    /** Days between crawls of a site from its root, to find listing pages added since. */
+    @Value("${pfa.crawl.full-crawl-days:7}")
+    private int fullCrawlDays = 7;
+
+    /** Most pages of one host a {@link ScrapeSession} loads at once. */
+    @Value("${pfa.scrape.per-host:2}")
+    private int perHost = 2;
+
     public WebScraperService() {}
 
+    /**
+     * Starts a session that scrapes several sites concurrently, on every session of the
+     * {@link WebDriverPool} and with at most {@code pfa.scrape.per-host} pages of a host at once.
+     *
+     * @return the session; the caller must close it
+     */
+    public ScrapeSession OpenSession() {
+        HostLimiter hosts = new HostLimiter(perHost);
+        return new ScrapeSession(this, driverPool, hosts, NewPageClassifier(hosts), NewStructuredListings(hosts),
+            NewPageHistory(hosts), NewCrawlFrontier());
+    }
+
+    /**
+     * Starts the page classification of a scrape run, downloading pages with the shared
+     * {@link StaticPageClient}.
+     *
+     * @param hosts host slots of the run, taken by every download
+     * @return the classifier, to be used for the whole run
+     */
+    PageClassifier NewPageClassifier(HostLimiter hosts) {
+        return new PageClassifier(url -> {
+            try (HostLimiter.Slot slot = hosts.acquire(url)) {
+                return staticPageClient.fetch(url);
+            }
+        });
+    }
+
+    /**
+     * Starts the structured listing lookups of a scrape run, downloading payloads with the shared
+     * {@link StaticPageClient}.
+     *
+     * @param hosts host slots of the run, taken by every download
+     * @return the lookups, to be used for the whole run
+     */
+    StructuredListings NewStructuredListings(HostLimiter hosts) {
+        return new StructuredListings(url -> {
+            try (HostLimiter.Slot slot = hosts.acquire(url)) {
+                return staticPageClient.fetchJson(url);
+            }
+        });
+    }
+
+    /**
+     * Starts the page history of a scrape run, revalidating pages with the shared
+     * {@link StaticPageClient}.
+     *
+     * @param hosts host slots of the run, taken by every revalidation
+     * @return the history, to be used for the whole run
+     */
+    PageHistory NewPageHistory(HostLimiter hosts) {
+        return new PageHistory(scrapedPageRepository, (url, etag, lastModified) -> {
+            try (HostLimiter.Slot slot = hosts.acquire(url)) {
+                return staticPageClient.fetch(url, etag, lastModified);
+            }
+        });
+    }
+
+    /**
+     * Starts the crawl frontier of a scrape run, scheduling pet pages by {@code pfa.crawl.*}.
+     *
+     * @return the frontier, to be used for the whole run
+     */
+    CrawlFrontier NewCrawlFrontier() {
+        return new CrawlFrontier(crawlFrontierRepository, Clock.systemUTC(), Duration.ofHours(revisitHours),
+            Duration.ofHours(maxRevisitHours), Duration.ofDays(fullCrawlDays));
+    }
+
+    /** Links to a listing provider's pages, or its embedded iframes, in a page's static HTML. */
+    private static final String PROVIDER_CONTENT = "a[href*=shelterluv.com], a[href*=petfinder.com], "
+        + "iframe[src*=shelterluv.com], iframe[src*=petfinder.com], iframe[srcdoc*=pet-scroller]";
+
     /**
      * Enum representing supported pet listing display providers.
+     * <p>
+     * Each provider declares whether its listing and pet pages need JavaScript to show their
+     * content. Pages that don't are downloaded as plain HTML first and only rendered in Chrome
+     * when the download fails or lacks the content. A page of no known provider may still have its
+     * links added by scripts, so its static HTML only does if it already links to a provider.
      */
     enum PetDisplayMethod {
-        SHELTER_LUV,    /** ShelterLuv embedded pet listing system */
-        PETFINDER,      /** PetFinder embedded pet listing system */
-        UNSUPPORTED     /** Unsupported listing structure */
+        SHELTER_LUV(true, null, true, "div[data-cy=name]"),                    /** ShelterLuv embedded pet listing system */
+        PETFINDER(true, null, false, "section#pet-details-about-section"),     /** PetFinder embedded pet listing system */
+        UNSUPPORTED(false, PROVIDER_CONTENT, false, null);                      /** Unsupported listing structure */
+
+        final boolean listingNeedsJavaScript;   /** Listing pages add their pet links with scripts (iframes, widgets) */
+        final String listingContent;            /** Selector a listing page's static HTML must match to be used as is */
+        final boolean detailNeedsJavaScript;    /** Pet pages fill in their details with scripts */
+        final String detailContent;             /** Selector a pet page's static HTML must match to be used as is */
+
+        PetDisplayMethod(boolean listingNeedsJavaScript, String listingContent, boolean detailNeedsJavaScript,
+            String detailContent) {
+            this.listingNeedsJavaScript = listingNeedsJavaScript;
+            this.listingContent = listingContent;
+            this.detailNeedsJavaScript = detailNeedsJavaScript;
+            this.detailContent = detailContent;
+        }
     };
 
     // Gets all pet urls from a petfinder widget
@@ -134,15 +256,36 @@ public class WebScraperService {
      * Extracts dynamic URLs from a given page using Selenium and Jsoup.
      * <p>
      * For Petfinder widgets, this method performs specialized Shadow DOM traversal
-     * and handles internal pagination within the pet-scroller component.
+     * and handles internal pagination within the pet-scroller component. Pages of no known
+     * provider are read from their static HTML instead when that HTML already links to a listing
+     * provider or embeds one; any other page is rendered, since scripts may add its links.
      *
      * @param url The URL to inspect.
      * @param iframeClass Filter for identifying specific provider iframes.
      * @param anchorClass Filter for identifying specific pet profile links.
      * @param driver Active Selenium WebDriver instance.
+     * @param pages Classifier of the current scrape run.
+     * @param hosts Host slots of the current scrape run; the page holds one while it is rendered.
      * @return A list of discovered URLs (e.g., direct animal profile links).
      */
-    List<String> FindURLS(String url, String iframeClass, String anchorClass, WebDriver driver) {
+    List<String> FindURLS(String url, String iframeClass, String anchorClass, WebDriver driver, PageClassifier pages,
+        HostLimiter hosts) {
+        PetDisplayMethod displayType = pages.classify(url);
+
+        // Pages whose static HTML already reaches a provider are read without the browser
+        Document staticDoc = pages.staticPage(url, displayType.listingNeedsJavaScript, displayType.listingContent);
+        if (staticDoc != null) {
+            return FindAnchorURLS(staticDoc, anchorClass);
+        }
+
+        try (HostLimiter.Slot slot = hosts.acquire(url)) {
+            return FindRenderedURLS(url, iframeClass, anchorClass, driver, displayType);
+        }
+    }
+
+    // Renders a listing page in the browser and collects its links, widgets and provider iframes
+    private List<String> FindRenderedURLS(String url, String iframeClass, String anchorClass, WebDriver driver,
+        PetDisplayMethod displayType) {
         List<String> dynamicUrls = new ArrayList<>();
         WebDriverWait wait = new WebDriverWait(driver, Duration.ofMillis(100));
 
@@ -164,19 +307,13 @@ public class WebScraperService {
 
         // Finds any anchor tags and adds their href links to the list of urls
         Document doc = Jsoup.parse(driver.getPageSource());
-        Elements anchors = doc.select("a").stream()
-            .filter(anchor -> anchor.attr("class").contains(anchorClass))
-            .collect(Collectors.toCollection(Elements::new));
-        for (Element anchor : anchors) {
-            dynamicUrls.add(anchor.attr("href"));
-        }
+        dynamicUrls.addAll(FindAnchorURLS(doc, anchorClass));
 
         // Finds any iframe tags and adds their associated links to the list of urls
         List<WebElement> iframes = driver.findElements(By.tagName("iframe")).stream()
             .filter(iframe -> iframe.getAttribute("class").contains(iframeClass))
             .collect(Collectors.toCollection(ArrayList::new));
 
-        PetDisplayMethod displayType = FindPetDisplayMethod(url);
         if (displayType == PetDisplayMethod.PETFINDER) {
             try {
                 dynamicUrls.addAll(
@@ -221,58 +358,63 @@ public class WebScraperService {
         return dynamicUrls;
     }
 
+    // Gets the href of every anchor whose class contains the given one
+    List<String> FindAnchorURLS(Document doc, String anchorClass) {
+        List<String> urls = new ArrayList<>();
+        Elements anchors = doc.select("a").stream()
+            .filter(anchor -> anchor.attr("class").contains(anchorClass))
+            .collect(Collectors.toCollection(Elements::new));
+        for (Element anchor : anchors) {
+            urls.add(anchor.attr("href"));
+        }
+        return urls;
+    }
+
     /**
-     * Determines the pet display provider by inspecting URL patterns 
-     * and searching for specific provider script/iframe fingerprints in the DOM.
+     * Sizes a pet by its weight, on the scale ShelterLuv pets are listed with.
      *
-     * @param url The URL to inspect.
-     * @return The detected {@link PetDisplayMethod}, or UNSUPPORTED if no match is found.
+     * @param type   the pet's type ("Dog" or "Cat")
+     * @param pounds the pet's weight in pounds
+     * @return "Small", "Medium", "Large" or "Extra Large", or "Unknown" for other types
      */
-    PetDisplayMethod FindPetDisplayMethod(String url) {
-        // If the url contains the shelterluv hostname then it is a shelterluv site
-        if (url.contains("shelterluv.com")) {
-            return PetDisplayMethod.SHELTER_LUV;
-        }
-
-        // If the url contains petfinders.com then it is a petfinders site
-        if (url.contains("petfinder.com")) {
-            return PetDisplayMethod.PETFINDER;
-        }
-
-        try {
-            // If the doc contains any shelterluv scripts then it is a shelterluv site
-            Document doc = Jsoup.connect(url).get();
-            Elements shelterLuvScripts = doc.select("script").stream()
-                .filter(element -> element.attr("src").contains("new.shelterluv.com"))
-                .collect(Collectors.toCollection(Elements::new));
-
-            if (shelterLuvScripts.size() > 0) {
-                return PetDisplayMethod.SHELTER_LUV;
+    static String SizeFromWeight(String type, double pounds) {
+        String sizeType = "Unknown";
+        switch (type) {
+            case "Dog": {
+                if (pounds < 25) sizeType = "Small";
+                if (pounds >= 25 && pounds < 60) sizeType = "Medium";
+                if (pounds >= 60 && pounds < 100) sizeType = "Large";
+                if (pounds >= 100) sizeType = "Extra Large";
+                break;
             }
-        } catch (Exception e) {
-            System.out.println("Failed to find document when determining if this was a shelterluv site");
-        }
-  
-        try {
-            // If the doc contains any iframes using the pet-scroller widget then it is a petfinder site
-            Document doc = Jsoup.connect(url).get();
-            Elements petfinderIframes = doc.select("iframe").stream()
-                .filter(element -> element.attr("srcdoc").contains("</pet-scroller>"))
-                .collect(Collectors.toCollection(Elements::new));
-
-            Elements petfinderScripts = doc.select("script").stream()
-                .filter(element -> element.attr("src").contains("pet-scroller"))
-                .collect(Collectors.toCollection(Elements::new));
-
-            if (petfinderScripts.size() > 0 || petfinderIframes.size() > 0) {
-                System.out.println("Petfinder Site");
-                return PetDisplayMethod.PETFINDER;
+            case "Cat": {
+                if (pounds < 8) sizeType = "Small";
+                if (pounds >= 8 && pounds < 12) sizeType = "Medium";
+                if (pounds >= 12 && pounds < 15) sizeType = "Large";
+                if (pounds >= 15) sizeType = "Extra Large";
+                break;
             }
-        } catch (Exception e) {
-            System.out.println("Failed to find document when determining if this was a petfinder site");
         }
+        return sizeType;
+    }
 
-        return PetDisplayMethod.UNSUPPORTED;
+    /**
+     * Converts the age range Petfinder shows on a pet page, such as "(2-4 years)",
+     * "(less than 1 year)" or "(8+ years)", into weeks.
+     *
+     * @param range the age range text
+     * @return the age in weeks
+     * @throws NumberFormatException if the text is not an age range
+     */
+    static int PetFinderAgeWeeks(String range) {
+        String formattedAge = range
+            .replace("(", "")
+            .replace("+ years)", "")
+            .replace(" years)", "")
+            .replace("less than ", "")
+            .replace(" year)", "");
+        String[] ageComponents = formattedAge.split("-");
+        return ageComponents.length == 2 ? (Integer.parseInt(ageComponents[1]) - Integer.parseInt(ageComponents[0])) / 2 * 52 : Integer.parseInt(ageComponents[0]) * 52;
     }
 
     /**
@@ -322,6 +464,7 @@ public class WebScraperService {
         protected String mainUrl;               /** Original url that was passed into the current scraping session */
         protected String currUrl;               /** Current url that is being scrapped */
         protected Map<String, Object> petInfo;  /** Internal storage for scraped pet data */
+        protected Document page;                /** The pet page as first read */
 
         /**
          * Constructs a new builder instance.
@@ -365,7 +508,7 @@ public class WebScraperService {
     class ShelterLuvBuilder extends PetInfoBuilder {
         Element petImage = null;    /** Pet profile image element */
         Element mainInfoDiv = null; /** Main information container element */
-        WebDriver driver = null;     /** Selenium WebDriver instance */
+        WebDriver driver = null;     /** Selenium WebDriver instance, or null if the page was not rendered */
 
         /**
          * Creates a ShelterLuv builder and loads the pet page.
@@ -389,7 +532,24 @@ public class WebScraperService {
                 System.out.println("No images could be found");
             }
 
-            Document doc = Jsoup.parse(driver.getPageSource());
+            Read(Jsoup.parse(driver.getPageSource()));
+        }
+
+        /**
+         * Creates a ShelterLuv builder over a pet page downloaded as plain HTML.
+         *
+         * @param origSiteUrl Original parent URL.
+         * @param currUrl Specific ShelterLuv pet URL.
+         * @param page The downloaded pet page.
+         */
+        public ShelterLuvBuilder(String origSiteUrl, String currUrl, Document page) {
+            super(origSiteUrl, currUrl);
+            Read(page);
+        }
+
+        // Finds the elements the Add methods read from
+        private void Read(Document doc) {
+            this.page = doc;
 
             // Attempts to find the pet image associated with the current pet
             petImage = doc.select("img").stream()
@@ -540,24 +700,7 @@ public class WebScraperService {
                 if (size != null && petInfo.containsKey("Type")) {
                     String formattedSize = size.text().replace(" lbs", "");
                     double sizeVal = Double.parseDouble(formattedSize);
-                    String sizeType = "Unknown";
-                    switch (petInfo.get("Type").toString()) {
-                        case "Dog": {
-                            if (sizeVal < 25) sizeType = "Small";
-                            if (sizeVal >= 25 && sizeVal < 60) sizeType = "Medium";
-                            if (sizeVal >= 60 && sizeVal < 100) sizeType = "Large";
-                            if (sizeVal >= 100) sizeType = "Extra Large";
-                            break;
-                        }
-                        case "Cat": {
-                            if (sizeVal < 8) sizeType = "Small";
-                            if (sizeVal >= 8 && sizeVal < 12) sizeType = "Medium";
-                            if (sizeVal >= 12 && sizeVal < 15) sizeType = "Large";
-                            if (sizeVal >= 15) sizeType = "Extra Large";
-                            break;
-                        }
-                    }
-                    petInfo.put("Size", sizeType);
+                    petInfo.put("Size", SizeFromWeight(petInfo.get("Type").toString(), sizeVal));
                 }
             }
 
@@ -602,7 +745,8 @@ public class WebScraperService {
          /** {@inheritDoc} */
         @Override
         public PetInfoBuilder AddSecondaryImages() {
-            Document doc = Jsoup.parse(driver.getPageSource());
+            // A rendered page may have loaded more of its gallery since it was first read
+            Document doc = driver != null ? Jsoup.parse(driver.getPageSource()) : page;
             Elements petImages = doc.select("img").stream()
                 .filter(element -> element.attr("src").contains("shelterluv.com") 
                                 && element.attr("src").contains("profile-pictures") 
@@ -635,7 +779,7 @@ public class WebScraperService {
     class PetFinderBuilder extends PetInfoBuilder {
         Element petImage = null;    /** Pet profile image element */
         Element mainInfoDiv = null; /** Main information container element */
-        WebDriver driver = null;     /** Selenium WebDriver instance */
+        WebDriver driver = null;     /** Selenium WebDriver instance, or null if the page was not rendered */
 
         /**
          * Constructs a PetFinder builder and triggers the initial page load.
@@ -665,7 +809,24 @@ public class WebScraperService {
                 System.out.println("Cannot find main info div");
             }
 
-            Document doc = Jsoup.parse(driver.getPageSource());
+            Read(Jsoup.parse(driver.getPageSource()));
+        }
+
+        /**
+         * Constructs a PetFinder builder over a profile page downloaded as plain HTML.
+         *
+         * @param origSiteUrl The parent site URL for context.
+         * @param currUrl The direct Petfinder animal profile URL.
+         * @param page The downloaded profile page.
+         */
+        public PetFinderBuilder(String origSiteUrl, String currUrl, Document page) {
+            super(origSiteUrl, currUrl);
+            Read(page);
+        }
+
+        // Finds the elements the Add methods read from
+        private void Read(Document doc) {
+            this.page = doc;
 
             // Attempts to find the pet image associated with the current pet
             try {
@@ -753,15 +914,7 @@ public class WebScraperService {
                 Element age = mainInfoDiv.selectFirst("h3:contains(Physical Traits) + * > :nth-child(1) > :nth-child(1) > :nth-child(3)");
 
                 if (age != null) {
-                    String formattedAge = age.text()
-                        .replace("(", "")
-                        .replace("+ years)", "")
-                        .replace(" years)", "")
-                        .replace("less than ", "")
-                        .replace(" year)", "");
-                    String[] ageComponents = formattedAge.split("-");
-                    int ageVal = ageComponents.length == 2 ? (Integer.parseInt(ageComponents[1]) - Integer.parseInt(ageComponents[0])) / 2 * 52 : Integer.parseInt(ageComponents[0]) * 52;
-                    petInfo.put("Age", ageVal);
+                    petInfo.put("Age", PetFinderAgeWeeks(age.text()));
                 }
             }
 
@@ -809,7 +962,8 @@ public class WebScraperService {
         /** {@inheritDoc} */
         @Override
         public PetInfoBuilder AddSecondaryImages() {
-            Document doc = Jsoup.parse(driver.getPageSource());
+            // A rendered page may have loaded more of its gallery since it was first read
+            Document doc = driver != null ? Jsoup.parse(driver.getPageSource()) : page;
             Elements petImages = doc.select("section#pet-details-photos-section > :nth-child(1) > :nth-child(2) img[src*=cloudfront.net/animal]");
             
             if (petImages != null) {
@@ -828,27 +982,70 @@ public class WebScraperService {
 
     /**
      * Attempts to scrape raw pet data from a specific profile URL based on detected provider.
+     * <p>
+     * The page is read from its static HTML when the provider does not need JavaScript for pet
+     * pages and that HTML holds the pet's details; otherwise it is rendered by the driver.
      *
      * @param mainUrl The root or listing URL (used for animal type context).
      * @param url The specific direct pet profile URL to scrape.
      * @param driver Active Selenium WebDriver.
+     * @param pages Classifier of the current scrape run.
+     * @param hosts Host slots of the current scrape run; the page holds one while it is rendered.
      * @return Map containing scraped pet fields, or keys "error"/"empty" on failure.
      */
-    Map<String, Object> AttemptScrape(String mainUrl, String url, WebDriver driver) {
+    Map<String, Object> AttemptScrape(String mainUrl, String url, WebDriver driver, PageClassifier pages,
+        HostLimiter hosts) {
+        return AttemptScrape(mainUrl, url, driver, pages, hosts, hash -> false);
+    }
+
+    /**
+     * Attempts to scrape raw pet data from a specific profile URL, unless the page turns out to be
+     * unchanged since it was last scraped.
+     * <p>
+     * Once the page is loaded its detail content is hashed (see {@link PageHistory#contentHash});
+     * the hash is returned under "contentHash" with the pet's fields.
+     *
+     * @param mainUrl The root or listing URL (used for animal type context).
+     * @param url The specific direct pet profile URL to scrape.
+     * @param driver Active Selenium WebDriver.
+     * @param pages Classifier of the current scrape run.
+     * @param hosts Host slots of the current scrape run; the page holds one while it is rendered.
+     * @param unchanged Tells from the page's content hash whether it is unchanged.
+     * @return Map containing scraped pet fields, key "unchanged" if the page was not extracted,
+     *         or keys "error"/"empty" on failure.
+     */
+    Map<String, Object> AttemptScrape(String mainUrl, String url, WebDriver driver, PageClassifier pages,
+        HostLimiter hosts, Predicate<String> unchanged) {
         Map<String, Object> data = new HashMap<>();
 
         try {
-            // Determines the method for scrapping the current site
-            IPetInfoBuilder petInfoBuilder;
-            switch (FindPetDisplayMethod(url)) {
-                case SHELTER_LUV: petInfoBuilder = new ShelterLuvBuilder(mainUrl, url, driver); break;
-                case PETFINDER: petInfoBuilder = new PetFinderBuilder(mainUrl, url, driver); break;
+            // Determines the method for scrapping the current site, and whether its static HTML will do
+            PetInfoBuilder petInfoBuilder;
+            PetDisplayMethod displayMethod = pages.classify(url);
+            Document page = displayMethod == PetDisplayMethod.UNSUPPORTED ? null
+                : pages.staticPage(url, displayMethod.detailNeedsJavaScript, displayMethod.detailContent);
+            switch (displayMethod) {
+                case SHELTER_LUV: {
+                    petInfoBuilder = page != null ? new ShelterLuvBuilder(mainUrl, url, page) : RenderPetPage(displayMethod, mainUrl, url, driver, hosts);
+                    break;
+                }
+                case PETFINDER: {
+                    petInfoBuilder = page != null ? new PetFinderBuilder(mainUrl, url, page) : RenderPetPage(displayMethod, mainUrl, url, driver, hosts);
+                    break;
+                }
                 default: {
                     data.put("empty", "No valid data found");
                     return data;
                 }
             }
             
+            // Pages that have not changed since they were last scraped are not extracted again
+            String contentHash = PageHistory.contentHash(petInfoBuilder.page, displayMethod.detailContent);
+            if (unchanged.test(contentHash)) {
+                data.put("unchanged", contentHash);
+                return data;
+            }
+
             // Attempts to scrape pet data from the site 
             data = petInfoBuilder.AddName()
                 .AddAge()
@@ -867,6 +1064,7 @@ public class WebScraperService {
                 data.keySet().contains("Type") && 
                 data.keySet().contains("Gender")
             ) {
+                data.put("contentHash", contentHash);
                 return data;
             }            
         } catch (IOException e) {
@@ -880,156 +1078,214 @@ public class WebScraperService {
         return data;
     }
 
+    // Loads a pet page in the browser, holding a slot of its host meanwhile
+    private PetInfoBuilder RenderPetPage(PetDisplayMethod displayMethod, String mainUrl, String url, WebDriver driver,
+        HostLimiter hosts) throws IOException {
+        try (HostLimiter.Slot slot = hosts.acquire(url)) {
+            return displayMethod == PetDisplayMethod.SHELTER_LUV
+                ? new ShelterLuvBuilder(mainUrl, url, driver)
+                : new PetFinderBuilder(mainUrl, url, driver);
+        }
+    }
+
     /**
-     * Orchestrates a site-wide crawl starting from the root URL.
-     * <p>
-     * Performs a breadth-first search to discover listing pages, detects provider 
-     * specific iframes/widgets, and uses a headless Chrome instance with 
-     * stealth configurations to minimize detection by Web Application Firewalls.
+     * A pet profile page found while crawling a site.
+     *
+     * @param parentUrl the page the link was found on (used for animal type context)
+     * @param url       the pet profile URL
+     */
+    record PetLink(String parentUrl, String url) {}
+
+    /**
+     * Runs a breadth-first search over a site, following links on its own host and on its
+     * listing provider's host, and collects the pet profile pages it finds.
      *
      * @param url Root URL of the adoption website to crawl.
-     * @return A list of successfully scraped and converted {@link Pet} entities.
+     * @param driver Selenium WebDriver to load the pages with.
+     * @param pages Classifier of the current scrape run.
+     * @param hosts Host slots of the current scrape run, taken by every page loaded.
+     * @return The pet profile pages, in the order they were found.
      */
-    public List<Pet> ScrapeSite(AdoptionSite site) {
-        String url = site.getUrl();
-        List<Pet> scrappedData = new ArrayList<>();
+    List<PetLink> CrawlSite(String url, WebDriver driver, PageClassifier pages, HostLimiter hosts) {
+        // Set up queues and set for urls that have been seen and that need to be looked at
+        Queue<String> urlBFSQueue = new ArrayDeque<>();
+        List<PetLink> terminatingUrls = new ArrayList<>();
+        Set<String> seenUrls = new HashSet<>();
+        urlBFSQueue.add(url);
+        seenUrls.add(url);
+
+        // Run a breadth firth search on the site by searching through links that are found in the current page
+        while (!urlBFSQueue.isEmpty()) {
+            try {
+                // Set up the information needed to find urls on the current site
+                String currUrl = urlBFSQueue.remove();
+                String iframeClass = "";
+                String anchorClass = "";
+                String hostname = "";
+                PetDisplayMethod displayMethod = pages.classify(currUrl);
+                List<String> terminatingPatterns = TerminatingPatterns(displayMethod);
+                switch (displayMethod) {
+                    case PetDisplayMethod.SHELTER_LUV: {
+                        iframeClass = "shelterluv";
+                        hostname = "new.shelterluv.com";
+                        
+                        break;
+                    }
+                    case PetDisplayMethod.PETFINDER: {
+                        hostname = "www.petfinder.com";
+                    }
+                    default: break;
+                }
 
-        // Connect to the Docker container
-        // Use "http://localhost:4444/wd/hub" if running script on host
-        // Use "http://chrome:4444/wd/hub" if script is also in a Docker container
-        try {
-            // Set up headless browser so it can best replicate the conditions of an actual browser
-            ChromeOptions options = new ChromeOptions();
-            options.addArguments("--no-sandbox");
-            options.addArguments("--disable-dev-shm-usage");
-            options.addArguments("--disable-blink-features=AutomationControlled");
-            options.setExperimentalOption("excludeSwitches", Collections.singletonList("enable-automation"));
-            options.setExperimentalOption("useAutomationExtension", false);
-            RemoteWebDriver driver = new RemoteWebDriver(URI.create("http://chrome:4444/wd/hub").toURL(), options);
-
-            // Set up queues and set for urls that have been seen and that need to be looked at
-            Queue<String> urlBFSQueue = new ArrayDeque<>();
-            Queue<List<String>> terminatingUrlQueue = new ArrayDeque<>();
-            Set<String> seenUrls = new HashSet<>();
-            urlBFSQueue.add(url);
-            seenUrls.add(url);
-
-            // Run a breadth firth search on the site by searching through links that are found in the current page
-            while (!urlBFSQueue.isEmpty()) {
-                try {
-                    // Set up the information needed to find urls on the current site
-                    String currUrl = urlBFSQueue.remove();
-                    String iframeClass = "";
-                    String anchorClass = "";
-                    String hostname = "";
-                    List<String> terminatingUrls = new ArrayList<>();
-                    PetDisplayMethod displayMethod = FindPetDisplayMethod(currUrl);
-                    switch (displayMethod) {
-                        case PetDisplayMethod.SHELTER_LUV: {
-                            iframeClass = "shelterluv";
-                            terminatingUrls.add("new.shelterluv.com/embed/animal/");
-                            hostname = "new.shelterluv.com";
-                            
-                            break;
-                        }
-                        case PetDisplayMethod.PETFINDER: {
-                            terminatingUrls.add("www.petfinder.com/dog/");
-                            terminatingUrls.add("www.petfinder.com/cat/");
-                            hostname = "www.petfinder.com";
+                // Retrieves urls on the current site and adds them to their respective queues
+                log.debug("Crawling {}", currUrl);
+                List<String> newUrls = FindURLS(currUrl, iframeClass, anchorClass, driver, pages, hosts);
+                URI origUri = new URI(url);
+                for (String newUrl : newUrls) {
+                    if (terminatingPatterns.stream().anyMatch(newUrl::contains) && !terminatingPatterns.isEmpty()) {
+                        // If the url is suspected to be a terminating url that needs to be scrapped it is added to the terminating queue
+                        log.debug("Found pet page {}", newUrl);
+                        terminatingUrls.add(new PetLink(currUrl, newUrl));
+                        seenUrls.add(newUrl);
+                    } else {
+                        // In the case that the url is relative, prepend the original url
+                        String formattedUrl = newUrl;
+                        if (newUrl.substring(0, 1).equals("/")) {
+                            String baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+                            formattedUrl = baseUrl + newUrl;
                         }
-                        default: break;
-                    }
 
-                    // Retrieves urls on the current site and adds them to their respective queues
-                    System.out.println("Curr URL - " + currUrl);
-                    List<String> newUrls = FindURLS(currUrl, iframeClass, anchorClass, driver);
-                    URI origUri = new URI(url);
-                    for (String newUrl : newUrls) {
-                        if (terminatingUrls.stream().anyMatch(newUrl::contains) && !terminatingUrls.isEmpty()) {
-                            // If the url is suspected to be a terminating url that needs to be scrapped it is added to the terminating queue
-                            System.out.println("New Terminating URL - " + newUrl);
-                            terminatingUrlQueue.add(List.of(currUrl, newUrl));
-                            seenUrls.add(newUrl);
-                        } else {
-                            // In the case that the url is relative, prepend the original url
-                            String formattedUrl = newUrl;
-                            if (newUrl.substring(0, 1).equals("/")) {
-                                String baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
-                                formattedUrl = baseUrl + newUrl;
-                            }
-
-                            // Elsewise the url is added to the queue to be searched further if it meets certain criteria
-                            URI uri = new URI(formattedUrl);
-                            if (formattedUrl.contains("https://") && (uri.getHost().equals(origUri.getHost()) || uri.getHost().equals(hostname)) && !seenUrls.contains(formattedUrl)) {
-                                System.out.println("New URL - " + formattedUrl);
-                                urlBFSQueue.add(formattedUrl);
-                                seenUrls.add(formattedUrl);
-                            }
+                        // Elsewise the url is added to the queue to be searched further if it meets certain criteria
+                        URI uri = new URI(formattedUrl);
+                        if (formattedUrl.contains("https://") && (uri.getHost().equals(origUri.getHost()) || uri.getHost().equals(hostname)) && !seenUrls.contains(formattedUrl)) {
+                            log.debug("Queued {}", formattedUrl);
+                            urlBFSQueue.add(formattedUrl);
+                            seenUrls.add(formattedUrl);
                         }
                     }
-                } catch (URISyntaxException e) {
-                    System.out.println("URISyntaxException thrown for the following reason - " + e.getMessage());
                 }
+            } catch (URISyntaxException e) {
+                log.debug("Skipping a malformed url: {}", e.getMessage());
             }
+        }
 
-            // Iterates through all of the terminating urls and attempts to scrape data off of them
-            while (!terminatingUrlQueue.isEmpty()) {
-                List<String> terminatingUrlList = terminatingUrlQueue.remove();
-                String parentUrl = terminatingUrlList.get(0);
-                String childUrl = terminatingUrlList.get(1);
+        return terminatingUrls;
+    }
 
-                System.out.println("Curr URL - " + childUrl);
-                Map<String, Object> potentialData = AttemptScrape(parentUrl, childUrl, driver);
-                if (!potentialData.containsKey("error") && !potentialData.containsKey("empty")) {
-                    try {
-                        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-                        String json = gson.toJson(potentialData);
-                        System.out.println(json);
-                        Pet pet = ScrapedPetDTO.fromMap(potentialData).toEntity();
-                        pet.setSite(site);
-                        scrappedData.add(pet);
-                    } catch (Exception e) {
-                        log.warn("Failed to convert scraped data to Pet: {}", e.getMessage());
-                    }
+    /**
+     * Collects the pet profile pages found on known listing pages, without following any other
+     * link, so a site whose listing pages are known need not be crawled from its root.
+     *
+     * @param listings Listing pages the site's last crawl found pets on.
+     * @param driver Selenium WebDriver to load the pages with.
+     * @param pages Classifier of the current scrape run.
+     * @param hosts Host slots of the current scrape run, taken by every page loaded.
+     * @return The pet profile pages, in the order they were found.
+     */
+    List<PetLink> CrawlListings(List<String> listings, WebDriver driver, PageClassifier pages, HostLimiter hosts) {
+        List<PetLink> terminatingUrls = new ArrayList<>();
+        Set<String> seenUrls = new HashSet<>();
+        for (String listing : listings) {
+            PetDisplayMethod displayMethod = pages.classify(listing);
+            List<String> terminatingPatterns = TerminatingPatterns(displayMethod);
+            String iframeClass = displayMethod == PetDisplayMethod.SHELTER_LUV ? "shelterluv" : "";
+
+            log.debug("Crawling listing {}", listing);
+            for (String newUrl : FindURLS(listing, iframeClass, "", driver, pages, hosts)) {
+                if (terminatingPatterns.stream().anyMatch(newUrl::contains) && seenUrls.add(newUrl)) {
+                    log.debug("Found pet page {}", newUrl);
+                    terminatingUrls.add(new PetLink(listing, newUrl));
                 }
             }
-            
-            driver.quit();
+        }
 
-        } catch (MalformedURLException e) {}
-        
-        return scrappedData;
+        return terminatingUrls;
+    }
+
+    // Patterns of the pet profile pages a provider's listing links to
+    private static List<String> TerminatingPatterns(PetDisplayMethod displayMethod) {
+        return switch (displayMethod) {
+            case SHELTER_LUV -> List.of("new.shelterluv.com/embed/animal/");
+            case PETFINDER -> List.of("www.petfinder.com/dog/", "www.petfinder.com/cat/");
+            default -> List.of();
+        };
     }
 
     /**
-     * Main entry point for the scraper service.
-     * Scrapes pet listings from one or more adoption sites and returns the aggregated results.
+     * Reads a pet from its provider's structured listing payload, without loading its page.
      *
-     * <p>Iterates over each provided URL, invoking the web scraper service and converting
-     * raw results into {@link Pet} entities via {@link ScrapedPetDTO}. Individual pet
-     * conversion failures are logged and skipped; however, a site-level failure will
-     * immediately halt processing and return a 500 response.
-     *
-     * @param siteUrls a list of adoption site URLs to scrape
-     * @return a {@code pets} list
+     * @param site The adoption website the page was found on.
+     * @param link The pet profile page.
+     * @param listings Structured listing lookups of the current scrape run.
+     * @return The pet, or {@code null} if its page has to be scraped instead.
      */
-    public List<Pet> runScraper(List<AdoptionSite> adoptionSites) {
-        List<Pet> allScrapedPets = new ArrayList<>();
+    Pet ReadListedPet(AdoptionSite site, PetLink link, StructuredListings listings) {
+        ScrapedPetDTO listed = listings.find(link);
+        if (listed == null) {
+            return null;
+        }
 
-        // scrape each site
-        for (AdoptionSite adoptionSite : adoptionSites) {
-            try {
-                allScrapedPets.addAll(ScrapeSite(adoptionSite));
-            } catch (Exception e) {
-                log.error("Failed to scrape {}: {}", adoptionSite.getUrl(), e.getMessage());
+        Pet pet = listed.toEntity();
+        pet.setSite(site);
+        return pet;
+    }
+
+    /**
+     * Scrapes one pet profile page and converts it into a {@link Pet} of the given site.
+     * <p>
+     * With a page history, a page that has not changed since it was last scraped is not
+     * extracted again: it gives an {@link Pet#isUnchanged() unchanged} pet carrying only the
+     * stored pet's natural key, which the sync leaves as it is.
+     *
+     * @param site The adoption website the page was found on.
+     * @param link The pet profile page.
+     * @param driver Selenium WebDriver to load the page with.
+     * @param pages Classifier of the current scrape run.
+     * @param hosts Host slots of the current scrape run, taken by every page loaded.
+     * @param history Page history of the current scrape run, or {@code null} to always extract.
+     * @return The pet, or {@code null} if the page held no usable pet data.
+     */
+    Pet ScrapePetPage(AdoptionSite site, PetLink link, WebDriver driver, PageClassifier pages, HostLimiter hosts,
+        PageHistory history) {
+        log.debug("Scraping {}", link.url());
+        if (history != null) {
+            // Pages read as plain HTML can be revalidated without downloading them again
+            PetDisplayMethod displayMethod = pages.classify(link.url());
+            if (displayMethod != PetDisplayMethod.UNSUPPORTED && !displayMethod.detailNeedsJavaScript
+                && history.notModified(site, link.url(), pages)) {
+                return UnchangedPet(site, history.known(site, link.url()));
             }
         }
 
-        if (allScrapedPets.isEmpty()) {
-            throw new NoResultException();
+        Map<String, Object> potentialData = AttemptScrape(link.parentUrl(), link.url(), driver, pages, hosts,
+            hash -> history != null && history.sameContent(site, link.url(), hash));
+        if (potentialData.containsKey("unchanged")) {
+            return UnchangedPet(site, history.known(site, link.url()));
+        }
+        if (potentialData.containsKey("error") || potentialData.containsKey("empty")) {
+            return null;
+        }
+        String contentHash = (String) potentialData.remove("contentHash");
+
+        try {
+            Pet pet = ScrapedPetDTO.fromMap(potentialData).toEntity();
+            pet.setSite(site);
+            if (history != null) {
+                history.extracted(site, link.url(), PetFingerprint.naturalKey(pet), contentHash);
+            }
+            return pet;
+        } catch (Exception e) {
+            log.warn("Failed to convert scraped data to Pet: {}", e.getMessage());
+            return null;
         }
+    }
 
-        // return a status code OK along with all the pet objects
-        return allScrapedPets;
+    // A pet whose page has not changed since it was stored
+    static Pet UnchangedPet(AdoptionSite site, ScrapedPage page) {
+        Pet pet = new Pet();
+        pet.setSite(site);
+        pet.setNaturalKey(page.naturalKey());
+        pet.setUnchanged(true);
+        return pet;
     }
 }
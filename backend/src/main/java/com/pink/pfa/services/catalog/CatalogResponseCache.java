@@ -0,0 +1,159 @@
+package com.pink.pfa.services.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import tools.jackson.databind.json.JsonMapper;
+
+
+/**
+ * Cache of fully serialized catalog responses, keyed by name and {@link PetCatalogService#generation()}.
+ * <p>
+ * Listings such as {@code /api/pets/getActive} return the same bytes to every caller until the
+ * next sync. The first request of a generation maps, serializes and gzips the body once; every
+ * later request is answered from those bytes (or with a 304 via the strong {@code ETag}) without
+ * touching the database or Jackson. A change to the catalog bumps the generation, and the stale
+ * entry is replaced by the next request.
+ * <p>
+ * Concurrent misses for the same key wait for a single rebuild instead of all rebuilding.
+ * <p>
+ * Keys may carry request parameters (e.g. the filters of {@code /api/pets/facets}), so the cache
+ * holds at most {@value #MAX_ENTRIES} entries: when full, entries of older generations are dropped,
+ * and if it is still full the response is built without being cached.
+ */
+@Service
+public class CatalogResponseCache {
+    /** Largest number of responses kept at once. */
+    static final int MAX_ENTRIES = 1_024;
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogResponseCache.class);
+
+    private final PetCatalogService catalog;
+    private final JsonMapper jsonMapper;
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CatalogResponseCache(PetCatalogService catalog, JsonMapper jsonMapper) {
+        this.catalog = catalog;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Returns the cached response for the current generation, building it on a miss.
+     * <p>
+     * The generation is read before the body is produced, so an entry is never labelled
+     * newer than the data it holds; at worst it is rebuilt once more than necessary.
+     *
+     * @param key name of the response, e.g. {@code "pets/active"}
+     * @param body produces the response body on a miss
+     * @return the serialized response
+     */
+    public CachedResponse get(String key, Supplier<?> body) {
+        long generation = catalog.generation();
+        CachedResponse cached = entries.get(key);
+        if (cached != null && cached.generation() == generation) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        if (cached == null && entries.size() >= MAX_ENTRIES) {
+            entries.values().removeIf(entry -> entry.generation() != generation);
+            if (entries.size() >= MAX_ENTRIES) {
+                misses.incrementAndGet();
+                return CachedResponse.of(generation, jsonMapper.writeValueAsBytes(body.get()));
+            }
+        }
+
+        return entries.compute(key, (k, current) -> {
+            if (current != null && current.generation() == generation) {
+                hits.incrementAndGet();
+                return current; // built by a concurrent request while we waited
+            }
+            misses.incrementAndGet();
+            long start = System.nanoTime();
+            CachedResponse built = CachedResponse.of(generation, jsonMapper.writeValueAsBytes(body.get()));
+            log.info("Cached {} for catalog generation {}: {} bytes, {} gzipped, built in {} ms",
+                key, generation, built.json().length, built.gzipped().length, (System.nanoTime() - start) / 1_000_000);
+            return built;
+        });
+    }
+
+    /** @return number of requests answered from the cache */
+    public long hits() {
+        return hits.get();
+    }
+
+    /** @return number of requests that had to build the response */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * A serialized JSON response and its gzipped form.
+     *
+     * @param generation catalog generation the body was built for
+     * @param etag       strong entity tag (quoted SHA-256 of the JSON)
+     * @param json       the JSON body
+     * @param gzipped    the JSON body, gzip-compressed
+     */
+    public record CachedResponse(long generation, String etag, byte[] json, byte[] gzipped) {
+
+        static CachedResponse of(long generation, byte[] json) {
+            return new CachedResponse(generation, "\"" + sha256(json) + "\"", json, gzip(json));
+        }
+
+        /**
+         * Checks an {@code If-None-Match} header against this response.
+         *
+         * @param ifNoneMatch the header value, possibly {@code null}
+         * @return {@code true} if the client already has this body
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2); // If-None-Match uses weak comparison
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String sha256(byte[] bytes) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
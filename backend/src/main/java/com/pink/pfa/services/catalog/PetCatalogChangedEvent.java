@@ -0,0 +1,13 @@
+package com.pink.pfa.services.catalog;
+
+
+/**
+ * Application event published whenever the set of pets, or the data of a pet, changes.
+ * <p>
+ * Publishers (such as {@code PetService.sync} and {@code PetService.addPet}) publish it inside
+ * their transaction; listeners that keep derived read models (the {@link PetCatalogSnapshot})
+ * react after the transaction commits, so a rolled-back change never invalidates anything.
+ *
+ * @param reason short human-readable description of what changed, used for logging
+ */
+public record PetCatalogChangedEvent(String reason) {}
@@ -0,0 +1,150 @@
+package com.pink.pfa.services.catalog;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pink.pfa.repos.PetRepository;
+import com.pink.pfa.repos.PetSpecifications;
+
+import jakarta.annotation.PreDestroy;
+
+
+/**
+ * Owns the current {@link PetCatalogSnapshot} and keeps it in step with the database.
+ * <p>
+ * Lifecycle:
+ * <ul>
+ *   <li>The first snapshot is built in the background once the application is ready.</li>
+ *   <li>When a {@link PetCatalogChangedEvent} is committed, a new snapshot is built in the
+ *       background and swapped in atomically; the previous one is served until then.</li>
+ *   <li>Only until the first snapshot is built is {@link #current()} empty, and callers fall
+ *       back to their JPA queries.</li>
+ * </ul>
+ * Rebuilds run one at a time on a dedicated thread. A build overtaken by a newer change is
+ * still swapped in, being newer than the snapshot served, and the queued rebuild catches up.
+ */
+@Service
+public class PetCatalogService {
+    private static final Logger log = LoggerFactory.getLogger(PetCatalogService.class);
+
+    private final PetRepository petRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicReference<PetCatalogSnapshot> current = new AtomicReference<>();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pet-catalog-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long version = 0;
+    private long builtVersion = -1;
+    private long generation = 0;
+
+    public PetCatalogService(PetRepository petRepository, PlatformTransactionManager transactionManager) {
+        this.petRepository = petRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns the current snapshot.
+     *
+     * @return the snapshot, or empty while the first one is being built
+     */
+    public Optional<PetCatalogSnapshot> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /**
+     * Returns the catalog generation: a number that changes every time a pet change is
+     * committed and every time a newer snapshot is swapped in, so anything derived from the
+     * catalog, or from the snapshot served, can be cached against it.
+     *
+     * @return the current generation
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Checks whether the snapshot served includes the last committed change.
+     *
+     * @return {@code true} if a snapshot is built and no change was committed since
+     */
+    public synchronized boolean isUpToDate() {
+        return current.get() != null && builtVersion == version;
+    }
+
+    /** Builds the first snapshot once startup (including any data seeding) has finished. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Schedules a rebuild of the snapshot after a pet change has been committed.
+     * Changes published outside of a transaction are handled immediately.
+     *
+     * @param event the committed change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(PetCatalogChangedEvent event) {
+        log.info("Pet catalog changed ({}), rebuilding snapshot", event.reason());
+        invalidate();
+    }
+
+    /** Marks the current snapshot outdated and schedules a rebuild; it is served until then. */
+    public void invalidate() {
+        synchronized (this) {
+            version++;
+            generation++;
+        }
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        rebuilder.execute(this::rebuild);
+    }
+
+    private void rebuild() {
+        long buildingVersion;
+        synchronized (this) {
+            if (builtVersion == version) {
+                return; // an earlier queued rebuild already caught up
+            }
+            buildingVersion = version;
+        }
+
+        try {
+            long start = System.nanoTime();
+            PetCatalogSnapshot snapshot = readOnlyTransaction.execute(status ->
+                PetCatalogSnapshot.build(petRepository.findAll(PetSpecifications.isActive()))
+            );
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            synchronized (this) {
+                builtVersion = buildingVersion;
+                generation++;
+                current.set(snapshot);
+            }
+            log.info("Pet catalog snapshot built in {} ms: {}", millis, snapshot.footprint());
+        } catch (RuntimeException e) {
+            log.error("Failed to build pet catalog snapshot, serving the previous one: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,662 @@
+package com.pink.pfa.services.catalog;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.datatransfer.PetDTO;
+import com.pink.pfa.models.datatransfer.PetFacets;
+import com.pink.pfa.models.datatransfer.PetFacets.FacetCount;
+import com.pink.pfa.models.datatransfer.PetPage;
+import com.pink.pfa.repos.PetCursor;
+import com.pink.pfa.repos.PetSort;
+import com.pink.pfa.services.geo.GeoGrid;
+import com.pink.pfa.services.geo.GeoPoint;
+import com.pink.pfa.services.ranking.CompiledPreferences;
+import com.pink.pfa.services.ranking.RankedPets;
+import com.pink.pfa.services.ranking.TopK;
+
+
+/**
+ * Immutable, read-optimized, columnar copy of every active pet.
+ * <p>
+ * Built by {@link PetCatalogService} after each successful sync and swapped in atomically, it
+ * answers the pet browser without touching the database:
+ * <ul>
+ *   <li>Each row's {@link PetDTO} is mapped once at build time and shared by every response.</li>
+ *   <li>Ages, prices and listing dates live in primitive arrays.</li>
+ *   <li>Pet type, gender and size are dictionary-encoded, with one {@link BitSet} per value, so
+ *       equality filters are answered by intersecting bitsets.</li>
+ *   <li>Breeds are dictionary-encoded too, so substring tests run once per distinct breed.</li>
+ *   <li>Name, breed, type and location feed a {@link PetSearchIndex} for free-text search.</li>
+ *   <li>Each pet type keeps its rows in an array, so random pets of a type are drawn in
+ *       constant time.</li>
+ *   <li>Geocoded pets are filed in a {@link GeoGrid}, so radius filters only measure the
+ *       distance to pets in nearby cells.</li>
+ *   <li>Every {@link PetSort} has a precomputed row order, so sorting costs nothing and a keyset
+ *       cursor is resolved with a binary search.</li>
+ * </ul>
+ * Matching follows the database path in {@code PetSpecifications}: equality filters are
+ * case-insensitive (like MySQL's default collation), the breed filter is a case-insensitive
+ * substring match, and {@code NULL} sort keys come first ascending and last descending.
+ * <p>
+ * Rows are stored in {@code petId} order. Instances are safe to share between threads.
+ */
+public final class PetCatalogSnapshot {
+    private static final double METERS_PER_MILE = 1609.344;
+
+    private final Instant builtAt;
+    private final int size;
+    private final PetDTO[] rows;
+    private final int[] petIds;
+    private final int[] ages;
+    private final int[] createdEpochDays;
+    private final double[] prices;
+    private final BitSet priceIsNull;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final GeoGrid grid;
+    private final Dictionary breeds;
+    private final Dictionary types;
+    private final Dictionary genders;
+    private final Dictionary sizes;
+    private final Map<PetSort, int[]> orders = new EnumMap<>(PetSort.class);
+    private final PetSearchIndex searchIndex;
+    private final int[][] rowsByType;
+
+    private PetCatalogSnapshot(List<Pet> pets, Instant builtAt) {
+        List<Pet> sorted = new ArrayList<>(pets);
+        sorted.sort(Comparator.comparing(Pet::getPetId));
+
+        this.builtAt = builtAt;
+        this.size = sorted.size();
+        this.rows = new PetDTO[size];
+        this.petIds = new int[size];
+        this.ages = new int[size];
+        this.createdEpochDays = new int[size];
+        this.prices = new double[size];
+        this.priceIsNull = new BitSet(size);
+        this.latitudes = new double[size];
+        this.longitudes = new double[size];
+
+        for (int row = 0; row < size; row++) {
+            Pet pet = sorted.get(row);
+            rows[row] = PetDTO.fromEntity(pet);
+            petIds[row] = pet.getPetId();
+            ages[row] = pet.getAge();
+            createdEpochDays[row] = (int) pet.getCreatedAt().toEpochDay();
+            if (pet.getPrice() == null) {
+                priceIsNull.set(row);
+            } else {
+                prices[row] = pet.getPrice();
+            }
+            boolean located = pet.getLatitude() != null && pet.getLongitude() != null;
+            latitudes[row] = located ? pet.getLatitude() : Double.NaN;
+            longitudes[row] = located ? pet.getLongitude() : Double.NaN;
+        }
+
+        this.breeds = new Dictionary(sorted, Pet::getBreed, false);
+        this.types = new Dictionary(sorted, Pet::getPetType, true);
+        this.genders = new Dictionary(sorted, pet -> String.valueOf(pet.getGender()), true);
+        this.sizes = new Dictionary(sorted, Pet::getSize, true);
+        this.rowsByType = types.rowLists();
+        this.grid = new GeoGrid(latitudes, longitudes);
+
+        for (PetSort sort : PetSort.values()) {
+            orders.put(sort, buildOrder(sort));
+        }
+
+        this.searchIndex = new PetSearchIndex(sorted.stream()
+            .map(pet -> new String[] {pet.getName(), pet.getBreed(), pet.getPetType(), pet.getLocation()})
+            .toList());
+    }
+
+    /**
+     * Builds a snapshot from active pet entities.
+     * <p>
+     * Must be called while the entities' lazy associations can still be initialized
+     * (i.e. inside a transaction), since every row is mapped to its {@link PetDTO} here.
+     *
+     * @param activePets every active pet
+     * @return the new snapshot
+     */
+    public static PetCatalogSnapshot build(List<Pet> activePets) {
+        return new PetCatalogSnapshot(activePets, Instant.now());
+    }
+
+    /** @return when this snapshot was built */
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    /** @return number of pets in the snapshot */
+    public int size() {
+        return size;
+    }
+
+    /** @return every pet in the snapshot, in {@code petId} order */
+    public List<PetDTO> all() {
+        return List.of(rows);
+    }
+
+    /**
+     * Returns every pet matching the filter, in the given order.
+     *
+     * @param filter filter values; {@code null} fields are ignored
+     * @param sort order of the results
+     * @return the matching pets
+     */
+    public List<PetDTO> matching(PetFilterRequest filter, PetSort sort) {
+        BitSet matches = match(filter);
+        List<PetDTO> result = new ArrayList<>(matches.cardinality());
+        for (int row : orders.get(sort)) {
+            if (matches.get(row)) {
+                result.add(rows[row]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns one keyset-paginated page of the pets matching the filter, exactly as the
+     * database path would.
+     *
+     * @param filter filter values; {@code null} fields are ignored
+     * @param sort order of the results
+     * @param after keyset cursor of the previous page, or {@code null} for the first page
+     * @param pageSize maximum page size, or {@code null} for every match
+     * @return the requested page
+     */
+    public PetPage page(PetFilterRequest filter, PetSort sort, PetCursor after, Integer pageSize) {
+        BitSet matches = match(filter);
+        int[] order = orders.get(sort);
+        int limit = pageSize == null ? Integer.MAX_VALUE : pageSize;
+
+        List<PetDTO> pets = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        int lastRow = -1;
+        String nextCursor = null;
+        for (int i = after == null ? 0 : firstPositionAfter(order, after); i < order.length; i++) {
+            int row = order[i];
+            if (!matches.get(row)) {
+                continue;
+            }
+            if (pets.size() == limit) {
+                nextCursor = PetCursor.after(sort, keyOf(sort, lastRow), petIds[lastRow]).encode();
+                break;
+            }
+            pets.add(rows[row]);
+            lastRow = row;
+        }
+
+        return new PetPage(pets, nextCursor);
+    }
+
+    /**
+     * Ranks the pets matching the filter by the given preferences and keeps the best {@code k}.
+     * <p>
+     * Every preference is evaluated once per distinct type, gender, size and breed rather than
+     * once per pet, so scoring a row is a handful of array lookups plus the age comparisons.
+     * Ties keep the given sort order.
+     *
+     * @param filter filter values; {@code null} fields are ignored
+     * @param sort order that ties are kept in
+     * @param prefs the user's compiled preferences
+     * @param k number of pets to keep
+     * @return the best {@code k} matching pets and the number of matches
+     */
+    public RankedPets rank(PetFilterRequest filter, PetSort sort, CompiledPreferences prefs, int k) {
+        BitSet matches = match(filter);
+        int[] candidates = new int[matches.cardinality()];
+        int n = 0;
+        for (int row : orders.get(sort)) {
+            if (matches.get(row)) {
+                candidates[n++] = row;
+            }
+        }
+
+        int[] typePoints = points(types.values(), prefs::pointsForType);
+        int[] genderPoints = points(genders.values(), prefs::pointsForGender);
+        int[] sizePoints = points(sizes.values(), prefs::pointsForSize);
+        int[] breedPoints = points(breeds.keys(), prefs::pointsForBreed);
+        int[] typeCodes = types.codes();
+        int[] genderCodes = genders.codes();
+        int[] sizeCodes = sizes.codes();
+        int[] breedCodes = breeds.codes();
+
+        int[] top = TopK.select(n, i -> {
+            int row = candidates[i];
+            return pointsAt(typePoints, typeCodes[row]) + pointsAt(genderPoints, genderCodes[row])
+                + pointsAt(sizePoints, sizeCodes[row]) + pointsAt(breedPoints, breedCodes[row])
+                + prefs.pointsForAge(ages[row]);
+        }, k);
+
+        PetDTO[] pets = new PetDTO[top.length];
+        for (int i = 0; i < top.length; i++) {
+            pets[i] = rows[candidates[top[i]]];
+        }
+        return new RankedPets(List.of(pets), n);
+    }
+
+    /**
+     * Full-text search over name, breed, pet type and location, best match first.
+     * See {@link PetSearchIndex} for how terms are matched and scored.
+     *
+     * @param query free-text query
+     * @param k number of pets to return
+     * @return the best {@code k} matches and the number of pets that matched at all
+     */
+    public RankedPets search(String query, int k) {
+        PetSearchIndex.Hits hits = searchIndex.search(query, k);
+        PetDTO[] pets = new PetDTO[hits.rows().length];
+        for (int i = 0; i < pets.length; i++) {
+            pets[i] = rows[hits.rows()[i]];
+        }
+        return new RankedPets(List.of(pets), hits.total());
+    }
+
+    /**
+     * Returns the geocoded pets matching the filter that are nearest to {@code origin}, nearest
+     * first (to the meter), ties in {@code petId} order. Pets without coordinates are left out.
+     *
+     * @param filter filter values; {@code null} fields are ignored
+     * @param origin point distances are measured from
+     * @param k number of pets to return
+     * @return the nearest {@code k} pets and the number of geocoded pets that matched
+     */
+    public RankedPets nearest(PetFilterRequest filter, GeoPoint origin, int k) {
+        // Distance in the high half, row in the low half: sorting the keys orders by distance, then petId
+        long[] keys = match(filter).stream()
+            .filter(row -> !Double.isNaN(latitudes[row]))
+            .mapToLong(row -> ((long) metersFrom(origin, row) << 32) | row)
+            .sorted()
+            .toArray();
+
+        PetDTO[] pets = new PetDTO[Math.max(0, Math.min(k, keys.length))];
+        for (int i = 0; i < pets.length; i++) {
+            pets[i] = rows[(int) keys[i]];
+        }
+        return new RankedPets(List.of(pets), keys.length);
+    }
+
+    /**
+     * Counts the pets that match the filter but for its radius, and have no coordinates, so are
+     * left out of every distance search.
+     *
+     * @param filter filter values; the radius is ignored
+     * @return number of such pets
+     */
+    public int unlocated(PetFilterRequest filter) {
+        return (int) match(filter.withoutRadius()).stream()
+            .filter(row -> Double.isNaN(latitudes[row]))
+            .count();
+    }
+
+    /**
+     * Counts the pets matching the filter per pet type, breed, size and gender, in one pass over
+     * the matching rows' dictionary codes.
+     *
+     * @param filter filter values; {@code null} fields are ignored
+     * @return the facet counts
+     */
+    public PetFacets facets(PetFilterRequest filter) {
+        BitSet matches = match(filter);
+        int[] typeCodes = types.codes();
+        int[] breedCodes = breeds.codes();
+        int[] sizeCodes = sizes.codes();
+        int[] genderCodes = genders.codes();
+        long[] typeCounts = new long[types.values().size()];
+        long[] breedCounts = new long[breeds.values().size()];
+        long[] sizeCounts = new long[sizes.values().size()];
+        long[] genderCounts = new long[genders.values().size()];
+
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            count(typeCounts, typeCodes[row]);
+            count(breedCounts, breedCodes[row]);
+            count(sizeCounts, sizeCodes[row]);
+            count(genderCounts, genderCodes[row]);
+        }
+
+        return new PetFacets(matches.cardinality(), facet(types, typeCounts), facet(breeds, breedCounts),
+            facet(sizes, sizeCounts), facet(genders, genderCounts));
+    }
+
+    /**
+     * Draws distinct pets of one type uniformly at random.
+     *
+     * @param petType pet type, matched case-insensitively
+     * @param k number of pets wanted
+     * @param random source of randomness
+     * @return {@code k} distinct pets, or every pet of the type if there are fewer
+     */
+    public List<PetDTO> sample(String petType, int k, RandomGenerator random) {
+        int code = types.codeOf(petType);
+        if (code < 0) {
+            return List.of();
+        }
+        int[] pool = rowsByType[code];
+        int[] picks = RandomSample.distinct(pool.length, k, random);
+        PetDTO[] pets = new PetDTO[picks.length];
+        for (int i = 0; i < picks.length; i++) {
+            pets[i] = rows[pool[picks[i]]];
+        }
+        return List.of(pets);
+    }
+
+    /**
+     * Estimates how much heap this snapshot occupies.
+     *
+     * @return the estimated footprint
+     */
+    public Footprint footprint() {
+        long columns = 4L * size * 3            // petIds, ages, createdEpochDays
+            + 8L * size * 3                     // prices, latitudes, longitudes
+            + words(priceIsNull)
+            + breeds.columnBytes() + types.columnBytes() + genders.columnBytes() + sizes.columnBytes();
+        long bitsets = types.bitsetBytes() + genders.bitsetBytes() + sizes.bitsetBytes() + grid.estimatedBytes();
+        long sortOrders = 4L * size * orders.size() + 4L * size + searchIndex.estimatedBytes();
+        long dtos = Arrays.stream(rows).mapToLong(PetCatalogSnapshot::dtoBytes).sum();
+        return new Footprint(size, columns, bitsets + sortOrders, dtos);
+    }
+
+    // Evaluates every filter against the columns and returns the set of matching rows
+    BitSet match(PetFilterRequest filter) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+
+        if (filter.petType() != null) {
+            result.and(types.rowsWith(filter.petType()));
+        }
+        if (filter.gender() != null) {
+            result.and(genders.rowsWith(filter.gender()));
+        }
+        if (filter.size() != null) {
+            result.and(sizes.rowsWith(filter.size()));
+        }
+        if (filter.radius() != null) {
+            result.and(grid.within(filter.radius()));
+        }
+
+        // Range and substring filters are checked only on rows that survived the bitsets
+        boolean[] breedMatches = null;
+        if (filter.hasBreed()) {
+            String breed = filter.breed().toLowerCase(Locale.ROOT);
+            List<String> keys = breeds.keys();
+            breedMatches = new boolean[keys.size()];
+            for (int code = 0; code < keys.size(); code++) {
+                breedMatches[code] = keys.get(code).contains(breed);
+            }
+        }
+        if (filter.startAge() != null || filter.endAge() != null || breedMatches != null) {
+            int min = filter.startAge() == null ? Integer.MIN_VALUE : filter.startAge();
+            int max = filter.endAge() == null ? Integer.MAX_VALUE : filter.endAge();
+            int[] breedCodes = breeds.codes();
+            for (int row = result.nextSetBit(0); row >= 0; row = result.nextSetBit(row + 1)) {
+                if (ages[row] < min || ages[row] > max
+                    || (breedMatches != null && (breedCodes[row] < 0 || !breedMatches[breedCodes[row]]))) {
+                    result.clear(row);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static void count(long[] counts, int code) {
+        if (code >= 0) {
+            counts[code]++;
+        }
+    }
+
+    private static List<FacetCount> facet(Dictionary dictionary, long[] counts) {
+        Map<String, Long> byValue = new HashMap<>();
+        for (int code = 0; code < counts.length; code++) {
+            byValue.put(dictionary.values().get(code), counts[code]);
+        }
+        return FacetCount.sorted(byValue);
+    }
+
+    private int metersFrom(GeoPoint origin, int row) {
+        double miles = GeoPoint.toMiles(GeoPoint.haversine(origin.latitude(), origin.longitude(), latitudes[row], longitudes[row]));
+        return (int) Math.round(miles * METERS_PER_MILE);
+    }
+
+    private static int[] points(List<String> values, ToIntFunction<String> scorer) {
+        return values.stream().mapToInt(scorer).toArray();
+    }
+
+    private static int pointsAt(int[] points, int code) {
+        return code < 0 ? 0 : points[code];
+    }
+
+    // Sorts the row indices by (sort key, petId), nulls first, then reverses descending orders
+    private int[] buildOrder(PetSort sort) {
+        Integer[] boxed = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+        Comparator<Integer> ascending = (a, b) -> {
+            int c = compareKeys(sort, a, b);
+            return c != 0 ? c : Integer.compare(petIds[a], petIds[b]);
+        };
+        Arrays.sort(boxed, sort.ascending() ? ascending : ascending.reversed());
+        return Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+    }
+
+    // Binary search for the first position in the order that comes after the cursor
+    private int firstPositionAfter(int[] order, PetCursor cursor) {
+        PetSort sort = cursor.sort();
+        Comparable<?> value = cursor.typedValue();
+        boolean cursorNull = value == null;
+        double cursorKey = cursorNull ? 0 : toDouble(value);
+
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int row = order[mid];
+            int c = compareNullable(isNullKey(sort, row), key(sort, row), cursorNull, cursorKey);
+            if (c == 0) {
+                c = Integer.compare(petIds[row], cursor.lastId());
+            }
+            if (!sort.ascending()) {
+                c = -c;
+            }
+            if (c <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareKeys(PetSort sort, int a, int b) {
+        return compareNullable(isNullKey(sort, a), key(sort, a), isNullKey(sort, b), key(sort, b));
+    }
+
+    private static int compareNullable(boolean aNull, double a, boolean bNull, double b) {
+        if (aNull || bNull) {
+            return Boolean.compare(!aNull, !bNull);
+        }
+        return Double.compare(a, b);
+    }
+
+    private boolean isNullKey(PetSort sort, int row) {
+        return "price".equals(sort.attribute()) && priceIsNull.get(row);
+    }
+
+    private double key(PetSort sort, int row) {
+        return switch (sort.attribute()) {
+            case "createdAt" -> createdEpochDays[row];
+            case "age" -> ages[row];
+            case "price" -> prices[row];
+            default -> throw new IllegalStateException("Unsupported sort attribute " + sort.attribute());
+        };
+    }
+
+    private Comparable<?> keyOf(PetSort sort, int row) {
+        if (isNullKey(sort, row)) {
+            return null;
+        }
+        return switch (sort.attribute()) {
+            case "createdAt" -> LocalDate.ofEpochDay(createdEpochDays[row]);
+            case "age" -> ages[row];
+            case "price" -> prices[row];
+            default -> throw new IllegalStateException("Unsupported sort attribute " + sort.attribute());
+        };
+    }
+
+    private static double toDouble(Comparable<?> value) {
+        if (value instanceof LocalDate date) {
+            return date.toEpochDay();
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static long words(BitSet bits) {
+        return (bits.size() / 64) * 8L;
+    }
+
+    // Rough JVM estimate: 40 byte String/array header plus one byte per Latin-1 character
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40L + value.length();
+    }
+
+    private static long dtoBytes(PetDTO dto) {
+        long bytes = 80 + stringBytes(dto.name()) + stringBytes(dto.breed()) + stringBytes(dto.pet_type())
+            + stringBytes(dto.location()) + stringBytes(dto.pet_status()) + stringBytes(dto.img_url())
+            + stringBytes(dto.size());
+        for (String image : dto.secondary_images()) {
+            bytes += 8 + stringBytes(image);
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimated heap usage of a snapshot.
+     *
+     * @param pets        number of pets
+     * @param columnBytes primitive columns, dictionary codes and dictionary values
+     * @param indexBytes  per-value bitsets, precomputed sort orders and the search index
+     * @param rowBytes    pre-mapped {@link PetDTO} rows
+     */
+    public record Footprint(int pets, long columnBytes, long indexBytes, long rowBytes) {
+        /** @return the sum of all components */
+        public long totalBytes() {
+            return columnBytes + indexBytes + rowBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d pets, %d KiB total (columns %d KiB, indexes %d KiB, rows %d KiB)",
+                pets, totalBytes() / 1024, columnBytes / 1024, indexBytes / 1024, rowBytes / 1024);
+        }
+    }
+
+    /**
+     * Dictionary-encoded, case-insensitive string column, optionally with one bitset per distinct
+     * value. {@code null} values get no code and never match a filter, like SQL equality.
+     */
+    static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final Map<String, Integer> codesByKey = new HashMap<>();
+        private final int[] codes;
+        private final List<BitSet> bits = new ArrayList<>();
+        private final boolean indexed;
+
+        Dictionary(List<Pet> pets, Function<Pet, String> column, boolean indexed) {
+            this.indexed = indexed;
+            codes = new int[pets.size()];
+            for (int row = 0; row < pets.size(); row++) {
+                String value = column.apply(pets.get(row));
+                if (value == null) {
+                    codes[row] = -1;
+                    continue;
+                }
+                int code = codesByKey.computeIfAbsent(value.toLowerCase(Locale.ROOT), key -> {
+                    values.add(value);
+                    keys.add(key);
+                    if (indexed) {
+                        bits.add(new BitSet(pets.size()));
+                    }
+                    return values.size() - 1;
+                });
+                codes[row] = code;
+                if (indexed) {
+                    bits.get(code).set(row);
+                }
+            }
+        }
+
+        /** @return the rows whose value equals {@code value}, ignoring case (do not modify) */
+        BitSet rowsWith(String value) {
+            if (!indexed) {
+                throw new IllegalStateException("Dictionary has no bitsets");
+            }
+            Integer code = codesByKey.get(value.toLowerCase(Locale.ROOT));
+            return code == null ? new BitSet() : bits.get(code);
+        }
+
+        /** @return the code of {@code value}, ignoring case, or {@code -1} if no row has it */
+        int codeOf(String value) {
+            return value == null ? -1 : codesByKey.getOrDefault(value.toLowerCase(Locale.ROOT), -1);
+        }
+
+        /** @return for each code, the rows holding that value in ascending order */
+        int[][] rowLists() {
+            int[] counts = new int[values.size()];
+            for (int code : codes) {
+                if (code >= 0) {
+                    counts[code]++;
+                }
+            }
+            int[][] lists = new int[values.size()][];
+            for (int code = 0; code < lists.length; code++) {
+                lists[code] = new int[counts[code]];
+                counts[code] = 0;
+            }
+            for (int row = 0; row < codes.length; row++) {
+                if (codes[row] >= 0) {
+                    lists[codes[row]][counts[codes[row]]++] = row;
+                }
+            }
+            return lists;
+        }
+
+        /** @return the distinct values, in first-seen order */
+        List<String> values() {
+            return values;
+        }
+
+        /** @return the lower-cased distinct values, indexed by code */
+        List<String> keys() {
+            return keys;
+        }
+
+        /** @return the dictionary code of each row, {@code -1} for {@code null} */
+        int[] codes() {
+            return codes;
+        }
+
+        long columnBytes() {
+            return 4L * codes.length + values.stream().mapToLong(PetCatalogSnapshot::stringBytes).sum()
+                + keys.stream().mapToLong(PetCatalogSnapshot::stringBytes).sum();
+        }
+
+        long bitsetBytes() {
+            return bits.stream().mapToLong(PetCatalogSnapshot::words).sum();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.pink.pfa.services.catalog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import com.pink.pfa.services.ranking.TopK;
+
+
+/**
+ * In-memory inverted index over the searchable text of a {@link PetCatalogSnapshot}.
+ * <p>
+ * Name, breed, pet type and location are tokenized (lower-cased, accents stripped, split on
+ * anything that is not a letter or digit) into a sorted vocabulary with one posting list per
+ * term. Each posting carries the summed weight of the fields the term occurs in, so a hit on a
+ * pet's name outranks a hit on its location. A query term matches:
+ * <ul>
+ *   <li>itself exactly,</li>
+ *   <li>as a prefix of longer terms ({@code "lab"} finds {@code "labrador"}), and</li>
+ *   <li>terms one edit away, including transpositions ({@code "labardor"} finds {@code "labrador"}),
+ *       found through a precomputed single-deletion neighbourhood instead of a vocabulary scan.</li>
+ * </ul>
+ * Scores are field weight &times; inverse document frequency &times; a match-quality factor,
+ * summed over query terms and scaled by the share of query terms a pet matched. Query cost
+ * depends on the postings touched, not on the size of the catalog.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class PetSearchIndex {
+    static final int NAME_WEIGHT = 3;
+    static final int BREED_WEIGHT = 2;
+    static final int TYPE_WEIGHT = 2;
+    static final int LOCATION_WEIGHT = 1;
+
+    /** Shortest query term that is expanded as a prefix. */
+    static final int MIN_PREFIX_LENGTH = 2;
+    /** Shortest query term that is matched with a typo. */
+    static final int MIN_FUZZY_LENGTH = 4;
+    /** Most vocabulary terms a single prefix may expand to. */
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.7f;
+    private static final float FUZZY = 0.5f;
+    private static final float SCALE = 1000f;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final int documents;
+    private final String[] terms;
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final int[][] postingRows;
+    private final byte[][] postingWeights;
+    private final float[] idf;
+    private final Map<String, int[]> deletions = new HashMap<>();
+
+    /**
+     * Indexes the searchable fields of every row.
+     *
+     * @param rows one entry per snapshot row: name, breed, pet type and location (any may be {@code null})
+     */
+    PetSearchIndex(List<String[]> rows) {
+        this.documents = rows.size();
+
+        TreeMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+        int[] weights = {NAME_WEIGHT, BREED_WEIGHT, TYPE_WEIGHT, LOCATION_WEIGHT};
+        for (int row = 0; row < rows.size(); row++) {
+            String[] fields = rows.get(row);
+            for (int field = 0; field < weights.length; field++) {
+                for (String term : tokenize(fields[field])) {
+                    postings.computeIfAbsent(term, t -> new TreeMap<>()).merge(row, weights[field], Integer::sum);
+                }
+            }
+        }
+
+        this.terms = postings.keySet().toArray(String[]::new);
+        this.postingRows = new int[terms.length][];
+        this.postingWeights = new byte[terms.length][];
+        this.idf = new float[terms.length];
+
+        Map<String, List<Integer>> deletionLists = new HashMap<>();
+        for (int id = 0; id < terms.length; id++) {
+            Map<Integer, Integer> posting = postings.get(terms[id]);
+            postingRows[id] = posting.keySet().stream().mapToInt(Integer::intValue).toArray();
+            postingWeights[id] = new byte[posting.size()];
+            int i = 0;
+            for (int weight : posting.values()) {
+                postingWeights[id][i++] = (byte) Math.min(weight, Byte.MAX_VALUE);
+            }
+            idf[id] = (float) Math.log(1 + (double) documents / posting.size());
+            termIds.put(terms[id], id);
+
+            if (terms[id].length() >= MIN_FUZZY_LENGTH) {
+                for (String deletion : deletionsOf(terms[id])) {
+                    deletionLists.computeIfAbsent(deletion, d -> new ArrayList<>()).add(id);
+                }
+            }
+        }
+        deletionLists.forEach((deletion, ids) ->
+            deletions.put(deletion, ids.stream().mapToInt(Integer::intValue).distinct().toArray()));
+    }
+
+    /**
+     * Splits text into normalized search terms: accents stripped, lower-cased, split on anything
+     * that is not a letter or digit. Shared with the database full-text fallback.
+     *
+     * @param text text to tokenize, may be {@code null}
+     * @return the distinct terms, in order of first occurrence
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        LinkedHashSet<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    /** @return number of distinct terms */
+    public int vocabularySize() {
+        return terms.length;
+    }
+
+    /**
+     * Finds the best matching rows.
+     *
+     * @param query free-text query
+     * @param k number of rows to return
+     * @return the best rows, best first, and the number of rows that matched at all
+     */
+    Hits search(String query, int k) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return new Hits(new int[0], 0);
+        }
+
+        Map<Integer, float[]> scores = new HashMap<>(); // row -> {score, matched query terms}
+        for (String queryTerm : queryTerms) {
+            Map<Integer, Float> best = new HashMap<>();
+            expand(queryTerm).forEach((id, quality) -> {
+                int[] rows = postingRows[id];
+                byte[] weights = postingWeights[id];
+                float termScore = quality * idf[id];
+                for (int i = 0; i < rows.length; i++) {
+                    best.merge(rows[i], termScore * weights[i], Math::max);
+                }
+            });
+            best.forEach((row, score) -> {
+                float[] total = scores.computeIfAbsent(row, r -> new float[2]);
+                total[0] += score;
+                total[1]++;
+            });
+        }
+
+        // Ties keep petId order, which is the row order
+        int[] rows = scores.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] scaled = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            float[] total = scores.get(rows[i]);
+            float coverage = total[1] / queryTerms.size();
+            scaled[i] = Math.round(total[0] * coverage * coverage * SCALE);
+        }
+
+        int[] top = TopK.select(rows.length, i -> scaled[i], k);
+        int[] result = new int[top.length];
+        for (int i = 0; i < top.length; i++) {
+            result[i] = rows[top[i]];
+        }
+        return new Hits(result, rows.length);
+    }
+
+    /** @return a rough estimate of the heap used by the index */
+    long estimatedBytes() {
+        long bytes = 0;
+        for (int id = 0; id < terms.length; id++) {
+            bytes += 40L + terms[id].length() + 5L * postingRows[id].length + 48;
+        }
+        for (Map.Entry<String, int[]> entry : deletions.entrySet()) {
+            bytes += 40L + entry.getKey().length() + 4L * entry.getValue().length + 48;
+        }
+        return bytes;
+    }
+
+    // Maps every vocabulary term the query term matches to its match quality
+    private Map<Integer, Float> expand(String queryTerm) {
+        Map<Integer, Float> matches = new HashMap<>();
+
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            int from = Arrays.binarySearch(terms, queryTerm);
+            from = from >= 0 ? from : -from - 1;
+            for (int id = from; id < terms.length && id - from < MAX_PREFIX_EXPANSIONS
+                && terms[id].startsWith(queryTerm); id++) {
+                matches.put(id, PREFIX);
+            }
+        }
+
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            List<int[]> candidates = new ArrayList<>();
+            candidates.add(deletions.getOrDefault(queryTerm, new int[0]));       // query is missing a letter
+            for (String deletion : deletionsOf(queryTerm)) {
+                Integer id = termIds.get(deletion);                              // query has an extra letter
+                if (id != null) {
+                    candidates.add(new int[] {id});
+                }
+                candidates.add(deletions.getOrDefault(deletion, new int[0]));    // substitution or transposition
+            }
+            for (int[] ids : candidates) {
+                for (int id : ids) {
+                    if (!matches.containsKey(id) && withinOneEdit(queryTerm, terms[id])) {
+                        matches.put(id, FUZZY);
+                    }
+                }
+            }
+        }
+
+        Integer exact = termIds.get(queryTerm);
+        if (exact != null) {
+            matches.put(exact, EXACT);
+        }
+        return matches;
+    }
+
+    private static List<String> deletionsOf(String term) {
+        List<String> result = new ArrayList<>(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            String deletion = term.substring(0, i) + term.substring(i + 1);
+            if (i == 0 || term.charAt(i) != term.charAt(i - 1)) {
+                result.add(deletion);
+            }
+        }
+        return result;
+    }
+
+    // Optimal string alignment distance <= 1 (insertion, deletion, substitution or adjacent swap)
+    static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (a.length() == b.length()) {
+            if (i == a.length()) {
+                return true;
+            }
+            if (a.substring(i + 1).equals(b.substring(i + 1))) {
+                return true;
+            }
+            return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.substring(i + 2).equals(b.substring(i + 2));
+        }
+        String longer = a.length() > b.length() ? a : b;
+        String shorter = longer == a ? b : a;
+        return longer.substring(i + 1).equals(shorter.substring(i));
+    }
+
+    /**
+     * Result of a search.
+     *
+     * @param rows  matching rows, best first
+     * @param total number of rows that matched at least one query term
+     */
+    record Hits(int[] rows, int total) {}
+}
@@ -0,0 +1,53 @@
+package com.pink.pfa.services.catalog;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.random.RandomGenerator;
+
+
+/**
+ * Uniform sampling of distinct positions without replacement.
+ * <p>
+ * Uses Robert Floyd's algorithm: exactly {@code k} random draws and a set of at most {@code k}
+ * entries, independent of the population size, so drawing a handful of pets from a pool of a
+ * million costs the same as drawing them from a pool of ten.
+ */
+public final class RandomSample {
+    private RandomSample() {}
+
+    /**
+     * Picks {@code min(k, n)} distinct positions from {@code [0, n)}, each subset equally likely,
+     * in random order.
+     *
+     * @param n population size
+     * @param k number of positions wanted
+     * @param random source of randomness
+     * @return the sampled positions
+     */
+    public static int[] distinct(int n, int k, RandomGenerator random) {
+        if (n < 0 || k < 0) {
+            throw new IllegalArgumentException("n and k must not be negative");
+        }
+        int m = Math.min(n, k);
+        Set<Integer> chosen = new HashSet<>(m * 2);
+        int[] result = new int[m];
+        int count = 0;
+        for (int j = n - m; j < n; j++) {
+            int t = random.nextInt(j + 1);
+            int pick = chosen.add(t) ? t : j;
+            if (pick == j) {
+                chosen.add(j);
+            }
+            result[count++] = pick;
+        }
+
+        // Floyd's sample is uniform as a set but not as a sequence; shuffle the order too
+        for (int i = m - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int tmp = result[i];
+            result[i] = result[swap];
+            result[swap] = tmp;
+        }
+        return result;
+    }
+}
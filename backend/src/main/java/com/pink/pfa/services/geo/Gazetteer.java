@@ -0,0 +1,238 @@
+package com.pink.pfa.services.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Offline place-name lookup that turns free-text locations such as {@code "Austin, TX"} into
+ * coordinates, with no calls to external services.
+ * <p>
+ * Places are read from the U.S. Census Bureau's Gazetteer places file, bundled as
+ * {@value #CENSUS_RESOURCE} by the Docker build or {@code scripts/fetch_places.sh}: every
+ * incorporated city, town and village and every census-designated place, some 32,000 in all,
+ * each at its internal point. The curated {@value #RESOURCE} ({@code city,state,latitude,longitude})
+ * is read first and wins for the places it lists; without the Census file it is all there is, and
+ * covers only a few hundred of the largest cities.
+ * <p>
+ * Lookups tolerate the shapes scraped listings use:
+ * <ul>
+ *   <li>{@code "Austin, TX"}, {@code "Austin, Texas"}, {@code "Austin TX 78701"}</li>
+ *   <li>a leading venue, e.g. {@code "Dallas Animal Services, Dallas, TX"}: the part right
+ *       before the state is taken as the city</li>
+ *   <li>a bare city name, when only one state has a place of that name</li>
+ * </ul>
+ * Case, accents, periods and {@code Saint}/{@code St} spellings are ignored. Instances are
+ * immutable and safe to share between threads.
+ * <p>
+ * A pet in a place neither file knows gets no coordinates and is left out of every distance
+ * search; {@link GeocodingService#backfill} logs how many active pets that leaves out, and
+ * distance searches report how many of their matches it left out.
+ */
+@Component
+public class Gazetteer {
+    /** Classpath location of the curated gazetteer. */
+    static final String RESOURCE = "geo/us-places.csv";
+    /** Classpath location of the Census Bureau Gazetteer places file, when bundled. */
+    static final String CENSUS_RESOURCE = "geo/census-places.txt";
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern ZIP = Pattern.compile("\\b\\d{5}(-\\d{4})?\\b");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    // Census place names end in their legal description, e.g. "Round Rock city", "Akron CDP"
+    private static final Pattern DESCRIPTION = Pattern.compile("(\\s+(\\p{Ll}+|CDP))+(\\s+\\(balance\\))?$");
+
+    private static final Map<String, String> STATES = new HashMap<>();
+    static {
+        String[] states = {
+            "AL", "alabama", "AK", "alaska", "AZ", "arizona", "AR", "arkansas", "CA", "california",
+            "CO", "colorado", "CT", "connecticut", "DE", "delaware", "DC", "district of columbia",
+            "FL", "florida", "GA", "georgia", "HI", "hawaii", "ID", "idaho", "IL", "illinois",
+            "IN", "indiana", "IA", "iowa", "KS", "kansas", "KY", "kentucky", "LA", "louisiana",
+            "ME", "maine", "MD", "maryland", "MA", "massachusetts", "MI", "michigan", "MN", "minnesota",
+            "MS", "mississippi", "MO", "missouri", "MT", "montana", "NE", "nebraska", "NV", "nevada",
+            "NH", "new hampshire", "NJ", "new jersey", "NM", "new mexico", "NY", "new york",
+            "NC", "north carolina", "ND", "north dakota", "OH", "ohio", "OK", "oklahoma", "OR", "oregon",
+            "PA", "pennsylvania", "RI", "rhode island", "SC", "south carolina", "SD", "south dakota",
+            "TN", "tennessee", "TX", "texas", "UT", "utah", "VT", "vermont", "VA", "virginia",
+            "WA", "washington", "WV", "west virginia", "WI", "wisconsin", "WY", "wyoming"
+        };
+        for (int i = 0; i < states.length; i += 2) {
+            STATES.put(states[i].toLowerCase(Locale.ROOT), states[i]);
+            STATES.put(states[i + 1], states[i]);
+        }
+    }
+
+    private final Map<String, GeoPoint> byCityAndState = new HashMap<>();
+    private final Map<String, String> stateOfCity = new HashMap<>();
+    private final Map<String, GeoPoint> byUniqueCity = new HashMap<>();
+
+    /** Loads the bundled gazetteers. */
+    public Gazetteer() {
+        InputStream in = Gazetteer.class.getClassLoader().getResourceAsStream(RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException("Missing gazetteer resource " + RESOURCE);
+        }
+        load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        InputStream census = Gazetteer.class.getClassLoader().getResourceAsStream(CENSUS_RESOURCE);
+        if (census != null) {
+            loadCensus(new InputStreamReader(census, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Loads a gazetteer in the curated format.
+     *
+     * @param csv the places; lines starting with {@code #} and the header are skipped
+     */
+    Gazetteer(Reader csv) {
+        load(csv);
+    }
+
+    /**
+     * Loads a gazetteer in the curated format, then the places of a Census Bureau Gazetteer
+     * places file it does not list.
+     *
+     * @param csv    the curated places
+     * @param census the Census places file, tab-separated with its header line
+     */
+    Gazetteer(Reader csv, Reader census) {
+        load(csv);
+        loadCensus(census);
+    }
+
+    /** @return number of known places */
+    public int size() {
+        return byCityAndState.size();
+    }
+
+    /**
+     * Finds the coordinates of a free-text location.
+     *
+     * @param location the location, may be {@code null}
+     * @return the coordinates, or empty if the place is unknown or ambiguous
+     */
+    public Optional<GeoPoint> locate(String location) {
+        if (location == null || location.isBlank()) {
+            return Optional.empty();
+        }
+        String[] parts = ZIP.matcher(location).replaceAll(" ").split(",");
+
+        // "Venue, City, ST": the state is the last part naming one, the city the part before it
+        for (int i = parts.length - 1; i > 0; i--) {
+            String state = STATES.get(normalize(parts[i]));
+            if (state != null) {
+                return Optional.ofNullable(byCityAndState.get(key(normalize(parts[i - 1]), state)));
+            }
+        }
+
+        // "City ST" or "City State" without a comma
+        String last = normalize(parts[parts.length - 1]);
+        String[] words = last.split(" ");
+        for (int stateWords = Math.min(3, words.length - 1); stateWords >= 1; stateWords--) {
+            String state = STATES.get(String.join(" ", Arrays.copyOfRange(words, words.length - stateWords, words.length)));
+            if (state != null) {
+                String city = String.join(" ", Arrays.copyOfRange(words, 0, words.length - stateWords));
+                GeoPoint point = byCityAndState.get(key(city, state));
+                if (point != null) {
+                    return Optional.of(point);
+                }
+            }
+        }
+
+        return Optional.ofNullable(byUniqueCity.get(last));
+    }
+
+    private void load(Reader csv) {
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#") || line.startsWith("city,")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                if (columns.length != 4) {
+                    throw new IllegalStateException("Malformed gazetteer line: " + line);
+                }
+                add(columns[0], columns[1].trim().toUpperCase(Locale.ROOT),
+                    new GeoPoint(Double.parseDouble(columns[2]), Double.parseDouble(columns[3])));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Columns are found by name, since the Census adds columns from one year's file to the next
+    private void loadCensus(Reader census) {
+        try (BufferedReader reader = new BufferedReader(census)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return;
+            }
+            List<String> names = Arrays.stream(header.split("\t")).map(String::trim).toList();
+            int state = names.indexOf("USPS");
+            int name = names.indexOf("NAME");
+            int latitude = names.indexOf("INTPTLAT");
+            int longitude = names.indexOf("INTPTLONG");
+            if (state < 0 || name < 0 || latitude < 0 || longitude < 0) {
+                throw new IllegalStateException("Not a Census Gazetteer places file: " + header);
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t");
+                if (columns.length <= Math.max(Math.max(state, name), Math.max(latitude, longitude))) {
+                    continue;
+                }
+                String usps = columns[state].trim();
+                if (!STATES.containsValue(usps)) {
+                    continue; // Puerto Rico
+                }
+                add(DESCRIPTION.matcher(columns[name].trim()).replaceAll(""), usps,
+                    new GeoPoint(Double.parseDouble(columns[latitude].trim()), Double.parseDouble(columns[longitude].trim())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The first place of a name in a state is kept; a name in several states has no unique city
+    private void add(String name, String state, GeoPoint point) {
+        String city = normalize(name);
+        if (byCityAndState.putIfAbsent(key(city, state), point) != null) {
+            return;
+        }
+        String first = stateOfCity.putIfAbsent(city, state);
+        if (first == null) {
+            byUniqueCity.put(city, point);
+        } else if (!first.equals(state)) {
+            byUniqueCity.remove(city);
+        }
+    }
+
+    private static String key(String city, String state) {
+        return city + "|" + state;
+    }
+
+    // Lower-cases, strips accents and periods, collapses spaces and spells "Saint" as "st"
+    static String normalize(String text) {
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        String plain = SPACES.matcher(folded.toLowerCase(Locale.ROOT).replace('.', ' ')).replaceAll(" ").trim();
+        return plain.startsWith("saint ") ? "st " + plain.substring(6) : plain;
+    }
+}
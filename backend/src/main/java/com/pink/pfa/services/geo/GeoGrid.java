@@ -0,0 +1,96 @@
+package com.pink.pfa.services.geo;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Fixed-size latitude/longitude grid over a set of rows, for radius queries.
+ * <p>
+ * Every row with coordinates is filed under the {@value #CELL_DEGREES}&deg; cell containing it.
+ * A radius query visits only the cells overlapping the circle's enclosing box and computes exact
+ * distances for the rows filed there, so its cost depends on how many pets are nearby rather
+ * than on the size of the catalog.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class GeoGrid {
+    /** Edge length of a cell in degrees (about 35 miles of latitude). */
+    static final double CELL_DEGREES = 0.5;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final Map<Long, int[]> cells = new HashMap<>();
+    private final int located;
+
+    /**
+     * Indexes rows by position.
+     *
+     * @param latitudes  latitude of each row, {@code NaN} if unknown
+     * @param longitudes longitude of each row, {@code NaN} if unknown
+     */
+    public GeoGrid(double[] latitudes, double[] longitudes) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+
+        Map<Long, List<Integer>> lists = new HashMap<>();
+        int count = 0;
+        for (int row = 0; row < latitudes.length; row++) {
+            if (!Double.isNaN(latitudes[row]) && !Double.isNaN(longitudes[row])) {
+                lists.computeIfAbsent(key(cell(latitudes[row]), cell(longitudes[row])), k -> new ArrayList<>()).add(row);
+                count++;
+            }
+        }
+        lists.forEach((key, rows) -> cells.put(key, rows.stream().mapToInt(Integer::intValue).toArray()));
+        this.located = count;
+    }
+
+    /** @return number of rows with coordinates */
+    public int located() {
+        return located;
+    }
+
+    /**
+     * Finds the rows inside a circle.
+     *
+     * @param radius the circle
+     * @return the rows whose position lies inside it
+     */
+    public BitSet within(GeoRadius radius) {
+        BitSet result = new BitSet(latitudes.length);
+        double bound = radius.haversineBound();
+        double lat = radius.center().latitude();
+        double lon = radius.center().longitude();
+
+        for (int latCell = cell(radius.minLatitude()); latCell <= cell(radius.maxLatitude()); latCell++) {
+            for (int lonCell = cell(radius.minLongitude()); lonCell <= cell(radius.maxLongitude()); lonCell++) {
+                int[] rows = cells.get(key(latCell, lonCell));
+                if (rows == null) {
+                    continue;
+                }
+                for (int row : rows) {
+                    if (GeoPoint.haversine(lat, lon, latitudes[row], longitudes[row]) <= bound) {
+                        result.set(row);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** @return a rough estimate of the heap used by the grid */
+    public long estimatedBytes() {
+        return 4L * located + 64L * cells.size();
+    }
+
+    private static int cell(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long key(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+}
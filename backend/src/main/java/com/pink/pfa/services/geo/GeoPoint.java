@@ -0,0 +1,60 @@
+package com.pink.pfa.services.geo;
+
+
+/**
+ * A position on the earth in decimal degrees.
+ * <p>
+ * Distances use the haversine formula on a sphere of radius {@value #EARTH_RADIUS_MILES} miles.
+ * The database queries evaluate the same formula (see {@link #haversine}), so the in-memory
+ * and SQL paths agree on which pets are inside a radius.
+ *
+ * @param latitude  degrees north, {@code -90..90}
+ * @param longitude degrees east, {@code -180..180}
+ */
+public record GeoPoint(double latitude, double longitude) {
+    /** Mean radius of the earth in miles. */
+    public static final double EARTH_RADIUS_MILES = 3958.8;
+
+    public GeoPoint {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+    }
+
+    /**
+     * @param other another point
+     * @return the great-circle distance between the two points in miles
+     */
+    public double distanceMiles(GeoPoint other) {
+        return toMiles(haversine(latitude, longitude, other.latitude, other.longitude));
+    }
+
+    /**
+     * The haversine term {@code a = sin²(Δφ/2) + cos φ1 · cos φ2 · sin²(Δλ/2)}. It grows with distance,
+     * so comparing and ordering by it is equivalent to using the distance itself. Positions are in degrees.
+     *
+     * @return the haversine term for the two positions, {@code 0..1}
+     */
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        return sinLat * sinLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+    }
+
+    /**
+     * @param haversine a value returned by {@link #haversine}
+     * @return the corresponding distance in miles
+     */
+    public static double toMiles(double haversine) {
+        return 2 * EARTH_RADIUS_MILES * Math.asin(Math.sqrt(Math.min(1, haversine)));
+    }
+
+    /**
+     * @param miles a distance
+     * @return the haversine term corresponding to that distance
+     */
+    public static double fromMiles(double miles) {
+        double sin = Math.sin(Math.min(Math.PI / 2, miles / (2 * EARTH_RADIUS_MILES)));
+        return sin * sin;
+    }
+}
@@ -0,0 +1,66 @@
+package com.pink.pfa.services.geo;
+
+
+/**
+ * A circle on the earth's surface, used as a "within N miles of here" filter.
+ * <p>
+ * Besides the exact test, it exposes an enclosing latitude/longitude box so that indexes on the
+ * coordinates can narrow the candidates before any distance is computed.
+ *
+ * @param center centre of the circle
+ * @param miles  radius in miles, positive
+ */
+public record GeoRadius(GeoPoint center, double miles) {
+    public GeoRadius {
+        if (center == null) {
+            throw new IllegalArgumentException("A radius needs a center");
+        }
+        if (!(miles > 0)) {
+            throw new IllegalArgumentException("Radius must be positive: " + miles);
+        }
+    }
+
+    /** @return the largest {@link GeoPoint#haversine} value of a point inside the circle */
+    public double haversineBound() {
+        return GeoPoint.fromMiles(miles);
+    }
+
+    /** @return southern edge of the enclosing box */
+    public double minLatitude() {
+        return Math.max(-90, center.latitude() - latitudeSpan());
+    }
+
+    /** @return northern edge of the enclosing box */
+    public double maxLatitude() {
+        return Math.min(90, center.latitude() + latitudeSpan());
+    }
+
+    /** @return western edge of the enclosing box */
+    public double minLongitude() {
+        return Math.max(-180, center.longitude() - longitudeSpan());
+    }
+
+    /** @return eastern edge of the enclosing box */
+    public double maxLongitude() {
+        return Math.min(180, center.longitude() + longitudeSpan());
+    }
+
+    /**
+     * @param latitude  latitude of the point
+     * @param longitude longitude of the point
+     * @return {@code true} if the point lies inside the circle
+     */
+    public boolean contains(double latitude, double longitude) {
+        return GeoPoint.haversine(center.latitude(), center.longitude(), latitude, longitude) <= haversineBound();
+    }
+
+    private double latitudeSpan() {
+        return Math.toDegrees(miles / GeoPoint.EARTH_RADIUS_MILES);
+    }
+
+    // Meridians converge towards the poles, so the box widens with latitude
+    private double longitudeSpan() {
+        double edge = Math.min(89.9, Math.abs(center.latitude()) + latitudeSpan());
+        return Math.min(180, latitudeSpan() / Math.cos(Math.toRadians(edge)));
+    }
+}
@@ -0,0 +1,146 @@
+package com.pink.pfa.services.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.User;
+import com.pink.pfa.models.details.UserPrincipal;
+import com.pink.pfa.repos.PetSpecifications;
+import com.pink.pfa.repos.UserRepository;
+import com.pink.pfa.services.catalog.PetCatalogChangedEvent;
+
+
+/**
+ * Geocodes pets and search origins with the offline {@link Gazetteer}.
+ * <p>
+ * Pets are geocoded when the sync process adds them or their location changes. Pets stored
+ * before coordinates existed (or whose place was added to the gazetteer since) are filled in
+ * once at startup, one {@code UPDATE} per distinct location.
+ */
+@Service
+public class GeocodingService {
+    private static final Logger log = LoggerFactory.getLogger(GeocodingService.class);
+
+    private final Gazetteer gazetteer;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher events;
+
+    public GeocodingService(Gazetteer gazetteer, UserRepository userRepository, JdbcTemplate jdbcTemplate,
+        ApplicationEventPublisher events
+    ) {
+        this.gazetteer = gazetteer;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.events = events;
+    }
+
+    /**
+     * Sets a pet's coordinates from its location, clearing them if the place is unknown.
+     *
+     * @param pet the pet to update
+     */
+    public void geocode(Pet pet) {
+        Optional<GeoPoint> point = gazetteer.locate(pet.getLocation());
+        pet.setLatitude(point.map(GeoPoint::latitude).orElse(null));
+        pet.setLongitude(point.map(GeoPoint::longitude).orElse(null));
+    }
+
+    /**
+     * Works out where a distance query is measured from, trying in order: explicit coordinates,
+     * a place name, and the location on the signed-in user's profile. Only the caller's own
+     * profile is ever used, so a query cannot reveal where another user lives.
+     *
+     * @param near place name such as {@code "Austin, TX"}, may be {@code null}
+     * @param latitude latitude, used together with {@code longitude}
+     * @param longitude longitude, used together with {@code latitude}
+     * @return the origin, or empty if none was given and the caller is anonymous or has no known
+     *         location
+     * @throws IllegalArgumentException if the coordinates are out of range, only one of them is
+     *         given, or {@code near} names an unknown place
+     */
+    public Optional<GeoPoint> resolveOrigin(String near, Double latitude, Double longitude) {
+        if (latitude != null || longitude != null) {
+            if (latitude == null || longitude == null) {
+                throw new IllegalArgumentException("Both lat and lon are required");
+            }
+            return Optional.of(new GeoPoint(latitude, longitude));
+        }
+        if (near != null && !near.isBlank()) {
+            return Optional.of(gazetteer.locate(near)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown place: " + near)));
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UserPrincipal principal) {
+            return userRepository.findByEmail(principal.getUsername())
+                .map(User::getLocation)
+                .flatMap(gazetteer::locate);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Geocodes every stored pet that has no coordinates yet, then logs how many active pets are
+     * still left without, since the gazetteer does not cover every town.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<String> locations = jdbcTemplate.queryForList(
+            "SELECT DISTINCT location FROM pet WHERE latitude IS NULL", String.class);
+
+        List<Object[]> updates = new ArrayList<>();
+        for (String location : locations) {
+            gazetteer.locate(location).ifPresent(point ->
+                updates.add(new Object[] {point.latitude(), point.longitude(), location}));
+        }
+        if (!updates.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE pet SET latitude = ?, longitude = ? WHERE location = ? AND latitude IS NULL",
+                updates, updates.size(), (statement, row) -> {
+                    statement.setDouble(1, (Double) row[0]);
+                    statement.setDouble(2, (Double) row[1]);
+                    statement.setString(3, (String) row[2]);
+                });
+            long pets = Arrays.stream(counts).flatMapToInt(Arrays::stream).filter(n -> n > 0).sum();
+            log.info("Geocoded {} stored pets across {} of {} ungeocoded locations", pets, updates.size(), locations.size());
+            events.publishEvent(new PetCatalogChangedEvent("geocoded " + pets + " pets"));
+        }
+
+        reportUnlocated();
+    }
+
+    // Pets the gazetteer cannot place never match a radius search, so say how many there are
+    private void reportUnlocated() {
+        List<Map<String, Object>> unlocated = jdbcTemplate.queryForList("""
+            SELECT location, COUNT(*) AS pets
+            FROM pet
+            WHERE latitude IS NULL AND pet_status <> ?
+            GROUP BY location
+            ORDER BY pets DESC
+            """, PetSpecifications.INACTIVE);
+        long pets = unlocated.stream().mapToLong(row -> ((Number) row.get("pets")).longValue()).sum();
+        if (pets == 0) {
+            return;
+        }
+        long active = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pet WHERE pet_status <> ?", Long.class, PetSpecifications.INACTIVE);
+        log.warn("{} of {} active pets have no coordinates and are left out of distance searches; "
+            + "the gazetteer knows {} places. Most common unknown locations: {}",
+            pets, active, gazetteer.size(),
+            unlocated.stream().limit(10).map(row -> row.get("location") + " (" + row.get("pets") + ")").toList());
+    }
+}
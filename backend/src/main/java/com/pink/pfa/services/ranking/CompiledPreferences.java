@@ -0,0 +1,169 @@
+package com.pink.pfa.services.ranking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.pink.pfa.models.UserPreferences;
+import com.pink.pfa.models.datatransfer.PetDTO;
+
+
+/**
+ * A user's preferences compiled once into typed predicates for ranking pets.
+ * <p>
+ * The raw {@link UserPreferences} rows store every value as a string, e.g. {@code AGE_MIN = "3 Months"}.
+ * Scoring a pet straight from those rows re-parses ages and lower-cases breeds for every
+ * pet/preference pair; compiling does that work once per user:
+ * <ul>
+ *   <li>{@code AGE_MIN}/{@code AGE_MAX} use their typed value in weeks (the unit of {@code Pet.age}).</li>
+ *   <li>{@code BREED} needles are lower-cased once.</li>
+ *   <li>{@code PET_TYPE}, {@code GENDER} and {@code SIZE} keep their value for case-insensitive equality.</li>
+ * </ul>
+ * A pet's score is the number of preferences it satisfies. Values that cannot be parsed never match.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class CompiledPreferences {
+    /** Compiled form of a user without preferences; every pet scores zero. */
+    public static final CompiledPreferences NONE = compile(List.of());
+
+    private final List<String> types = new ArrayList<>();
+    private final List<String> genders = new ArrayList<>();
+    private final List<String> sizes = new ArrayList<>();
+    private final List<String> breedsLower = new ArrayList<>();
+    private final int[] minAges;
+    private final int[] maxAges;
+    private final int count;
+
+    private CompiledPreferences(List<UserPreferences> prefs) {
+        List<Integer> min = new ArrayList<>();
+        List<Integer> max = new ArrayList<>();
+
+        for (UserPreferences pref : prefs) {
+            String value = pref.getPrefValue();
+            if (value == null || pref.getPrefTrait() == null) {
+                continue;
+            }
+            switch (pref.getPrefTrait()) {
+                case PET_TYPE -> types.add(value);
+                case GENDER -> genders.add(value);
+                case SIZE -> sizes.add(value);
+                case BREED -> breedsLower.add(value.toLowerCase(Locale.ROOT));
+                case AGE_MIN -> min.add(pref.getPrefWeeks());
+                case AGE_MAX -> max.add(pref.getPrefWeeks());
+            }
+        }
+
+        this.minAges = min.stream().filter(weeks -> weeks != null).mapToInt(Integer::intValue).toArray();
+        this.maxAges = max.stream().filter(weeks -> weeks != null).mapToInt(Integer::intValue).toArray();
+        this.count = prefs.size();
+    }
+
+    /**
+     * Compiles a user's preferences.
+     *
+     * @param prefs the user's stored preferences
+     * @return the compiled preferences
+     */
+    public static CompiledPreferences compile(List<UserPreferences> prefs) {
+        return new CompiledPreferences(prefs);
+    }
+
+    /** @return the number of stored preferences, i.e. an upper bound on any score */
+    public int count() {
+        return count;
+    }
+
+    /** @return {@code true} if every pet scores zero */
+    public boolean isEmpty() {
+        return types.isEmpty() && genders.isEmpty() && sizes.isEmpty() && breedsLower.isEmpty()
+            && minAges.length == 0 && maxAges.length == 0;
+    }
+
+    /**
+     * Scores a pet.
+     *
+     * @param pet the pet
+     * @return the number of preferences the pet satisfies
+     */
+    public int score(PetDTO pet) {
+        return score(pet.pet_type(), String.valueOf(pet.gender()), pet.size(), pet.breed(), pet.age());
+    }
+
+    /**
+     * Scores a pet given its individual attributes.
+     *
+     * @param petType type of the pet
+     * @param gender  gender of the pet
+     * @param size    size of the pet
+     * @param breed   breed of the pet, in any case
+     * @param age     age of the pet in weeks
+     * @return the number of preferences the pet satisfies
+     */
+    public int score(String petType, String gender, String size, String breed, int age) {
+        int score = pointsForType(petType) + pointsForGender(gender) + pointsForSize(size) + pointsForAge(age);
+        if (!breedsLower.isEmpty() && breed != null) {
+            score += pointsForBreed(breed.toLowerCase(Locale.ROOT));
+        }
+        return score;
+    }
+
+    /** @return points earned by a pet of the given type */
+    public int pointsForType(String petType) {
+        return countEqualIgnoringCase(types, petType);
+    }
+
+    /** @return points earned by a pet of the given gender */
+    public int pointsForGender(String gender) {
+        return countEqualIgnoringCase(genders, gender);
+    }
+
+    /** @return points earned by a pet of the given size */
+    public int pointsForSize(String size) {
+        return countEqualIgnoringCase(sizes, size);
+    }
+
+    /**
+     * @param breedLower the pet's breed, already lower-cased
+     * @return points earned by a pet of the given breed
+     */
+    public int pointsForBreed(String breedLower) {
+        int points = 0;
+        if (breedLower != null) {
+            for (String needle : breedsLower) {
+                if (breedLower.contains(needle)) {
+                    points++;
+                }
+            }
+        }
+        return points;
+    }
+
+    /** @return points earned by a pet of the given age in weeks */
+    public int pointsForAge(int age) {
+        int points = 0;
+        for (int min : minAges) {
+            if (age >= min) {
+                points++;
+            }
+        }
+        for (int max : maxAges) {
+            if (age <= max) {
+                points++;
+            }
+        }
+        return points;
+    }
+
+    private static int countEqualIgnoringCase(List<String> wanted, String value) {
+        int points = 0;
+        if (value != null) {
+            for (String candidate : wanted) {
+                if (candidate.equalsIgnoreCase(value)) {
+                    points++;
+                }
+            }
+        }
+        return points;
+    }
+}
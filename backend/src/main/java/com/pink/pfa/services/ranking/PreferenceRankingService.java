@@ -0,0 +1,92 @@
+package com.pink.pfa.services.ranking;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.pink.pfa.models.datatransfer.UserDTO;
+import com.pink.pfa.services.UserPrefService;
+import com.pink.pfa.services.UserService;
+
+
+/**
+ * Provides each user's preferences in the compiled form used to rank pets in memory.
+ * <p>
+ * Each user's preferences are compiled into {@link CompiledPreferences} on first use and cached
+ * (least recently used users are evicted beyond {@link #MAX_CACHED_USERS}). The cache entry is
+ * dropped whenever {@link UserPrefService} publishes a {@link UserPreferencesChangedEvent}, so
+ * repeated ranked requests neither hit the preference table nor re-parse its values.
+ */
+@Service
+public class PreferenceRankingService {
+    /** Upper bound on the number of users whose compiled preferences are kept. */
+    static final int MAX_CACHED_USERS = 10_000;
+
+    private final UserService userService;
+    private final UserPrefService userPrefService;
+    private final Map<Integer, CompiledPreferences> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CompiledPreferences> eldest) {
+            return size() > MAX_CACHED_USERS;
+        }
+    };
+    private long invalidations = 0;
+
+    public PreferenceRankingService(UserService userService, UserPrefService userPrefService) {
+        this.userService = userService;
+        this.userPrefService = userPrefService;
+    }
+
+    /**
+     * Returns the compiled preferences of a user, compiling and caching them on first use.
+     *
+     * @param userId the user, may be {@code null}
+     * @return the compiled preferences, or empty if the user cannot be found
+     */
+    public Optional<CompiledPreferences> compiledFor(Integer userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+
+        long seen;
+        synchronized (cache) {
+            CompiledPreferences cached = cache.get(userId);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            seen = invalidations;
+        }
+
+        UserDTO user;
+        try {
+            user = userService.findById(userId);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+        CompiledPreferences compiled = CompiledPreferences.compile(userPrefService.findAllByUserId(user.id()));
+
+        synchronized (cache) {
+            // Don't cache a result that may predate a concurrent preference change
+            if (seen == invalidations) {
+                cache.put(userId, compiled);
+            }
+        }
+        return Optional.of(compiled);
+    }
+
+    /**
+     * Drops a user's compiled preferences after they changed.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPreferencesChanged(UserPreferencesChangedEvent event) {
+        synchronized (cache) {
+            invalidations++;
+            cache.remove(event.userId());
+        }
+    }
+}
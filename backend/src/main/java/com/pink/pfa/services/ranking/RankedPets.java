@@ -0,0 +1,14 @@
+package com.pink.pfa.services.ranking;
+
+import java.util.List;
+
+import com.pink.pfa.models.datatransfer.PetDTO;
+
+
+/**
+ * The best-ranked pets out of a larger set of candidates.
+ *
+ * @param top   the best candidates, best first
+ * @param total number of candidates that were ranked
+ */
+public record RankedPets(List<PetDTO> top, int total) {}
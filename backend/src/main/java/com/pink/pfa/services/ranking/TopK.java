@@ -0,0 +1,159 @@
+package com.pink.pfa.services.ranking;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+
+/**
+ * Stable top-K selection over non-negative integer scores.
+ * <p>
+ * Candidates are identified by their position {@code 0..n-1} in an already ordered list. The
+ * result holds the positions of the {@code k} best candidates, highest score first, with ties
+ * kept in candidate order, exactly as a stable descending sort followed by a {@code limit(k)}
+ * would return, but without boxing and in {@code O(n log k)}:
+ * <ul>
+ *   <li>Score and position are packed into one {@code long} so a bounded primitive min-heap can
+ *       hold the current best {@code k}.</li>
+ *   <li>Large candidate sets are scored and selected in parallel chunks, whose partial results
+ *       are merged with one more selection.</li>
+ *   <li>When {@code k} covers most of the candidates a stable counting sort on the (small)
+ *       score range is used instead.</li>
+ * </ul>
+ */
+public final class TopK {
+    /** Candidate count from which scoring and selection are split across the common pool. */
+    static final int PARALLEL_THRESHOLD = 20_000;
+
+    private static final long POSITION_MASK = 0xFFFF_FFFFL;
+
+    private TopK() {}
+
+    /**
+     * Selects the {@code k} best-scoring candidates.
+     *
+     * @param n      number of candidates
+     * @param scorer score of the candidate at a position; must be non-negative and thread-safe
+     * @param k      number of candidates to keep
+     * @return positions of the best candidates, best first, ties in ascending position
+     */
+    public static int[] select(int n, IntUnaryOperator scorer, int k) {
+        k = Math.max(0, Math.min(k, n));
+        if (k == 0) {
+            return new int[0];
+        }
+
+        boolean parallel = n >= PARALLEL_THRESHOLD;
+        int[] scores = new int[n];
+        IntStream positions = IntStream.range(0, n);
+        (parallel ? positions.parallel() : positions).forEach(i -> scores[i] = scorer.applyAsInt(i));
+
+        if ((long) k * 4 >= n) {
+            return countingSort(scores, k);
+        }
+        if (!parallel) {
+            return positionsOf(heapSelect(scores, 0, n, k));
+        }
+
+        int chunks = Math.max(2, ForkJoinPool.getCommonPoolParallelism());
+        int chunkSize = (n + chunks - 1) / chunks;
+        int keep = k;
+        long[] merged = IntStream.range(0, chunks)
+            .parallel()
+            .mapToObj(c -> heapSelect(scores, c * chunkSize, Math.min(n, (c + 1) * chunkSize), keep))
+            .flatMapToLong(Arrays::stream)
+            .toArray();
+        return positionsOf(heapSelect(merged, k));
+    }
+
+    // Higher score wins; on equal scores the lower position wins
+    private static long pack(int score, int position) {
+        return ((long) score << 32) | (POSITION_MASK - position);
+    }
+
+    private static int positionOf(long packed) {
+        return (int) (POSITION_MASK - (packed & POSITION_MASK));
+    }
+
+    // Keeps the k largest packed keys of scores[from, to) in a min-heap
+    private static long[] heapSelect(int[] scores, int from, int to, int k) {
+        long[] heap = new long[Math.min(k, Math.max(0, to - from))];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            size = offer(heap, size, pack(scores[i], i));
+        }
+        return Arrays.copyOf(heap, size);
+    }
+
+    private static long[] heapSelect(long[] keys, int k) {
+        long[] heap = new long[Math.min(k, keys.length)];
+        int size = 0;
+        for (long key : keys) {
+            size = offer(heap, size, key);
+        }
+        return Arrays.copyOf(heap, size);
+    }
+
+    private static int offer(long[] heap, int size, long key) {
+        if (size < heap.length) {
+            int i = size++;
+            heap[i] = key;
+            while (i > 0 && heap[(i - 1) / 2] > heap[i]) {
+                swap(heap, i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        } else if (heap.length > 0 && key > heap[0]) {
+            heap[0] = key;
+            int i = 0;
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && heap[left] < heap[smallest]) smallest = left;
+                if (right < size && heap[right] < heap[smallest]) smallest = right;
+                if (smallest == i) break;
+                swap(heap, i, smallest);
+                i = smallest;
+            }
+        }
+        return size;
+    }
+
+    private static void swap(long[] heap, int a, int b) {
+        long tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    private static int[] positionsOf(long[] keys) {
+        Arrays.sort(keys);
+        int[] positions = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            positions[i] = positionOf(keys[keys.length - 1 - i]);
+        }
+        return positions;
+    }
+
+    // Stable descending counting sort, truncated to the first k positions
+    private static int[] countingSort(int[] scores, int k) {
+        int max = 0;
+        for (int score : scores) {
+            max = Math.max(max, score);
+        }
+
+        int[] starts = new int[max + 2];
+        for (int score : scores) {
+            starts[max - score + 1]++;
+        }
+        for (int bucket = 1; bucket < starts.length; bucket++) {
+            starts[bucket] += starts[bucket - 1];
+        }
+
+        int[] sorted = new int[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            sorted[starts[max - scores[i]]++] = i;
+        }
+        return k == sorted.length ? sorted : Arrays.copyOf(sorted, k);
+    }
+}
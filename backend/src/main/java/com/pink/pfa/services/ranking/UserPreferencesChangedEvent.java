@@ -0,0 +1,10 @@
+package com.pink.pfa.services.ranking;
+
+
+/**
+ * Application event published by {@code UserPrefService} whenever a user's preferences are
+ * created or deleted, so cached {@link CompiledPreferences} for that user are recompiled.
+ *
+ * @param userId the user whose preferences changed
+ */
+public record UserPreferencesChangedEvent(int userId) {}
@@ -0,0 +1,13 @@
+-- Typed form of AGE_MIN / AGE_MAX preferences: the age in weeks (the unit of pet.age), so the
+-- preference-ranking query can compare it to pet.age directly instead of parsing "3 Months".
+ALTER TABLE user_preferences ADD COLUMN pref_weeks INT NULL;
+
+UPDATE user_preferences
+SET pref_weeks = CAST(SUBSTRING_INDEX(TRIM(pref_value), ' ', 1) AS UNSIGNED)
+    * CASE SUBSTRING_INDEX(TRIM(pref_value), ' ', -1)
+          WHEN 'Months' THEN 4
+          WHEN 'Years' THEN 52
+          ELSE 1
+      END
+WHERE pref_trait IN ('AGE_MIN', 'AGE_MAX')
+  AND TRIM(pref_value) REGEXP '^[0-9]+( +[A-Za-z]+)?$';
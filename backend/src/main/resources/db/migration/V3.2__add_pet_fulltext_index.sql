@@ -0,0 +1,2 @@
+-- Full-text index backing /api/pets/search while the in-memory catalog snapshot is unavailable.
+CREATE FULLTEXT INDEX ft_pet_search ON pet (name, breed, pet_type, location);
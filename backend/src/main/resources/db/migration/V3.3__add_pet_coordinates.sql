@@ -0,0 +1,8 @@
+-- Coordinates geocoded from pet.location by the offline gazetteer (NULL when unknown).
+-- Radius queries range-scan the latitude band of this index and check longitude from it
+-- before computing any distance; pet_status trails so the "not INACTIVE" check is covered too.
+ALTER TABLE pet
+    ADD COLUMN latitude DOUBLE NULL,
+    ADD COLUMN longitude DOUBLE NULL;
+
+CREATE INDEX idx_pet_lat_lon ON pet (latitude, longitude, pet_status);
@@ -0,0 +1,18 @@
+-- Identity and fingerprint of a scraped pet, maintained by the sync (see PetFingerprint).
+-- natural_key: site id, name, breed, pet type and gender, lower-cased with whitespace collapsed.
+-- content_hash: SHA-256 of the scraper-owned fields; NULL until the pet is next synced, which
+-- then rewrites it once.
+ALTER TABLE pet
+    ADD COLUMN natural_key VARCHAR(400) NULL,
+    ADD COLUMN content_hash VARCHAR(64) NULL;
+
+UPDATE pet SET natural_key = CONCAT_WS('|',
+    site_id,
+    TRIM(REGEXP_REPLACE(LOWER(name), '[[:space:]]+', ' ')),
+    TRIM(REGEXP_REPLACE(LOWER(breed), '[[:space:]]+', ' ')),
+    TRIM(REGEXP_REPLACE(LOWER(pet_type), '[[:space:]]+', ' ')),
+    TRIM(REGEXP_REPLACE(LOWER(gender), '[[:space:]]+', ' ')));
+
+ALTER TABLE pet MODIFY natural_key VARCHAR(400) NOT NULL;
+
+CREATE INDEX idx_pet_site_natural_key ON pet (site_id, natural_key, content_hash);
@@ -0,0 +1,11 @@
+-- Backs the sync's set difference of a pet's images (stored rows are looked up by pet and URL).
+-- It also serves the pet_id foreign key, so InnoDB drops the index it created for the key.
+CREATE INDEX idx_pet_image_pet_url ON pet_image (pet_id, image_url);
+
+-- Images used to be replaced by inserting the new collection without removing the old rows,
+-- which left duplicates behind; keep the first row of each (pet, URL) pair.
+DELETE duplicate FROM pet_image duplicate
+JOIN pet_image original
+    ON original.pet_id = duplicate.pet_id
+    AND original.image_url = duplicate.image_url
+    AND original.image_id < duplicate.image_id;
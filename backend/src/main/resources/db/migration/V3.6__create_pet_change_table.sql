@@ -0,0 +1,16 @@
+-- Append-only log of pet changes, read by /api/pets/changes with change_id as the cursor.
+-- There is no foreign key to pet: the log outlives the pets it mentions.
+CREATE TABLE pet_change (
+    change_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    pet_id INT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    sync_run_id CHAR(36) NULL,
+    changed_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+-- Writers lock this row before appending and hold it until commit, so changes commit in
+-- change_id order and a reader's cursor never skips a change committed late.
+CREATE TABLE pet_change_writer (
+    writer_id TINYINT NOT NULL PRIMARY KEY
+);
+INSERT INTO pet_change_writer (writer_id) VALUES (1);
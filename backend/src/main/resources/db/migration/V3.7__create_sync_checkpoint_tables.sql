@@ -0,0 +1,24 @@
+-- One row per scrape sync run; finished_at stays NULL while the run is in progress, or if it
+-- was interrupted, in which case the next run resumes it.
+CREATE TABLE sync_run (
+    sync_run_id CHAR(36) NOT NULL PRIMARY KEY,
+    started_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    finished_at DATETIME(6) NULL
+);
+
+-- Progress of one site within a run, written in the same transaction as each chunk it counts.
+-- completed_at is set, together with the site's totals, once the site is fully synced.
+CREATE TABLE sync_checkpoint (
+    sync_run_id CHAR(36) NOT NULL,
+    site_id INT NOT NULL,
+    chunks INT NOT NULL DEFAULT 0,
+    rows_written INT NOT NULL DEFAULT 0,
+    scraped INT NULL,
+    added INT NULL,
+    updated INT NULL,
+    deactivated INT NULL,
+    millis BIGINT NULL,
+    completed_at DATETIME(6) NULL,
+    PRIMARY KEY (sync_run_id, site_id),
+    CONSTRAINT fk_sync_checkpoint_run FOREIGN KEY (sync_run_id) REFERENCES sync_run (sync_run_id) ON DELETE CASCADE
+);
@@ -0,0 +1,17 @@
+-- Last extraction of each pet detail page, written once the pet it produced is synced.
+-- content_hash: SHA-256 of the page's detail content; etag and last_modified: the validators the
+-- server sent with it, if any. A page whose content is unchanged is not extracted again and its
+-- pet (natural_key) is left as stored.
+CREATE TABLE scraped_page (
+    url_hash CHAR(64) NOT NULL PRIMARY KEY,
+    url VARCHAR(2048) NOT NULL,
+    site_id INT NOT NULL,
+    natural_key VARCHAR(400) NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    etag VARCHAR(255) NULL,
+    last_modified VARCHAR(64) NULL,
+    checked_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    CONSTRAINT fk_scraped_page_site FOREIGN KEY (site_id) REFERENCES adoption_site (site_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_scraped_page_site_natural_key ON scraped_page (site_id, natural_key);
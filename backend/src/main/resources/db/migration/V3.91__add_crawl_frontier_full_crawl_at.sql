@@ -0,0 +1,6 @@
+-- When the site was last crawled from this page, its root. Kept apart from kind, since a root
+-- that links straight to pets is also a LISTING and must not lose its last full crawl.
+-- kind ROOT now only marks a root that lists no pets itself.
+ALTER TABLE crawl_frontier ADD COLUMN full_crawl_at DATETIME(6) NULL;
+
+UPDATE crawl_frontier SET full_crawl_at = last_visited_at WHERE kind = 'ROOT';
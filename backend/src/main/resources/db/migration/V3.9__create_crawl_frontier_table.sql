@@ -0,0 +1,17 @@
+-- Pages the crawler has found on each site, so the next run can start from them.
+-- kind: ROOT (the site's own url; last_visited_at is its last full crawl), LISTING (a page that
+-- listed pets) or DETAIL (a pet page). last_seen_at: when the page was last found on the site;
+-- pages not found for a while are forgotten. next_visit_at: when a pet page is next due, pushed
+-- further out the more visits in a row (unchanged_visits) found it unchanged.
+CREATE TABLE crawl_frontier (
+    site_id INT NOT NULL,
+    url_hash CHAR(64) NOT NULL,
+    url VARCHAR(2048) NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    last_seen_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    last_visited_at DATETIME(6) NULL,
+    next_visit_at DATETIME(6) NULL,
+    unchanged_visits INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (site_id, url_hash),
+    CONSTRAINT fk_crawl_frontier_site FOREIGN KEY (site_id) REFERENCES adoption_site (site_id) ON DELETE CASCADE
+);
@@ -0,0 +1,11 @@
+-- Composite indexes backing the filtered, sorted and keyset-paginated pet queries.
+-- pet_id is repeated explicitly as the keyset tie-breaker; pet_status trails each index
+-- so the "not INACTIVE" check can be evaluated from the index (index condition pushdown).
+CREATE INDEX idx_pet_type_created ON pet (pet_type, created_at, pet_id, pet_status);
+CREATE INDEX idx_pet_type_age ON pet (pet_type, age, pet_id, pet_status);
+CREATE INDEX idx_pet_type_price ON pet (pet_type, price, pet_id, pet_status);
+
+-- Unfiltered browsing (no pet type selected)
+CREATE INDEX idx_pet_created ON pet (created_at, pet_id, pet_status);
+CREATE INDEX idx_pet_age ON pet (age, pet_id, pet_status);
+CREATE INDEX idx_pet_price ON pet (price, pet_id, pet_status);
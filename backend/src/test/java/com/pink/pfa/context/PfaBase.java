@@ -7,6 +7,8 @@ import java.util.Map;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
@@ -37,6 +39,9 @@ import com.pink.pfa.services.JWTService;
 import com.pink.pfa.services.PetService;
 import com.pink.pfa.services.UserService;
 import com.pink.pfa.services.WebScraperService;
+import com.pink.pfa.services.catalog.PetCatalogService;
+
+import jakarta.persistence.EntityManagerFactory;
 
 
 /**
@@ -60,6 +65,8 @@ import com.pink.pfa.services.WebScraperService;
  *       not needed in the integration test environment.</li>
  *   <li><b>Test profile</b> — activates the {@code test} Spring profile, allowing
  *       profile-specific configuration to override production defaults.</li>
+ *   <li><b>Hibernate statistics</b> — enabled so {@link #countStatements(Runnable)} can
+ *       guard against N+1 query regressions.</li>
  * </ul>
  *
  * <p>Subclasses inherit a pre-wired {@link JWTService} instance for tests that need
@@ -80,7 +87,11 @@ import com.pink.pfa.services.WebScraperService;
 @Import({TestcontainersConfiguration.class, TestDataConfig.class})
 @SpringBootTest(
     webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
-    properties = "spring.test.webdriver.enabled=false"
+    properties = {
+        "spring.test.webdriver.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+    }
 )
 @ActiveProfiles("test")
 public abstract class PfaBase {
@@ -97,6 +108,8 @@ public abstract class PfaBase {
     @Autowired protected CommentsRepository commentRepository;
     @Autowired protected WebScraperService webScraperService;
     @Autowired protected FeaturedPetsRepository featuredPetRepository;
+    @Autowired protected PetCatalogService petCatalogService;
+    @Autowired protected EntityManagerFactory entityManagerFactory;
 
     /* WEB TEST CLIENT */
     protected WebTestClient webTestClient;
@@ -208,6 +221,27 @@ public abstract class PfaBase {
         return results.get(0);
     }
     
+    /**
+     * Runs an action and returns how many SQL statements it prepared, across all threads.
+     * Waits for the pet catalog snapshot to catch up first so a background rebuild is not counted.
+     */
+    protected long countStatements(Runnable action) {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!petCatalogService.isUpToDate() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
     protected void mockSecurityContext(User user) {
         UserPrincipal principal = new UserPrincipal(user);
 
@@ -1,9 +1,13 @@
 package com.pink.pfa.controllers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 
 import com.pink.pfa.context.PfaBase;
 import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.User;
 
 public class PetControllerTest extends PfaBase {
     // -------------------------------------------------------------------------
@@ -71,6 +75,324 @@ public class PetControllerTest extends PfaBase {
             .expectStatus().isNotFound();
     }
 
+    /**
+     * Verifies that the getFilteredPets endpoint returns the next page cursor in a
+     * response header when the result is limited
+     * */
+    @Test
+    void getFilteredPets_WithLimit_ShouldReturnNextCursorHeader() {
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/getFiltered")
+                .queryParam("sort", "age")
+                .queryParam("limit", 1)
+                .build()
+                )
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(PetController.NEXT_CURSOR_HEADER);
+    }
+
+    /**
+     * Verifies that the getFilteredPets endpoint returns a BadRequest (400) http code when
+     * given an unknown sort order or a malformed cursor
+     * */
+    @Test
+    void getFilteredPets_WithInvalidSortOrCursor_ShouldReturn400() {
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/getFiltered")
+                .queryParam("sort", "cutest")
+                .build()
+                )
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/getFiltered")
+                .queryParam("cursor", "not-a-cursor")
+                .build()
+                )
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Verifies that the getFilteredPets endpoint finds the seeded Austin pets by radius and
+     * distance order, and excludes them when searching around a distant city
+     * */
+    @Test
+    void getFilteredPets_WithRadius_ShouldFilterByDistance() {
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/getFiltered")
+                .queryParam("near", "Round Rock, TX")
+                .queryParam("radius", 30)
+                .queryParam("sort", PetController.DISTANCE_SORT)
+                .queryParam("limit", 1)
+                .build()
+                )
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(PetController.NEXT_CURSOR_HEADER)
+            .expectHeader().exists(PetController.UNLOCATED_HEADER);
+
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/getFiltered")
+                .queryParam("lat", 32.7767)
+                .queryParam("lon", -96.7970)
+                .queryParam("radius", 50)
+                .build()
+                )
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    /**
+     * Verifies that the getFilteredPets endpoint returns a BadRequest (400) http code for a
+     * distance search without a usable origin
+     * */
+    @Test
+    void getFilteredPets_WithoutOrigin_ShouldReturn400() {
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/getFiltered")
+                .queryParam("sort", PetController.DISTANCE_SORT)
+                .build()
+                )
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/getFiltered")
+                .queryParam("near", "Atlantis, TX")
+                .queryParam("radius", 10)
+                .build()
+                )
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Verifies that a distance search falls back to the signed-in user's own location only, and
+     * never to the location of the user named by {@code userId}
+     * */
+    @Test
+    void getFilteredPets_WithUserIdOnly_ShouldNotSearchAroundThatUser() {
+        SeededUser seeded = getRandUserAndPassByRole(User.Role.ROLE_USER);
+        User user = userRepository.findById(seeded.user().getUserId()).orElseThrow();
+        String location = user.getLocation();
+        user.setLocation("Round Rock, TX");
+        userRepository.save(user);
+        try {
+            webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                    .path("/api/pets/getFiltered")
+                    .queryParam("userId", user.getUserId())
+                    .queryParam("radius", 30)
+                    .build()
+                    )
+                .exchange()
+                .expectStatus().isBadRequest();
+
+            String token = loginAndGetToken(user.getEmail(), seeded.password());
+            webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                    .path("/api/pets/getFiltered")
+                    .queryParam("radius", 30)
+                    .build()
+                    )
+                .header("Authorization", "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk();
+        } finally {
+            user.setLocation(location);
+            userRepository.save(user);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // getFacets
+    // -------------------------------------------------------------------------
+    /**
+     * Verifies that the getFacets endpoint counts the seeded pets under the filter and
+     * answers a repeated request with 304 via the ETag
+     * */
+    @Test
+    void getFacets_ShouldCountPerTypeAndSupportEtag() {
+        String etag = webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/facets")
+                .queryParam("gender", "m")
+                .build()
+                )
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.total").isNumber()
+            .jsonPath("$.petTypes[0].count").isNumber()
+            .jsonPath("$.genders.length()").isEqualTo(1)
+            .returnResult()
+            .getResponseHeaders().getETag();
+
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/facets")
+                .queryParam("gender", "m")
+                .build()
+                )
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+            .exchange()
+            .expectStatus().isNotModified();
+    }
+
+    // -------------------------------------------------------------------------
+    // searchPets
+    // -------------------------------------------------------------------------
+    /**
+     * Verifies that the searchPets endpoint finds seeded pets from a misspelled breed prefix
+     * and pages with the next cursor header
+     * */
+    @Test
+    void searchPets_WithTypo_ShouldReturnMatchesAndCursor() {
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/search")
+                .queryParam("q", "retreiver")
+                .queryParam("limit", 1)
+                .build()
+                )
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(PetController.NEXT_CURSOR_HEADER);
+    }
+
+    /**
+     * Verifies that the searchPets endpoint rejects a query without searchable characters
+     * with a BadRequest (400) http code
+     * */
+    @Test
+    void searchPets_WithBlankQuery_ShouldReturn400() {
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/search")
+                .queryParam("q", " ")
+                .build()
+                )
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    // -------------------------------------------------------------------------
+    // getChanges
+    // -------------------------------------------------------------------------
+    /**
+     * Verifies that the getChanges endpoint always returns the cursor to continue from, and
+     * rejects a malformed cursor with a BadRequest (400) http code
+     * */
+    @Test
+    void getChanges_ShouldReturnCursorAndRejectMalformedOne() {
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/changes")
+                .queryParam("limit", 10)
+                .build()
+                )
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(PetController.NEXT_CURSOR_HEADER);
+
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/changes")
+                .queryParam("cursor", "yesterday")
+                .build()
+                )
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    // -------------------------------------------------------------------------
+    // exportPets
+    // -------------------------------------------------------------------------
+    /**
+     * Verifies that the exportPets endpoint streams one JSON line per matching pet
+     * */
+    @Test
+    void exportPets_WithFilter_ShouldStreamNdjsonLines() {
+        String body = webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/export")
+                .queryParam("petType", "Cat")
+                .build()
+                )
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(PetController.EXPORT_MEDIA_TYPE)
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertNotNull(body);
+        assertEquals(2, body.lines().filter(line -> line.contains("\"pet_type\":\"Cat\"")).count());
+        assertEquals(2, body.lines().count());
+    }
+
+    /**
+     * Verifies that the exportPets endpoint returns a BadRequest (400) http code when
+     * given a malformed {@code since} date
+     * */
+    @Test
+    void exportPets_WithInvalidSince_ShouldReturn400() {
+        webTestClient.get()
+            .uri(uriBuilder -> uriBuilder
+                .path("/api/pets/export")
+                .queryParam("since", "yesterday")
+                .build()
+                )
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    // -------------------------------------------------------------------------
+    // getActivePets
+    // -------------------------------------------------------------------------
+    /**
+     * Verifies that the getActivePets endpoint returns a strong ETag and answers a request
+     * carrying that ETag in If-None-Match with Not Modified (304)
+     * */
+    @Test
+    void getActivePets_WithMatchingETag_ShouldReturn304() {
+        String etag = webTestClient.get().uri("/api/pets/getActive")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(HttpHeaders.ETAG)
+            .returnResult(byte[].class)
+            .getResponseHeaders()
+            .getETag();
+
+        webTestClient.get().uri("/api/pets/getActive")
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+            .exchange()
+            .expectStatus().isNotModified();
+    }
+
+    /**
+     * Verifies that the getActivePets endpoint serves the pre-compressed body to clients
+     * that accept gzip
+     * */
+    @Test
+    void getActivePets_AcceptingGzip_ShouldReturnGzipEncoding() {
+        webTestClient.get().uri("/api/pets/getActive")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+
     // -------------------------------------------------------------------------
     // getPetById
     // -------------------------------------------------------------------------
@@ -0,0 +1,54 @@
+package com.pink.pfa.models;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PetFingerprint}.
+ *
+ * <p>The natural key must ignore case and spacing, and the content hash must change exactly
+ * when a scraper-owned field does.
+ */
+class PetFingerprintTest {
+
+    private Pet pet(String name, String location, Double price) {
+        AdoptionSite site = new AdoptionSite("Dallas County", "", "", "https://hsdallascounty.org", 'A', LocalDate.now());
+        site.setSiteId(7);
+        Pet pet = new Pet(name, "Labrador  Retriever", 24, 'M', "Dog", location, 0.0, "Medium", "available", "Placeholder", LocalDate.now());
+        pet.setPrice(price);
+        pet.setSite(site);
+        return pet;
+    }
+
+    /**
+     * Verifies the key format and that it ignores case and runs of whitespace.
+     */
+    @Test
+    void naturalKey_ShouldNormalizeCaseAndWhitespace() {
+        assertEquals("7|buddy|labrador retriever|dog|m", PetFingerprint.naturalKey(pet(" Buddy\t", "Austin, TX", 150.0)));
+        assertEquals(PetFingerprint.naturalKey(pet("Buddy", "Austin, TX", 150.0)),
+            PetFingerprint.naturalKey(pet("BUDDY ", "Dallas, TX", null)));
+    }
+
+    /**
+     * Verifies that the hash follows the scraper-owned fields, including the image URLs.
+     */
+    @Test
+    void contentHash_ShouldChangeWithScrapedFields() {
+        Pet buddy = pet("Buddy", "Austin, TX", 150.0);
+        String hash = PetFingerprint.contentHash(buddy);
+
+        assertEquals(64, hash.length());
+        assertEquals(hash, PetFingerprint.contentHash(pet("Buddy", "Austin, TX", 150.0)));
+        assertNotEquals(hash, PetFingerprint.contentHash(pet("Buddy", "Austin, TX", 125.0)));
+        assertNotEquals(hash, PetFingerprint.contentHash(pet("Buddy", "Austin, TX", null)));
+        assertNotEquals(hash, PetFingerprint.contentHash(pet("Buddy", "Round Rock, TX", 150.0)));
+
+        buddy.setSecondaryImages(List.of(new PetImage("https://example.org/buddy.jpg")));
+        assertNotEquals(hash, PetFingerprint.contentHash(buddy));
+    }
+}
@@ -0,0 +1,110 @@
+package com.pink.pfa.repos;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.pink.pfa.context.PfaBase;
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.User;
+import com.pink.pfa.models.datatransfer.PetDTO;
+
+/**
+ * Query-count guard for the pet listing fetch plans.
+ *
+ * <p>Each test counts the SQL statements needed to load a list of pets and map it to
+ * {@link PetDTO}s (which reads the site and images of every pet). The budget is a small
+ * constant, so reintroducing an N+1 pattern (two extra SELECTs per pet) fails the build.
+ * Mapping happens inside a fresh transaction so the first-level cache cannot hide lazy loads.
+ */
+class PetFetchPlanTest extends PfaBase {
+
+    /** Statements a listing may take regardless of its size: the query plus batch loads. */
+    private static final long LISTING_BUDGET = 3;
+
+    private static final PetFilterRequest NO_FILTER = new PetFilterRequest(null, null, null, null, null, null);
+
+    private final TransactionTemplate transaction;
+
+    @Autowired
+    PetFetchPlanTest(PlatformTransactionManager transactionManager) {
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    private long countMapped(Supplier<List<Pet>> query) {
+        return countStatements(() -> transaction.executeWithoutResult(status ->
+            query.get().forEach(PetDTO::fromEntity)
+        ));
+    }
+
+    private void assertWithinBudget(long statements) {
+        assertTrue(petRepository.count() > LISTING_BUDGET, "Seed more pets than the budget to make this guard meaningful");
+        assertTrue(statements <= LISTING_BUDGET, "Expected at most " + LISTING_BUDGET + " statements, got " + statements);
+    }
+
+    /**
+     * Verifies that building the {@code /api/pets/getAll} body loads pets, sites and images
+     * without N+1 queries (the endpoint itself usually answers from the response cache).
+     */
+    @Test
+    void findAll_ShouldNotIssueQueriesPerPet() {
+        assertWithinBudget(countStatements(petService::findAll));
+    }
+
+    /**
+     * Verifies that {@code /api/featuredPets/getAll} does not load each featured pet.
+     */
+    @Test
+    void getAllFeatured_ShouldNotIssueQueriesPerPet() {
+        assertWithinBudget(countStatements(() ->
+            webTestClient.get().uri("/api/featuredPets/getAll").exchange().expectStatus().isOk()
+        ));
+    }
+
+    /**
+     * Verifies the fetch plan used by {@code getActive} when no catalog snapshot is loaded.
+     */
+    @Test
+    void findByPetStatusNot_ShouldFetchSiteAndImages() {
+        assertWithinBudget(countMapped(() -> petRepository.findByPetStatusNot(PetSpecifications.INACTIVE)));
+    }
+
+    /**
+     * Verifies the fetch plan used by unpaginated {@code getFiltered} requests and catalog rebuilds.
+     */
+    @Test
+    void findAllBySpecification_ShouldFetchSiteAndImages() {
+        assertWithinBudget(countMapped(() ->
+            petRepository.findAll(PetSpecifications.matching(NO_FILTER), PetSort.NEWEST.toSort())
+        ));
+    }
+
+    /**
+     * Verifies that paginated {@code getFiltered} pages fetch sites up front and batch-load images.
+     */
+    @Test
+    void findPage_ShouldFetchSiteAndBatchImages() {
+        assertWithinBudget(countMapped(() ->
+            petRepository.findBy(PetSpecifications.matching(NO_FILTER),
+                query -> query.sortBy(PetSort.AGE.toSort()).limit(50).project("site").all())
+        ));
+    }
+
+    /**
+     * Verifies that database-ranked pages batch-load sites and images.
+     */
+    @Test
+    void findRankedByPreferences_ShouldBatchSiteAndImages() {
+        int userId = getRandUserAndPassByRole(User.Role.ROLE_USER).user().getUserId();
+
+        assertWithinBudget(countMapped(() ->
+            petRepository.findRankedByPreferences(userId, NO_FILTER, PetSort.NEWEST, 0, 50)
+        ));
+    }
+}
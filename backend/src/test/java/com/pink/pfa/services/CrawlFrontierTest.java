@@ -0,0 +1,191 @@
+package com.pink.pfa.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.repos.CrawlFrontierRepository;
+import com.pink.pfa.repos.CrawlFrontierRepository.FrontierPage;
+import com.pink.pfa.repos.CrawlFrontierRepository.Kind;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+/**
+ * Unit tests for {@link CrawlFrontier}.
+ *
+ * <p>Runs the frontier on a fixed clock over a mocked {@link CrawlFrontierRepository}, to check
+ * when a site is crawled from its root, which pet pages are due, and how their next visits back
+ * off and spread apart.
+ */
+class CrawlFrontierTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T02:00:00Z");
+    private static final String LISTING = "https://new.shelterluv.com/embed/40521";
+    private static final String PET = "https://new.shelterluv.com/embed/animal/1042";
+
+    private final CrawlFrontierRepository repository = mock(CrawlFrontierRepository.class);
+    private final AdoptionSite site = site();
+
+    private CrawlFrontier frontier() {
+        return new CrawlFrontier(repository, Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofHours(24),
+            Duration.ofHours(168), Duration.ofDays(7));
+    }
+
+    /**
+     * Verifies that a site is crawled from its root until it has been once, then from its listing
+     * pages until its last full crawl is older than the full crawl interval.
+     */
+    @Test
+    void listings_ShouldStartFromKnownListingsBetweenFullCrawls() {
+        assertEquals(List.of(), frontier().listings(site));
+
+        when(repository.findBySite(site.getSiteId())).thenReturn(List.of(
+            new FrontierPage(site.getUrl(), Kind.ROOT, NOW.minus(Duration.ofDays(3)), null, 0, NOW.minus(Duration.ofDays(3))),
+            new FrontierPage(LISTING, Kind.LISTING, NOW.minus(Duration.ofDays(1)), null, 0, null),
+            new FrontierPage(PET, Kind.DETAIL, NOW.minus(Duration.ofDays(1)), null, 0, null)));
+        assertEquals(List.of(LISTING), frontier().listings(site));
+
+        when(repository.findBySite(site.getSiteId())).thenReturn(List.of(
+            new FrontierPage(site.getUrl(), Kind.ROOT, NOW.minus(Duration.ofDays(7)), null, 0, NOW.minus(Duration.ofDays(7))),
+            new FrontierPage(LISTING, Kind.LISTING, NOW.minus(Duration.ofDays(1)), null, 0, null)));
+        assertEquals(List.of(), frontier().listings(site));
+    }
+
+    /**
+     * Verifies that new pet pages and pages whose next visit has come are due, and that the rest
+     * are deferred.
+     */
+    @Test
+    void due_ShouldDeferOnlyKnownPagesBeforeTheirNextVisit() {
+        when(repository.findBySite(site.getSiteId())).thenReturn(List.of(
+            new FrontierPage(PET, Kind.DETAIL, NOW.minus(Duration.ofDays(1)), NOW.plus(Duration.ofHours(1)), 2, null),
+            new FrontierPage(PET + "0", Kind.DETAIL, NOW.minus(Duration.ofDays(1)), NOW.minus(Duration.ofHours(1)), 2, null)));
+        CrawlFrontier frontier = frontier();
+
+        assertFalse(frontier.due(site, PET));
+        assertTrue(frontier.due(site, PET + "0"));
+        assertTrue(frontier.due(site, PET + "1"));
+        assertEquals(2, frontier.stats().duePages());
+        assertEquals(1, frontier.stats().deferredPages());
+    }
+
+    /**
+     * Verifies that each unchanged visit doubles a page's interval up to the longest one, that a
+     * change resets it, and that the interval of pages with the same history differs by url
+     * within a quarter of it.
+     */
+    @Test
+    void interval_ShouldBackOffWhileUnchangedAndSpreadPagesApart() {
+        CrawlFrontier frontier = frontier();
+
+        for (String url : List.of(PET, PET + "0", PET + "1", "https://www.petfinder.com/dog/luna-72001234/")) {
+            for (int unchangedVisits = 0; unchangedVisits < 3; unchangedVisits++) {
+                Duration base = Duration.ofHours(24L << unchangedVisits);
+                Duration interval = frontier.interval(url, unchangedVisits);
+                assertTrue(interval.compareTo(base.multipliedBy(3).dividedBy(4)) >= 0, url + " " + interval);
+                assertTrue(interval.compareTo(base.multipliedBy(5).dividedBy(4)) <= 0, url + " " + interval);
+            }
+            assertTrue(frontier.interval(url, 20).compareTo(Duration.ofHours(168)) <= 0);
+            assertTrue(frontier.interval(url, 20).compareTo(Duration.ofHours(126)) >= 0);
+        }
+        assertNotEquals(frontier.interval(PET + "0", 0), frontier.interval(PET + "1", 0));
+    }
+
+    /**
+     * Verifies that a crawl records the listing pages pets were found on and keeps the schedule of
+     * known pet pages, that visits schedule the next one, and that nothing is saved before the
+     * site is synced.
+     */
+    @Test
+    void synced_ShouldSaveCrawledAndVisitedPages() {
+        FrontierPage known = new FrontierPage(PET, Kind.DETAIL, NOW.minus(Duration.ofDays(1)), NOW.plus(Duration.ofHours(1)), 2, null);
+        FrontierPage revisited = new FrontierPage(PET + "0", Kind.DETAIL, NOW.minus(Duration.ofDays(2)), NOW, 1, null);
+        when(repository.findBySite(site.getSiteId())).thenReturn(List.of(known, revisited));
+        CrawlFrontier frontier = frontier();
+
+        frontier.crawled(site, List.of(new PetLink(LISTING, PET), new PetLink(LISTING, PET + "0"),
+            new PetLink(LISTING, PET + "1")), true);
+        frontier.visited(site, PET + "0", true);
+        frontier.visited(site, PET + "1", true);
+        verify(repository, never()).save(anyInt(), any());
+
+        frontier.synced(site.getSiteId());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FrontierPage>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).save(eq(site.getSiteId()), saved.capture());
+        verify(repository).forgetUnseen(site.getSiteId(), CrawlFrontier.FORGET_AFTER_DAYS);
+        Map<String, FrontierPage> pages = saved.getValue().stream()
+            .collect(Collectors.toMap(FrontierPage::url, Function.identity()));
+
+        assertEquals(5, pages.size());
+        assertEquals(new FrontierPage(site.getUrl(), Kind.ROOT, NOW, null, 0, NOW), pages.get(site.getUrl()));
+        assertEquals(Kind.LISTING, pages.get(LISTING).kind());
+        assertEquals(known, pages.get(PET));
+        assertEquals(2, pages.get(PET + "0").unchangedVisits());
+        assertEquals(NOW.plus(frontier.interval(PET + "0", 2)), pages.get(PET + "0").nextVisitAt());
+        // A new page has no unchanged visit to count yet
+        assertEquals(0, pages.get(PET + "1").unchangedVisits());
+        assertEquals(NOW.plus(frontier.interval(PET + "1", 0)), pages.get(PET + "1").nextVisitAt());
+        assertEquals(1, frontier.stats().fullCrawls());
+        assertEquals(1, frontier.stats().newPages());
+    }
+
+    /**
+     * Verifies that a root linking straight to pets is saved as a listing page without losing its
+     * last full crawl, so the next runs start from it rather than crawling the site again, and
+     * that a crawl from it as a listing page keeps that full crawl.
+     */
+    @Test
+    void crawled_RootListingPets_ShouldKeepItsFullCrawl() {
+        CrawlFrontier frontier = frontier();
+        frontier.crawled(site, List.of(new PetLink(site.getUrl(), PET), new PetLink(site.getUrl(), PET + "0")), true);
+        frontier.synced(site.getSiteId());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FrontierPage>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).save(eq(site.getSiteId()), saved.capture());
+        FrontierPage root = saved.getValue().stream()
+            .filter(page -> page.url().equals(site.getUrl()))
+            .findFirst().orElseThrow();
+        assertEquals(new FrontierPage(site.getUrl(), Kind.LISTING, NOW, null, 0, NOW), root);
+        assertEquals(3, saved.getValue().size());
+
+        when(repository.findBySite(site.getSiteId())).thenReturn(saved.getValue());
+        CrawlFrontier next = frontier();
+        assertEquals(List.of(site.getUrl()), next.listings(site));
+
+        next.crawled(site, List.of(new PetLink(site.getUrl(), PET)), false);
+        next.synced(site.getSiteId());
+        verify(repository, times(2)).save(eq(site.getSiteId()), saved.capture());
+        assertEquals(NOW, saved.getValue().stream()
+            .filter(page -> page.url().equals(site.getUrl()))
+            .findFirst().orElseThrow().fullCrawlAt());
+    }
+
+    private static AdoptionSite site() {
+        AdoptionSite site = new AdoptionSite();
+        site.setSiteId(7);
+        site.setUrl("https://a.example.org");
+        return site;
+    }
+}
@@ -0,0 +1,135 @@
+package com.pink.pfa.services;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.pink.pfa.context.PfaBase;
+import com.pink.pfa.services.catalog.PetCatalogSnapshot;
+import com.pink.pfa.services.catalog.RandomSample;
+
+/**
+ * Benchmark for picking featured pets on a large pet table.
+ *
+ * <p>Compares the original {@code ORDER BY RAND() LIMIT 1} query, run once per featured slot,
+ * against sampling all slots at once from the type's ids (the database fallback) and from the
+ * catalog snapshot's per-type pool. Inserts {@value #PETS} extra pets and removes them afterwards.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FeaturedPetSamplingBenchmarkTest extends PfaBase {
+
+    private static final int PETS = 200_000;
+    private static final int SLOTS = 6;
+    private static final int ROUNDS = 9;
+    private static final String PREFIX = "Benchmark Pet ";
+    private static final String[] TYPES = {"Dog", "Cat", "Rabbit"};
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void insertPets() {
+        int siteId = adoptionSiteRepository.findAll().get(0).getSiteId();
+        Random random = new Random(7);
+        List<Object[]> rows = new ArrayList<>(PETS);
+        for (int i = 0; i < PETS; i++) {
+            rows.add(new Object[] {
+                PREFIX + i, "Mixed Breed", random.nextInt(780), random.nextBoolean() ? "M" : "F",
+                TYPES[random.nextInt(TYPES.length)], "Austin, TX", 50.0, "Medium",
+                random.nextInt(10) == 0 ? "INACTIVE" : "available", "Placeholder",
+                Date.valueOf(LocalDate.of(2025, 1, 1).plusDays(random.nextInt(400))), siteId, PREFIX + i
+            });
+        }
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO pet (name, breed, age, gender, pet_type, location, price, pet_size, pet_status, img_url, created_at, site_id, natural_key)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """, rows);
+        petCatalogService.invalidate();
+    }
+
+    @AfterAll
+    void deletePets() {
+        jdbcTemplate.update("DELETE FROM pet WHERE name LIKE ?", PREFIX + "%");
+        petCatalogService.invalidate();
+    }
+
+    /**
+     * Runs each approach for several rounds and prints the median time to pick {@value #SLOTS} dogs.
+     */
+    @Test
+    void pickFeaturedDogs_On200kPets() {
+        PetCatalogSnapshot snapshot = awaitSnapshot();
+
+        assertEquals(SLOTS, idSample().size());
+        assertEquals(SLOTS, snapshot.sample("Dog", SLOTS, ThreadLocalRandom.current()).size());
+
+        double randMs = medianMillis(this::orderByRand);
+        double idsMs = medianMillis(this::idSample);
+        double snapshotMs = medianMillis(() -> snapshot.sample("Dog", SLOTS, ThreadLocalRandom.current()));
+
+        System.out.printf("Picking %d dogs among %d pets:%n", SLOTS, PETS);
+        System.out.printf("  ORDER BY RAND() LIMIT 1 per slot : %8.2f ms%n", randMs);
+        System.out.printf("  id index scan + sample           : %8.2f ms (%.1fx)%n", idsMs, randMs / idsMs);
+        System.out.printf("  snapshot per-type pool           : %8.4f ms (%.0fx)%n", snapshotMs, randMs / snapshotMs);
+    }
+
+    // The featured-pet selection used before sampling, which could also repeat a pet
+    private List<Integer> orderByRand() {
+        List<Integer> ids = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            ids.add(jdbcTemplate.queryForObject(
+                "SELECT pet_id FROM pet WHERE pet_status <> 'INACTIVE' AND pet_type = 'Dog' ORDER BY RAND() LIMIT 1",
+                Integer.class));
+        }
+        return ids;
+    }
+
+    private List<Integer> idSample() {
+        List<Integer> ids = petRepository.findIdsByPetTypeAndPetStatusNot("Dog", "INACTIVE");
+        return Arrays.stream(RandomSample.distinct(ids.size(), SLOTS, ThreadLocalRandom.current()))
+            .mapToObj(ids::get)
+            .toList();
+    }
+
+    private PetCatalogSnapshot awaitSnapshot() {
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (!petCatalogService.isUpToDate() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return petCatalogService.current().orElseThrow();
+    }
+
+    private static double medianMillis(Supplier<?> run) {
+        for (int i = 0; i < 3; i++) {
+            run.get(); // warm up
+        }
+        double[] millis = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            run.get();
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[ROUNDS / 2];
+    }
+}
@@ -0,0 +1,75 @@
+package com.pink.pfa.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link HostLimiter}.
+ *
+ * <p>Loads pages from several threads at once, to check that no host has more than its cap of
+ * pages loading while other hosts are not held up by it.
+ */
+class HostLimiterTest {
+
+    /**
+     * Verifies that the pages of one host never load more than the cap at once, whichever path
+     * they are on, and that the loads made to wait are counted.
+     */
+    @Test
+    void acquire_ManyPagesOfOneHost_ShouldCapThem() throws Exception {
+        HostLimiter hosts = new HostLimiter(2);
+        AtomicInteger loading = new AtomicInteger();
+        AtomicInteger mostLoading = new AtomicInteger();
+
+        ExecutorService workers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> loads = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                String url = "https://new.shelterluv.com/embed/" + (i % 2 == 0 ? "animal/" : "") + i;
+                loads.add(workers.submit(() -> {
+                    try (HostLimiter.Slot slot = hosts.acquire(url)) {
+                        mostLoading.accumulateAndGet(loading.incrementAndGet(), Math::max);
+                        Thread.sleep(5);
+                        loading.decrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> load : loads) {
+                load.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        assertTrue(mostLoading.get() <= 2, "Expected at most 2 pages at once, got " + mostLoading.get());
+        assertEquals(12, hosts.stats().loads());
+        assertTrue(hosts.stats().waits() > 0);
+    }
+
+    /**
+     * Verifies that a host at its cap does not hold up the pages of another.
+     */
+    @Test
+    void acquire_OtherHost_ShouldNotWait() {
+        HostLimiter hosts = new HostLimiter(1);
+
+        try (HostLimiter.Slot busy = hosts.acquire("https://a.example.org/dogs")) {
+            try (HostLimiter.Slot other = hosts.acquire("https://b.example.org/dogs")) {
+                assertEquals(0, hosts.stats().waits());
+            }
+        }
+        assertEquals(2, hosts.stats().hosts());
+        assertThrows(IllegalArgumentException.class, () -> new HostLimiter(0));
+    }
+}
@@ -0,0 +1,160 @@
+package com.pink.pfa.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import com.pink.pfa.services.WebScraperService.PetDisplayMethod;
+
+/**
+ * Unit tests for {@link PageClassifier}.
+ *
+ * <p>Uses a fake fetcher serving fixed pages and counting downloads, to check that each page is
+ * downloaded at most once per run and that the reported totals add up.
+ */
+class PageClassifierTest {
+
+    private static final String SHELTER_LUV_PAGE = """
+        <html><head><script src="https://new.shelterluv.com/embed/loader.js"></script></head><body></body></html>
+        """;
+
+    private static final String PETFINDER_PAGE = """
+        <html><body><iframe srcdoc="<pet-scroller organization='x'></pet-scroller>"></iframe></body></html>
+        """;
+
+    private static final String PLAIN_PAGE = "<html><body><a href=\"/adopt\">Adopt</a></body></html>";
+
+    private final Map<String, AtomicInteger> downloads = new ConcurrentHashMap<>();
+
+    private PageClassifier classifier(Map<String, String> site) {
+        return new PageClassifier(url -> {
+            downloads.computeIfAbsent(url, key -> new AtomicInteger()).incrementAndGet();
+            if (!site.containsKey(url)) {
+                throw new HttpStatusException("Not found", 404, url);
+            }
+            return Jsoup.parse(site.get(url), url);
+        });
+    }
+
+    /**
+     * Verifies that pages are classified from one download each, that repeated lookups of a page
+     * (with or without a fragment) reuse it, and that provider urls are never downloaded.
+     */
+    @Test
+    void classify_RepeatedPages_ShouldDownloadEachOnce() {
+        PageClassifier pages = classifier(Map.of(
+            "https://a.example.org/", SHELTER_LUV_PAGE,
+            "https://b.example.org/adopt", PETFINDER_PAGE,
+            "https://c.example.org/", PLAIN_PAGE));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(PetDisplayMethod.SHELTER_LUV, pages.classify("https://a.example.org/"));
+            assertEquals(PetDisplayMethod.PETFINDER, pages.classify("https://b.example.org/adopt"));
+            assertEquals(PetDisplayMethod.UNSUPPORTED, pages.classify("https://c.example.org/"));
+        }
+        assertEquals(PetDisplayMethod.PETFINDER, pages.classify("https://b.example.org/adopt#dogs"));
+        assertEquals(PetDisplayMethod.SHELTER_LUV, pages.classify("https://new.shelterluv.com/embed/animal/1"));
+        assertEquals(PetDisplayMethod.PETFINDER, pages.classify("https://www.petfinder.com/dog/1"));
+
+        assertEquals(List.of(1, 1, 1), downloads.values().stream().map(AtomicInteger::get).toList());
+        PageClassifier.Stats stats = pages.stats();
+        assertEquals(12, stats.lookups());
+        assertEquals(2, stats.byUrl());
+        assertEquals(7, stats.hits());
+        assertEquals(3, stats.fetches());
+        // uncached: a=1 x3, b=2 x4, c=2 x3 downloads
+        assertEquals(3 + 8 + 6 - 3, stats.fetchesSaved());
+        assertEquals(0.7, stats.hitRate(), 1e-9);
+    }
+
+    /**
+     * Verifies that a page without a provider, one that cannot be downloaded and a malformed url
+     * are all classified as unsupported.
+     */
+    @Test
+    void classify_UnknownOrInvalidPages_ShouldReturnUnsupported() {
+        PageClassifier pages = classifier(Map.of("https://c.example.org/", PLAIN_PAGE));
+
+        assertEquals(PetDisplayMethod.UNSUPPORTED, pages.classify("https://c.example.org/"));
+        assertEquals(PetDisplayMethod.UNSUPPORTED, pages.classify("https://missing.example.org/"));
+        assertEquals(PetDisplayMethod.UNSUPPORTED, pages.classify("invalid-url"));
+    }
+
+    /**
+     * Verifies that once a host refuses a download, its other pages are not downloaded during the
+     * run, while a plain missing page does not stop the host's other pages being tried.
+     */
+    @Test
+    void classify_WhenHostRefuses_ShouldSkipItsOtherPages() throws Exception {
+        PageClassifier pages = new PageClassifier(url -> {
+            downloads.computeIfAbsent(url, key -> new AtomicInteger()).incrementAndGet();
+            if (url.startsWith("https://blocked.example.org")) {
+                throw new HttpStatusException("Forbidden", 403, url);
+            }
+            throw new HttpStatusException("Not found", 404, url);
+        });
+
+        pages.classify("https://blocked.example.org/");
+        pages.classify("https://blocked.example.org/dogs");
+        pages.classify("https://blocked.example.org/cats");
+        pages.classify("https://missing.example.org/a");
+        pages.classify("https://missing.example.org/b");
+
+        assertEquals(1, downloads.get("https://blocked.example.org/").get());
+        assertNull(downloads.get("https://blocked.example.org/dogs"));
+        assertEquals(1, downloads.get("https://missing.example.org/b").get());
+        assertEquals(2, pages.stats().hostSkips());
+        assertEquals(3, pages.stats().fetches());
+    }
+
+    /**
+     * Verifies that workers looking up the same page at once share a single download.
+     */
+    @Test
+    void classify_ConcurrentLookups_ShouldShareDownload() throws Exception {
+        CountDownLatch downloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PageClassifier pages = new PageClassifier(url -> {
+            downloads.computeIfAbsent(url, key -> new AtomicInteger()).incrementAndGet();
+            downloading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Jsoup.parse(SHELTER_LUV_PAGE);
+        });
+
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            Future<PetDisplayMethod> first = workers.submit(() -> pages.classify("https://a.example.org/"));
+            downloading.await(5, TimeUnit.SECONDS);
+            List<Future<PetDisplayMethod>> others = List.of(
+                workers.submit(() -> pages.classify("https://a.example.org/")),
+                workers.submit(() -> pages.classify("https://a.example.org/")));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(PetDisplayMethod.SHELTER_LUV, first.get(5, TimeUnit.SECONDS));
+            for (Future<PetDisplayMethod> other : others) {
+                assertEquals(PetDisplayMethod.SHELTER_LUV, other.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        assertEquals(1, downloads.get("https://a.example.org/").get());
+        assertEquals(2, pages.stats().hits());
+    }
+}
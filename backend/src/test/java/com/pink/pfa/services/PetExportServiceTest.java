@@ -0,0 +1,113 @@
+package com.pink.pfa.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.datatransfer.AdoptionSiteDTO;
+import com.pink.pfa.models.datatransfer.PetDTO;
+import com.pink.pfa.repos.PetExportRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Unit tests for {@link PetExportService}.
+ *
+ * <p>Uses a mocked {@link PetExportRepository} that emits a fixed number of pets and checks the
+ * NDJSON framing, the periodic flushing and that client write failures surface as {@link IOException}.
+ */
+class PetExportServiceTest {
+
+    private static final PetFilterRequest NO_FILTER = new PetFilterRequest(null, null, null, null, null, null);
+    private static final AdoptionSiteDTO SITE = new AdoptionSiteDTO(1, "https://example.org", "Example", null, null, 'A');
+
+    private final PetExportRepository repository = mock(PetExportRepository.class);
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final PetExportService service = new PetExportService(repository, jsonMapper);
+
+    /**
+     * Verifies that every pet is written as one JSON object per line.
+     */
+    @Test
+    void export_ShouldWriteOnePetPerLine() throws IOException {
+        emitPets(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(3, service.export(NO_FILTER, null, false, out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(i + 1, jsonMapper.readValue(lines[i], PetDTO.class).id());
+        }
+    }
+
+    /**
+     * Verifies that output reaches the client in batches while rows are still being read,
+     * rather than only once at the end.
+     */
+    @Test
+    void export_ShouldFlushPeriodically() throws IOException {
+        int pets = PetExportService.FLUSH_EVERY * 3;
+        emitPets(pets);
+        CountingOutputStream out = new CountingOutputStream();
+
+        service.export(NO_FILTER, null, false, out);
+
+        assertTrue(out.flushes >= 3, "expected a flush per " + PetExportService.FLUSH_EVERY + " pets");
+    }
+
+    /**
+     * Verifies that a failing client stream aborts the export with the original {@link IOException}.
+     */
+    @Test
+    void export_WhenClientDisconnects_ShouldThrowIOException() {
+        emitPets(PetExportService.FLUSH_EVERY * 2);
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        IOException e = assertThrows(IOException.class, () -> service.export(NO_FILTER, null, false, broken));
+        assertEquals("Broken pipe", e.getMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void emitPets(int count) {
+        when(repository.forEach(any(), any(), anyBoolean(), any())).thenAnswer(invocation -> {
+            Consumer<PetDTO> action = invocation.getArgument(3, Consumer.class);
+            for (int id = 1; id <= count; id++) {
+                action.accept(new PetDTO(id, SITE, "Pet " + id, "Beagle", 12, 'M', "Dog", "Austin, TX",
+                    50.0, "available", null, List.of(), "Small"));
+            }
+            return (long) count;
+        });
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        int flushes = 0;
+
+        @Override
+        public void write(int b) {}
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
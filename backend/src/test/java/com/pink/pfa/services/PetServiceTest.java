@@ -1,6 +1,7 @@
 package com.pink.pfa.services;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -10,20 +11,31 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.pink.pfa.config.TestDataConfig;
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.controllers.requests.UserPrefRequest;
 import com.pink.pfa.context.PfaBase;
 import com.pink.pfa.models.AdoptionSite;
 import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.PetFingerprint;
+import com.pink.pfa.models.PetImage;
 import com.pink.pfa.models.User;
 import com.pink.pfa.models.UserPreferences;
+import com.pink.pfa.models.datatransfer.PetChange;
+import com.pink.pfa.models.datatransfer.PetChangePage;
 import com.pink.pfa.models.datatransfer.PetDTO;
+import com.pink.pfa.models.datatransfer.PetPage;
+import com.pink.pfa.models.datatransfer.SyncSummary;
+import com.pink.pfa.models.datatransfer.SyncSummary.SiteSync;
 import com.pink.pfa.repos.AdoptionSiteRepository;
 import com.pink.pfa.repos.PetRepository;
+import com.pink.pfa.repos.PetSort;
+import com.pink.pfa.services.ranking.CompiledPreferences;
 
 /**
  * Integration test suite for {@link PetService}.
@@ -40,9 +52,7 @@ class PetServiceTest extends PfaBase {
     private final PetService petService;
     private final PetRepository petRepository;
     private final AdoptionSiteRepository adoptionSiteRepository;
-
-    @Mock
-    private final WebScraperService webScraperService;
+    private final JdbcTemplate jdbcTemplate;
 
     @Mock
     private UserService userService;
@@ -53,15 +63,15 @@ class PetServiceTest extends PfaBase {
     @Autowired
     public PetServiceTest(PetService petService, 
         PetRepository petRepository,
-        WebScraperService webScraperService,
         AdoptionSiteRepository adoptionSiteRepository,
-        UserPrefService userPrefService
+        UserPrefService userPrefService,
+        JdbcTemplate jdbcTemplate
     ) {
         this.petService = petService;
         this.petRepository = petRepository;
-        this.webScraperService = webScraperService;
         this.adoptionSiteRepository = adoptionSiteRepository;
         this.userPrefService = userPrefService;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     // -------------------------------------------------------------------------
@@ -233,6 +243,45 @@ class PetServiceTest extends PfaBase {
         assertTrue(femaleDomesticShorthair.size() >= 1, "Expected at least 1 seeded pets, got: " + femaleDomesticShorthair.size());
     }
 
+    /**
+     * Verifies that paging through findByFilter with a limit visits every active pet exactly
+     * once, in the requested order, and ends with a null cursor.
+     */
+    @Test
+    @Transactional
+    void findByFilter_WithLimit_ShouldPageThroughAllPetsInOrder() {
+        PetFilterRequest filter = new PetFilterRequest(null, null, null, null, null, null);
+        List<PetDTO> all = petService.findByFilter(filter, PetSort.AGE, null, null, null, null).pets();
+
+        List<PetDTO> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            PetPage page = petService.findByFilter(filter, PetSort.AGE, cursor, 2, null, null);
+            assertTrue(page.pets().size() <= 2, "Page should not exceed the limit");
+            paged.addAll(page.pets());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(all.stream().map(PetDTO::id).toList(), paged.stream().map(PetDTO::id).toList());
+        for (int i = 1; i < paged.size(); i++) {
+            assertTrue(paged.get(i - 1).age() <= paged.get(i).age(), "Expected ascending age order");
+        }
+    }
+
+    /**
+     * Verifies that a cursor issued for one sort order is rejected for another.
+     */
+    @Test
+    @Transactional
+    void findByFilter_WithCursorFromOtherSort_ShouldThrow() {
+        PetFilterRequest filter = new PetFilterRequest(null, null, null, null, null, null);
+        String cursor = petService.findByFilter(filter, PetSort.PRICE, null, 1, null, null).nextCursor();
+
+        assertNotNull(cursor);
+        assertThrows(IllegalArgumentException.class,
+            () -> petService.findByFilter(filter, PetSort.NEWEST, cursor, 1, null, null));
+    }
+
     //* FILTER PREF TESTER */
 
     private int scoreTestHelper(PetDTO pet, List<UserPreferences> prefs) {
@@ -294,6 +343,32 @@ class PetServiceTest extends PfaBase {
         assertTrue(!result.isEmpty());
     }
 
+    /**
+     * Verifies that the database ranking query orders by the number of stored preferences
+     * each pet satisfies, scoring ages through the typed week column.
+     */
+    @Test
+    @Transactional
+    void findRankedByPreferences_ShouldOrderByPreferenceScore() {
+        SeededUser mockUser = getRandUserAndPassByRole(User.Role.ROLE_USER);
+        mockSecurityContext(mockUser.user());
+        userPrefService.createNewPref(new UserPrefRequest("SIZE", "Small"));
+        userPrefService.createNewPref(new UserPrefRequest("AGE_MAX", "1 Years"));
+        int userId = mockUser.user().getUserId();
+
+        CompiledPreferences prefs = CompiledPreferences.compile(userPrefService.findAllByUserId(userId));
+        PetFilterRequest filter = new PetFilterRequest(null, null, null, null, null, null);
+        List<Integer> scores = petRepository.findRankedByPreferences(userId, filter, PetSort.NEWEST, 0, null)
+            .stream()
+            .map(pet -> prefs.score(PetDTO.fromEntity(pet)))
+            .toList();
+
+        assertTrue(scores.size() > 1);
+        for (int i = 1; i < scores.size(); i++) {
+            assertTrue(scores.get(i - 1) >= scores.get(i), "Expected descending preference scores: " + scores);
+        }
+    }
+
     /*----------------------------------*\
     || ******************************** ||      
     || **********SYNC TESTING********** ||
@@ -303,10 +378,8 @@ class PetServiceTest extends PfaBase {
     @Test
     @Transactional
     void trySync_threePets_oneDupe() {
-        List<AdoptionSite> sites = List.of(new AdoptionSite("Dallas County", "", "", "https://hsdallascounty.org", 'A', LocalDate.now()));
-
         // Mock some data to avoid scraping for real
-        List<Pet> mockData = List.of(
+        List<Pet> testScrape = List.of(
             // This pet is already seeded, but the location is changed
             new Pet("Buddy", "Labrador Retriever", 24, 'M', "Dog", "Lubbock, TX", 150.0, "Medium", "available", "placeholder", LocalDate.now()),
             // ...while these are new
@@ -315,14 +388,11 @@ class PetServiceTest extends PfaBase {
         );
 
         // ...and set their site to the one the other seeded animals use
-        mockData.forEach(p -> p.setSite(
+        testScrape.forEach(p -> p.setSite(
             adoptionSiteRepository.findBySiteId(1)
             .orElseThrow(() -> new IllegalStateException("There must be one Adoption Site seeded"))
         ));
 
-        when(webScraperService.runScraper(sites)).thenReturn(mockData);  
-        List<Pet> testScrape = webScraperService.runScraper(sites);
-
         // Sync data, and lets test to make sure it worked
         petService.sync(testScrape);
 
@@ -344,6 +414,140 @@ class PetServiceTest extends PfaBase {
         assertEquals(inactives.size(), 4);
     }
 
+    /**
+     * Verifies that a sync reports what it changed per site and that repeating the same
+     * scrape writes nothing.
+     */
+    @Test
+    @Transactional
+    void trySync_sameScrapeTwice_ShouldWriteNothingSecondTime() {
+        AdoptionSite site = adoptionSiteRepository.findBySiteId(1)
+            .orElseThrow(() -> new IllegalStateException("There must be one Adoption Site seeded"));
+        List<Pet> scrape = new ArrayList<>(List.of(
+            new Pet("Buddy", "Labrador Retriever", 24, 'M', "Dog", "Austin, TX", 150.0, "Medium", "available", "placeholder", LocalDate.now()),
+            new Pet("Mulch", "Toy Poodle", 2, 'F', "dog", "Austin, TX", 150.0, "Small", "available", "placeholder", LocalDate.now())
+        ));
+        scrape.forEach(p -> p.setSite(site));
+
+        SyncSummary first = petService.sync(scrape);
+        assertEquals(1, first.sites().size());
+        assertEquals(1, first.added());
+        assertEquals(4, first.deactivated());
+
+        scrape.forEach(p -> p.setPetId(null));
+        SyncSummary second = petService.sync(scrape);
+        assertTrue(second.isUnchanged(), "Expected no writes, got " + second);
+        assertEquals(2, second.scraped());
+    }
+
+    /**
+     * Verifies that a changed image list only inserts the new URLs and deletes the removed ones,
+     * leaving the rows of unchanged URLs in place.
+     */
+    @Test
+    @Transactional
+    void trySync_changedImages_ShouldApplySetDifference() {
+        AdoptionSite site = adoptionSiteRepository.findBySiteId(1)
+            .orElseThrow(() -> new IllegalStateException("There must be one Adoption Site seeded"));
+        Pet buddy = new Pet("Buddy", "Labrador Retriever", 24, 'M', "Dog", "Austin, TX", 150.0, "Medium", "available", "placeholder", LocalDate.now());
+        buddy.setSite(site);
+
+        buddy.setSecondaryImages(List.of(new PetImage("https://img/a.jpg"), new PetImage("https://img/b.jpg")));
+        petService.sync(List.of(buddy));
+        Integer keptImageId = imageIds(buddy.getPetId(), "https://img/b.jpg").get(0);
+
+        buddy.setSecondaryImages(List.of(new PetImage("https://img/b.jpg"), new PetImage("https://img/c.jpg")));
+        SyncSummary summary = petService.sync(List.of(buddy));
+
+        assertEquals(1, summary.updated());
+        assertEquals(List.of(keptImageId), imageIds(buddy.getPetId(), "https://img/b.jpg"));
+        assertEquals(1, imageIds(buddy.getPetId(), "https://img/c.jpg").size());
+        assertTrue(imageIds(buddy.getPetId(), "https://img/a.jpg").isEmpty());
+    }
+
+    /**
+     * Verifies that a sync appends its added and deactivated pets to the change feed under one
+     * run id, and that the feed pages forward from a cursor.
+     */
+    @Test
+    @Transactional
+    void changes_AfterSync_ShouldListChangesAfterCursor() {
+        String start = String.valueOf(jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(change_id), 0) FROM pet_change", Long.class));
+        Pet mulch = new Pet("Mulch", "Toy Poodle", 2, 'F', "dog", "Austin, TX", 150.0, "Small", "available", "placeholder", LocalDate.now());
+        mulch.setSite(adoptionSiteRepository.findBySiteId(1)
+            .orElseThrow(() -> new IllegalStateException("There must be one Adoption Site seeded")));
+
+        petService.sync(List.of(mulch));
+
+        PetChangePage page = petService.changes(start, 100);
+        assertEquals(1, page.changes().stream().filter(c -> c.type() == PetChange.Type.ADDED).count());
+        assertEquals(5, page.changes().stream().filter(c -> c.type() == PetChange.Type.DEACTIVATED).count());
+        assertEquals(1, page.changes().stream().map(PetChange::syncRunId).distinct().count());
+        assertEquals("Mulch", page.changes().get(0).pet().name());
+
+        PetChangePage first = petService.changes(start, 2);
+        assertEquals(2, first.changes().size());
+        assertEquals(4, petService.changes(first.nextCursor(), 100).changes().size());
+        assertTrue(petService.changes(page.nextCursor(), 100).changes().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> petService.changes("not-a-cursor", null));
+    }
+
+    /**
+     * Verifies that a sync records its run as finished and each site's completed checkpoint,
+     * and that a site can be synced again under the same run, as when resuming it.
+     */
+    @Test
+    @Transactional
+    void trySync_ShouldCheckpointEverySite() {
+        Pet mulch = new Pet("Mulch", "Toy Poodle", 2, 'F', "dog", "Austin, TX", 150.0, "Small", "available", "placeholder", LocalDate.now());
+        mulch.setSite(adoptionSiteRepository.findBySiteId(1)
+            .orElseThrow(() -> new IllegalStateException("There must be one Adoption Site seeded")));
+
+        petService.sync(List.of(mulch));
+
+        String run = jdbcTemplate.queryForObject(
+            "SELECT sync_run_id FROM sync_run WHERE finished_at IS NOT NULL ORDER BY started_at DESC LIMIT 1", String.class);
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT chunks FROM sync_checkpoint WHERE sync_run_id = ? AND site_id = 1 AND completed_at IS NOT NULL",
+            Integer.class, run));
+
+        mulch.setPetId(null);
+        SiteSync resumed = petService.syncSite(run, 1, List.of(mulch));
+        assertEquals(0, resumed.added() + resumed.updated() + resumed.deactivated());
+    }
+
+    /**
+     * Verifies that a pet reported unchanged by the scraper keeps the stored pet active and as it
+     * was, without being written.
+     */
+    @Test
+    @Transactional
+    void syncSite_UnchangedPet_ShouldKeepStoredPet() {
+        Pet mulch = new Pet("Mulch", "Toy Poodle", 2, 'F', "dog", "Austin, TX", 150.0, "Small", "available", "placeholder", LocalDate.now());
+        mulch.setSite(adoptionSiteRepository.findBySiteId(1)
+            .orElseThrow(() -> new IllegalStateException("There must be one Adoption Site seeded")));
+        petService.sync(List.of(mulch));
+
+        Pet unchanged = new Pet();
+        unchanged.setSite(mulch.getSite());
+        unchanged.setNaturalKey(PetFingerprint.naturalKey(mulch));
+        unchanged.setUnchanged(true);
+        String run = jdbcTemplate.queryForObject(
+            "SELECT sync_run_id FROM sync_run ORDER BY started_at DESC LIMIT 1", String.class);
+        SiteSync sync = petService.syncSite(run, 1, List.of(unchanged));
+
+        assertEquals(1, sync.scraped());
+        assertEquals(0, sync.added() + sync.updated() + sync.deactivated());
+        assertEquals("Austin, TX", jdbcTemplate.queryForObject(
+            "SELECT location FROM pet WHERE pet_id = ? AND pet_status <> 'INACTIVE'", String.class, mulch.getPetId()));
+    }
+
+    private List<Integer> imageIds(int petId, String url) {
+        return jdbcTemplate.queryForList("SELECT image_id FROM pet_image WHERE pet_id = ? AND image_url = ?",
+            Integer.class, petId, url);
+    }
+
     @Test
     @Transactional
     void findByActive_ShouldReturnMoreThanOne() {
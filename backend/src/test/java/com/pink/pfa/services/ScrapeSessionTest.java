@@ -0,0 +1,239 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.repos.CrawlFrontierRepository;
+import com.pink.pfa.repos.CrawlFrontierRepository.FrontierPage;
+import com.pink.pfa.repos.CrawlFrontierRepository.Kind;
+import com.pink.pfa.repos.ScrapedPageRepository;
+import com.pink.pfa.repos.ScrapedPageRepository.ScrapedPage;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+/**
+ * Unit tests for {@link ScrapeSession}.
+ *
+ * <p>Uses a mocked {@link WebScraperService} whose page step records which WebDriver session
+ * and host it ran on, over a {@link WebDriverPool} of mocked sessions, to check that workers never
+ * share a session and that the steps share the session's per-host cap.
+ */
+class ScrapeSessionTest {
+
+    private final WebScraperService scraper = mock(WebScraperService.class);
+
+    /**
+     * Verifies that the pages of several sites are scraped on at most one session per worker,
+     * never by two threads on the same session at once, never more than the cap of one host at
+     * once, and that every session is quit on close.
+     */
+    @Test
+    void scrape_ManySites_ShouldKeepSessionsPerWorkerAndCapHosts() throws Exception {
+        List<RemoteWebDriver> drivers = new ArrayList<>();
+        Supplier<RemoteWebDriver> factory = () -> {
+            RemoteWebDriver driver = mock(RemoteWebDriver.class);
+            synchronized (drivers) {
+                drivers.add(driver);
+            }
+            return driver;
+        };
+        when(scraper.CrawlSite(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            List<PetLink> links = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                links.add(new PetLink(invocation.getArgument(0), "https://new.shelterluv.com/embed/animal/" + i));
+            }
+            return links;
+        });
+
+        Map<WebDriver, Thread> users = new ConcurrentHashMap<>();
+        Set<WebDriver> sharedDrivers = ConcurrentHashMap.newKeySet();
+        AtomicInteger loading = new AtomicInteger();
+        AtomicInteger mostLoading = new AtomicInteger();
+        when(scraper.ScrapePetPage(any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            WebDriver driver = invocation.getArgument(2);
+            if (users.putIfAbsent(driver, Thread.currentThread()) != null) {
+                sharedDrivers.add(driver);
+            }
+            // Like the real step, the page load holds a slot of its host
+            HostLimiter hosts = invocation.getArgument(4);
+            PetLink link = invocation.getArgument(1);
+            try (HostLimiter.Slot slot = hosts.acquire(link.url())) {
+                mostLoading.accumulateAndGet(loading.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                loading.decrementAndGet();
+            }
+            users.remove(driver);
+            return new Pet();
+        });
+
+        int pets = 0;
+        WebDriverPool pool = new WebDriverPool(factory, 4, 200, Long.MAX_VALUE);
+        try (ScrapeSession session = new ScrapeSession(scraper, pool, new HostLimiter(2), offlinePages(), noListings(), noHistory(), noFrontier())) {
+            List<AdoptionSite> sites = List.of(site("https://a.example.org"), site("https://b.example.org"),
+                site("https://c.example.org"));
+            for (AdoptionSite site : sites) {
+                pets += session.scrape(site).get(10, TimeUnit.SECONDS).size();
+            }
+        }
+
+        assertEquals(30, pets);
+        assertTrue(drivers.size() <= 4, "Expected one session per worker at most, got " + drivers.size());
+        assertTrue(sharedDrivers.isEmpty(), "Sessions were used by two workers at once");
+        assertTrue(mostLoading.get() <= 2, "Expected at most 2 shelterluv pages at once, got " + mostLoading.get());
+        for (RemoteWebDriver driver : drivers) {
+            verify(driver, times(1)).quit();
+        }
+    }
+
+    /**
+     * Verifies that a failing crawl fails only its own site.
+     */
+    @Test
+    void scrape_WhenCrawlFails_ShouldFailOnlyThatSite() throws Exception {
+        when(scraper.CrawlSite(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0).equals("https://broken.example.org")) {
+                throw new IllegalStateException("crawl failed");
+            }
+            return List.of(new PetLink(invocation.getArgument(0), "https://www.petfinder.com/dog/1"));
+        });
+        when(scraper.ScrapePetPage(any(), any(), any(), any(), any(), any())).thenReturn(new Pet());
+
+        WebDriverPool pool = new WebDriverPool(() -> mock(RemoteWebDriver.class), 2, 200, Long.MAX_VALUE);
+        try (ScrapeSession session = new ScrapeSession(scraper, pool, new HostLimiter(2), offlinePages(), noListings(), noHistory(), noFrontier())) {
+            assertTrue(session.scrape(site("https://broken.example.org")).handle((pets, error) -> error != null).get());
+            assertEquals(1, session.scrape(site("https://ok.example.org")).get().size());
+        }
+    }
+
+    /**
+     * Verifies that pets read from a structured listing never lease a session, and that only the
+     * others have their page scraped.
+     */
+    @Test
+    void scrape_ListedPets_ShouldSkipTheirPages() throws Exception {
+        when(scraper.CrawlSite(anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            List<PetLink> links = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                links.add(new PetLink(invocation.getArgument(0), "https://new.shelterluv.com/embed/animal/" + i));
+            }
+            return links;
+        });
+        when(scraper.ReadListedPet(any(), any(), any())).thenAnswer(invocation -> {
+            PetLink link = invocation.getArgument(1);
+            return link.url().endsWith("5") ? null : new Pet();
+        });
+        when(scraper.ScrapePetPage(any(), any(), any(), any(), any(), any())).thenReturn(new Pet());
+
+        WebDriverPool pool = new WebDriverPool(() -> mock(RemoteWebDriver.class), 2, 200, Long.MAX_VALUE);
+        try (ScrapeSession session = new ScrapeSession(scraper, pool, new HostLimiter(2), offlinePages(), noListings(), noHistory(), noFrontier())) {
+            assertEquals(6, session.scrape(site("https://a.example.org")).get(10, TimeUnit.SECONDS).size());
+        }
+
+        verify(scraper, times(1)).ScrapePetPage(any(), any(), any(), any(), any(), any());
+        // The crawl and the one unlisted pet
+        assertEquals(2, pool.snapshot().leases());
+    }
+
+    /**
+     * Verifies that a site with known listing pages is crawled from them instead of its root, and
+     * that a known pet page not yet due is taken as unchanged without leasing a session.
+     */
+    @Test
+    void scrape_KnownFrontier_ShouldCrawlListingsAndDeferPagesNotDue() throws Exception {
+        AdoptionSite site = site("https://a.example.org");
+        String listing = "https://new.shelterluv.com/embed/40521";
+        String deferred = "https://new.shelterluv.com/embed/animal/0";
+        String due = "https://new.shelterluv.com/embed/animal/1";
+        String found = "https://new.shelterluv.com/embed/animal/2";
+        Instant now = Instant.now();
+
+        CrawlFrontierRepository frontierRepository = mock(CrawlFrontierRepository.class);
+        when(frontierRepository.findBySite(site.getSiteId())).thenReturn(List.of(
+            new FrontierPage(site.getUrl(), Kind.ROOT, now.minus(Duration.ofDays(1)), null, 0, now.minus(Duration.ofDays(1))),
+            new FrontierPage(listing, Kind.LISTING, now.minus(Duration.ofDays(1)), null, 0, null),
+            new FrontierPage(deferred, Kind.DETAIL, now.minus(Duration.ofDays(1)), now.plus(Duration.ofDays(1)), 1, null),
+            new FrontierPage(due, Kind.DETAIL, now.minus(Duration.ofDays(2)), now.minus(Duration.ofHours(1)), 0, null)));
+        ScrapedPageRepository pageRepository = mock(ScrapedPageRepository.class);
+        when(pageRepository.findBySite(site.getSiteId())).thenReturn(Map.of(
+            deferred, new ScrapedPage(deferred, site.getSiteId(), "shelterluv:0", "hash", null, null)));
+        when(scraper.CrawlListings(eq(List.of(listing)), any(), any(), any())).thenReturn(List.of(
+            new PetLink(listing, deferred), new PetLink(listing, due), new PetLink(listing, found)));
+        when(scraper.ScrapePetPage(any(), any(), any(), any(), any(), any())).thenReturn(new Pet());
+
+        CrawlFrontier frontier = new CrawlFrontier(frontierRepository, Clock.systemUTC(), Duration.ofHours(24),
+            Duration.ofHours(168), Duration.ofDays(7));
+        PageHistory history = new PageHistory(pageRepository, (url, etag, lastModified) -> {
+            throw new IOException("offline");
+        });
+        WebDriverPool pool = new WebDriverPool(() -> mock(RemoteWebDriver.class), 2, 200, Long.MAX_VALUE);
+        try (ScrapeSession session = new ScrapeSession(scraper, pool, new HostLimiter(2), offlinePages(), noListings(), history, frontier)) {
+            List<Pet> pets = session.scrape(site).get(10, TimeUnit.SECONDS);
+            assertEquals(3, pets.size());
+            assertEquals(1, pets.stream().filter(Pet::isUnchanged).count());
+            session.synced(site);
+        }
+
+        verify(scraper, never()).CrawlSite(anyString(), any(), any(), any());
+        verify(scraper, times(2)).ScrapePetPage(any(), any(), any(), any(), any(), any());
+        // The crawl and the two pages due
+        assertEquals(3, pool.snapshot().leases());
+        assertEquals(1, frontier.stats().listingCrawls());
+        assertEquals(1, frontier.stats().deferredPages());
+        verify(frontierRepository).save(eq(site.getSiteId()), any());
+    }
+
+    private static PageClassifier offlinePages() {
+        return new PageClassifier(url -> {
+            throw new IOException("offline");
+        });
+    }
+
+    private static StructuredListings noListings() {
+        return new StructuredListings(url -> {
+            throw new IOException("offline");
+        });
+    }
+
+    private static PageHistory noHistory() {
+        return new PageHistory(mock(ScrapedPageRepository.class), (url, etag, lastModified) -> {
+            throw new IOException("offline");
+        });
+    }
+
+    private static CrawlFrontier noFrontier() {
+        return new CrawlFrontier(mock(CrawlFrontierRepository.class), Clock.systemUTC(), Duration.ofHours(24),
+            Duration.ofHours(168), Duration.ofDays(7));
+    }
+
+    private static AdoptionSite site(String url) {
+        AdoptionSite site = new AdoptionSite();
+        site.setSiteId(url.hashCode());
+        site.setUrl(url);
+        return site;
+    }
+}
@@ -0,0 +1,244 @@
+package com.pink.pfa.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.pink.pfa.exceptions.ScrapeAlreadyRunningException;
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.datatransfer.ScrapeSummary;
+import com.pink.pfa.models.datatransfer.SyncSummary.SiteSync;
+import com.pink.pfa.repos.SyncCheckpointRepository;
+import com.pink.pfa.services.catalog.PetCatalogChangedEvent;
+
+/**
+ * Unit tests for {@link ScrapeSyncPipeline}.
+ *
+ * <p>Uses a mocked {@link WebScraperService} and {@link PetService} to check that failing sites
+ * are reported without stopping the others, that scraping waits while the sync falls behind, and
+ * that an interrupted run is resumed.
+ */
+class ScrapeSyncPipelineTest {
+
+    private final WebScraperService webScraperService = mock(WebScraperService.class);
+    private final PetService petService = mock(PetService.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final SyncCheckpointRepository checkpoints = mock(SyncCheckpointRepository.class);
+    private final ScrapeSession session = mock(ScrapeSession.class);
+
+    @BeforeEach
+    void setUp() {
+        when(webScraperService.OpenSession()).thenReturn(session);
+        when(session.workers()).thenReturn(2);
+    }
+
+    /**
+     * Verifies that sites failing to scrape, returning nothing or failing to sync are reported
+     * per site, in order, while the remaining sites are synced and the catalog refreshed once.
+     */
+    @Test
+    void run_WithFailingSites_ShouldSummarizeEverySite() {
+        List<AdoptionSite> sites = sites(4);
+        when(session.scrape(sites.get(0))).thenReturn(CompletableFuture.completedFuture(pets(3)));
+        when(session.scrape(sites.get(1))).thenReturn(CompletableFuture.failedFuture(new RuntimeException("timeout")));
+        when(session.scrape(sites.get(2))).thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(session.scrape(sites.get(3))).thenReturn(CompletableFuture.completedFuture(pets(2)));
+        when(petService.syncSite(anyString(), eq(1), anyList())).thenReturn(new SiteSync(1, 3, 3, 0, 0, 0));
+        when(petService.syncSite(anyString(), eq(4), anyList())).thenThrow(new IllegalStateException("deadlock"));
+
+        ScrapeSummary summary = new ScrapeSyncPipeline(webScraperService, petService, events, checkpoints, 2, 2, 12, 10).run(sites);
+
+        assertEquals(1, summary.succeeded());
+        assertEquals(3, summary.failed());
+        assertEquals(List.of(1, 2, 3, 4), summary.sites().stream().map(ScrapeSummary.SiteResult::siteId).toList());
+        assertTrue(summary.sites().get(0).succeeded());
+        assertEquals(3, summary.sites().get(0).sync().added());
+        assertTrue(summary.sites().get(1).error().contains("timeout"));
+        assertNull(summary.sites().get(2).sync());
+        assertEquals(2, summary.sites().get(3).scraped());
+        assertFalse(summary.sites().get(3).succeeded());
+
+        verify(petService, never()).syncSite(anyString(), eq(2), anyList());
+        verify(petService, never()).syncSite(anyString(), eq(3), anyList());
+        // Only the stored site's pages are remembered
+        verify(session).synced(sites.get(0));
+        verify(session, times(1)).synced(any());
+        verify(events, times(1)).publishEvent(any(PetCatalogChangedEvent.class));
+        verify(session).close();
+    }
+
+    /**
+     * Verifies that a site synced before a sync worker dies still refreshes the catalog, although
+     * the run fails.
+     */
+    @Test
+    void run_WhenWorkerDiesAfterASite_ShouldStillRefreshTheCatalog() {
+        List<AdoptionSite> sites = sites(2);
+        when(session.scrape(any())).thenReturn(CompletableFuture.completedFuture(pets(1)));
+        when(petService.syncSite(anyString(), eq(1), anyList())).thenReturn(new SiteSync(1, 1, 1, 0, 0, 0));
+        when(petService.syncSite(anyString(), eq(2), anyList())).thenThrow(new AssertionError("worker died"));
+
+        ScrapeSyncPipeline pipeline = new ScrapeSyncPipeline(webScraperService, petService, events, checkpoints, 2, 1, 12, 10);
+        assertThrows(IllegalStateException.class, () -> pipeline.run(sites));
+
+        verify(events, times(1)).publishEvent(any(PetCatalogChangedEvent.class));
+        verify(checkpoints, never()).finishRun(anyString());
+    }
+
+    /**
+     * Verifies that the sites whose sync changed something refresh the catalog together, once
+     * per batch of them and once for the rest at the end of the run, and unchanged sites never.
+     */
+    @Test
+    void run_WithManyChangedSites_ShouldMergeCatalogRefreshes() {
+        List<AdoptionSite> sites = sites(6);
+        when(session.scrape(any())).thenReturn(CompletableFuture.completedFuture(pets(1)));
+        when(petService.syncSite(anyString(), anyInt(), anyList())).thenAnswer(invocation -> {
+            int siteId = invocation.getArgument(1);
+            return new SiteSync(siteId, 1, siteId == 6 ? 0 : 1, 0, 0, 0);
+        });
+
+        ScrapeSyncPipeline pipeline = new ScrapeSyncPipeline(webScraperService, petService, events, checkpoints, 2, 2, 12, 2);
+        assertEquals(6, pipeline.run(sites).succeeded());
+
+        ArgumentCaptor<PetCatalogChangedEvent> refreshes = ArgumentCaptor.forClass(PetCatalogChangedEvent.class);
+        verify(events, times(3)).publishEvent(refreshes.capture());
+        assertEquals(List.of(2, 2, 1), refreshes.getAllValues().stream()
+            .map(event -> Integer.parseInt(event.reason().replaceAll("scrape of (\\d+) sites.*", "$1")))
+            .toList());
+    }
+
+    /**
+     * Verifies that while the only sync worker is stuck, the scraper stops once the queue is full
+     * and carries on when the worker catches up.
+     */
+    @Test
+    void run_WhenSyncFallsBehind_ShouldStopScraping() throws Exception {
+        List<AdoptionSite> sites = sites(6);
+        AtomicInteger scraped = new AtomicInteger();
+        CountDownLatch syncing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(session.workers()).thenReturn(1);
+        when(session.scrape(any())).thenAnswer(invocation -> {
+            scraped.incrementAndGet();
+            return CompletableFuture.completedFuture(pets(1));
+        });
+        when(petService.syncSite(anyString(), anyInt(), anyList())).thenAnswer(invocation -> {
+            syncing.countDown();
+            release.await();
+            return new SiteSync(invocation.getArgument(1), 1, 0, 0, 0, 0);
+        });
+
+        ScrapeSyncPipeline pipeline = new ScrapeSyncPipeline(webScraperService, petService, events, checkpoints, 1, 1, 12, 10);
+        CompletableFuture<ScrapeSummary> run = CompletableFuture.supplyAsync(() -> pipeline.run(sites));
+
+        assertTrue(syncing.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        // one site being synced, one queued, one scraped and waiting for room, none started since
+        assertEquals(3, scraped.get());
+
+        release.countDown();
+        ScrapeSummary summary = run.get(5, TimeUnit.SECONDS);
+        assertEquals(6, scraped.get());
+        assertEquals(6, summary.succeeded());
+        verify(events, never()).publishEvent(any(PetCatalogChangedEvent.class));
+    }
+
+    /**
+     * Verifies that an interrupted run is resumed under its own id without scraping the sites it
+     * already synced, and is marked finished afterwards.
+     */
+    @Test
+    void run_AfterInterruptedRun_ShouldSkipCompletedSites() {
+        List<AdoptionSite> sites = sites(2);
+        when(checkpoints.findUnfinishedRun(12)).thenReturn(Optional.of("interrupted-run"));
+        when(checkpoints.findCompletedSites("interrupted-run")).thenReturn(Map.of(1, new SiteSync(1, 4, 4, 0, 0, 0)));
+        when(session.scrape(sites.get(1))).thenReturn(CompletableFuture.completedFuture(pets(1)));
+        when(petService.syncSite(eq("interrupted-run"), eq(2), anyList())).thenReturn(new SiteSync(2, 1, 0, 0, 0, 0));
+
+        ScrapeSummary summary = new ScrapeSyncPipeline(webScraperService, petService, events, checkpoints, 2, 2, 12, 10).run(sites);
+
+        assertEquals("interrupted-run", summary.syncRunId());
+        assertEquals(2, summary.succeeded());
+        assertEquals(4, summary.sync().added());
+        verify(session, never()).scrape(sites.get(0));
+        verify(checkpoints, never()).startRun(anyString());
+        verify(checkpoints).finishRun("interrupted-run");
+    }
+
+    /**
+     * Verifies that a run started while another is going fails without looking for a run to
+     * resume, so it never adopts the live run, and that runs can start again once it is done.
+     */
+    @Test
+    void run_WhileAnotherRunIsGoing_ShouldFailWithoutResumingIt() throws Exception {
+        List<AdoptionSite> sites = sites(1);
+        CountDownLatch syncing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(session.scrape(any())).thenReturn(CompletableFuture.completedFuture(pets(1)));
+        when(petService.syncSite(anyString(), anyInt(), anyList())).thenAnswer(invocation -> {
+            syncing.countDown();
+            release.await();
+            return new SiteSync(invocation.getArgument(1), 1, 0, 0, 0, 0);
+        });
+
+        ScrapeSyncPipeline pipeline = new ScrapeSyncPipeline(webScraperService, petService, events, checkpoints, 1, 1, 12, 10);
+        CompletableFuture<ScrapeSummary> live = CompletableFuture.supplyAsync(() -> pipeline.run(sites));
+        assertTrue(syncing.await(5, TimeUnit.SECONDS));
+
+        assertTrue(pipeline.isRunning());
+        assertThrows(ScrapeAlreadyRunningException.class, () -> pipeline.run(sites));
+        verify(checkpoints, times(1)).findUnfinishedRun(anyInt());
+
+        release.countDown();
+        assertEquals(1, live.get(5, TimeUnit.SECONDS).succeeded());
+        assertFalse(pipeline.isRunning());
+        assertEquals(1, pipeline.run(sites).succeeded());
+        verify(checkpoints, times(2)).startRun(anyString());
+    }
+
+    private static List<AdoptionSite> sites(int count) {
+        List<AdoptionSite> sites = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            AdoptionSite site = new AdoptionSite();
+            site.setSiteId(i);
+            site.setUrl("https://shelter" + i + ".example.org");
+            sites.add(site);
+        }
+        return sites;
+    }
+
+    private static List<Pet> pets(int count) {
+        List<Pet> pets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pets.add(new Pet());
+        }
+        return pets;
+    }
+}
@@ -0,0 +1,141 @@
+package com.pink.pfa.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link StaticPageClient}.
+ *
+ * <p>Serves the recorded shelter listing from a local HTTP server to check that compressed pages
+ * are decoded and that failures surface as Jsoup's exceptions.
+ */
+class StaticPageClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private byte[] listing;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream html = getClass().getResourceAsStream("/fixtures/scraper/shelter-listing.html")) {
+            listing = html.readAllBytes();
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/gzip", exchange -> {
+            String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (encoding == null || !encoding.contains("gzip")) {
+                respond(exchange, 400, "text/plain", new byte[0], null);
+                return;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(listing);
+            }
+            respond(exchange, 200, "text/html; charset=utf-8", compressed.toByteArray(), "gzip");
+        });
+        server.createContext("/forbidden", exchange -> respond(exchange, 403, "text/html", new byte[0], null));
+        server.createContext("/json", exchange -> {
+            boolean script = "XMLHttpRequest".equals(exchange.getRequestHeaders().getFirst("X-Requested-With"));
+            byte[] body = (script ? "{\"animals\":[]}" : "<html></html>").getBytes(StandardCharsets.UTF_8);
+            respond(exchange, 200, script ? "application/json; charset=utf-8" : "text/html", body, null);
+        });
+        server.createContext("/etag", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, "text/html", new byte[0], null);
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            respond(exchange, 200, "text/html; charset=utf-8", listing, null);
+        });
+        server.createContext("/image", exchange -> respond(exchange, 200, "image/png", new byte[] {1, 2, 3}, null));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, byte[] body, String encoding)
+        throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Verifies that a gzip-compressed page is requested, decoded and parsed against its url.
+     */
+    @Test
+    void fetch_CompressedPage_ShouldDecodeIt() throws IOException {
+        Document doc = new StaticPageClient().fetch(baseUrl + "/gzip");
+
+        assertEquals("Adoptable Dogs | Hill Country Animal Rescue", doc.title());
+        assertEquals(baseUrl + "/adopt/dogs", doc.selectFirst("a[href=/adopt/dogs]").absUrl("href"));
+    }
+
+    /**
+     * Verifies that a JSON document is asked for as a page's scripts would, and that an HTML
+     * answer is refused.
+     */
+    @Test
+    void fetchJson_ShouldRequestAndReturnJson() throws IOException {
+        StaticPageClient client = new StaticPageClient();
+
+        assertEquals("{\"animals\":[]}", client.fetchJson(baseUrl + "/json"));
+        assertThrows(UnsupportedMimeTypeException.class, () -> client.fetchJson(baseUrl + "/gzip"));
+    }
+
+    /**
+     * Verifies that a page is downloaded with its ETag, and that asking with that ETag again is
+     * answered without a body.
+     */
+    @Test
+    void fetch_WithETag_ShouldOnlyDownloadChangedPage() throws IOException {
+        StaticPageClient client = new StaticPageClient();
+
+        StaticPageClient.Page first = client.fetch(baseUrl + "/etag", null, null);
+        StaticPageClient.Page again = client.fetch(baseUrl + "/etag", first.etag(), first.lastModified());
+
+        assertEquals("Adoptable Dogs | Hill Country Animal Rescue", first.document().title());
+        assertEquals("\"v1\"", first.etag());
+        assertTrue(again.notModified());
+        assertEquals("\"v1\"", again.etag());
+    }
+
+    /**
+     * Verifies that an error status and a non-HTML response are reported as Jsoup would.
+     */
+    @Test
+    void fetch_RefusedOrNotHtml_ShouldThrowJsoupExceptions() {
+        StaticPageClient client = new StaticPageClient();
+
+        HttpStatusException refused = assertThrows(HttpStatusException.class, () -> client.fetch(baseUrl + "/forbidden"));
+        assertEquals(403, refused.getStatusCode());
+        assertThrows(UnsupportedMimeTypeException.class, () -> client.fetch(baseUrl + "/image"));
+    }
+}
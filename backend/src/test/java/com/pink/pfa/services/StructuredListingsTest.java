@@ -0,0 +1,133 @@
+package com.pink.pfa.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.Test;
+
+import com.pink.pfa.models.datatransfer.ScrapedPetDTO;
+import com.pink.pfa.services.WebScraperService.PetLink;
+
+/**
+ * Unit tests for {@link StructuredListings} and its {@link ListingAdapter}s.
+ *
+ * <p>Serves recorded ShelterLuv and Petfinder listing payloads from a fake fetcher counting
+ * downloads, to check that pets are read the way the page builders read them and that each
+ * shelter's payload is downloaded once per run.
+ */
+class StructuredListingsTest {
+
+    private static final String SHELTER_LUV_LISTING = "https://new.shelterluv.com/embed/40521?species=Dog";
+    private static final String SHELTER_LUV_PAYLOAD = "https://new.shelterluv.com/api/v3/available-animals/40521";
+    private static final String PETFINDER_PAGE =
+        "https://www.petfinder.com/dog/luna-%s/tx/austin/hill-country-animal-rescue-tx123/";
+    private static final String PETFINDER_PAYLOAD = "https://www.petfinder.com/search/?page=1&limit[]=100"
+        + "&status=adoptable&distance[]=Anywhere&sort[]=recently_added&shelter_id[]=TX123";
+
+    private final Map<String, AtomicInteger> downloads = new ConcurrentHashMap<>();
+
+    private StructuredListings listings(Map<String, String> payloads) {
+        return new StructuredListings(url -> {
+            downloads.computeIfAbsent(url, key -> new AtomicInteger()).incrementAndGet();
+            if (!payloads.containsKey(url)) {
+                throw new HttpStatusException("Not found", 404, url);
+            }
+            return fixture(payloads.get(url));
+        });
+    }
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream json = StructuredListingsTest.class.getResourceAsStream("/fixtures/scraper/" + name)) {
+            return new String(json.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Verifies that ShelterLuv pets are read from the shelter's payload by either of their ids,
+     * with ages in weeks, sizes from weight and the cover photo as main image.
+     */
+    @Test
+    void find_ShelterLuvPets_ShouldReadThemFromThePayload() {
+        StructuredListings listings = listings(Map.of(SHELTER_LUV_PAYLOAD, "shelterluv-available-animals.json"));
+
+        ScrapedPetDTO biscuit = listings.find(new PetLink(SHELTER_LUV_LISTING, "https://new.shelterluv.com/embed/animal/HCAR-A-1042"));
+        assertEquals("Biscuit", biscuit.name());
+        assertEquals("Dog", biscuit.type());
+        assertEquals("M", biscuit.gender());
+        assertEquals(130, biscuit.age());
+        assertEquals("Medium", biscuit.size());
+        assertEquals("Main Kennel", biscuit.location());
+        assertEquals("https://www.shelterluv.com/sites/default/files/animal_pics/1042/profile-pictures/biscuit-1.jpg", biscuit.image());
+        assertEquals(List.of("https://www.shelterluv.com/sites/default/files/animal_pics/1042/profile-pictures/biscuit-2.jpg"),
+            biscuit.imageUrls());
+
+        ScrapedPetDTO pepper = listings.find(new PetLink(SHELTER_LUV_LISTING, "https://new.shelterluv.com/embed/animal/118204871"));
+        assertEquals("Pepper", pepper.name());
+        assertEquals(34, pepper.age());
+        assertEquals("Medium", pepper.size());
+        assertEquals("https://www.shelterluv.com/sites/default/files/animal_pics/1077/profile-pictures/pepper-1.jpg", pepper.image());
+        assertEquals(List.of(), pepper.imageUrls());
+
+        assertEquals(1, downloads.get(SHELTER_LUV_PAYLOAD).get());
+    }
+
+    /**
+     * Verifies that Petfinder pets are read from the search payload of the shelter named in their
+     * url, with the same age and location the pet page shows.
+     */
+    @Test
+    void find_PetfinderPets_ShouldReadThemFromThePayload() {
+        StructuredListings listings = listings(Map.of(PETFINDER_PAYLOAD, "petfinder-search.json"));
+
+        ScrapedPetDTO luna = listings.find(new PetLink("https://example.org/adopt", PETFINDER_PAGE.formatted("72001234")));
+        assertEquals("Luna", luna.name());
+        assertEquals("Dog", luna.type());
+        assertEquals("F", luna.gender());
+        assertEquals(52, luna.age());
+        assertEquals("Large", luna.size());
+        assertEquals("Labrador Retriever Mix", luna.breed());
+        assertEquals("Austin, TX", luna.location());
+        assertEquals("https://dbw3zep4prcju.cloudfront.net/animal/luna-1.jpg", luna.image());
+        assertEquals(List.of("https://dbw3zep4prcju.cloudfront.net/animal/luna-2.jpg"), luna.imageUrls());
+
+        ScrapedPetDTO miso = listings.find(new PetLink("https://example.org/adopt", PETFINDER_PAGE.formatted("72005678")));
+        assertEquals(416, miso.age());
+        assertNull(miso.image());
+
+        assertEquals(1, downloads.get(PETFINDER_PAYLOAD).get());
+    }
+
+    /**
+     * Verifies that pets missing from the payload or too incomplete to use, pets of a shelter
+     * whose payload failed, and pages no adapter handles are all left to their pages, and that
+     * a failed payload is not downloaded again.
+     */
+    @Test
+    void find_UnlistedPets_ShouldFallBackToTheirPages() {
+        StructuredListings listings = listings(Map.of(SHELTER_LUV_PAYLOAD, "shelterluv-available-animals.json"));
+
+        assertNull(listings.find(new PetLink(SHELTER_LUV_LISTING, "https://new.shelterluv.com/embed/animal/HCAR-A-9999")));
+        assertNull(listings.find(new PetLink(SHELTER_LUV_LISTING, "https://new.shelterluv.com/embed/animal/HCAR-A-1090")));
+        assertNull(listings.find(new PetLink("https://example.org/adopt", PETFINDER_PAGE.formatted("72001234"))));
+        assertNull(listings.find(new PetLink("https://example.org/adopt", PETFINDER_PAGE.formatted("72005678"))));
+        assertNull(listings.find(new PetLink("https://example.org/adopt", "https://new.shelterluv.com/embed/animal/HCAR-A-1042")));
+        assertNull(listings.find(new PetLink("https://example.org/adopt", "https://example.org/pets/rex")));
+
+        assertEquals(1, downloads.get(SHELTER_LUV_PAYLOAD).get());
+        assertEquals(1, downloads.get(PETFINDER_PAYLOAD).get());
+        StructuredListings.Stats stats = listings.stats();
+        assertEquals(6, stats.lookups());
+        assertEquals(2, stats.fetches());
+        assertEquals(1, stats.failedFetches());
+        assertEquals(0, stats.listed());
+        assertEquals(4, stats.fallbacks());
+    }
+}
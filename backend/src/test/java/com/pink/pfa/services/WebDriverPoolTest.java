@@ -0,0 +1,159 @@
+package com.pink.pfa.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Unit tests for {@link WebDriverPool}.
+ *
+ * <p>Uses mocked {@link RemoteWebDriver} sessions to check reuse, health checks, recycling and
+ * the lease and churn totals.
+ */
+class WebDriverPoolTest {
+
+    private final List<RemoteWebDriver> drivers = new ArrayList<>();
+    private final Supplier<RemoteWebDriver> factory = () -> {
+        RemoteWebDriver driver = mock(RemoteWebDriver.class);
+        synchronized (drivers) {
+            drivers.add(driver);
+        }
+        return driver;
+    };
+
+    /**
+     * Verifies that a returned session is leased again instead of opening a new one, and that
+     * closing a lease twice gives the session back once.
+     */
+    @Test
+    void lease_AfterReturn_ShouldReuseSession() {
+        WebDriverPool pool = new WebDriverPool(factory, 2, 200, Long.MAX_VALUE);
+
+        WebDriverPool.Lease first = pool.lease();
+        WebDriver driver = first.driver();
+        first.close();
+        first.close();
+        try (WebDriverPool.Lease second = pool.lease()) {
+            assertSame(driver, second.driver());
+        }
+
+        assertEquals(1, drivers.size());
+        WebDriverPool.Snapshot snapshot = pool.snapshot();
+        assertEquals(2, snapshot.leases());
+        assertEquals(1, snapshot.created());
+        assertEquals(0, snapshot.inUse());
+        assertEquals(1, snapshot.idle());
+    }
+
+    /**
+     * Verifies that an idle session the container has dropped is quit and replaced when leased.
+     */
+    @Test
+    void lease_WhenIdleSessionIsDead_ShouldReplaceIt() {
+        WebDriverPool pool = new WebDriverPool(factory, 1, 200, Long.MAX_VALUE);
+        try (WebDriverPool.Lease lease = pool.lease()) {
+            lease.driver();
+        }
+        when(drivers.get(0).getWindowHandle()).thenThrow(new NoSuchSessionException("session timed out"));
+
+        try (WebDriverPool.Lease lease = pool.lease()) {
+            lease.driver().get("https://shelter.example.org");
+        }
+
+        assertEquals(2, drivers.size());
+        verify(drivers.get(0)).quit();
+        verify(drivers.get(1)).get("https://shelter.example.org");
+        assertEquals(1, pool.snapshot().discardedUnhealthy());
+    }
+
+    /**
+     * Verifies that a session is quit once it has loaded the maximum number of pages, or grown its
+     * heap past the limit, or been marked broken, and kept otherwise.
+     */
+    @Test
+    void close_ShouldRecycleWornOutSessions() {
+        WebDriverPool pool = new WebDriverPool(factory, 1, 3, 100);
+
+        try (WebDriverPool.Lease lease = pool.lease()) {
+            for (int i = 0; i < 3; i++) {
+                lease.driver().get("https://shelter.example.org/" + i);
+            }
+        }
+        try (WebDriverPool.Lease lease = pool.lease()) {
+            when(drivers.get(1).executeScript(anyString())).thenReturn(101L);
+        }
+        try (WebDriverPool.Lease lease = pool.lease()) {
+            lease.invalidate();
+        }
+        try (WebDriverPool.Lease lease = pool.lease()) {
+            lease.driver().get("https://shelter.example.org");
+        }
+
+        assertEquals(4, drivers.size());
+        for (RemoteWebDriver driver : drivers.subList(0, 3)) {
+            verify(driver, times(1)).quit();
+        }
+        verify(drivers.get(3), never()).quit();
+        WebDriverPool.Snapshot snapshot = pool.snapshot();
+        assertEquals(1, snapshot.recycledForPages());
+        assertEquals(1, snapshot.recycledForMemory());
+        assertEquals(1, snapshot.discardedBroken());
+
+        pool.closeIdle();
+        verify(drivers.get(3)).quit();
+    }
+
+    /**
+     * Verifies that a lease waits while every session is taken, and that the wait is reported.
+     */
+    @Test
+    void lease_WhenPoolIsFull_ShouldWaitForReturn() throws Exception {
+        WebDriverPool pool = new WebDriverPool(factory, 1, 200, Long.MAX_VALUE);
+        WebDriverPool.Lease held = pool.lease();
+
+        CompletableFuture<WebDriver> waiting = CompletableFuture.supplyAsync(() -> {
+            try (WebDriverPool.Lease lease = pool.lease()) {
+                return lease.driver();
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+
+        held.close();
+        assertSame(held.driver(), waiting.get(5, TimeUnit.SECONDS));
+        assertTrue(pool.snapshot().maxWaitMillis() >= 100);
+        assertEquals(1, drivers.size());
+    }
+
+    /**
+     * Verifies that a session that cannot be opened does not use up a slot of the pool.
+     */
+    @Test
+    void lease_WhenSessionCannotOpen_ShouldFreeItsSlot() {
+        WebDriverPool pool = new WebDriverPool(() -> {
+            throw new IllegalStateException("container down");
+        }, 1, 200, Long.MAX_VALUE);
+
+        assertThrows(IllegalStateException.class, pool::lease);
+        assertThrows(IllegalStateException.class, pool::lease);
+        assertEquals(0, pool.snapshot().inUse());
+    }
+}
@@ -1,22 +1,29 @@
 package com.pink.pfa.services;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.openqa.selenium.By;
@@ -24,7 +31,13 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.PetFingerprint;
+import com.pink.pfa.repos.ScrapedPageRepository;
+import com.pink.pfa.repos.ScrapedPageRepository.ScrapedPage;
 import com.pink.pfa.services.WebScraperService.PetInfoBuilder;
+import com.pink.pfa.services.WebScraperService.PetLink;
 
 @ExtendWith(MockitoExtension.class)
 class WebScrapingServiceTest {
@@ -52,6 +65,36 @@ class WebScrapingServiceTest {
 
     private final String EMPTY_HTML = "<html><body></body></html>";
 
+    private final HostLimiter hosts = new HostLimiter(2);
+
+    // A run whose plain downloads all fail, so every page goes to the mocked driver
+    private static PageClassifier offline() {
+        return new PageClassifier(url -> {
+            throw new IOException("offline");
+        });
+    }
+
+    // A run whose plain downloads are served from recorded pages, logged in the order requested
+    private static PageClassifier serving(Map<String, String> fixtures, List<String> downloads) {
+        return new PageClassifier(url -> {
+            downloads.add(url);
+            if (!fixtures.containsKey(url)) {
+                throw new IOException("no fixture for " + url);
+            }
+            return fixture(fixtures.get(url), url);
+        });
+    }
+
+    private static Document fixture(String name, String url) throws IOException {
+        try (InputStream html = WebScrapingServiceTest.class.getResourceAsStream("/fixtures/scraper/" + name)) {
+            return Jsoup.parse(html, "UTF-8", url);
+        }
+    }
+
+    private static String fixtureSource(String name) throws IOException {
+        return fixture(name, "").outerHtml();
+    }
+
     private void setupPetFinderMocks(String html) {
         when(driver.getPageSource()).thenReturn(html);
         lenient().when(driver.findElement(By.cssSelector("div.swiper-slide-active"))).thenReturn(mock(WebElement.class));
@@ -72,12 +115,15 @@ class WebScrapingServiceTest {
                 targetUrl,
                 "test-iframe",
                 "test-anchor",
-                driver
+                driver,
+                offline(),
+                hosts
         );
 
         assertEquals(2, urls.size());
         assertTrue(urls.contains("https://example.com/pet1"), "Should find anchor link via Jsoup");
         assertTrue(urls.contains("https://example.com/embed1"), "Should find iframe link via Selenium");
+        assertEquals(1, hosts.stats().loads(), "The rendered page should hold a host slot");
     }
 
     @Test
@@ -89,7 +135,9 @@ class WebScrapingServiceTest {
                 "https://example.com",
                 "no-match",
                 "no-match",
-                driver
+                driver,
+                offline(),
+                hosts
         );
 
         assertTrue(urls.isEmpty());
@@ -109,41 +157,14 @@ class WebScrapingServiceTest {
                 url,
                 "",
                 "",
-                driver
+                driver,
+                offline(),
+                hosts
         );
 
         assertEquals(2, urls.size());
     }
 
-    @Test
-    void testFindPetDisplayMethod_DetectionByUrl() {
-        // ShelterLuv URL detection
-        assertEquals(WebScraperService.PetDisplayMethod.SHELTER_LUV, 
-            webScraperService.FindPetDisplayMethod("https://new.shelterluv.com/embed/animal/123"));
-
-        // PetFinder URL detection
-        assertEquals(WebScraperService.PetDisplayMethod.PETFINDER, 
-            webScraperService.FindPetDisplayMethod("https://www.petfinder.com/dog/buddy-456"));
-    }
-
-    @Test
-    void testFindPetDisplayMethod_ShouldReturnBasicForUnknownUrl() {
-
-        WebScraperService.PetDisplayMethod method =
-                webScraperService.FindPetDisplayMethod("https://example.com");
-
-        assertEquals(WebScraperService.PetDisplayMethod.UNSUPPORTED, method);
-    }
-
-    @Test
-    void testFindPetDisplayMethod_InvalidUrl_ShouldReturnBasic() {
-
-        WebScraperService.PetDisplayMethod method =
-                webScraperService.FindPetDisplayMethod("invalid-url");
-
-        assertEquals(WebScraperService.PetDisplayMethod.UNSUPPORTED, method);
-    }
-
     @Test
     void testPetInfoBuilderBuild_ShouldClearInternalState() {
 
@@ -210,12 +231,182 @@ class WebScrapingServiceTest {
                 webScraperService.AttemptScrape(
                         "https://example.com",
                         "https://example.com",
-                        driver
+                        driver,
+                        offline(),
+                        hosts
                 );
 
         assertTrue(result.containsKey("empty"));
     }
 
+    @Test
+    void testFindURLS_StaticListing_ShouldReadLinksWithoutBrowser() {
+        String url = "https://hillcountryrescue.example.org/adopt/dogs";
+        List<String> downloads = new ArrayList<>();
+        PageClassifier pages = serving(Map.of(url, "shelter-listing.html"), downloads);
+
+        List<String> urls = webScraperService.FindURLS(url, "", "", driver, pages, hosts);
+
+        assertEquals(7, urls.size());
+        assertTrue(urls.contains("/adopt/cats"));
+        assertTrue(urls.contains("https://www.petfinder.com/dog/luna-72001234/tx/austin/hill-country-animal-rescue-tx123/"));
+        assertEquals(List.of(url), downloads, "The page downloaded to classify it should be reused for its links");
+        verify(driver, never()).get(anyString());
+        assertEquals(1, pages.stats().staticPages());
+    }
+
+    @Test
+    void testFindURLS_StaticPageWithoutLinks_ShouldRenderInBrowser() {
+        String url = "https://hillcountryrescue.example.org/";
+        PageClassifier pages = serving(Map.of(url, "app-shell.html"), new ArrayList<>());
+
+        List<String> urls = webScraperService.FindURLS(url, "", "test-anchor", driver, pages, hosts);
+
+        assertEquals(List.of("https://example.com/pet1"), urls);
+        verify(driver).get(url);
+        assertEquals(1, pages.stats().renderedPages());
+    }
+
+    @Test
+    void testFindURLS_StaticPageWithoutProviderLinks_ShouldRenderInBrowser() {
+        String url = "https://hillcountryrescue.example.org/";
+        List<String> downloads = new ArrayList<>();
+        PageClassifier pages = serving(Map.of(url, "shelter-home.html"), downloads);
+
+        List<String> urls = webScraperService.FindURLS(url, "", "test-anchor", driver, pages, hosts);
+
+        // Its own links may be all there is, but a script could be adding the pets
+        assertEquals(List.of("https://example.com/pet1"), urls);
+        verify(driver).get(url);
+        assertEquals(List.of(url), downloads);
+        assertEquals(1, pages.stats().renderedPages());
+    }
+
+    @Test
+    void testAttemptScrape_PetFinderStaticPage_ShouldScrapeWithoutBrowser() {
+        String url = "https://www.petfinder.com/dog/luna-72001234/tx/austin/hill-country-animal-rescue-tx123/";
+        List<String> downloads = new ArrayList<>();
+        PageClassifier pages = serving(Map.of(url, "petfinder-detail.html"), downloads);
+
+        Map<String, Object> result = webScraperService.AttemptScrape("https://hillcountryrescue.example.org", url, driver, pages, hosts);
+
+        assertEquals("Luna", result.get("Name"));
+        assertEquals("Dog", result.get("Type"));
+        assertEquals("F", result.get("Gender"));
+        assertEquals(52, result.get("Age"));
+        assertEquals("Large", result.get("Size"));
+        assertEquals("Labrador Retriever Mix", result.get("Breed"));
+        assertEquals("Austin, TX", result.get("Location"));
+        assertEquals("https://dbw3zep4prcju.cloudfront.net/animal/luna-1.jpg", result.get("Image"));
+        assertEquals(List.of("https://dbw3zep4prcju.cloudfront.net/animal/luna-2.jpg"), result.get("SecondaryImages"));
+        assertEquals(List.of(url), downloads);
+        verify(driver, never()).get(anyString());
+    }
+
+    @Test
+    void testAttemptScrape_PetFinderChallengePage_ShouldFallBackToBrowser() throws IOException {
+        String url = "https://www.petfinder.com/dog/luna-72001234/tx/austin/hill-country-animal-rescue-tx123/";
+        PageClassifier pages = serving(Map.of(url, "petfinder-challenge.html"), new ArrayList<>());
+        setupPetFinderMocks(fixtureSource("petfinder-detail.html"));
+
+        Map<String, Object> result = webScraperService.AttemptScrape("https://hillcountryrescue.example.org", url, driver, pages, hosts);
+
+        assertEquals("Luna", result.get("Name"));
+        verify(driver).get(url);
+        assertEquals(0, pages.stats().staticPages());
+        assertEquals(1, pages.stats().renderedPages());
+    }
+
+    @Test
+    void testAttemptScrape_ShelterLuvPage_ShouldGoStraightToBrowser() {
+        List<String> downloads = new ArrayList<>();
+        PageClassifier pages = serving(Map.of(), downloads);
+
+        webScraperService.AttemptScrape("https://site.com?animalType=Dog", "https://new.shelterluv.com/embed/animal/123", driver, pages, hosts);
+
+        assertTrue(downloads.isEmpty(), "ShelterLuv pet pages need JavaScript and should not be downloaded");
+        verify(driver).get("https://new.shelterluv.com/embed/animal/123");
+    }
+
+    private static final String LUNA_URL = "https://www.petfinder.com/dog/luna-72001234/tx/austin/hill-country-animal-rescue-tx123/";
+    private static final String LUNA_KEY = "1|luna|labrador retriever mix|dog|f";
+
+    private static AdoptionSite site(int siteId) {
+        AdoptionSite site = new AdoptionSite();
+        site.setSiteId(siteId);
+        site.setUrl("https://hillcountryrescue.example.org");
+        return site;
+    }
+
+    // A page history over a recorded page whose server answers with the given ETag, logging requests
+    private static PageHistory history(ScrapedPageRepository repository, String fixture, String etag,
+        List<String> requests) {
+        return new PageHistory(repository, (url, knownEtag, knownLastModified) -> {
+            requests.add(url + " If-None-Match: " + knownEtag);
+            if (etag.equals(knownEtag)) {
+                return new StaticPageClient.Page(null, etag, null);
+            }
+            return new StaticPageClient.Page(fixture(fixture, url), etag, null);
+        });
+    }
+
+    @Test
+    void testScrapePetPage_NotModifiedPage_ShouldNotDownloadOrExtractIt() {
+        ScrapedPageRepository repository = mock(ScrapedPageRepository.class);
+        when(repository.findBySite(1)).thenReturn(Map.of(LUNA_URL, new ScrapedPage(LUNA_URL, 1, LUNA_KEY, "hash", "\"v1\"", null)));
+        List<String> requests = new ArrayList<>();
+        PageHistory history = history(repository, "petfinder-detail.html", "\"v1\"", requests);
+        List<String> downloads = new ArrayList<>();
+        PageClassifier pages = serving(Map.of(), downloads);
+
+        Pet pet = webScraperService.ScrapePetPage(site(1), new PetLink("https://hillcountryrescue.example.org", LUNA_URL),
+            driver, pages, hosts, history);
+
+        assertTrue(pet.isUnchanged());
+        assertEquals(LUNA_KEY, pet.getNaturalKey());
+        assertEquals(List.of(LUNA_URL + " If-None-Match: \"v1\""), requests);
+        assertTrue(downloads.isEmpty());
+        verify(driver, never()).get(anyString());
+        history.synced(1);
+        verify(repository, never()).save(anyList());
+    }
+
+    @Test
+    void testScrapePetPage_SameContentUnderNewETag_ShouldSkipExtractionAndKeepTheETag() throws IOException {
+        String hash = PageHistory.contentHash(fixture("petfinder-detail.html", LUNA_URL), "section#pet-details-about-section");
+        ScrapedPageRepository repository = mock(ScrapedPageRepository.class);
+        when(repository.findBySite(1)).thenReturn(Map.of(LUNA_URL, new ScrapedPage(LUNA_URL, 1, LUNA_KEY, hash, "\"v1\"", null)));
+        PageHistory history = history(repository, "petfinder-detail.html", "\"v2\"", new ArrayList<>());
+        List<String> downloads = new ArrayList<>();
+        PageClassifier pages = serving(Map.of(), downloads);
+
+        Pet pet = webScraperService.ScrapePetPage(site(1), new PetLink("https://hillcountryrescue.example.org", LUNA_URL),
+            driver, pages, hosts, history);
+
+        assertTrue(pet.isUnchanged());
+        assertTrue(downloads.isEmpty(), "The revalidated page should be read, not downloaded again");
+        assertEquals(1, history.stats().sameContent());
+        history.synced(1);
+        verify(repository).save(List.of(new ScrapedPage(LUNA_URL, 1, LUNA_KEY, hash, "\"v2\"", null)));
+    }
+
+    @Test
+    void testScrapePetPage_NewPage_ShouldExtractItAndRecordItOnceSynced() throws IOException {
+        ScrapedPageRepository repository = mock(ScrapedPageRepository.class);
+        PageHistory history = history(repository, "petfinder-detail.html", "\"v1\"", new ArrayList<>());
+        PageClassifier pages = serving(Map.of(), new ArrayList<>());
+
+        Pet pet = webScraperService.ScrapePetPage(site(1), new PetLink("https://hillcountryrescue.example.org", LUNA_URL),
+            driver, pages, hosts, history);
+
+        assertFalse(pet.isUnchanged());
+        assertEquals("Luna", pet.getName());
+        verify(repository, never()).save(anyList());
+        history.synced(1);
+        String hash = PageHistory.contentHash(fixture("petfinder-detail.html", LUNA_URL), "section#pet-details-about-section");
+        verify(repository).save(List.of(new ScrapedPage(LUNA_URL, 1, PetFingerprint.naturalKey(pet), hash, "\"v1\"", null)));
+    }
+
     @ParameterizedTest
     @CsvSource({
         "'Female', 'F'",
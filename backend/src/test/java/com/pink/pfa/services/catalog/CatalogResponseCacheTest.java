@@ -0,0 +1,107 @@
+package com.pink.pfa.services.catalog;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.pink.pfa.services.catalog.CatalogResponseCache.CachedResponse;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Unit tests for {@link CatalogResponseCache}.
+ *
+ * <p>Uses a mocked {@link PetCatalogService} to control the catalog generation and checks
+ * that bodies are built once per generation, gzipped correctly and matched by ETag.
+ */
+class CatalogResponseCacheTest {
+
+    private final PetCatalogService catalog = mock(PetCatalogService.class);
+    private final CatalogResponseCache cache = new CatalogResponseCache(catalog, JsonMapper.builder().build());
+
+    /**
+     * Verifies that the body is built once per generation and rebuilt after a change.
+     */
+    @Test
+    void get_ShouldBuildOncePerGeneration() {
+        AtomicInteger builds = new AtomicInteger();
+        when(catalog.generation()).thenReturn(1L);
+
+        CachedResponse first = cache.get("pets", () -> List.of("Buddy", builds.incrementAndGet()));
+        CachedResponse second = cache.get("pets", () -> List.of("Buddy", builds.incrementAndGet()));
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertEquals(1, cache.hits());
+
+        when(catalog.generation()).thenReturn(2L);
+        CachedResponse third = cache.get("pets", () -> List.of("Buddy", builds.incrementAndGet()));
+
+        assertEquals(2, builds.get());
+        assertEquals(2, third.generation());
+        assertNotEquals(first.etag(), third.etag());
+    }
+
+    /**
+     * Verifies that a full cache drops stale generations first and otherwise stops caching.
+     */
+    @Test
+    void get_WhenFull_ShouldEvictStaleEntriesBeforeBypassing() {
+        when(catalog.generation()).thenReturn(1L);
+        for (int i = 0; i < CatalogResponseCache.MAX_ENTRIES; i++) {
+            cache.get("facets/" + i, () -> 1);
+        }
+
+        when(catalog.generation()).thenReturn(2L);
+        for (int i = 0; i < CatalogResponseCache.MAX_ENTRIES; i++) {
+            cache.get("facets/new/" + i, () -> 2);
+        }
+        CachedResponse bypassed = cache.get("one-too-many", () -> 3);
+
+        assertNotSame(bypassed, cache.get("one-too-many", () -> 3));
+        assertSame(cache.get("facets/new/0", () -> 4), cache.get("facets/new/0", () -> 5));
+    }
+
+    /**
+     * Verifies that the gzipped bytes decompress to the JSON body.
+     */
+    @Test
+    void get_ShouldPrecompressTheJson() throws IOException {
+        when(catalog.generation()).thenReturn(1L);
+
+        CachedResponse response = cache.get("pets", () -> List.of("Buddy", "Luna"));
+
+        assertEquals("[\"Buddy\",\"Luna\"]", new String(response.json()));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.gzipped()))) {
+            assertArrayEquals(response.json(), gzip.readAllBytes());
+        }
+    }
+
+    /**
+     * Verifies If-None-Match handling: lists, weak prefixes and wildcards match; other tags don't.
+     */
+    @Test
+    void matches_ShouldCompareEntityTags() {
+        when(catalog.generation()).thenReturn(1L);
+        CachedResponse response = cache.get("pets", () -> List.of("Buddy"));
+
+        assertTrue(response.matches(response.etag()));
+        assertTrue(response.matches("\"other\", W/" + response.etag()));
+        assertTrue(response.matches("*"));
+        assertFalse(response.matches("\"other\""));
+        assertFalse(response.matches(null));
+    }
+}
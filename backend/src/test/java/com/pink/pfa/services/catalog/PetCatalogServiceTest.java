@@ -0,0 +1,77 @@
+package com.pink.pfa.services.catalog;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.repos.PetRepository;
+
+/**
+ * Unit tests for {@link PetCatalogService}.
+ *
+ * <p>Holds a rebuild open over a mocked {@link PetRepository} to check what is served while a
+ * newer snapshot is being built.
+ */
+class PetCatalogServiceTest {
+
+    private final PetRepository petRepository = mock(PetRepository.class);
+    private final PetCatalogService catalog = new PetCatalogService(petRepository, mock(PlatformTransactionManager.class));
+
+    @AfterEach
+    void tearDown() {
+        catalog.shutdown();
+    }
+
+    /**
+     * Verifies that a change keeps the previous snapshot served until the new one is swapped in,
+     * and that the generation moves both when the change is made and when the swap happens.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidate_ShouldServePreviousSnapshotUntilRebuilt() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(petRepository.findAll(any(Specification.class)))
+            .thenReturn(List.<Pet>of())
+            .thenAnswer(invocation -> {
+                release.await();
+                return List.<Pet>of();
+            });
+
+        catalog.onApplicationReady();
+        awaitUpToDate();
+        PetCatalogSnapshot first = catalog.current().orElseThrow();
+        long built = catalog.generation();
+
+        catalog.invalidate();
+        long changed = catalog.generation();
+        assertNotEquals(built, changed);
+        assertFalse(catalog.isUpToDate());
+        assertSame(first, catalog.current().orElseThrow());
+
+        release.countDown();
+        awaitUpToDate();
+        assertNotSame(first, catalog.current().orElseThrow());
+        assertNotEquals(changed, catalog.generation());
+    }
+
+    private void awaitUpToDate() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!catalog.isUpToDate() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(catalog.isUpToDate());
+    }
+}
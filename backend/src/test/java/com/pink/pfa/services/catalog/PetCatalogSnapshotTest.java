@@ -0,0 +1,258 @@
+package com.pink.pfa.services.catalog;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.UserPreferences;
+import com.pink.pfa.models.UserPreferences.Preference;
+import com.pink.pfa.models.datatransfer.PetDTO;
+import com.pink.pfa.models.datatransfer.PetFacets;
+import com.pink.pfa.models.datatransfer.PetFacets.FacetCount;
+import com.pink.pfa.models.datatransfer.PetPage;
+import com.pink.pfa.repos.PetCursor;
+import com.pink.pfa.repos.PetSort;
+import com.pink.pfa.services.geo.GeoPoint;
+import com.pink.pfa.services.geo.GeoRadius;
+import com.pink.pfa.services.ranking.CompiledPreferences;
+import com.pink.pfa.services.ranking.RankedPets;
+
+/**
+ * Unit tests for {@link PetCatalogSnapshot}.
+ *
+ * <p>Builds a snapshot from a handful of in-memory pets and checks that bitset filtering,
+ * precomputed sort orders and keyset pagination behave like the database path.
+ */
+class PetCatalogSnapshotTest {
+
+    private static final PetFilterRequest NO_FILTER = new PetFilterRequest(null, null, null, null, null, null);
+
+    private PetCatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        AdoptionSite site = new AdoptionSite("Dallas County", "", "", "https://hsdallascounty.org", 'A', LocalDate.now());
+        site.setSiteId(1);
+
+        List<Pet> pets = new ArrayList<>(List.of(
+            pet(1, "Buddy", "Labrador Retriever", 24, 'M', "Dog", "Medium", 150.0, LocalDate.of(2026, 1, 3)),
+            pet(2, "Rex", "Golden Retriever", 104, 'F', "Dog", "Large", 150.0, LocalDate.of(2026, 1, 1)),
+            pet(3, "Pal", "German Shephard", 50, 'M', "Dog", "Large", null, LocalDate.of(2026, 1, 2)),
+            pet(4, "Luna", "Domestic Shorthair", 12, 'F', "Cat", "Small", 75.0, LocalDate.of(2026, 1, 3)),
+            pet(5, "Sol", "Domestic Shorthair", 36, 'M', "Cat", "Medium", 75.0, LocalDate.of(2026, 1, 4))
+        ));
+        pets.forEach(p -> p.setSite(site));
+        locate(pets.get(0), 30.2672, -97.7431); // Austin
+        locate(pets.get(1), 30.5083, -97.6789); // Round Rock
+        locate(pets.get(2), 32.7767, -96.7970); // Dallas
+        locate(pets.get(4), 29.4241, -98.4936); // San Antonio; Luna has no coordinates
+
+        snapshot = PetCatalogSnapshot.build(pets);
+    }
+
+    private Pet pet(int id, String name, String breed, int age, char gender, String type, String size, Double price, LocalDate createdAt) {
+        Pet pet = new Pet(name, breed, age, gender, type, "Austin, TX", 0.0, size, "available", "Placeholder", createdAt);
+        pet.setPetId(id);
+        pet.setPrice(price);
+        return pet;
+    }
+
+    private void locate(Pet pet, double latitude, double longitude) {
+        pet.setLatitude(latitude);
+        pet.setLongitude(longitude);
+    }
+
+    private List<Integer> ids(List<PetDTO> pets) {
+        return pets.stream().map(PetDTO::id).toList();
+    }
+
+    /**
+     * Verifies that equality filters ignore case and are combined by intersection.
+     */
+    @Test
+    void matching_ShouldIntersectCaseInsensitiveFilters() {
+        PetFilterRequest filter = new PetFilterRequest("dog", "m", null, null, null, null);
+
+        assertEquals(List.of(1, 3), ids(snapshot.matching(filter, PetSort.AGE)));
+    }
+
+    /**
+     * Verifies that age ranges are inclusive and breed matches on a case-insensitive substring.
+     */
+    @Test
+    void matching_ShouldApplyAgeRangeAndBreedSubstring() {
+        PetFilterRequest filter = new PetFilterRequest(null, null, 12, 36, "SHORT", null);
+
+        assertEquals(List.of(4, 5), ids(snapshot.matching(filter, PetSort.AGE)));
+    }
+
+    /**
+     * Verifies that unknown filter values match nothing instead of failing.
+     */
+    @Test
+    void matching_WithUnknownValue_ShouldReturnEmpty() {
+        PetFilterRequest filter = new PetFilterRequest("Ferret", null, null, null, null, null);
+
+        assertTrue(snapshot.matching(filter, PetSort.NEWEST).isEmpty());
+    }
+
+    /**
+     * Verifies the newest order: listing date descending, ties broken by descending ID.
+     */
+    @Test
+    void matching_NewestOrder_ShouldBreakTiesOnIdDescending() {
+        assertEquals(List.of(5, 4, 1, 3, 2), ids(snapshot.matching(NO_FILTER, PetSort.NEWEST)));
+    }
+
+    /**
+     * Verifies that a missing price sorts first ascending and last descending, like MySQL.
+     */
+    @Test
+    void matching_PriceOrders_ShouldPlaceNullPriceLikeMySql() {
+        assertEquals(List.of(3, 4, 5, 1, 2), ids(snapshot.matching(NO_FILTER, PetSort.PRICE)));
+        assertEquals(List.of(2, 1, 5, 4, 3), ids(snapshot.matching(NO_FILTER, PetSort.PRICE_DESC)));
+    }
+
+    /**
+     * Verifies that following keyset cursors visits every match exactly once, for every order.
+     */
+    @Test
+    void page_FollowingCursors_ShouldVisitEveryPetOnce() {
+        for (PetSort sort : PetSort.values()) {
+            List<PetDTO> paged = new ArrayList<>();
+            PetCursor cursor = null;
+            do {
+                PetPage page = snapshot.page(NO_FILTER, sort, cursor, 2);
+                paged.addAll(page.pets());
+                cursor = page.nextCursor() == null ? null : PetCursor.decode(page.nextCursor());
+            } while (cursor != null);
+
+            assertEquals(ids(snapshot.matching(NO_FILTER, sort)), ids(paged), "Paging mismatch for " + sort);
+        }
+    }
+
+    /**
+     * Verifies that the last page has no next cursor.
+     */
+    @Test
+    void page_LastPage_ShouldHaveNoCursor() {
+        PetPage page = snapshot.page(NO_FILTER, PetSort.AGE, null, 5);
+
+        assertEquals(5, page.pets().size());
+        assertNull(page.nextCursor());
+    }
+
+    /**
+     * Verifies that ranking scores through the dictionaries and keeps ties in the requested order.
+     */
+    @Test
+    void rank_ShouldOrderByScoreThenSortOrder() {
+        CompiledPreferences prefs = CompiledPreferences.compile(List.of(
+            new UserPreferences(Preference.SIZE, "large"),
+            new UserPreferences(Preference.BREED, "retriever")
+        ));
+
+        RankedPets ranked = snapshot.rank(NO_FILTER, PetSort.AGE, prefs, 3);
+
+        assertEquals(List.of(2, 1, 3), ids(ranked.top()));
+        assertEquals(5, ranked.total());
+    }
+
+    /**
+     * Verifies that sampling draws distinct pets of the requested type only, and all of them
+     * when fewer exist than requested.
+     */
+    @Test
+    void sample_ShouldDrawDistinctPetsOfType() {
+        List<Integer> dogs = ids(snapshot.sample("DOG", 2, new Random(5)));
+
+        assertEquals(2, dogs.size());
+        assertEquals(2, dogs.stream().distinct().count());
+        assertTrue(List.of(1, 2, 3).containsAll(dogs));
+        assertEquals(Set.of(4, 5), Set.copyOf(ids(snapshot.sample("Cat", 10, new Random(5)))));
+        assertTrue(snapshot.sample("Dragon", 1, new Random(5)).isEmpty());
+    }
+
+    /**
+     * Verifies that a radius filter keeps only geocoded pets inside the circle.
+     */
+    @Test
+    void matching_WithRadius_ShouldKeepPetsInsideCircle() {
+        GeoRadius austin = new GeoRadius(new GeoPoint(30.2672, -97.7431), 25);
+        PetFilterRequest filter = new PetFilterRequest(null, null, null, null, null, null, austin);
+
+        assertEquals(Set.of(1, 2), Set.copyOf(ids(snapshot.matching(filter, PetSort.NEWEST))));
+        assertEquals(Set.of(1, 2, 5), Set.copyOf(ids(snapshot.matching(
+            new PetFilterRequest(null, null, null, null, null, null, new GeoRadius(austin.center(), 100)), PetSort.NEWEST))));
+    }
+
+    /**
+     * Verifies that nearest-first ordering skips pets without coordinates and honors the filters.
+     */
+    @Test
+    void nearest_ShouldOrderByDistance() {
+        GeoPoint origin = new GeoPoint(30.2672, -97.7431);
+
+        RankedPets all = snapshot.nearest(NO_FILTER, origin, 10);
+        assertEquals(List.of(1, 2, 5, 3), ids(all.top()));
+        assertEquals(4, all.total());
+
+        RankedPets dogs = snapshot.nearest(new PetFilterRequest("Dog", null, null, null, null, null), origin, 2);
+        assertEquals(List.of(1, 2), ids(dogs.top()));
+        assertEquals(3, dogs.total());
+    }
+
+    /**
+     * Verifies that the pets left out of distance searches for lack of coordinates are counted
+     * among those matching the other filters, whatever the radius.
+     */
+    @Test
+    void unlocated_ShouldCountMatchingPetsWithoutCoordinates() {
+        GeoRadius austin = new GeoRadius(new GeoPoint(30.2672, -97.7431), 25);
+
+        assertEquals(1, snapshot.unlocated(new PetFilterRequest("Cat", null, null, null, null, null, austin)));
+        assertEquals(0, snapshot.unlocated(new PetFilterRequest("Dog", null, null, null, null, null)));
+    }
+
+    /**
+     * Verifies that facet counts cover only the matching pets and are ordered by count.
+     */
+    @Test
+    void facets_ShouldCountMatchingPetsPerValue() {
+        PetFacets all = snapshot.facets(NO_FILTER);
+        assertEquals(5, all.total());
+        assertEquals(List.of(new FacetCount("Dog", 3), new FacetCount("Cat", 2)), all.petTypes());
+        assertEquals(List.of(new FacetCount("M", 3), new FacetCount("F", 2)), all.genders());
+        assertEquals(new FacetCount("Domestic Shorthair", 2), all.breeds().get(0));
+
+        PetFacets largeDogs = snapshot.facets(new PetFilterRequest("dog", null, null, null, null, "LARGE"));
+        assertEquals(2, largeDogs.total());
+        assertEquals(List.of(new FacetCount("Dog", 2)), largeDogs.petTypes());
+        assertEquals(List.of(new FacetCount("Large", 2)), largeDogs.sizes());
+        assertEquals(List.of(new FacetCount("German Shephard", 1), new FacetCount("Golden Retriever", 1)), largeDogs.breeds());
+
+        assertEquals(0, snapshot.facets(new PetFilterRequest("Dragon", null, null, null, null, null)).total());
+    }
+
+    /**
+     * Verifies that the footprint report accounts for every pet.
+     */
+    @Test
+    void footprint_ShouldReportEveryPet() {
+        PetCatalogSnapshot.Footprint footprint = snapshot.footprint();
+
+        assertEquals(5, footprint.pets());
+        assertTrue(footprint.totalBytes() > 0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.pink.pfa.services.catalog;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PetSearchIndex}.
+ *
+ * <p>Indexes a handful of rows (name, breed, type, location) and checks tokenization, exact,
+ * prefix and typo matching, and field-weighted relevance ranking.
+ */
+class PetSearchIndexTest {
+
+    private final PetSearchIndex index = new PetSearchIndex(List.of(
+        new String[] {"Buddy", "Labrador Retriever", "Dog", "Austin, TX"},
+        new String[] {"Rex", "Golden Retriever", "Dog", "Dallas, TX"},
+        new String[] {"Goldie", "Domestic Shorthair", "Cat", "Austin, TX"},
+        new String[] {"José", "Beagle", "Dog", "San Antonio, TX"}
+    ));
+
+    private int[] rows(String query) {
+        return index.search(query, 10).rows();
+    }
+
+    /**
+     * Verifies that text is lower-cased, stripped of accents and split on punctuation.
+     */
+    @Test
+    void tokenize_ShouldNormalizeAndSplit() {
+        assertEquals(List.of("jose", "san", "antonio", "tx"), PetSearchIndex.tokenize("José — San Antonio, TX"));
+        assertTrue(PetSearchIndex.tokenize("  !! ").isEmpty());
+    }
+
+    /**
+     * Verifies that prefixes match longer terms.
+     */
+    @Test
+    void search_ShouldMatchPrefixes() {
+        assertArrayEquals(new int[] {0}, rows("lab"));
+        assertEquals(2, rows("retr").length);
+    }
+
+    /**
+     * Verifies that a missing, extra, wrong or swapped letter still matches.
+     */
+    @Test
+    void search_ShouldTolerateSingleTypos() {
+        assertArrayEquals(new int[] {0}, rows("labrdor"));
+        assertArrayEquals(new int[] {0}, rows("labradorr"));
+        assertArrayEquals(new int[] {3}, rows("beagel"));
+        assertArrayEquals(new int[] {3}, rows("bwagle"));
+    }
+
+    /**
+     * Verifies that a name hit outranks a breed hit and that matching every query term
+     * outranks matching only some.
+     */
+    @Test
+    void search_ShouldRankByFieldWeightAndCoverage() {
+        assertArrayEquals(new int[] {2, 1}, rows("gold"));
+        assertEquals(1, rows("golden dallas")[0]);
+        assertEquals(0, rows("austin dog")[0]);
+    }
+
+    /**
+     * Verifies that unknown terms match nothing and that k limits the rows but not the total.
+     */
+    @Test
+    void search_ShouldReportTotalBeyondK() {
+        assertEquals(0, index.search("ferret", 10).total());
+
+        PetSearchIndex.Hits hits = index.search("tx", 2);
+        assertEquals(2, hits.rows().length);
+        assertEquals(4, hits.total());
+        assertFalse(Arrays.stream(hits.rows()).anyMatch(row -> row < 0));
+    }
+
+    /**
+     * Verifies the edit-distance check used to confirm typo candidates.
+     */
+    @Test
+    void withinOneEdit_ShouldAcceptOnlySingleEdits() {
+        assertTrue(PetSearchIndex.withinOneEdit("beagle", "beagel"));
+        assertTrue(PetSearchIndex.withinOneEdit("beagle", "beale"));
+        assertTrue(PetSearchIndex.withinOneEdit("beagle", "bweagle"));
+        assertFalse(PetSearchIndex.withinOneEdit("beagle", "bagel"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.pink.pfa.services.catalog;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RandomSample}.
+ *
+ * <p>Samples must be distinct, in range, capped at the population size and roughly uniform.
+ */
+class RandomSampleTest {
+
+    /**
+     * Verifies that every sample holds distinct positions within the population.
+     */
+    @Test
+    void distinct_ShouldReturnDistinctPositionsInRange() {
+        Random random = new Random(3);
+        for (int round = 0; round < 1_000; round++) {
+            int[] sample = RandomSample.distinct(50, 10, random);
+
+            assertEquals(10, sample.length);
+            assertEquals(10, Arrays.stream(sample).distinct().count());
+            assertTrue(Arrays.stream(sample).allMatch(i -> i >= 0 && i < 50));
+        }
+    }
+
+    /**
+     * Verifies that asking for more than the population returns all of it, and nothing from nothing.
+     */
+    @Test
+    void distinct_WithSmallPopulation_ShouldReturnEveryPosition() {
+        int[] sample = RandomSample.distinct(4, 10, new Random(1));
+
+        assertEquals(4, sample.length);
+        assertEquals(4, Arrays.stream(sample).distinct().count());
+        assertEquals(0, RandomSample.distinct(0, 3, new Random(1)).length);
+        assertThrows(IllegalArgumentException.class, () -> RandomSample.distinct(-1, 1, new Random(1)));
+    }
+
+    /**
+     * Verifies that each position is picked about equally often.
+     */
+    @Test
+    void distinct_ShouldBeRoughlyUniform() {
+        int n = 20;
+        int k = 5;
+        int rounds = 40_000;
+        int[] hits = new int[n];
+        Random random = new Random(11);
+        for (int round = 0; round < rounds; round++) {
+            for (int i : RandomSample.distinct(n, k, random)) {
+                hits[i]++;
+            }
+        }
+
+        double expected = (double) rounds * k / n;
+        for (int count : hits) {
+            assertEquals(expected, count, expected * 0.05);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.pink.pfa.services.geo;
+
+import java.io.StringReader;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Gazetteer}.
+ *
+ * <p>Checks the location shapes found in scraped listings against a small in-memory gazetteer,
+ * and that the bundled one loads.
+ */
+class GazetteerTest {
+
+    private static final GeoPoint AUSTIN = new GeoPoint(30.2672, -97.7431);
+    private static final GeoPoint ST_LOUIS = new GeoPoint(38.6270, -90.1994);
+
+    private Gazetteer gazetteer;
+
+    @BeforeEach
+    void setUp() {
+        gazetteer = new Gazetteer(new StringReader("""
+            # test places
+            city,state,latitude,longitude
+            Austin,TX,30.2672,-97.7431
+            Springfield,IL,39.7817,-89.6501
+            Springfield,MO,37.2090,-93.2923
+            St. Louis,MO,38.6270,-90.1994
+            """));
+    }
+
+    /**
+     * Verifies the city-and-state spellings, including a leading venue and a ZIP code.
+     */
+    @Test
+    void locate_ShouldAcceptCommonShapes() {
+        assertEquals(Optional.of(AUSTIN), gazetteer.locate("Austin, TX"));
+        assertEquals(Optional.of(AUSTIN), gazetteer.locate("austin, texas"));
+        assertEquals(Optional.of(AUSTIN), gazetteer.locate("Austin TX 78701"));
+        assertEquals(Optional.of(AUSTIN), gazetteer.locate("Austin Animal Center, Austin, TX 78702"));
+        assertEquals(Optional.of(ST_LOUIS), gazetteer.locate("Saint Louis, Missouri"));
+    }
+
+    /**
+     * Verifies that a bare city resolves only when a single state has a place of that name.
+     */
+    @Test
+    void locate_BareCity_ShouldRequireUniqueName() {
+        assertEquals(Optional.of(AUSTIN), gazetteer.locate("Austin"));
+        assertTrue(gazetteer.locate("Springfield").isEmpty());
+        assertTrue(gazetteer.locate("Springfield, MO").isPresent());
+    }
+
+    /**
+     * Verifies that unknown, blank and missing locations resolve to nothing.
+     */
+    @Test
+    void locate_Unknown_ShouldReturnEmpty() {
+        assertTrue(gazetteer.locate("Atlantis, TX").isEmpty());
+        assertTrue(gazetteer.locate("  ").isEmpty());
+        assertTrue(gazetteer.locate(null).isEmpty());
+    }
+
+    /**
+     * Verifies that Census place names are read without their legal description, that the
+     * curated places win over them, and that a name found in two states is no unique city.
+     */
+    @Test
+    void census_ShouldAddPlacesTheCuratedFileLacks() {
+        Gazetteer both = new Gazetteer(new StringReader("""
+            city,state,latitude,longitude
+            Austin,TX,30.2672,-97.7431
+            """), new StringReader("""
+            USPS\tGEOID\tANSICODE\tNAME\tLSAD\tFUNCSTAT\tALAND\tAWATER\tALAND_SQMI\tAWATER_SQMI\tINTPTLAT\tINTPTLONG
+            TX\t4805000\t02409761\tAustin city\t25\tA\t827373000\t21797000\t319.450\t8.416\t30.3005\t-97.7522
+            TX\t4863500\t02411630\tRound Rock city\t25\tA\t95863000\t403000\t37.013\t0.156\t30.5252\t-97.6660
+            TX\t4810780\t02409948\tBrushy Creek CDP\t57\tS\t24410000\t135000\t9.425\t0.052\t30.5128\t-97.7386
+            MN\t2702908\t02394001\tAustin city\t25\tA\t33760000\t313000\t13.035\t0.121\t43.6666\t-92.9746
+            TN\t4752006\t02405092\tNashville-Davidson metropolitan government (balance)\t00\tF\t1230000000\t56000000\t475.0\t21.6\t36.1716\t-86.7850
+            PR\t7276770\t02414974\tSan Juan zona urbana\t62\tS\t0\t0\t0\t0\t18.4060\t-66.0640
+            """));
+
+        assertEquals(Optional.of(AUSTIN), both.locate("Austin, TX"));
+        assertEquals(Optional.of(new GeoPoint(30.5252, -97.6660)), both.locate("Round Rock, TX"));
+        assertTrue(both.locate("Brushy Creek, Texas").isPresent());
+        assertTrue(both.locate("Nashville-Davidson, TN").isPresent());
+        assertTrue(both.locate("Austin").isEmpty());
+        assertTrue(both.locate("San Juan zona urbana, PR").isEmpty());
+        assertEquals(5, both.size());
+    }
+
+    /**
+     * Verifies that the bundled gazetteer loads and knows the seed data's location.
+     */
+    @Test
+    void bundled_ShouldLoad() {
+        Gazetteer bundled = new Gazetteer();
+
+        assertTrue(bundled.size() > 300);
+        assertTrue(bundled.locate("Austin, TX").isPresent());
+    }
+}
@@ -0,0 +1,75 @@
+package com.pink.pfa.services.geo;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link GeoGrid} and {@link GeoRadius}.
+ *
+ * <p>The grid must find exactly the rows a brute-force distance check finds.
+ */
+class GeoGridTest {
+
+    private static final GeoPoint AUSTIN = new GeoPoint(30.2672, -97.7431);
+
+    /**
+     * Verifies that grid lookups agree with checking every row, for several radii.
+     */
+    @Test
+    void within_ShouldMatchBruteForce() {
+        Random random = new Random(11);
+        int n = 5_000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int row = 0; row < n; row++) {
+            boolean unknown = row % 50 == 0;
+            lats[row] = unknown ? Double.NaN : 26 + random.nextDouble() * 10;
+            lons[row] = unknown ? Double.NaN : -106 + random.nextDouble() * 12;
+        }
+        GeoGrid grid = new GeoGrid(lats, lons);
+        assertEquals(n - n / 50, grid.located());
+
+        for (double miles : new double[] {1, 10, 50, 250}) {
+            GeoRadius radius = new GeoRadius(AUSTIN, miles);
+            BitSet expected = new BitSet(n);
+            for (int row = 0; row < n; row++) {
+                if (!Double.isNaN(lats[row]) && AUSTIN.distanceMiles(new GeoPoint(lats[row], lons[row])) <= miles) {
+                    expected.set(row);
+                }
+            }
+            assertEquals(expected, grid.within(radius), miles + " miles");
+        }
+    }
+
+    /**
+     * Verifies the distance, containment and bounding box of a radius.
+     */
+    @Test
+    void radius_ShouldContainPointsWithinDistance() {
+        GeoPoint dallas = new GeoPoint(32.7767, -96.7970);
+        double miles = AUSTIN.distanceMiles(dallas);
+        assertTrue(miles > 180 && miles < 185);
+
+        GeoRadius radius = new GeoRadius(AUSTIN, 190);
+        assertTrue(radius.contains(dallas.latitude(), dallas.longitude()));
+        assertTrue(!new GeoRadius(AUSTIN, 170).contains(dallas.latitude(), dallas.longitude()));
+        assertTrue(radius.minLatitude() < AUSTIN.latitude() && radius.maxLatitude() > dallas.latitude());
+        assertTrue(radius.minLongitude() < AUSTIN.longitude() && radius.maxLongitude() > dallas.longitude());
+    }
+
+    /**
+     * Verifies that invalid coordinates and radii are rejected.
+     */
+    @Test
+    void invalidValues_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new GeoPoint(91, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GeoPoint(0, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new GeoRadius(AUSTIN, 0));
+        assertThrows(IllegalArgumentException.class, () -> new GeoRadius(null, 5));
+    }
+}
@@ -0,0 +1,66 @@
+package com.pink.pfa.services.ranking;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.pink.pfa.models.UserPreferences;
+import com.pink.pfa.models.UserPreferences.Preference;
+
+/**
+ * Unit tests for {@link CompiledPreferences}.
+ *
+ * <p>Checks that stored string preferences are parsed once into typed predicates and score
+ * pets the same way the original per-pet scoring did.
+ */
+class CompiledPreferencesTest {
+
+    /**
+     * Verifies that stored age preferences are converted into weeks, the unit of {@code Pet.age}.
+     */
+    @Test
+    void parseAgeInWeeks_ShouldConvertUnits() {
+        assertEquals(3, UserPreferences.parseAgeInWeeks("3 Weeks"));
+        assertEquals(12, UserPreferences.parseAgeInWeeks("3 Months"));
+        assertEquals(104, UserPreferences.parseAgeInWeeks("2 Years"));
+        assertEquals(7, UserPreferences.parseAgeInWeeks("7"));
+        assertNull(UserPreferences.parseAgeInWeeks("young"));
+    }
+
+    /**
+     * Verifies that each satisfied preference adds one point, ignoring case.
+     */
+    @Test
+    void score_ShouldCountSatisfiedPreferences() {
+        CompiledPreferences prefs = CompiledPreferences.compile(List.of(
+            new UserPreferences(Preference.PET_TYPE, "dog"),
+            new UserPreferences(Preference.GENDER, "f"),
+            new UserPreferences(Preference.SIZE, "SMALL"),
+            new UserPreferences(Preference.BREED, "Retriever"),
+            new UserPreferences(Preference.AGE_MIN, "3 Months"),
+            new UserPreferences(Preference.AGE_MAX, "1 Years")
+        ));
+
+        assertEquals(6, prefs.score("Dog", "F", "Small", "Golden RETRIEVER", 20));
+        assertEquals(4, prefs.score("Dog", "M", "Large", "Labrador Retriever", 52));
+        assertEquals(1, prefs.score("Cat", "M", "Large", "Domestic Shorthair", 60));
+        assertEquals(6, prefs.count());
+    }
+
+    /**
+     * Verifies that unparseable ages never match and that no preferences means no points.
+     */
+    @Test
+    void compile_WithUnparseableOrNoPreferences_ShouldScoreZero() {
+        CompiledPreferences prefs = CompiledPreferences.compile(List.of(
+            new UserPreferences(Preference.AGE_MIN, "puppy")
+        ));
+
+        assertEquals(0, prefs.score("Dog", "M", "Small", "Beagle", 10));
+        assertTrue(prefs.isEmpty());
+        assertEquals(0, CompiledPreferences.NONE.score("Dog", "M", "Small", "Beagle", 10));
+    }
+}
@@ -0,0 +1,156 @@
+package com.pink.pfa.services.ranking;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.pink.pfa.controllers.requests.PetFilterRequest;
+import com.pink.pfa.models.AdoptionSite;
+import com.pink.pfa.models.Pet;
+import com.pink.pfa.models.UserPreferences;
+import com.pink.pfa.models.UserPreferences.Preference;
+import com.pink.pfa.models.datatransfer.PetDTO;
+import com.pink.pfa.repos.PetSort;
+import com.pink.pfa.services.catalog.PetCatalogSnapshot;
+
+/**
+ * Benchmark for preference ranking on a 100k-pet catalog.
+ *
+ * <p>Compares the original approach (re-parsing every preference for every pet, boxing each pet
+ * into a {@code Map.entry} and fully sorting) against {@link CompiledPreferences} with
+ * {@link TopK} selection, both over a candidate list and through {@link PetCatalogSnapshot#rank}.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class PreferenceRankingBenchmarkTest {
+
+    private static final int PETS = 100_000;
+    private static final int PAGE = 50;
+    private static final int ROUNDS = 15;
+    private static final PetFilterRequest NO_FILTER = new PetFilterRequest(null, null, null, null, null, null);
+
+    private static final String[] TYPES = {"Dog", "Cat", "Rabbit"};
+    private static final String[] SIZES = {"Small", "Medium", "Large"};
+    private static final String[] BREEDS = {
+        "Labrador Retriever", "Golden Retriever", "German Shephard", "Beagle", "Pit Bull Terrier",
+        "Domestic Shorthair", "Domestic Longhair", "Siamese", "Lionhead", "Mixed Breed"
+    };
+
+    private static final List<UserPreferences> PREFS = List.of(
+        new UserPreferences(Preference.PET_TYPE, "Dog"),
+        new UserPreferences(Preference.GENDER, "F"),
+        new UserPreferences(Preference.SIZE, "Small"),
+        new UserPreferences(Preference.BREED, "Retriever"),
+        new UserPreferences(Preference.AGE_MIN, "3 Months"),
+        new UserPreferences(Preference.AGE_MAX, "2 Years")
+    );
+
+    /**
+     * Runs each approach for several rounds and prints the median time per ranking request.
+     */
+    @Test
+    void rankTopPage_On100kPets() {
+        PetCatalogSnapshot snapshot = PetCatalogSnapshot.build(catalog());
+        List<PetDTO> candidates = snapshot.matching(NO_FILTER, PetSort.NEWEST);
+
+        List<Integer> legacy = ids(legacyRank(candidates).subList(0, PAGE));
+        assertEquals(legacy, ids(compiledRank(candidates)));
+        assertEquals(legacy, ids(snapshot.rank(NO_FILTER, PetSort.NEWEST, CompiledPreferences.compile(PREFS), PAGE).top()));
+
+        double legacyMs = medianMillis(() -> legacyRank(candidates));
+        double compiledMs = medianMillis(() -> compiledRank(candidates));
+        double snapshotMs = medianMillis(() -> snapshot.rank(NO_FILTER, PetSort.NEWEST, CompiledPreferences.compile(PREFS), PAGE));
+
+        System.out.printf("Ranking %d pets, top %d:%n", PETS, PAGE);
+        System.out.printf("  legacy scorePet + full sort : %8.2f ms%n", legacyMs);
+        System.out.printf("  compiled + top-K            : %8.2f ms (%.1fx)%n", compiledMs, legacyMs / compiledMs);
+        System.out.printf("  compiled + top-K, snapshot  : %8.2f ms (%.1fx)%n", snapshotMs, legacyMs / snapshotMs);
+    }
+
+    private static List<Pet> catalog() {
+        AdoptionSite site = new AdoptionSite("Dallas County", "", "", "https://hsdallascounty.org", 'A', LocalDate.now());
+        site.setSiteId(1);
+        Random random = new Random(7);
+
+        List<Pet> pets = new ArrayList<>(PETS);
+        for (int id = 1; id <= PETS; id++) {
+            Pet pet = new Pet("Pet " + id, BREEDS[random.nextInt(BREEDS.length)], random.nextInt(780),
+                random.nextBoolean() ? 'M' : 'F', TYPES[random.nextInt(TYPES.length)], "Austin, TX",
+                random.nextInt(400), SIZES[random.nextInt(SIZES.length)], "available", "Placeholder",
+                LocalDate.of(2025, 1, 1).plusDays(random.nextInt(400)));
+            pet.setPetId(id);
+            pet.setSite(site);
+            pets.add(pet);
+        }
+        return pets;
+    }
+
+    private static List<PetDTO> legacyRank(List<PetDTO> candidates) {
+        return candidates.stream()
+            .map(pet -> Map.entry(pet, legacyScore(pet, PREFS)))
+            .sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    // The scoring PetService used before preferences were compiled
+    private static int legacyScore(PetDTO pet, List<UserPreferences> prefs) {
+        int score = 0;
+        for (var pref : prefs) {
+            String val = pref.getPrefValue();
+            boolean matches = switch (pref.getPrefTrait()) {
+                case BREED   -> pet.breed().toLowerCase().contains(val.toLowerCase());
+                case GENDER  -> String.valueOf(pet.gender()).equalsIgnoreCase(val);
+                case SIZE    -> pet.size().equalsIgnoreCase(val);
+                case PET_TYPE-> pet.pet_type().equalsIgnoreCase(val);
+                default -> false;
+            };
+            if (pref.getPrefTrait() == Preference.AGE_MIN || pref.getPrefTrait() == Preference.AGE_MAX) {
+                String[] ageComponents = val.split(" ");
+                int actualAge = switch (ageComponents[1]) {
+                    case "Months" -> Integer.parseInt(ageComponents[0]) * 4;
+                    case "Years" -> Integer.parseInt(ageComponents[0]) * 52;
+                    default -> Integer.parseInt(ageComponents[0]);
+                };
+                matches = (pref.getPrefTrait() == Preference.AGE_MAX && pet.age() <= actualAge) ||
+                          (pref.getPrefTrait() == Preference.AGE_MIN && pet.age() >= actualAge);
+            }
+            if (matches) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    private static List<PetDTO> compiledRank(List<PetDTO> candidates) {
+        CompiledPreferences prefs = CompiledPreferences.compile(PREFS);
+        int[] top = TopK.select(candidates.size(), i -> prefs.score(candidates.get(i)), PAGE);
+        return Arrays.stream(top).mapToObj(candidates::get).toList();
+    }
+
+    private static double medianMillis(Supplier<?> run) {
+        for (int i = 0; i < 5; i++) {
+            run.get(); // warm up
+        }
+        double[] millis = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            run.get();
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[ROUNDS / 2];
+    }
+
+    private static List<Integer> ids(List<PetDTO> pets) {
+        return pets.stream().map(PetDTO::id).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.pink.pfa.services.ranking;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TopK}.
+ *
+ * <p>Every selection strategy (heap, parallel chunks, counting sort) must return exactly what a
+ * stable descending sort followed by a limit would.
+ */
+class TopKTest {
+
+    private static int[] expected(int[] scores, int k) {
+        return IntStream.range(0, scores.length)
+            .boxed()
+            .sorted(Comparator.comparingInt((Integer i) -> scores[i]).reversed())
+            .limit(k)
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    /**
+     * Verifies that equal scores keep their candidate order.
+     */
+    @Test
+    void select_ShouldKeepTiesInCandidateOrder() {
+        int[] scores = {1, 3, 1, 3, 0, 2};
+
+        assertArrayEquals(new int[] {1, 3, 5}, TopK.select(scores.length, i -> scores[i], 3));
+        assertArrayEquals(new int[] {1, 3, 5, 0, 2, 4}, TopK.select(scores.length, i -> scores[i], 10));
+    }
+
+    /**
+     * Verifies every strategy against a stable sort, on small and parallel-sized inputs.
+     */
+    @Test
+    void select_ShouldMatchStableSortForEveryStrategy() {
+        Random random = new Random(42);
+        for (int n : new int[] {10, 1_000, TopK.PARALLEL_THRESHOLD * 3}) {
+            int[] scores = random.ints(n, 0, 7).toArray();
+            for (int k : new int[] {1, 5, n / 10, n / 2, n}) {
+                assertArrayEquals(expected(scores, k), TopK.select(n, i -> scores[i], k), "n=" + n + ", k=" + k);
+            }
+        }
+    }
+
+    /**
+     * Verifies that an empty input or a zero k selects nothing.
+     */
+    @Test
+    void select_WithNothingToSelect_ShouldReturnEmpty() {
+        assertEquals(0, TopK.select(0, i -> 0, 5).length);
+        assertEquals(0, TopK.select(5, i -> 1, 0).length);
+    }
+}
@@ -0,0 +1,37 @@
+#!/bin/bash
+# ============================================================
+# PFA Places Fetch Script
+# Place in: <repo>/scripts/fetch_places.sh
+# Usage:    ./scripts/fetch_places.sh
+#
+# Downloads the U.S. Census Bureau Gazetteer places file into the
+# backend's resources, so a local build geocodes every US town as
+# the Docker image does. The file is not committed.
+# ============================================================
+
+set -euo pipefail
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+REPO_ROOT="$(cd "$SCRIPT_DIR/.." && pwd)"
+
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+CYAN='\033[0;36m'
+NC='\033[0m'
+
+PLACES_URL="${PLACES_URL:-https://www2.census.gov/geo/docs/maps-data/data/gazetteer/2024_Gazetteer/2024_Gaz_place_national.zip}"
+TARGET="${REPO_ROOT}/backend/src/main/resources/geo/census-places.txt"
+
+TMP_DIR="$(mktemp -d)"
+trap 'rm -rf "$TMP_DIR"' EXIT
+
+echo -e "Downloading ${CYAN}${PLACES_URL}${NC}..."
+curl -fsSL "$PLACES_URL" -o "${TMP_DIR}/places.zip" || {
+  echo -e "${RED}Download failed.${NC}"
+  exit 1
+}
+
+unzip -q "${TMP_DIR}/places.zip" -d "$TMP_DIR"
+mv "$TMP_DIR"/*_Gaz_place_national.txt "$TARGET"
+
+echo -e "${GREEN}✔ $(($(wc -l < "$TARGET") - 1)) places written to ${TARGET}${NC}"